@@ -807,6 +807,11 @@ public class AndroidGL20 extends GL20 {
     throw new RuntimeException("glProgramBinary() not supported.");
   }
 
+  @Override
+  public void glProgramParameteri(int program, int pname, int value) throws RuntimeException {
+    throw new RuntimeException("glProgramParameteri() not supported.");
+  }
+
   @Override
   public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
     GLES20.glReadPixels(x, y, width, height, format, type, pixels);
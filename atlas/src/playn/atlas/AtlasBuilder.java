@@ -0,0 +1,273 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.atlas;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import playn.core.AtlasIndex;
+import playn.core.TextureAtlas;
+
+/**
+ * Packs the images in a directory into a small number of atlas pages, and writes those pages
+ * along with an {@link AtlasIndex} which describes where each image can be found. Scale variants
+ * of images ({@code foo@2x.png} and so forth) are recognized, and each page is written at every
+ * scale for which variants exist, so that the runtime can choose the page which matches its
+ * display scale just as it would for a normal image.
+ *
+ * <p>Image paths in the index are relative to the source directory and page paths are relative to
+ * the output directory, so the output directory should correspond (at runtime) to the source
+ * directory. Images which are too large to fit in a page are left out of the atlas, and are loaded
+ * normally at runtime.</p>
+ */
+public class AtlasBuilder {
+
+  /** The directory from which images are read. */
+  public final File source;
+
+  /** The base name of the generated pages and index. Page {@code n} is named {@code name + n +
+    * ".png"} and the index is named {@code name + ".atlas"}. */
+  public String name = "atlas";
+
+  /** The width and height of each page, in display units. */
+  public int pageSize = 1024;
+
+  /** The number of display units left empty around each image. */
+  public int padding = 2;
+
+  /** Whether the edge pixels of each image are extended into its padding. */
+  public boolean bleed = true;
+
+  public AtlasBuilder (File source) {
+    this.source = source;
+  }
+
+  /** Returns the paths of the images which could not be packed by the last call to {@link
+    * #build}, because they did not fit in a page. */
+  public List<String> skipped () {
+    return skipped;
+  }
+
+  /**
+   * Packs the images in the source directory, writes the resulting pages and index into
+   * {@code output} and returns the index.
+   */
+  public AtlasIndex build (File output) throws IOException {
+    if (!source.isDirectory()) throw new IOException("Not a directory: " + source);
+    if (pageSize <= 2*padding) throw new IllegalArgumentException(
+      "Page size must exceed twice the padding: " + pageSize + " vs " + padding);
+
+    Map<String,Source> sources = new LinkedHashMap<>();
+    Pattern pagePat = Pattern.compile(Pattern.quote(name) + "\\d+(@\\d+x)?\\.png");
+    scan(source, "", pagePat, sources);
+    for (Source src : sources.values()) src.computeSize();
+
+    List<Source> sorted = new ArrayList<>(sources.values());
+    // packing tall images first yields a tighter skyline
+    Collections.sort(sorted, new Comparator<Source>() {
+      public int compare (Source a, Source b) {
+        return (a.height == b.height) ? (b.width - a.width) : (b.height - a.height);
+      }
+    });
+
+    List<TextureAtlas.Skyline> skylines = new ArrayList<>();
+    skipped.clear();
+    TreeSet<Float> scales = new TreeSet<>();
+    scales.add(1f);
+    for (Iterator<Source> iter = sorted.iterator(); iter.hasNext(); ) {
+      Source src = iter.next();
+      int pw = src.width + 2*padding, ph = src.height + 2*padding;
+      if (pw > pageSize || ph > pageSize) {
+        skipped.add(src.path);
+        iter.remove();
+        continue;
+      }
+      int pos = -1;
+      for (src.page = 0; src.page < skylines.size(); src.page++) {
+        if ((pos = skylines.get(src.page).pack(pw, ph)) >= 0) break;
+      }
+      if (pos < 0) {
+        TextureAtlas.Skyline sky = new TextureAtlas.Skyline(pageSize, pageSize);
+        skylines.add(sky);
+        pos = sky.pack(pw, ph);
+      }
+      src.x = (pos >> 16) + padding;
+      src.y = (pos & 0xFFFF) + padding;
+      scales.addAll(src.variants.keySet());
+    }
+
+    output.mkdirs();
+    AtlasIndex index = new AtlasIndex();
+    for (int pp = 0; pp < skylines.size(); pp++) {
+      String page = name + pp + ".png";
+      index.addPage(page);
+      for (float scale : scales) {
+        writePage(pp, sorted, scale, new File(output, scaledPath(page, scale)));
+      }
+    }
+    for (Source src : sorted) index.add(src.path, src.page, src.x, src.y, src.width, src.height);
+
+    File indexFile = new File(output, name + ".atlas");
+    Writer out = new OutputStreamWriter(new FileOutputStream(indexFile), "UTF-8");
+    try {
+      out.write(index.write());
+    } finally {
+      out.close();
+    }
+    return index;
+  }
+
+  /** Returns the path of the variant of {@code path} for {@code scale}, per the naming
+    * convention used by {@link playn.core.Scale#getScaledResources}. */
+  protected static String scaledPath (String path, float scale) {
+    if (scale <= 1) return path;
+    int factor = (int)(scale * 10);
+    if (factor % 10 == 0) factor /= 10;
+    int didx = path.lastIndexOf('.');
+    return path.substring(0, didx) + "@" + factor + "x" + path.substring(didx);
+  }
+
+  protected void scan (File dir, String prefix, Pattern pagePat, Map<String,Source> sources)
+      throws IOException {
+    File[] files = dir.listFiles();
+    if (files == null) return;
+    for (File file : files) {
+      String fname = file.getName();
+      if (file.isDirectory()) {
+        scan(file, prefix + fname + "/", pagePat, sources);
+        continue;
+      }
+      // skip non-images and the pages of any previous atlas
+      if (!IMAGE.matcher(fname).matches() || pagePat.matcher(fname).matches()) continue;
+
+      String path = prefix + fname;
+      float scale = 1;
+      Matcher m = SCALED.matcher(path);
+      if (m.matches()) {
+        int factor = Integer.parseInt(m.group(2));
+        scale = (factor < 10) ? factor : factor / 10f;
+        path = m.group(1) + m.group(3);
+      }
+      Source src = sources.get(path);
+      if (src == null) sources.put(path, src = new Source(path));
+      src.variants.put(scale, file);
+    }
+  }
+
+  protected void writePage (int page, List<Source> sources, float scale, File file)
+      throws IOException {
+    int size = (int)Math.ceil(pageSize*scale);
+    BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D gfx = image.createGraphics();
+    gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                         RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    try {
+      for (Source src : sources) {
+        if (src.page != page) continue;
+        BufferedImage simg = ImageIO.read(src.variantFor(scale));
+        if (simg == null) throw new IOException("Unable to read " + src.variantFor(scale));
+        int iw = simg.getWidth(), ih = simg.getHeight();
+        int x1 = Math.round(src.x*scale), y1 = Math.round(src.y*scale);
+        int x2 = Math.round((src.x+src.width)*scale), y2 = Math.round((src.y+src.height)*scale);
+        gfx.drawImage(simg, x1, y1, x2, y2, 0, 0, iw, ih, null);
+        if (!bleed || padding == 0) continue;
+
+        int px1 = Math.round((src.x-padding)*scale), py1 = Math.round((src.y-padding)*scale);
+        int px2 = Math.round((src.x+src.width+padding)*scale);
+        int py2 = Math.round((src.y+src.height+padding)*scale);
+        // edges: left, right, top, bottom
+        gfx.drawImage(simg, px1, y1, x1, y2, 0, 0, 1, ih, null);
+        gfx.drawImage(simg, x2, y1, px2, y2, iw-1, 0, iw, ih, null);
+        gfx.drawImage(simg, x1, py1, x2, y1, 0, 0, iw, 1, null);
+        gfx.drawImage(simg, x1, y2, x2, py2, 0, ih-1, iw, ih, null);
+        // corners: upper left, upper right, lower left, lower right
+        gfx.drawImage(simg, px1, py1, x1, y1, 0, 0, 1, 1, null);
+        gfx.drawImage(simg, x2, py1, px2, y1, iw-1, 0, iw, 1, null);
+        gfx.drawImage(simg, px1, y2, x1, py2, 0, ih-1, 1, ih, null);
+        gfx.drawImage(simg, x2, y2, px2, py2, iw-1, ih-1, iw, ih, null);
+      }
+    } finally {
+      gfx.dispose();
+    }
+    if (!ImageIO.write(image, "png", file)) throw new IOException("Unable to write " + file);
+  }
+
+  protected static class Source {
+    public final String path;
+    public final SortedMap<Float,File> variants = new TreeMap<>();
+    public int width, height; // in display units
+    public int page, x, y;
+
+    public Source (String path) {
+      this.path = path;
+    }
+
+    /** Returns the variant to use when rendering at {@code scale}: the exact variant if there is
+      * one, otherwise the largest variant (which we scale down). */
+    public File variantFor (float scale) {
+      File file = variants.get(scale);
+      return (file != null) ? file : variants.get(variants.lastKey());
+    }
+
+    public void computeSize () throws IOException {
+      // prefer the unscaled variant, as its size determines the image's display size at runtime
+      float scale = variants.containsKey(1f) ? 1f : variants.lastKey();
+      File file = variants.get(scale);
+      ImageInputStream in = ImageIO.createImageInputStream(file);
+      if (in == null) throw new IOException("Unable to read " + file);
+      try {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) throw new IOException("Unknown image format: " + file);
+        ImageReader reader = readers.next();
+        try {
+          reader.setInput(in);
+          width = (int)Math.ceil(reader.getWidth(0) / scale);
+          height = (int)Math.ceil(reader.getHeight(0) / scale);
+        } finally {
+          reader.dispose();
+        }
+      } finally {
+        in.close();
+      }
+    }
+  }
+
+  protected static final Pattern IMAGE = Pattern.compile(".*\\.(png|jpg|jpeg|gif)",
+                                                          Pattern.CASE_INSENSITIVE);
+  protected static final Pattern SCALED = Pattern.compile("(.*)@(\\d+)x(\\.[^.]+)");
+
+  private final List<String> skipped = new ArrayList<>();
+}
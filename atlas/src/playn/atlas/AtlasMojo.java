@@ -0,0 +1,92 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.atlas;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import playn.core.AtlasIndex;
+
+/**
+ * Packs a directory of images into atlas pages as part of a Maven build. See {@link
+ * AtlasBuilder}. The output directory should be the location of the source directory in the
+ * built project, for example:
+ *
+ * <pre>{@code
+ * <sourceDirectory>src/main/resources/assets/images</sourceDirectory>
+ * <outputDirectory>${project.build.outputDirectory}/assets/images</outputDirectory>
+ * }</pre>
+ *
+ * @goal atlas
+ * @phase process-resources
+ */
+public class AtlasMojo extends AbstractMojo {
+
+  /**
+   * The directory which contains the images to be packed.
+   * @parameter
+   * @required
+   */
+  private File sourceDirectory;
+
+  /**
+   * The directory into which the atlas pages and index are written.
+   * @parameter
+   * @required
+   */
+  private File outputDirectory;
+
+  /**
+   * The base name of the atlas pages and index.
+   * @parameter default-value="atlas"
+   */
+  private String name;
+
+  /**
+   * The width and height of each page, in display units.
+   * @parameter default-value="1024"
+   */
+  private int pageSize;
+
+  /**
+   * The number of display units left empty around each image.
+   * @parameter default-value="2"
+   */
+  private int padding;
+
+  /**
+   * Whether the edge pixels of each image are extended into its padding.
+   * @parameter default-value="true"
+   */
+  private boolean bleed;
+
+  public void execute () throws MojoExecutionException {
+    AtlasBuilder builder = new AtlasBuilder(sourceDirectory);
+    builder.name = name;
+    builder.pageSize = pageSize;
+    builder.padding = padding;
+    builder.bleed = bleed;
+    try {
+      AtlasIndex index = builder.build(outputDirectory);
+      getLog().info("Packed " + index.paths().size() + " images into " +
+                    index.pages().size() + " atlas pages.");
+      for (String path : builder.skipped()) getLog().warn("Too large for atlas: " + path);
+    } catch (IOException ioe) {
+      throw new MojoExecutionException("Failed to build atlas from " + sourceDirectory, ioe);
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.atlas;
+
+import java.io.File;
+import java.io.IOException;
+
+import playn.core.AtlasIndex;
+
+/**
+ * Packs a directory of images into atlas pages from the command line. See {@link AtlasBuilder}.
+ */
+public class AtlasTool {
+
+  public static void main (String[] args) {
+    File source = null, output = null;
+    String name = null;
+    int pageSize = -1, padding = -1;
+    boolean bleed = true;
+    try {
+      for (int ii = 0; ii < args.length; ii++) {
+        String arg = args[ii];
+        if (arg.equals("-name")) name = args[++ii];
+        else if (arg.equals("-size")) pageSize = Integer.parseInt(args[++ii]);
+        else if (arg.equals("-padding")) padding = Integer.parseInt(args[++ii]);
+        else if (arg.equals("-nobleed")) bleed = false;
+        else if (arg.startsWith("-")) throw new IllegalArgumentException("Unknown option " + arg);
+        else if (source == null) source = new File(arg);
+        else if (output == null) output = new File(arg);
+        else throw new IllegalArgumentException("Unexpected argument " + arg);
+      }
+      if (source == null) throw new IllegalArgumentException("No source directory given");
+    } catch (RuntimeException e) {
+      System.err.println(e.getMessage());
+      System.err.println("Usage: AtlasTool [-name atlas] [-size 1024] [-padding 2] [-nobleed] " +
+                         "source [output]");
+      System.exit(255);
+      return;
+    }
+
+    AtlasBuilder builder = new AtlasBuilder(source);
+    if (name != null) builder.name = name;
+    if (pageSize > 0) builder.pageSize = pageSize;
+    if (padding >= 0) builder.padding = padding;
+    builder.bleed = bleed;
+    try {
+      AtlasIndex index = builder.build(output == null ? source : output);
+      System.out.println("Packed " + index.paths().size() + " images into " +
+                         index.pages().size() + " pages.");
+      for (String path : builder.skipped()) System.out.println("Too large for atlas: " + path);
+    } catch (IOException ioe) {
+      System.err.println("Failed to build atlas: " + ioe.getMessage());
+      System.exit(1);
+    }
+  }
+}
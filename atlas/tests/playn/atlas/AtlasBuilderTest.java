@@ -0,0 +1,169 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.atlas;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import playn.core.AtlasIndex;
+
+public class AtlasBuilderTest {
+
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test public void testPacksImages () throws IOException {
+    File src = tmp.newFolder("src"), out = tmp.newFolder("out");
+    writeImage(src, "a.png", 10, 10, 0xFFFF0000);
+    writeImage(src, "b.png", 20, 10, 0xFF00FF00);
+    writeImage(new File(src, "sub"), "c.png", 30, 30, 0xFF0000FF);
+
+    AtlasBuilder builder = new AtlasBuilder(src);
+    builder.pageSize = 64;
+    builder.padding = 2;
+    AtlasIndex index = builder.build(out);
+
+    assertEquals(Arrays.asList("atlas0.png"), index.pages());
+    assertEquals(3, index.paths().size());
+    assertTrue(builder.skipped().isEmpty());
+    AtlasIndex.Entry a = index.get("a.png"), b = index.get("b.png"), c = index.get("sub/c.png");
+    assertEquals(10, a.width);
+    assertEquals(20, b.width);
+    assertEquals(30, c.height);
+    // images (and their padding) do not overlap
+    assertFalse(overlaps(a, b, 2));
+    assertFalse(overlaps(a, c, 2));
+    assertFalse(overlaps(b, c, 2));
+
+    // the page contains each image at its packed position
+    BufferedImage page = ImageIO.read(new File(out, "atlas0.png"));
+    assertEquals(64, page.getWidth());
+    assertEquals(0xFFFF0000, page.getRGB(a.x, a.y));
+    assertEquals(0xFF00FF00, page.getRGB(b.x + b.width - 1, b.y));
+    assertEquals(0xFF0000FF, page.getRGB(c.x, c.y + c.height - 1));
+
+    // the written index matches the returned one
+    String text = new String(Files.readAllBytes(new File(out, "atlas.atlas").toPath()),
+                             StandardCharsets.UTF_8);
+    assertEquals(index.write(), AtlasIndex.parse(text).write());
+  }
+
+  @Test public void testOverflowsToNewPages () throws IOException {
+    File src = tmp.newFolder("src"), out = tmp.newFolder("out");
+    for (int ii = 0; ii < 5; ii++) writeImage(src, "img" + ii + ".png", 30, 30, 0xFFFFFFFF);
+
+    AtlasBuilder builder = new AtlasBuilder(src);
+    builder.pageSize = 64;
+    builder.padding = 1;
+    AtlasIndex index = builder.build(out);
+    // four padded images fit in a page, so the fifth starts a second page
+    assertEquals(2, index.pages().size());
+    assertEquals(5, index.paths().size());
+    assertTrue(new File(out, "atlas1.png").exists());
+  }
+
+  @Test public void testScaleVariants () throws IOException {
+    File src = tmp.newFolder("src"), out = tmp.newFolder("out");
+    writeImage(src, "a.png", 10, 10, 0xFFFF0000);
+    writeImage(src, "a@2x.png", 20, 20, 0xFF0000FF);
+    // an image with only a 2x variant gets its display size from that variant
+    writeImage(src, "b@2x.png", 8, 6, 0xFF00FF00);
+
+    AtlasBuilder builder = new AtlasBuilder(src);
+    builder.pageSize = 32;
+    builder.padding = 1;
+    AtlasIndex index = builder.build(out);
+
+    assertEquals(2, index.paths().size());
+    AtlasIndex.Entry a = index.get("a.png"), b = index.get("b.png");
+    assertEquals(10, a.width);
+    assertEquals(4, b.width);
+    assertEquals(3, b.height);
+
+    // the page is written at both scales, each using the matching variant where there is one
+    BufferedImage page1 = ImageIO.read(new File(out, "atlas0.png"));
+    BufferedImage page2 = ImageIO.read(new File(out, "atlas0@2x.png"));
+    assertEquals(32, page1.getWidth());
+    assertEquals(64, page2.getWidth());
+    assertEquals(0xFFFF0000, page1.getRGB(a.x + 5, a.y + 5));
+    assertEquals(0xFF0000FF, page2.getRGB(2*a.x + 10, 2*a.y + 10));
+    // missing variants are scaled from the largest variant
+    assertEquals(0xFF00FF00, page1.getRGB(b.x + 2, b.y + 1));
+    assertEquals(0xFF00FF00, page2.getRGB(2*b.x + 4, 2*b.y + 3));
+  }
+
+  @Test public void testBleed () throws IOException {
+    File src = tmp.newFolder("src");
+    writeImage(src, "a.png", 8, 8, 0xFFFF0000);
+
+    AtlasBuilder builder = new AtlasBuilder(src);
+    builder.pageSize = 32;
+    builder.padding = 2;
+    File bleedOut = tmp.newFolder("bleed");
+    AtlasIndex.Entry a = builder.build(bleedOut).get("a.png");
+    BufferedImage page = ImageIO.read(new File(bleedOut, "atlas0.png"));
+    // the image's edges are extended into its padding, including the corners
+    assertEquals(0xFFFF0000, page.getRGB(a.x - 1, a.y + 4));
+    assertEquals(0xFFFF0000, page.getRGB(a.x + a.width + 1, a.y + 4));
+    assertEquals(0xFFFF0000, page.getRGB(a.x + 4, a.y - 2));
+    assertEquals(0xFFFF0000, page.getRGB(a.x - 2, a.y + a.height + 1));
+
+    builder.bleed = false;
+    File plainOut = tmp.newFolder("plain");
+    a = builder.build(plainOut).get("a.png");
+    page = ImageIO.read(new File(plainOut, "atlas0.png"));
+    assertEquals(0, page.getRGB(a.x - 1, a.y + 4) >>> 24);
+    assertEquals(0xFFFF0000, page.getRGB(a.x, a.y + 4));
+  }
+
+  @Test public void testSkipsOversizeImages () throws IOException {
+    File src = tmp.newFolder("src"), out = tmp.newFolder("out");
+    writeImage(src, "small.png", 10, 10, 0xFFFF0000);
+    // fits in the page, but not once padding is added
+    writeImage(src, "big.png", 32, 8, 0xFF00FF00);
+
+    AtlasBuilder builder = new AtlasBuilder(src);
+    builder.pageSize = 32;
+    builder.padding = 1;
+    AtlasIndex index = builder.build(out);
+    assertEquals(Arrays.asList("big.png"), builder.skipped());
+    assertNull(index.get("big.png"));
+    assertNotNull(index.get("small.png"));
+    assertEquals(1, index.pages().size());
+  }
+
+  private static boolean overlaps (AtlasIndex.Entry a, AtlasIndex.Entry b, int padding) {
+    return a.x - padding < b.x + b.width + padding && b.x - padding < a.x + a.width + padding &&
+      a.y - padding < b.y + b.height + padding && b.y - padding < a.y + a.height + padding;
+  }
+
+  private static void writeImage (File dir, String name, int width, int height, int argb)
+      throws IOException {
+    dir.mkdirs();
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) image.setRGB(x, y, argb);
+    }
+    ImageIO.write(image, "png", new File(dir, name));
+  }
+}
@@ -16,7 +16,10 @@
 package playn.core;
 
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 
+import react.Function;
 import react.RFuture;
 import react.RPromise;
 
@@ -66,6 +69,53 @@ public abstract class Assets {
     return image;
   }
 
+  /**
+   * Returns a region which renders the image at {@code path}. If the image was packed into an
+   * atlas which has been registered via {@link #loadAtlas} or {@link #addAtlas}, the region is a
+   * part of the (asynchronously loaded) atlas page which contains it, which avoids loading a file
+   * and creating a texture for every image. Otherwise, the region covers the whole of the image,
+   * which is loaded via {@link #getImage}.
+   *
+   * @param path the path to the image asset.
+   */
+  public Image.Region getRegion (String path) {
+    String npath = normalizePath(path);
+    AtlasImage atlased = atlasImages.get(npath);
+    if (atlased == null) return getImage(path).region();
+    Image page = atlasPages.get(atlased.page);
+    if (page == null) atlasPages.put(atlased.page, page = getImage(atlased.page));
+    AtlasIndex.Entry ent = atlased.entry;
+    return page.region(ent.x, ent.y, ent.width, ent.height);
+  }
+
+  /**
+   * Loads the atlas index at {@code path} (generated by the PlayN atlas tool) and registers its
+   * images with {@link #getRegion}. See {@link #addAtlas}.
+   */
+  public RFuture<AtlasIndex> loadAtlas (final String path) {
+    return getText(path).map(new Function<String,AtlasIndex>() {
+      public AtlasIndex apply (String text) {
+        AtlasIndex index = AtlasIndex.parse(text);
+        int sidx = path.lastIndexOf('/');
+        addAtlas(sidx < 0 ? "" : path.substring(0, sidx+1), index);
+        return index;
+      }
+    });
+  }
+
+  /**
+   * Registers the images in {@code index} so that {@link #getRegion} obtains them from the
+   * atlas's pages. The paths in the index are relative to {@code root}, which must either be
+   * empty or end with {@code /}. Images registered by a later atlas replace earlier ones.
+   */
+  public void addAtlas (String root, AtlasIndex index) {
+    for (String path : index.paths()) {
+      AtlasIndex.Entry entry = index.get(path);
+      String page = normalizePath(root + index.pages().get(entry.page));
+      atlasImages.put(normalizePath(root + path), new AtlasImage(page, entry));
+    }
+  }
+
   /**
    * Asynchronously loads and returns the image at the specified URL. The width and height of the
    * image will be unset (0) until the image is loaded. <em>Note:</em> on non-HTML platforms, this
@@ -176,8 +226,41 @@ public abstract class Assets {
     return result;
   }
 
+  /**
+   * Loads the block compressed image in the KTX or DDS container at {@code path}. Create a
+   * texture from it via {@link CompressedImage#createTexture}. If the data is not a supported
+   * container, the returned future fails with an {@link IllegalArgumentException}.
+   */
+  public RFuture<CompressedImage> getCompressedImage (String path) {
+    return getBytes(path).map(new Function<ByteBuffer,CompressedImage>() {
+      public CompressedImage apply (ByteBuffer data) { return CompressedImage.parse(data); }
+    });
+  }
+
+  /**
+   * Synchronously loads the block compressed image in the KTX or DDS container at {@code path}.
+   *
+   * @throws Exception if there is an error loading the data, or it is not a supported container.
+   * @throws UnsupportedOperationException on platforms that cannot support synchronous asset
+   * loading (e.g. HTML5 and Flash).
+   */
+  public CompressedImage getCompressedImageSync (String path) throws Exception {
+    return CompressedImage.parse(getBytesSync(path));
+  }
+
   protected final Exec exec;
 
+  private static class AtlasImage {
+    public final String page;
+    public final AtlasIndex.Entry entry;
+    public AtlasImage (String page, AtlasIndex.Entry entry) {
+      this.page = page;
+      this.entry = entry;
+    }
+  }
+  private final Map<String,AtlasImage> atlasImages = new HashMap<>();
+  private final Map<String,Image> atlasPages = new HashMap<>();
+
   protected Assets (Exec exec) {
     this.exec = exec;
   }
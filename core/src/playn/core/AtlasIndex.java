@@ -0,0 +1,134 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes a set of images which were packed offline into atlas pages (by the PlayN atlas tool).
+ * Each entry maps the path of an original image to the page that contains it and its bounds in
+ * that page. Bounds are in display units, so they apply to every scale variant of a page (e.g.
+ * {@code atlas0.png} and {@code atlas0@2x.png}).
+ *
+ * <p>Page and image paths are relative to the directory which contains the index. An index is
+ * usually loaded via {@link Assets#loadAtlas}, after which its images are obtained via {@link
+ * Assets#getRegion}.</p>
+ */
+public class AtlasIndex {
+
+  /** The first line of every serialized index. */
+  public static final String HEADER = "playn-atlas 1";
+
+  /** The location of a single image in an atlas. */
+  public static class Entry {
+    /** The index of the page which contains this image. */
+    public final int page;
+    /** The bounds of the image in its page, in display units. */
+    public final int x, y, width, height;
+
+    public Entry (int page, int x, int y, int width, int height) {
+      this.page = page;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    @Override public String toString () {
+      return "[page=" + page + ", " + width + "x" + height + "+" + x + "+" + y + "]";
+    }
+  }
+
+  /**
+   * Parses an index previously generated via {@link #write}.
+   * @throws IllegalArgumentException if {@code text} is not a valid index.
+   */
+  public static AtlasIndex parse (String text) {
+    String[] lines = text.split("\n");
+    if (lines.length == 0 || !HEADER.equals(lines[0].trim())) throw new IllegalArgumentException(
+      "Invalid atlas index header: " + (lines.length == 0 ? "" : lines[0]));
+    AtlasIndex index = new AtlasIndex();
+    for (int ii = 1; ii < lines.length; ii++) {
+      String line = lines[ii].trim();
+      if (line.length() == 0) continue;
+      String[] bits = line.split("\t");
+      try {
+        if (bits.length == 2 && "page".equals(bits[0])) index.addPage(bits[1]);
+        else if (bits.length == 5 && index.pages.size() > 0) index.add(
+          bits[0], index.pages.size()-1, Integer.parseInt(bits[1]), Integer.parseInt(bits[2]),
+          Integer.parseInt(bits[3]), Integer.parseInt(bits[4]));
+        else throw new IllegalArgumentException("Invalid atlas index line " + ii + ": " + line);
+      } catch (NumberFormatException nfe) {
+        throw new IllegalArgumentException("Invalid atlas index line " + ii + ": " + line);
+      }
+    }
+    return index;
+  }
+
+  /** Returns the paths of the pages of this atlas, in page index order. */
+  public List<String> pages () {
+    return Collections.unmodifiableList(pages);
+  }
+
+  /** Returns the paths of all images in this atlas. */
+  public Set<String> paths () {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /** Returns the entry for the image at {@code path}, or null if it is not in this atlas. */
+  public Entry get (String path) {
+    return entries.get(path);
+  }
+
+  /** Adds a page to this atlas and returns its index. */
+  public int addPage (String path) {
+    pages.add(path);
+    return pages.size()-1;
+  }
+
+  /** Adds an image to this atlas.
+    * @throws IllegalArgumentException if {@code page} has not been added. */
+  public void add (String path, int page, int x, int y, int width, int height) {
+    if (page < 0 || page >= pages.size()) throw new IllegalArgumentException(
+      "Invalid page for " + path + ": " + page);
+    entries.put(path, new Entry(page, x, y, width, height));
+  }
+
+  /** Serializes this index into the format read by {@link #parse}. */
+  public String write () {
+    StringBuilder buf = new StringBuilder(HEADER).append('\n');
+    for (int pp = 0; pp < pages.size(); pp++) {
+      buf.append("page\t").append(pages.get(pp)).append('\n');
+      for (Map.Entry<String,Entry> e : entries.entrySet()) {
+        Entry ent = e.getValue();
+        if (ent.page != pp) continue;
+        buf.append(e.getKey()).append('\t').append(ent.x).append('\t').append(ent.y).append('\t').
+          append(ent.width).append('\t').append(ent.height).append('\n');
+      }
+    }
+    return buf.toString();
+  }
+
+  @Override public String toString () {
+    return "AtlasIndex[pages=" + pages.size() + ", images=" + entries.size() + "]";
+  }
+
+  private final List<String> pages = new ArrayList<>();
+  private final Map<String,Entry> entries = new LinkedHashMap<>();
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import pythagoras.f.AffineTransform;
+
+import static playn.core.GL20.*;
+
+/**
+ * A batch which renders {@link BakedGeometry}. The vertices of baked geometry reside in a static
+ * GPU buffer, so rendering them requires no per-quad work on the CPU and no per-frame uploads. The
+ * transform and tint with which the geometry is drawn are supplied to the shader as uniforms.
+ *
+ * <p>Baked geometry is usually drawn via {@link Surface#draw(BakedGeometry)}, which takes care of
+ * beginning and ending this batch around the draw.</p>
+ */
+public class BakedBatch extends GLBatch {
+
+  /** The source for the stock baked batch shader program. */
+  public static class Source extends TexturedBatch.Source {
+
+    /** Declares the uniform variables for our shader. */
+    public static final String VERT_UNIFS =
+      TriangleBatch.Source.VERT_UNIFS +
+      "uniform vec4 u_Matrix;\n" +
+      "uniform vec2 u_Translation;\n" +
+      "uniform vec4 u_Tint;\n";
+
+    /** The attribute variables for our shader. */
+    public static final String VERT_ATTRS = CompactTriangleBatch.Source.VERT_ATTRS;
+
+    /** Declares the varying variables for our shader. */
+    public static final String VERT_VARS = TriangleBatch.Source.VERT_VARS;
+
+    /** The shader code that computes {@code gl_Position}. */
+    public static final String VERT_SETPOS =
+      // Transform the baked vertex by the transform with which the geometry is drawn.
+      "mat3 transform = mat3(\n" +
+      "  u_Matrix[0],      u_Matrix[1],      0,\n" +
+      "  u_Matrix[2],      u_Matrix[3],      0,\n" +
+      "  u_Translation[0], u_Translation[1], 1);\n" +
+      "gl_Position = vec4(transform * vec3(a_Position, 1.0), 1);\n" +
+      // Scale from screen coordinates to [0, 2].
+      "gl_Position.xy /= u_HScreenSize.xy;\n" +
+      // Offset to [-1, 1].
+      "gl_Position.xy -= 1.0;\n" +
+      // If requested, flip the y-axis.
+      "gl_Position.y *= u_Flip;\n";
+
+    /** The shader code that computes {@code v_TexCoord}. */
+    public static final String VERT_SETTEX = TriangleBatch.Source.VERT_SETTEX;
+
+    /** The shader code that computes {@code v_Color}. */
+    public static final String VERT_SETCOLOR =
+      // the baked tint is combined with the tint with which the geometry is drawn
+      "v_Color = a_Color * u_Tint;\n";
+
+    /** Returns the source of the vertex shader program. */
+    public String vertex () {
+      return (VERT_UNIFS +
+              VERT_ATTRS +
+              VERT_VARS +
+              "void main(void) {\n" +
+              VERT_SETPOS +
+              VERT_SETTEX +
+              VERT_SETCOLOR +
+              "}");
+    }
+  }
+
+  private static final int VERTEX_STRIDE = BakedGeometry.VERTEX_SIZE*4;
+  private static final int QUAD_STRIDE = 4*VERTEX_STRIDE;
+
+  public final GL20 gl;
+
+  protected final GLProgram program;
+  protected final int uTexture;
+  protected final int uHScreenSize;
+  protected final int uFlip;
+  protected final int uMatrix, uTranslation, uTint;
+  protected final int aPosition, aTexCoord, aColor;
+
+  /** Creates a baked batch with the default shader program. */
+  public BakedBatch (GL20 gl) {
+    this(gl, new Source());
+  }
+
+  /** Creates a baked batch with the supplied custom shader program. */
+  public BakedBatch (GL20 gl, Source source) {
+    this.gl = gl;
+    program = gl.programs().get(source.vertex(), source.fragment());
+    uTexture = program.getUniformLocation("u_Texture");
+    uHScreenSize = program.getUniformLocation("u_HScreenSize");
+    uFlip = program.getUniformLocation("u_Flip");
+    uMatrix = program.getUniformLocation("u_Matrix");
+    uTranslation = program.getUniformLocation("u_Translation");
+    uTint = program.getUniformLocation("u_Tint");
+    aPosition = program.getAttribLocation("a_Position");
+    aTexCoord = program.getAttribLocation("a_TexCoord");
+    aColor = program.getAttribLocation("a_Color");
+    gl.checkError("BakedBatch end ctor");
+  }
+
+  /**
+   * Draws {@code geom} with the specified tint and transform. This batch must have been begun. One
+   * draw call is issued for each run of quads that share a texture (see {@link
+   * BakedGeometry#runs}).
+   */
+  public void draw (BakedGeometry geom, int tint, AffineTransform xf) {
+    gl.glUniform4f(uMatrix, xf.m00, xf.m01, xf.m10, xf.m11);
+    gl.glUniform2f(uTranslation, xf.tx, xf.ty);
+    float a = ((tint >> 24) & 0xFF) / 255f, r = ((tint >> 16) & 0xFF) / 255f;
+    float g = ((tint >> 8) & 0xFF) / 255f, b = (tint & 0xFF) / 255f;
+    gl.glUniform4f(uTint, r, g, b, a);
+
+    gl.glBindBuffer(GL_ARRAY_BUFFER, geom.verticesId);
+    gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, geom.elementsId);
+    for (int rr = 0, ll = geom.runs(); rr < ll; rr++) {
+      Texture tex = geom.textures[rr];
+      tex.used();
+      gl.glBindTexture(GL_TEXTURE_2D, tex.id);
+      // our index buffer covers at most maxQuads quads (which keeps our indices in 16 bits), so we
+      // draw longer runs in chunks, pointing our attributes at the start of each chunk
+      for (int qq = geom.runStarts[rr], end = qq + geom.runQuads[rr]; qq < end;
+           qq += geom.maxQuads) {
+        int quads = Math.min(geom.maxQuads, end - qq), offset = qq*QUAD_STRIDE;
+        gl.glVertexAttribPointer(aPosition, 2, GL_FLOAT, false, VERTEX_STRIDE, offset);
+        gl.glVertexAttribPointer(aTexCoord, 2, GL_FLOAT, false, VERTEX_STRIDE, offset+8);
+        gl.glVertexAttribPointer(aColor, 4, GL_UNSIGNED_BYTE, true, VERTEX_STRIDE, offset+16);
+        gl.glDrawElements(GL_TRIANGLES, quads*TriangleBatch.QUAD_INDICES.length,
+                          GL_UNSIGNED_SHORT, 0);
+        gl.stats().addDraw(quads, quads*2);
+      }
+    }
+    gl.checkError("BakedBatch draw");
+  }
+
+  @Override public void begin (float fbufWidth, float fbufHeight, boolean flip) {
+    super.begin(fbufWidth, fbufHeight, flip);
+    program.activate(gl);
+    gl.glUniform2f(uHScreenSize, fbufWidth/2f, fbufHeight/2f);
+    gl.glUniform1f(uFlip, flip ? -1 : 1);
+    gl.glEnableVertexAttribArray(aPosition);
+    gl.glEnableVertexAttribArray(aTexCoord);
+    gl.glEnableVertexAttribArray(aColor);
+    gl.glActiveTexture(GL_TEXTURE0);
+    gl.glUniform1i(uTexture, 0);
+    gl.checkError("BakedBatch begin");
+  }
+
+  @Override public void end () {
+    super.end();
+    gl.glDisableVertexAttribArray(aPosition);
+    gl.glDisableVertexAttribArray(aTexCoord);
+    gl.glDisableVertexAttribArray(aColor);
+    gl.checkError("BakedBatch end");
+  }
+
+  @Override public void close () {
+    super.close();
+    program.close();
+    gl.checkError("BakedBatch close");
+  }
+
+  @Override public String toString () { return "baked"; }
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import react.Closeable;
+
+import static playn.core.GL20.*;
+
+/**
+ * Quads which have been recorded once (via a {@link Baker}) and uploaded to a static GPU vertex
+ * buffer, from which they can be drawn any number of times with a single draw call per texture.
+ * This is useful for large amounts of geometry that never changes, like level backgrounds. Baked
+ * geometry is drawn via {@link Surface#draw(BakedGeometry)}.
+ *
+ * <p>Baked geometry references the textures used by its quads, and releases them when it is
+ * closed.</p>
+ */
+public class BakedGeometry implements Closeable {
+
+  /**
+   * A surface which records the quads drawn to it (rather than rendering them) so that they can be
+   * baked into {@link BakedGeometry}. Quads are recorded in the surface's coordinate system, which
+   * starts out as the identity transform. The recorded quads are reordered (where this does not
+   * change the result of overlapping draws) to group together quads that use the same texture.
+   *
+   * <p>Some surface operations have no meaning when baking: clipping and custom batches are
+   * ignored, as is {@link #clear}, and all drawing is assumed to intersect the surface.</p>
+   */
+  public static class Baker extends Surface {
+
+    private final BakedBatch batch;
+    private final DeferredBatch sorter;
+    private final Recorder recorder;
+
+    /** Creates a baker which produces geometry that will be drawn with {@code batch}. */
+    public Baker (Graphics gfx, BakedBatch batch) {
+      this(gfx, batch, new DeferredBatch(gfx.gl));
+    }
+
+    private Baker (Graphics gfx, BakedBatch batch, DeferredBatch sorter) {
+      super(gfx, new BakeTarget(gfx), sorter);
+      this.batch = batch;
+      this.sorter = sorter;
+      sorter.setTarget(recorder = new Recorder(gfx.gl));
+    }
+
+    /** Bakes the quads drawn since the last call to {@link #begin} into a GPU vertex buffer.
+      * This must be called after {@link #end}. */
+    public BakedGeometry bake () {
+      return recorder.bake(batch);
+    }
+
+    @Override public Surface begin () {
+      sorter.begin(1, 1, false);
+      return this;
+    }
+
+    @Override public Surface end () {
+      sorter.end();
+      return this;
+    }
+
+    /** A baker always records its quads, so this accepts only {@code true} (as a NOOP).
+      * @throws IllegalArgumentException if {@code deferred} is false. */
+    @Override public Surface setDeferred (boolean deferred) {
+      if (!deferred) throw new IllegalArgumentException("Baker is always deferred");
+      return this;
+    }
+
+    @Override public Surface suspend () { return this; }
+    @Override public Surface resume () { return this; }
+
+    @Override public QuadBatch pushBatch (QuadBatch newBatch) { return null; }
+    @Override public void popBatch (QuadBatch oldBatch) {} // nada
+
+    @Override public boolean startClipped (int x, int y, int width, int height) { return true; }
+    @Override public void endClipped () {} // nada
+
+    @Override public boolean intersects (float x, float y, float w, float h) { return true; }
+    @Override public boolean mayIntersect (float x, float y, float w, float h) { return true; }
+
+    @Override public Surface clear (float red, float green, float blue, float alpha) {
+      return this;
+    }
+  }
+
+  /** The size of a baked vertex, in 32-bit words: x, y, s, t, and RGBA tint. */
+  public static final int VERTEX_SIZE = CompactTriangleBatch.VERTEX_SIZE;
+
+  /** The batch used to draw this geometry. */
+  public final BakedBatch batch;
+
+  /** The number of quads in this geometry. */
+  public final int quads;
+
+  /** The maximum number of quads drawn per draw call. */
+  public final int maxQuads;
+
+  protected final int verticesId, elementsId;
+  protected final Texture[] textures;
+  protected final int[] runStarts, runQuads;
+
+  /** Returns the number of runs of quads (each of which share a texture) in this geometry. Each
+    * run is drawn with one draw call (or more, if it contains more than {@link #maxQuads}). */
+  public int runs () {
+    return textures.length;
+  }
+
+  /** Releases the GPU buffers used by this geometry, and the references to its textures. */
+  @Override public void close () {
+    GL20 gl = batch.gl;
+    gl.glDeleteBuffers(2, new int[] { verticesId, elementsId }, 0);
+    gl.checkError("BakedGeometry close");
+    for (Texture tex : textures) tex.release();
+  }
+
+  @Override public String toString () {
+    return "baked/" + quads + "/" + runs();
+  }
+
+  protected BakedGeometry (BakedBatch batch, int[] vertices, int vertLen,
+                           Texture[] textures, int[] runStarts, int[] runQuads) {
+    this.batch = batch;
+    this.textures = textures;
+    this.runStarts = runStarts;
+    this.runQuads = runQuads;
+    this.quads = vertLen/(4*VERTEX_SIZE);
+    this.maxQuads = Math.max(1, Math.min(quads, IndexedQuadBatch.MAX_QUADS));
+    for (Texture tex : textures) tex.reference();
+
+    GL20 gl = batch.gl;
+    int[] ids = new int[2];
+    gl.glGenBuffers(2, ids, 0);
+    verticesId = ids[0]; elementsId = ids[1];
+
+    gl.glBindBuffer(GL_ARRAY_BUFFER, verticesId);
+    gl.bufs.setIntBuffer(vertices, 0, vertLen);
+    gl.glBufferData(GL_ARRAY_BUFFER, vertLen*4, gl.bufs.intBuffer, GL_STATIC_DRAW);
+
+    int[] quadIndices = TriangleBatch.QUAD_INDICES;
+    short[] indices = new short[maxQuads*quadIndices.length];
+    for (int qq = 0, ii = 0; qq < maxQuads; qq++) {
+      for (int idx : quadIndices) indices[ii++] = (short)(4*qq + idx);
+    }
+    gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, elementsId);
+    gl.bufs.setShortBuffer(indices, 0, indices.length);
+    gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices.length*2, gl.bufs.shortBuffer,
+                    GL_STATIC_DRAW);
+    gl.checkError("BakedGeometry end ctor");
+  }
+
+  // a render target which is never rendered to; it just gives our baker a unit scale
+  private static class BakeTarget extends RenderTarget {
+    public BakeTarget (Graphics gfx) { super(gfx); }
+    public int id () { return 0; }
+    public int width () { return 1; }
+    public int height () { return 1; }
+    public float xscale () { return 1; }
+    public float yscale () { return 1; }
+    public boolean flip () { return false; }
+    @Override public void bind () {} // nada
+    @Override public void close () {} // nada
+  }
+
+  // records quads in our vertex format and notes where each texture run starts and ends
+  private static class Recorder extends QuadBatch {
+    private static final int QUAD_SIZE = 4*VERTEX_SIZE;
+
+    private final boolean littleEndian;
+    private int[] vertices = new int[64*QUAD_SIZE];
+    private int vertPos;
+
+    private final List<Texture> textures = new ArrayList<>();
+    private int[] runStarts = new int[8], runQuads = new int[8];
+    private Texture curTex;
+    private int runStart;
+
+    public Recorder (GL20 gl) {
+      super(gl);
+      littleEndian = gl.bufs.intBuffer.order() == ByteOrder.LITTLE_ENDIAN;
+    }
+
+    public BakedGeometry bake (BakedBatch batch) {
+      int runs = textures.size();
+      BakedGeometry geom = new BakedGeometry(
+        batch, vertices, vertPos, textures.toArray(new Texture[runs]),
+        Arrays.copyOf(runStarts, runs), Arrays.copyOf(runQuads, runs));
+      textures.clear();
+      vertPos = runStart = 0;
+      return geom;
+    }
+
+    @Override public void setTexture (Texture texture) {
+      super.setTexture(texture); // flushes (ending the current run) if the texture changed
+      curTex = texture;
+    }
+
+    @Override public void flush () {
+      super.flush();
+      int quads = vertPos/QUAD_SIZE;
+      if (quads > runStart) {
+        int run = textures.size();
+        if (run == runStarts.length) {
+          runStarts = Arrays.copyOf(runStarts, run*2);
+          runQuads = Arrays.copyOf(runQuads, run*2);
+        }
+        textures.add(curTex);
+        runStarts[run] = runStart;
+        runQuads[run] = quads - runStart;
+        runStart = quads;
+      }
+    }
+
+    @Override public void addQuad (int tint,
+                                   float m00, float m01, float m10, float m11, float tx, float ty,
+                                   float x1, float y1, float sx1, float sy1,
+                                   float x2, float y2, float sx2, float sy2,
+                                   float x3, float y3, float sx3, float sy3,
+                                   float x4, float y4, float sx4, float sy4) {
+      if (vertPos + QUAD_SIZE > vertices.length) {
+        vertices = Arrays.copyOf(vertices, vertices.length*2);
+      }
+      // tint is ARGB, but GL wants the bytes in memory in RGBA order
+      int a = (tint >>> 24), r = (tint >> 16) & 0xFF, g = (tint >> 8) & 0xFF, b = tint & 0xFF;
+      int color = littleEndian ? ((a << 24) | (b << 16) | (g << 8) | r) :
+        ((r << 24) | (g << 16) | (b << 8) | a);
+      int offset = vertPos;
+      offset = add(offset, m00*x1 + m10*y1 + tx, m01*x1 + m11*y1 + ty, sx1, sy1, color);
+      offset = add(offset, m00*x2 + m10*y2 + tx, m01*x2 + m11*y2 + ty, sx2, sy2, color);
+      offset = add(offset, m00*x3 + m10*y3 + tx, m01*x3 + m11*y3 + ty, sx3, sy3, color);
+      offset = add(offset, m00*x4 + m10*y4 + tx, m01*x4 + m11*y4 + ty, sx4, sy4, color);
+      vertPos = offset;
+    }
+
+    @Override public String toString () { return "recorder"; }
+
+    private int add (int offset, float x, float y, float sx, float sy, int color) {
+      int[] verts = vertices;
+      verts[offset++] = Float.floatToIntBits(x);
+      verts[offset++] = Float.floatToIntBits(y);
+      verts[offset++] = Float.floatToIntBits(sx);
+      verts[offset++] = Float.floatToIntBits(sy);
+      verts[offset++] = color;
+      return offset;
+    }
+  }
+}
@@ -0,0 +1,377 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A GL decorator which shadows commonly (re)set GL state and skips calls that would not change
+ * that state. It tracks the bound program, array and element buffers, the texture bound to each
+ * texture unit, the enabled state of the standard capabilities, the viewport and scissor box, and
+ * the values of scalar uniforms for each program.
+ *
+ * <p>State starts out unknown, so the first call which sets a piece of state is always passed
+ * through. If code changes GL state without going through this GL (by calling the underlying GL
+ * directly, for example), it must call {@link #invalidate} afterwards.</p>
+ *
+ * <p>To use it, install it on {@link Graphics#gl} before creating any batches, surfaces or
+ * textures: {@code gfx.gl = new CachingGL20(gfx.gl)}.</p>
+ *
+ * <p>Unlike other delegating GLs, this GL does not share its delegate's {@link #programs}: it
+ * must see every program being linked and deleted to keep its shadowed uniforms valid, so it
+ * creates its programs itself.</p>
+ */
+public class CachingGL20 extends DelegatingGL20 {
+
+  /** Identifies the kinds of calls that may be elided. */
+  public static enum Call {
+    USE_PROGRAM, BIND_BUFFER, ACTIVE_TEXTURE, BIND_TEXTURE, ENABLE, VIEWPORT, SCISSOR, UNIFORM
+  };
+
+  public CachingGL20 (GL20 delegate) {
+    super(delegate);
+    invalidate();
+  }
+
+  @Override public ProgramCache programs () {
+    if (programs == null) programs = new ProgramCache(this);
+    return programs;
+  }
+
+  /** Returns the number of calls of type {@code call} that were elided. */
+  public int elided (Call call) {
+    return elided[call.ordinal()];
+  }
+
+  /** Returns the total number of calls that were elided. */
+  public int elided () {
+    int total = 0;
+    for (int count : elided) total += count;
+    return total;
+  }
+
+  /** Resets the elided call counters. */
+  public void resetStats () {
+    Arrays.fill(elided, 0);
+  }
+
+  /**
+   * Forgets all shadowed state. The next call which sets any piece of state will be passed through
+   * to the underlying GL. This must be called if GL state is changed behind our back.
+   */
+  public void invalidate () {
+    program = UNKNOWN;
+    curUniforms = null;
+    uniforms.clear();
+    arrayBuffer = elementBuffer = UNKNOWN;
+    activeTexture = UNKNOWN;
+    Arrays.fill(boundTextures, UNKNOWN);
+    knownCaps = enabledCaps = 0;
+    Arrays.fill(viewport, UNKNOWN);
+    Arrays.fill(scissor, UNKNOWN);
+  }
+
+  @Override public void glUseProgram (int program) {
+    if (program == this.program) elide(Call.USE_PROGRAM);
+    else {
+      super.glUseProgram(program);
+      this.program = program;
+      curUniforms = uniforms(program);
+    }
+  }
+
+  @Override public void glLinkProgram (int program) {
+    super.glLinkProgram(program);
+    // linking resets all of a program's uniforms
+    uniforms.remove(program);
+    if (program == this.program) curUniforms = uniforms(program);
+  }
+
+  @Override public void glDeleteProgram (int program) {
+    super.glDeleteProgram(program);
+    uniforms.remove(program);
+    if (program == this.program) {
+      this.program = UNKNOWN;
+      curUniforms = null;
+    }
+  }
+
+  @Override public void glBindBuffer (int target, int buffer) {
+    switch (target) {
+    case GL_ARRAY_BUFFER:
+      if (buffer == arrayBuffer) elide(Call.BIND_BUFFER);
+      else {
+        super.glBindBuffer(target, buffer);
+        arrayBuffer = buffer;
+      }
+      break;
+    case GL_ELEMENT_ARRAY_BUFFER:
+      if (buffer == elementBuffer) elide(Call.BIND_BUFFER);
+      else {
+        super.glBindBuffer(target, buffer);
+        elementBuffer = buffer;
+      }
+      break;
+    default:
+      super.glBindBuffer(target, buffer);
+      break;
+    }
+  }
+
+  @Override public void glDeleteBuffers (int n, IntBuffer buffers) {
+    // deleting a bound buffer reverts the binding to zero
+    for (int ii = 0, pos = buffers.position(); ii < n; ii++) {
+      int id = buffers.get(pos+ii);
+      if (id == 0) continue;
+      if (id == arrayBuffer) arrayBuffer = 0;
+      if (id == elementBuffer) elementBuffer = 0;
+    }
+    super.glDeleteBuffers(n, buffers);
+  }
+
+  @Override public void glActiveTexture (int texture) {
+    if (texture == activeTexture) elide(Call.ACTIVE_TEXTURE);
+    else {
+      super.glActiveTexture(texture);
+      activeTexture = texture;
+    }
+  }
+
+  @Override public void glBindTexture (int target, int texture) {
+    int unit = activeTexture - GL_TEXTURE0;
+    if (target != GL_TEXTURE_2D || unit < 0 || unit >= boundTextures.length)
+      super.glBindTexture(target, texture);
+    else if (boundTextures[unit] == texture) elide(Call.BIND_TEXTURE);
+    else {
+      super.glBindTexture(target, texture);
+      boundTextures[unit] = texture;
+    }
+  }
+
+  @Override public void glDeleteTextures (int n, IntBuffer textures) {
+    // deleting a bound texture reverts the binding (in every unit) to zero
+    for (int ii = 0, pos = textures.position(); ii < n; ii++) {
+      int id = textures.get(pos+ii);
+      if (id == 0) continue;
+      for (int uu = 0; uu < boundTextures.length; uu++) {
+        if (boundTextures[uu] == id) boundTextures[uu] = 0;
+      }
+    }
+    super.glDeleteTextures(n, textures);
+  }
+
+  @Override public void glEnable (int cap) {
+    int bit = capBit(cap);
+    if (bit != 0 && (knownCaps & bit) != 0 && (enabledCaps & bit) != 0) elide(Call.ENABLE);
+    else {
+      super.glEnable(cap);
+      knownCaps |= bit;
+      enabledCaps |= bit;
+    }
+  }
+
+  @Override public void glDisable (int cap) {
+    int bit = capBit(cap);
+    if (bit != 0 && (knownCaps & bit) != 0 && (enabledCaps & bit) == 0) elide(Call.ENABLE);
+    else {
+      super.glDisable(cap);
+      knownCaps |= bit;
+      enabledCaps &= ~bit;
+    }
+  }
+
+  @Override public boolean glIsEnabled (int cap) {
+    int bit = capBit(cap);
+    if ((knownCaps & bit) != 0) return (enabledCaps & bit) != 0;
+    return super.glIsEnabled(cap);
+  }
+
+  @Override public void glViewport (int x, int y, int width, int height) {
+    if (update(viewport, x, y, width, height)) super.glViewport(x, y, width, height);
+    else elide(Call.VIEWPORT);
+  }
+
+  @Override public void glScissor (int x, int y, int width, int height) {
+    if (update(scissor, x, y, width, height)) super.glScissor(x, y, width, height);
+    else elide(Call.SCISSOR);
+  }
+
+  @Override public void glUniform1f (int location, float x) {
+    if (updateUniform(location, 1, bits(x), 0, 0, 0)) super.glUniform1f(location, x);
+  }
+  @Override public void glUniform2f (int location, float x, float y) {
+    if (updateUniform(location, 2, bits(x), bits(y), 0, 0)) super.glUniform2f(location, x, y);
+  }
+  @Override public void glUniform3f (int location, float x, float y, float z) {
+    if (updateUniform(location, 3, bits(x), bits(y), bits(z), 0))
+      super.glUniform3f(location, x, y, z);
+  }
+  @Override public void glUniform4f (int location, float x, float y, float z, float w) {
+    if (updateUniform(location, 4, bits(x), bits(y), bits(z), bits(w)))
+      super.glUniform4f(location, x, y, z, w);
+  }
+
+  @Override public void glUniform1i (int location, int x) {
+    if (updateUniform(location, INT|1, x, 0, 0, 0)) super.glUniform1i(location, x);
+  }
+  @Override public void glUniform2i (int location, int x, int y) {
+    if (updateUniform(location, INT|2, x, y, 0, 0)) super.glUniform2i(location, x, y);
+  }
+  @Override public void glUniform3i (int location, int x, int y, int z) {
+    if (updateUniform(location, INT|3, x, y, z, 0)) super.glUniform3i(location, x, y, z);
+  }
+  @Override public void glUniform4i (int location, int x, int y, int z, int w) {
+    if (updateUniform(location, INT|4, x, y, z, w)) super.glUniform4i(location, x, y, z, w);
+  }
+
+  // we don't shadow array and matrix uniforms, but we have to forget any scalar value we have
+  // shadowed for their location
+
+  @Override public void glUniform1fv (int location, int count, FloatBuffer v) {
+    forgetUniform(location);
+    super.glUniform1fv(location, count, v);
+  }
+  @Override public void glUniform2fv (int location, int count, FloatBuffer v) {
+    forgetUniform(location);
+    super.glUniform2fv(location, count, v);
+  }
+  @Override public void glUniform3fv (int location, int count, FloatBuffer v) {
+    forgetUniform(location);
+    super.glUniform3fv(location, count, v);
+  }
+  @Override public void glUniform4fv (int location, int count, FloatBuffer v) {
+    forgetUniform(location);
+    super.glUniform4fv(location, count, v);
+  }
+  @Override public void glUniform1iv (int location, int count, IntBuffer v) {
+    forgetUniform(location);
+    super.glUniform1iv(location, count, v);
+  }
+  @Override public void glUniform2iv (int location, int count, IntBuffer v) {
+    forgetUniform(location);
+    super.glUniform2iv(location, count, v);
+  }
+  @Override public void glUniform3iv (int location, int count, IntBuffer v) {
+    forgetUniform(location);
+    super.glUniform3iv(location, count, v);
+  }
+  @Override public void glUniform4iv (int location, int count, IntBuffer v) {
+    forgetUniform(location);
+    super.glUniform4iv(location, count, v);
+  }
+  @Override public void glUniformMatrix2fv (int location, int count, boolean transpose,
+                                            FloatBuffer value) {
+    forgetUniform(location);
+    super.glUniformMatrix2fv(location, count, transpose, value);
+  }
+  @Override public void glUniformMatrix3fv (int location, int count, boolean transpose,
+                                            FloatBuffer value) {
+    forgetUniform(location);
+    super.glUniformMatrix3fv(location, count, transpose, value);
+  }
+  @Override public void glUniformMatrix4fv (int location, int count, boolean transpose,
+                                            FloatBuffer value) {
+    forgetUniform(location);
+    super.glUniformMatrix4fv(location, count, transpose, value);
+  }
+
+  @Override public String toString () {
+    StringBuilder buf = new StringBuilder("CachingGL20[");
+    for (Call call : Call.values()) {
+      if (call.ordinal() > 0) buf.append(", ");
+      buf.append(call).append("=").append(elided(call));
+    }
+    return buf.append("]").toString();
+  }
+
+  private void elide (Call call) {
+    elided[call.ordinal()]++;
+  }
+
+  private boolean update (int[] box, int x, int y, int width, int height) {
+    if (box[0] == x && box[1] == y && box[2] == width && box[3] == height) return false;
+    box[0] = x; box[1] = y; box[2] = width; box[3] = height;
+    return true;
+  }
+
+  private int[][] uniforms (int program) {
+    int[][] unifs = uniforms.get(program);
+    if (unifs == null) uniforms.put(program, unifs = new int[8][]);
+    return unifs;
+  }
+
+  private boolean updateUniform (int location, int type, int x, int y, int z, int w) {
+    // if we don't know what program is bound, or the location is bogus, just pass the call on
+    if (curUniforms == null || location < 0) return true;
+    if (location >= curUniforms.length) {
+      int[][] unifs = Arrays.copyOf(curUniforms, Math.max(location+1, curUniforms.length*2));
+      uniforms.put(program, curUniforms = unifs);
+    }
+    int[] vals = curUniforms[location];
+    if (vals == null) curUniforms[location] = vals = new int[5];
+    else if (vals[0] == type && vals[1] == x && vals[2] == y && vals[3] == z && vals[4] == w) {
+      elide(Call.UNIFORM);
+      return false;
+    }
+    vals[0] = type; vals[1] = x; vals[2] = y; vals[3] = z; vals[4] = w;
+    return true;
+  }
+
+  private void forgetUniform (int location) {
+    if (curUniforms != null && location >= 0 && location < curUniforms.length) {
+      int[] vals = curUniforms[location];
+      if (vals != null) vals[0] = 0;
+    }
+  }
+
+  private static int bits (float value) {
+    return Float.floatToIntBits(value);
+  }
+
+  private static int capBit (int cap) {
+    switch (cap) {
+    case GL_BLEND:                    return 1 << 0;
+    case GL_CULL_FACE:                return 1 << 1;
+    case GL_DEPTH_TEST:               return 1 << 2;
+    case GL_DITHER:                   return 1 << 3;
+    case GL_POLYGON_OFFSET_FILL:      return 1 << 4;
+    case GL_SAMPLE_ALPHA_TO_COVERAGE: return 1 << 5;
+    case GL_SAMPLE_COVERAGE:          return 1 << 6;
+    case GL_SCISSOR_TEST:             return 1 << 7;
+    case GL_STENCIL_TEST:             return 1 << 8;
+    default:                          return 0;
+    }
+  }
+
+  private static final int UNKNOWN = -1;
+  private static final int INT = 1 << 8; // or'd into a uniform's size to mark it as an int
+  private static final int MAX_TEXTURE_UNITS = 32;
+
+  private final int[] elided = new int[Call.values().length];
+  private ProgramCache programs; // created lazily
+
+  private int program;
+  private int[][] curUniforms; // the uniforms for program, or null if program is unknown
+  private final Map<Integer,int[][]> uniforms = new HashMap<Integer,int[][]>();
+
+  private int arrayBuffer, elementBuffer;
+  private int activeTexture;
+  private final int[] boundTextures = new int[MAX_TEXTURE_UNITS];
+  private int knownCaps, enabledCaps;
+  private final int[] viewport = new int[4], scissor = new int[4];
+}
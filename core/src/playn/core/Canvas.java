@@ -15,6 +15,7 @@
  */
 package playn.core;
 
+import pythagoras.i.IRectangle;
 import react.Closeable;
 
 /**
@@ -109,6 +110,21 @@ public abstract class Canvas implements Closeable {
    */
   public abstract Image snapshot ();
 
+  /**
+   * Returns the region of {@link #image} (in pixels) which has been modified since the last call
+   * to {@link #clearDirty}, or null if the whole image must be assumed modified. This allows only
+   * the modified region to be uploaded to a texture (see {@link Texture#update(Image,int,int,int,
+   * int)}). Backends which do not track modified regions always return null.
+   */
+  public IRectangle dirtyRegion () {
+    return null;
+  }
+
+  /** Notes that the modifications to this canvas have been uploaded. */
+  public void clearDirty () {
+    isDirty = false;
+  }
+
   /**
    * Informs the platform that this canvas, and its backing image will no longer be used. On some
    * platforms this can free up memory earlier than if we waited for the canvas to be garbage
@@ -158,7 +174,7 @@ public abstract class Canvas implements Closeable {
    */
   public Canvas draw (Drawable image, float x, float y, float w, float h) {
     image.draw(gc(), x, y, w, h);
-    isDirty = true;
+    dirty(x, y, w, h);
     return this;
   }
 
@@ -171,7 +187,7 @@ public abstract class Canvas implements Closeable {
   public Canvas draw (Drawable image, float dx, float dy, float dw, float dh,
                       float sx, float sy, float sw, float sh) {
     image.draw(gc(), dx, dy, dw, dh, sx, sy, sw, sh);
-    isDirty = true;
+    dirty(dx, dy, dw, dh);
     return this;
   }
 
@@ -381,6 +397,12 @@ public abstract class Canvas implements Closeable {
   /** Used to track modifications to our underlying image. */
   protected boolean isDirty;
 
+  /** Notes that the specified region (in canvas coordinates, to which the current transform has
+    * not yet been applied) has been modified. */
+  protected void dirty (float x, float y, float width, float height) {
+    isDirty = true;
+  }
+
   protected final Graphics gfx;
 
   protected Canvas (Graphics gfx, Image image) {
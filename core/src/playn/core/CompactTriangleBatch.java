@@ -0,0 +1,221 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.Buffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import pythagoras.f.AffineTransform;
+
+import static playn.core.GL20.*;
+
+/**
+ * A batch which renders indexed triangles using a compact vertex format. Where {@link
+ * TriangleBatch} sends the transform and tint of a primitive to the GPU with every vertex (twelve
+ * floats per vertex), this batch transforms vertices on the CPU and packs the tint into four
+ * normalized unsigned bytes, yielding {@link #VERTEX_SIZE} words per vertex. This reduces the
+ * bytes uploaded per quad from 192 to 80, at the cost of a few multiplies per vertex.
+ *
+ * <p>This batch extends {@link TriangleBatch} and only replaces its vertex format, so it supports
+ * the same {@link #addQuad} and {@link #addTris} methods and buffer management (streaming, growth
+ * and 32-bit indices), and can be used in its place.</p>
+ */
+public class CompactTriangleBatch extends TriangleBatch {
+
+  /** The source for the stock compact triangle batch shader program. */
+  public static class Source extends TriangleBatch.Source {
+
+    /** Declares the uniform variables for our shader. */
+    public static final String VERT_UNIFS = TriangleBatch.Source.VERT_UNIFS;
+
+    /** The attribute variables for our shader. */
+    public static final String VERT_ATTRS =
+      "attribute vec2 a_Position;\n" +
+      "attribute vec2 a_TexCoord;\n" +
+      "attribute vec4 a_Color;\n";
+
+    /** Declares the varying variables for our shader. */
+    public static final String VERT_VARS = TriangleBatch.Source.VERT_VARS;
+
+    /** The shader code that computes {@code gl_Position}. */
+    public static final String VERT_SETPOS =
+      // Our vertices are already transformed, so just scale from screen coordinates to [0, 2].
+      "gl_Position = vec4(a_Position / u_HScreenSize.xy, 0, 1);\n" +
+      // Offset to [-1, 1].
+      "gl_Position.xy -= 1.0;\n" +
+      // If requested, flip the y-axis.
+      "gl_Position.y *= u_Flip;\n";
+
+    /** The shader code that computes {@code v_TexCoord}. */
+    public static final String VERT_SETTEX = TriangleBatch.Source.VERT_SETTEX;
+
+    /** The shader code that computes {@code v_Color}. */
+    public static final String VERT_SETCOLOR =
+      // tint is packed into RGBA bytes, which GL normalizes for us
+      "v_Color = a_Color;\n";
+
+    /** Returns the source of the vertex shader program. */
+    public String vertex () {
+      return (VERT_UNIFS +
+              VERT_ATTRS +
+              VERT_VARS +
+              "void main(void) {\n" +
+              VERT_SETPOS +
+              VERT_SETTEX +
+              VERT_SETCOLOR +
+              "}");
+    }
+  }
+
+  /** The size of a vertex, in 32-bit words: x, y, s, t, and RGBA tint. */
+  public static final int VERTEX_SIZE = 5;
+
+  private static final int VERTEX_STRIDE = VERTEX_SIZE*4;
+
+  protected int[] packed; // our vertices; floats are stored via Float.floatToIntBits
+
+  // the transform and packed tint configured by prepare()
+  private float m00, m01, m10, m11, tx, ty;
+  private int color;
+  private final boolean littleEndian;
+
+  /** Creates a compact triangle batch with the default shader program. */
+  public CompactTriangleBatch (GL20 gl) {
+    this(gl, new Source());
+  }
+
+  /** Creates a compact triangle batch with the supplied custom shader program. */
+  public CompactTriangleBatch (GL20 gl, Source source) {
+    this(gl, source, false);
+  }
+
+  /** Creates a compact triangle batch with the supplied custom shader program. See {@link
+    * TriangleBatch#TriangleBatch(GL20,TriangleBatch.Source,boolean)} regarding {@code
+    * streaming}. */
+  public CompactTriangleBatch (GL20 gl, Source source, boolean streaming) {
+    super(gl, source.vertex(), source.fragment(), streaming);
+    // our packed tint is written as an int, so we need to know how GL will see its bytes
+    littleEndian = gl.bufs.intBuffer.order() == ByteOrder.LITTLE_ENDIAN;
+  }
+
+  /**
+   * Prepares to add primitives with the specified tint and transform. Unlike {@link
+   * TriangleBatch}, the transform is applied to vertices as they are added.
+   */
+  @Override public void prepare (int tint, float m00, float m01, float m10, float m11,
+                                 float tx, float ty) {
+    this.m00 = m00; this.m01 = m01; this.m10 = m10; this.m11 = m11; this.tx = tx; this.ty = ty;
+    // tint is ARGB, but GL wants the bytes in memory in RGBA order
+    int a = (tint >>> 24), r = (tint >> 16) & 0xFF, g = (tint >> 8) & 0xFF, b = tint & 0xFF;
+    color = littleEndian ? ((a << 24) | (b << 16) | (g << 8) | r) :
+      ((r << 24) | (g << 16) | (b << 8) | a);
+  }
+
+  @Override public void addTris (float[] xys, int xysOffset, int xysLen, float tw, float th,
+                                 int[] indices, int indicesOffset, int indicesLen,
+                                 int indexBase) {
+    int vertIdx = beginPrimitive(xysLen/2, indicesLen), offset = vertPos;
+    for (int ii = xysOffset, ll = ii+xysLen; ii < ll; ii += 2) {
+      float x = xys[ii], y = xys[ii+1];
+      offset = addVert(offset, x, y, x/tw, y/th);
+    }
+    vertPos = offset;
+
+    addElems(vertIdx, indices, indicesOffset, indicesLen, indexBase);
+  }
+
+  @Override public void addTris (float[] xys, float[] sxys, int xysOffset, int xysLen,
+                                 int[] indices, int indicesOffset, int indicesLen,
+                                 int indexBase) {
+    int vertIdx = beginPrimitive(xysLen/2, indicesLen), offset = vertPos;
+    for (int ii = xysOffset, ll = ii+xysLen; ii < ll; ii += 2) {
+      offset = addVert(offset, xys[ii], xys[ii+1], sxys[ii], sxys[ii+1]);
+    }
+    vertPos = offset;
+
+    addElems(vertIdx, indices, indicesOffset, indicesLen, indexBase);
+  }
+
+  @Override public void addQuad (int tint,
+                                 float m00, float m01, float m10, float m11, float tx, float ty,
+                                 float x1, float y1, float sx1, float sy1,
+                                 float x2, float y2, float sx2, float sy2,
+                                 float x3, float y3, float sx3, float sy3,
+                                 float x4, float y4, float sx4, float sy4) {
+    prepare(tint, m00, m01, m10, m11, tx, ty);
+
+    int vertIdx = beginPrimitive(4, 6); int offset = vertPos;
+    quadsAdded++;
+    offset = addVert(offset, x1, y1, sx1, sy1);
+    offset = addVert(offset, x2, y2, sx2, sy2);
+    offset = addVert(offset, x3, y3, sx3, sy3);
+    offset = addVert(offset, x4, y4, sx4, sy4);
+    vertPos = offset;
+
+    addElems(vertIdx, QUAD_INDICES, 0, QUAD_INDICES.length, 0);
+  }
+
+  @Override public String toString () { return "ctris/" + (elemCapacity()/QUAD_INDICES.length); }
+
+  @Override protected int vertexSize () { return VERTEX_SIZE; }
+  @Override protected int vertexStride () { return VERTEX_STRIDE; }
+
+  @Override protected void initAttribs (GLProgram program) {
+    // our shader has no per-vertex transform, so it declares only these
+    aColor = program.getAttribLocation("a_Color");
+    aPosition = program.getAttribLocation("a_Position");
+    aTexCoord = program.getAttribLocation("a_TexCoord");
+    aMatrix = aTranslation = -1;
+  }
+
+  @Override protected void bindVertAttribs (int base) {
+    glBindVertAttrib(aPosition, 2, GL_FLOAT, VERTEX_STRIDE, base);
+    glBindVertAttrib(aTexCoord, 2, GL_FLOAT, VERTEX_STRIDE, base+8);
+    // the tint bytes are normalized to [0, 1] by GL
+    gl.glEnableVertexAttribArray(aColor);
+    gl.glVertexAttribPointer(aColor, 4, GL_UNSIGNED_BYTE, true, VERTEX_STRIDE, base+16);
+  }
+
+  @Override protected void disableVertAttribs () {
+    gl.glDisableVertexAttribArray(aPosition);
+    gl.glDisableVertexAttribArray(aTexCoord);
+    gl.glDisableVertexAttribArray(aColor);
+  }
+
+  @Override protected Buffer vertexData () {
+    gl.bufs.setIntBuffer(packed, 0, vertPos);
+    return gl.bufs.intBuffer;
+  }
+
+  @Override protected int vertCapacity () {
+    return packed.length / VERTEX_SIZE;
+  }
+
+  @Override protected void resizeVerts (int verts, boolean keep) {
+    // this is called by our superclass constructor, before our fields are initialized
+    packed = (keep && packed != null) ? Arrays.copyOf(packed, verts*VERTEX_SIZE) :
+      new int[verts*VERTEX_SIZE];
+  }
+
+  private int addVert (int offset, float x, float y, float sx, float sy) {
+    int[] verts = packed;
+    verts[offset++] = Float.floatToIntBits(m00*x + m10*y + tx);
+    verts[offset++] = Float.floatToIntBits(m01*x + m11*y + ty);
+    verts[offset++] = Float.floatToIntBits(sx);
+    verts[offset++] = Float.floatToIntBits(sy);
+    verts[offset++] = color;
+    return offset;
+  }
+}
@@ -0,0 +1,531 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static playn.core.GL20.*;
+
+/**
+ * Block compressed image data (ETC1, ETC2 or S3TC/DXT), loaded from a KTX or DDS container. This
+ * data can be uploaded to the GPU as is (see {@link Texture#update(CompressedImage)}), which uses
+ * a quarter or an eighth of the memory and upload bandwidth of uncompressed RGBA. If the GPU does
+ * not support the format, the data is decoded on the CPU and uploaded uncompressed.
+ *
+ * <p>PlayN blends with premultiplied alpha, so compressed data with alpha should be authored with
+ * premultiplied colors. The CPU decoder reproduces the data exactly as the GPU would, and thus
+ * does not premultiply.</p>
+ */
+public class CompressedImage {
+
+  /** The supported compression formats. */
+  public static enum Format {
+    /** ETC1 RGB, 4 bits per pixel. */
+    ETC1(0x8D64, 8, false, "OES_compressed_ETC1_RGB8_texture", "WEBGL_compressed_texture_etc1"),
+    /** ETC2 RGB, 4 bits per pixel. */
+    ETC2_RGB8(0x9274, 8, false, "ARB_ES3_compatibility", "WEBGL_compressed_texture_etc"),
+    /** ETC2 RGB with EAC alpha, 8 bits per pixel. */
+    ETC2_RGBA8(0x9278, 16, true, "ARB_ES3_compatibility", "WEBGL_compressed_texture_etc"),
+    /** S3TC DXT1 (BC1) RGB, 4 bits per pixel. */
+    DXT1_RGB(0x83F0, 8, false, "EXT_texture_compression_s3tc", "EXT_texture_compression_dxt1",
+             "WEBGL_compressed_texture_s3tc"),
+    /** S3TC DXT1 (BC1) RGB with one bit alpha, 4 bits per pixel. */
+    DXT1_RGBA(0x83F1, 8, true, "EXT_texture_compression_s3tc", "EXT_texture_compression_dxt1",
+              "WEBGL_compressed_texture_s3tc"),
+    /** S3TC DXT3 (BC2) RGBA with explicit alpha, 8 bits per pixel. */
+    DXT3(0x83F2, 16, true, "EXT_texture_compression_s3tc", "WEBGL_compressed_texture_s3tc"),
+    /** S3TC DXT5 (BC3) RGBA with interpolated alpha, 8 bits per pixel. */
+    DXT5(0x83F3, 16, true, "EXT_texture_compression_s3tc", "WEBGL_compressed_texture_s3tc");
+
+    /** The GL internal format constant for this format. */
+    public final int glFormat;
+    /** The number of bytes in each 4x4 block. */
+    public final int blockBytes;
+    /** Whether this format encodes alpha. */
+    public final boolean hasAlpha;
+
+    /** Returns the format with GL internal format {@code glFormat}, or null. */
+    public static Format forGL (int glFormat) {
+      for (Format format : values()) if (format.glFormat == glFormat) return format;
+      return null;
+    }
+
+    /** Returns the number of bits used per pixel by this format. */
+    public int bitsPerPixel () {
+      return blockBytes/2;
+    }
+
+    /** Returns the number of bytes of data in a {@code width x height} image. */
+    public int bytes (int width, int height) {
+      return ((width+3)/4) * ((height+3)/4) * blockBytes;
+    }
+
+    /** Returns the internal format with which data in this format can be uploaded to {@code gl},
+      * or zero if {@code gl} does not support this format. */
+    public int uploadFormat (GL20 gl) {
+      String exts = gl.glGetString(GL_EXTENSIONS);
+      if (exts == null) return 0;
+      // match whole names, so that (say) EXT_texture_compression_s3tc_srgb does not match
+      // EXT_texture_compression_s3tc; GL reports names with a GL_ prefix, WebGL without
+      Set<String> names = new HashSet<>(Arrays.asList(exts.trim().split("\\s+")));
+      for (String ext : extensions) {
+        if (names.contains(ext) || names.contains("GL_" + ext)) return glFormat;
+      }
+      // ETC2 is backwards compatible with ETC1
+      if (this == ETC1 && ETC2_RGB8.uploadFormat(gl) != 0) return ETC2_RGB8.glFormat;
+      return 0;
+    }
+
+    Format (int glFormat, int blockBytes, boolean hasAlpha, String... extensions) {
+      this.glFormat = glFormat;
+      this.blockBytes = blockBytes;
+      this.hasAlpha = hasAlpha;
+      this.extensions = extensions;
+    }
+
+    private final String[] extensions;
+  }
+
+  /**
+   * Parses a KTX or DDS container (detected by its header).
+   * @throws IllegalArgumentException if the data is not a supported KTX or DDS container.
+   */
+  public static CompressedImage parse (ByteBuffer data) {
+    ByteBuffer buf = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    if (buf.remaining() >= 4 && buf.getInt(buf.position()) == DDS_MAGIC) return parseDDS(data);
+    return parseKTX(data);
+  }
+
+  /**
+   * Parses a KTX (version 1) container which holds a single 2D image (and optionally its mipmaps)
+   * in a supported compressed format.
+   * @throws IllegalArgumentException if the data is not such a container.
+   */
+  public static CompressedImage parseKTX (ByteBuffer data) {
+    ByteBuffer buf = data.duplicate();
+    try {
+      for (int ii = 0; ii < KTX_MAGIC.length; ii++) {
+        if (buf.get() != KTX_MAGIC[ii]) throw new IllegalArgumentException("Not a KTX container");
+      }
+      buf.order(ByteOrder.LITTLE_ENDIAN);
+      int endian = buf.getInt();
+      if (endian == 0x01020304) buf.order(ByteOrder.BIG_ENDIAN);
+      else if (endian != 0x04030201) throw new IllegalArgumentException(
+        "Invalid KTX endianness: " + Integer.toHexString(endian));
+      int glType = buf.getInt();
+      buf.getInt(); buf.getInt(); // glTypeSize, glFormat
+      int glInternalFormat = buf.getInt();
+      buf.getInt(); // glBaseInternalFormat
+      int width = buf.getInt(), height = buf.getInt(), depth = buf.getInt();
+      int elements = buf.getInt(), faces = buf.getInt(), mipLevels = buf.getInt();
+      int kvBytes = buf.getInt();
+
+      Format format = Format.forGL(glInternalFormat);
+      if (glType != 0 || format == null) throw new IllegalArgumentException(
+        "Unsupported KTX format: " + Integer.toHexString(glInternalFormat));
+      if (height == 0 || depth > 1 || elements > 0 || faces != 1) throw new IllegalArgumentException(
+        "Only 2D KTX textures are supported [height=" + height + ", depth=" + depth +
+        ", elements=" + elements + ", faces=" + faces + "]");
+
+      buf.position(buf.position() + kvBytes);
+      byte[][] levels = new byte[Math.max(mipLevels, 1)][];
+      for (int ll = 0; ll < levels.length; ll++) {
+        int size = buf.getInt();
+        levels[ll] = new byte[size];
+        buf.get(levels[ll]);
+        buf.position(buf.position() + (3 - (size + 3) % 4)); // mip padding
+      }
+      return new CompressedImage(format, width, height, levels);
+    } catch (RuntimeException e) {
+      if (e instanceof IllegalArgumentException) throw e;
+      throw new IllegalArgumentException("Invalid KTX container: " + e, e);
+    }
+  }
+
+  /**
+   * Parses a DDS container which holds a single 2D image (and optionally its mipmaps) in DXT1, DXT3
+   * or DXT5 format.
+   * @throws IllegalArgumentException if the data is not such a container.
+   */
+  public static CompressedImage parseDDS (ByteBuffer data) {
+    ByteBuffer buf = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    try {
+      int start = buf.position();
+      if (buf.getInt() != DDS_MAGIC || buf.getInt() != 124) throw new IllegalArgumentException(
+        "Not a DDS container");
+      int flags = buf.getInt(), height = buf.getInt(), width = buf.getInt();
+      buf.getInt(); buf.getInt(); // pitchOrLinearSize, depth
+      int mipCount = buf.getInt();
+      buf.position(start + 80);
+      int pfFlags = buf.getInt(), fourCC = buf.getInt();
+      Format format;
+      if ((pfFlags & DDPF_FOURCC) == 0) format = null;
+      else if (fourCC == fourCC("DXT1")) format = Format.DXT1_RGBA;
+      else if (fourCC == fourCC("DXT3")) format = Format.DXT3;
+      else if (fourCC == fourCC("DXT5")) format = Format.DXT5;
+      else format = null;
+      if (format == null) throw new IllegalArgumentException(
+        "Unsupported DDS format [flags=" + Integer.toHexString(pfFlags) +
+        ", fourCC=" + Integer.toHexString(fourCC) + "]");
+
+      buf.position(start + 128);
+      int count = ((flags & DDSD_MIPMAPCOUNT) != 0 && mipCount > 0) ? mipCount : 1;
+      byte[][] levels = new byte[count][];
+      for (int ll = 0; ll < count; ll++) {
+        levels[ll] = new byte[format.bytes(levelSize(width, ll), levelSize(height, ll))];
+        buf.get(levels[ll]);
+      }
+      return new CompressedImage(format, width, height, levels);
+    } catch (RuntimeException e) {
+      if (e instanceof IllegalArgumentException) throw e;
+      throw new IllegalArgumentException("Invalid DDS container: " + e, e);
+    }
+  }
+
+  /** The format of this image's data. */
+  public final Format format;
+
+  /** The size of this image (i.e. of its first level), in pixels. */
+  public final int width, height;
+
+  /**
+   * Creates a compressed image from raw block data.
+   * @param levels the data for each mipmap level, starting with the full size image.
+   * @throws IllegalArgumentException if the size of any level's data is incorrect.
+   */
+  public CompressedImage (Format format, int width, int height, byte[][] levels) {
+    if (width <= 0 || height <= 0 || levels.length == 0) throw new IllegalArgumentException(
+      "Invalid compressed image: " + width + "x" + height + ", " + levels.length + " levels");
+    for (int ll = 0; ll < levels.length; ll++) {
+      int expect = format.bytes(levelSize(width, ll), levelSize(height, ll));
+      if (levels[ll].length != expect) throw new IllegalArgumentException(
+        "Invalid size for level " + ll + ": " + levels[ll].length + " != " + expect);
+    }
+    this.format = format;
+    this.width = width;
+    this.height = height;
+    this.levels = levels;
+  }
+
+  /** Returns the number of mipmap levels in this image (at least one). */
+  public int levels () {
+    return levels.length;
+  }
+
+  /** Returns the compressed data for mipmap level {@code level}. */
+  public byte[] level (int level) {
+    return levels[level];
+  }
+
+  /** Returns whether this image contains a complete chain of mipmaps. */
+  public boolean hasMipmaps () {
+    int count = 1;
+    for (int size = Math.max(width, height); size > 1; size >>= 1) count++;
+    return levels.length >= count;
+  }
+
+  /** Returns the total size of this image's compressed data, in bytes. */
+  public long bytes () {
+    long bytes = 0;
+    for (byte[] level : levels) bytes += level.length;
+    return bytes;
+  }
+
+  /**
+   * Creates a texture from this image. The texture's display size is its pixel size.
+   * @throws IllegalArgumentException if {@code config} requires a power of two sized texture (for
+   * repeat or mipmaps) and this image is not power of two sized.
+   */
+  public Texture createTexture (Graphics gfx, Texture.Config config) {
+    if (config.toTexWidth(width) != width || config.toTexHeight(height) != height) {
+      throw new IllegalArgumentException(
+        "Compressed textures which repeat or have mipmaps must be power of two sized: " + this);
+    }
+    int bits = uploadsCompressed(gfx.gl, config) ? format.bitsPerPixel() : 32;
+    Texture tex = new Texture(gfx, gfx.createTexture(config), config, width, height,
+                              Scale.ONE, width, height, bits);
+    tex.update(this);
+    if (gfx.textures().budget() > 0) tex.compressedSource = this;
+    return tex;
+  }
+
+  /**
+   * Decodes mipmap level {@code level} of this image into ARGB pixels, in row major order.
+   */
+  public int[] decode (int level) {
+    int lw = levelSize(width, level), lh = levelSize(height, level);
+    byte[] data = levels[level];
+    int[] argb = new int[lw*lh], block = new int[16];
+    int bw = (lw+3)/4, bh = (lh+3)/4;
+    for (int by = 0, offset = 0; by < bh; by++) {
+      for (int bx = 0; bx < bw; bx++, offset += format.blockBytes) {
+        decodeBlock(format, data, offset, block);
+        for (int y = 0; y < 4; y++) {
+          int py = by*4 + y;
+          if (py >= lh) break;
+          for (int x = 0; x < 4; x++) {
+            int px = bx*4 + x;
+            if (px < lw) argb[py*lw + px] = block[y*4 + x];
+          }
+        }
+      }
+    }
+    return argb;
+  }
+
+  @Override public String toString () {
+    return "CompressedImage[" + format + ", " + width + "x" + height + ", levels=" +
+      levels.length + "]";
+  }
+
+  /** Returns whether this image will be uploaded compressed to a texture with {@code config}. */
+  boolean uploadsCompressed (GL20 gl, Texture.Config config) {
+    // compressed data cannot have mipmaps generated, so if we lack them we decode instead
+    return format.uploadFormat(gl) != 0 && (!config.mipmaps || hasMipmaps());
+  }
+
+  static int levelSize (int size, int level) {
+    return Math.max(1, size >> level);
+  }
+
+  /** Decodes the 4x4 block of {@code format} data at {@code offset} into ARGB {@code out}. */
+  static void decodeBlock (Format format, byte[] data, int offset, int[] out) {
+    switch (format) {
+    case ETC1:
+      decodeETC(readLongBE(data, offset), false, out);
+      break;
+    case ETC2_RGB8:
+      decodeETC(readLongBE(data, offset), true, out);
+      break;
+    case ETC2_RGBA8:
+      decodeETC(readLongBE(data, offset+8), true, out);
+      decodeEACAlpha(readLongBE(data, offset), out);
+      break;
+    case DXT1_RGB:
+    case DXT1_RGBA:
+      decodeDXTColor(data, offset, format == Format.DXT1_RGBA, true, out);
+      break;
+    case DXT3:
+      decodeDXTColor(data, offset+8, false, false, out);
+      for (int ii = 0; ii < 16; ii++) {
+        int alpha = (data[offset + ii/2] >> ((ii % 2) * 4)) & 0xF;
+        out[ii] = (out[ii] & 0xFFFFFF) | ((alpha * 17) << 24);
+      }
+      break;
+    case DXT5:
+      decodeDXTColor(data, offset+8, false, false, out);
+      decodeDXT5Alpha(data, offset, out);
+      break;
+    }
+  }
+
+  private static void decodeETC (long block, boolean etc2, int[] out) {
+    int hi = (int)(block >>> 32), lo = (int)block;
+    boolean diff = (hi & 2) != 0, flip = (hi & 1) != 0;
+    int r1, g1, b1, r2, g2, b2;
+    if (!diff) {
+      r1 = extend4((hi >>> 28) & 0xF); r2 = extend4((hi >>> 24) & 0xF);
+      g1 = extend4((hi >>> 20) & 0xF); g2 = extend4((hi >>> 16) & 0xF);
+      b1 = extend4((hi >>> 12) & 0xF); b2 = extend4((hi >>> 8) & 0xF);
+    } else {
+      int r = (hi >>> 27) & 0x1F, dr = signed3((hi >>> 24) & 7);
+      int g = (hi >>> 19) & 0x1F, dg = signed3((hi >>> 16) & 7);
+      int b = (hi >>> 11) & 0x1F, db = signed3((hi >>> 8) & 7);
+      if (etc2) {
+        // ETC2 encodes its additional modes as overflowing ETC1 differential colors
+        if (r + dr < 0 || r + dr > 31) { decodeETC2T(hi, lo, out); return; }
+        if (g + dg < 0 || g + dg > 31) { decodeETC2H(hi, lo, out); return; }
+        if (b + db < 0 || b + db > 31) { decodeETC2Planar(hi, lo, out); return; }
+      }
+      r1 = extend5(r); r2 = extend5((r + dr) & 0x1F);
+      g1 = extend5(g); g2 = extend5((g + dg) & 0x1F);
+      b1 = extend5(b); b2 = extend5((b + db) & 0x1F);
+    }
+    int[] table1 = ETC_MODIFIERS[(hi >>> 5) & 7], table2 = ETC_MODIFIERS[(hi >>> 2) & 7];
+    for (int x = 0; x < 4; x++) {
+      for (int y = 0; y < 4; y++) {
+        boolean second = flip ? (y >= 2) : (x >= 2);
+        int[] table = second ? table2 : table1;
+        int idx = pixelIndex(lo, x, y);
+        // index 0 and 1 select positive modifiers, 2 and 3 their negations
+        int mod = (idx < 2) ? table[idx] : -table[idx-2];
+        out[y*4 + x] = second ? argb(255, r2 + mod, g2 + mod, b2 + mod) :
+          argb(255, r1 + mod, g1 + mod, b1 + mod);
+      }
+    }
+  }
+
+  private static void decodeETC2T (int hi, int lo, int[] out) {
+    int r1 = extend4((((hi >>> 27) & 3) << 2) | ((hi >>> 24) & 3));
+    int g1 = extend4((hi >>> 20) & 0xF), b1 = extend4((hi >>> 16) & 0xF);
+    int r2 = extend4((hi >>> 12) & 0xF), g2 = extend4((hi >>> 8) & 0xF);
+    int b2 = extend4((hi >>> 4) & 0xF);
+    int d = ETC2_DISTANCES[(((hi >>> 2) & 3) << 1) | (hi & 1)];
+    int[] paint = { argb(255, r1, g1, b1), argb(255, r2 + d, g2 + d, b2 + d),
+                    argb(255, r2, g2, b2), argb(255, r2 - d, g2 - d, b2 - d) };
+    for (int x = 0; x < 4; x++) {
+      for (int y = 0; y < 4; y++) out[y*4 + x] = paint[pixelIndex(lo, x, y)];
+    }
+  }
+
+  private static void decodeETC2H (int hi, int lo, int[] out) {
+    int r1 = (hi >>> 27) & 0xF, g1 = (((hi >>> 24) & 7) << 1) | ((hi >>> 20) & 1);
+    int b1 = (((hi >>> 19) & 1) << 3) | ((hi >>> 15) & 7);
+    int r2 = (hi >>> 11) & 0xF, g2 = (hi >>> 7) & 0xF, b2 = (hi >>> 3) & 0xF;
+    // the low bit of the distance index is encoded in the ordering of the two colors
+    int order = ((r1 << 8) | (g1 << 4) | b1) >= ((r2 << 8) | (g2 << 4) | b2) ? 1 : 0;
+    int d = ETC2_DISTANCES[(((hi >>> 2) & 1) << 2) | ((hi & 1) << 1) | order];
+    r1 = extend4(r1); g1 = extend4(g1); b1 = extend4(b1);
+    r2 = extend4(r2); g2 = extend4(g2); b2 = extend4(b2);
+    int[] paint = { argb(255, r1 + d, g1 + d, b1 + d), argb(255, r1 - d, g1 - d, b1 - d),
+                    argb(255, r2 + d, g2 + d, b2 + d), argb(255, r2 - d, g2 - d, b2 - d) };
+    for (int x = 0; x < 4; x++) {
+      for (int y = 0; y < 4; y++) out[y*4 + x] = paint[pixelIndex(lo, x, y)];
+    }
+  }
+
+  private static void decodeETC2Planar (int hi, int lo, int[] out) {
+    int ro = extend6((hi >>> 25) & 0x3F);
+    int go = extend7((((hi >>> 24) & 1) << 6) | ((hi >>> 17) & 0x3F));
+    int bo = extend6((((hi >>> 16) & 1) << 5) | (((hi >>> 11) & 3) << 3) | ((hi >>> 7) & 7));
+    int rh = extend6((((hi >>> 2) & 0x1F) << 1) | (hi & 1));
+    int gh = extend7((lo >>> 25) & 0x7F), bh = extend6((lo >>> 19) & 0x3F);
+    int rv = extend6((lo >>> 13) & 0x3F), gv = extend7((lo >>> 6) & 0x7F);
+    int bv = extend6(lo & 0x3F);
+    for (int y = 0; y < 4; y++) {
+      for (int x = 0; x < 4; x++) {
+        out[y*4 + x] = argb(255, (x*(rh-ro) + y*(rv-ro) + 4*ro + 2) >> 2,
+                            (x*(gh-go) + y*(gv-go) + 4*go + 2) >> 2,
+                            (x*(bh-bo) + y*(bv-bo) + 4*bo + 2) >> 2);
+      }
+    }
+  }
+
+  private static void decodeEACAlpha (long block, int[] out) {
+    int base = (int)(block >>> 56) & 0xFF, mult = (int)(block >>> 52) & 0xF;
+    int[] table = EAC_MODIFIERS[(int)(block >>> 48) & 0xF];
+    for (int x = 0; x < 4; x++) {
+      for (int y = 0; y < 4; y++) {
+        int idx = (int)(block >>> (45 - 3*(x*4 + y))) & 7;
+        int alpha = clamp(base + table[idx] * mult);
+        out[y*4 + x] = (out[y*4 + x] & 0xFFFFFF) | (alpha << 24);
+      }
+    }
+  }
+
+  private static void decodeDXTColor (byte[] data, int offset, boolean punchAlpha,
+                                      boolean allowThreeColor, int[] out) {
+    int c0 = readShortLE(data, offset), c1 = readShortLE(data, offset+2);
+    int r0 = extend5(c0 >>> 11), g0 = extend6((c0 >>> 5) & 0x3F), b0 = extend5(c0 & 0x1F);
+    int r1 = extend5(c1 >>> 11), g1 = extend6((c1 >>> 5) & 0x3F), b1 = extend5(c1 & 0x1F);
+    int[] colors = new int[4];
+    colors[0] = argb(255, r0, g0, b0);
+    colors[1] = argb(255, r1, g1, b1);
+    // DXT3 and DXT5 color blocks always use four color mode
+    if (c0 > c1 || !allowThreeColor) {
+      colors[2] = argb(255, (2*r0 + r1)/3, (2*g0 + g1)/3, (2*b0 + b1)/3);
+      colors[3] = argb(255, (r0 + 2*r1)/3, (g0 + 2*g1)/3, (b0 + 2*b1)/3);
+    } else {
+      colors[2] = argb(255, (r0 + r1)/2, (g0 + g1)/2, (b0 + b1)/2);
+      colors[3] = punchAlpha ? 0 : argb(255, 0, 0, 0);
+    }
+    int bits = readIntLE(data, offset+4);
+    for (int ii = 0; ii < 16; ii++) out[ii] = colors[(bits >>> (2*ii)) & 3];
+  }
+
+  private static void decodeDXT5Alpha (byte[] data, int offset, int[] out) {
+    int a0 = data[offset] & 0xFF, a1 = data[offset+1] & 0xFF;
+    int[] alphas = new int[8];
+    alphas[0] = a0;
+    alphas[1] = a1;
+    if (a0 > a1) {
+      for (int ii = 1; ii < 7; ii++) alphas[ii+1] = ((7-ii)*a0 + ii*a1)/7;
+    } else {
+      for (int ii = 1; ii < 5; ii++) alphas[ii+1] = ((5-ii)*a0 + ii*a1)/5;
+      alphas[6] = 0;
+      alphas[7] = 255;
+    }
+    long bits = 0;
+    for (int ii = 5; ii >= 0; ii--) bits = (bits << 8) | (data[offset+2+ii] & 0xFF);
+    for (int ii = 0; ii < 16; ii++) {
+      int alpha = alphas[(int)(bits >>> (3*ii)) & 7];
+      out[ii] = (out[ii] & 0xFFFFFF) | (alpha << 24);
+    }
+  }
+
+  // ETC pixel indices are stored in column major order, with their MSBs in the upper half word
+  private static int pixelIndex (int lo, int x, int y) {
+    int ii = x*4 + y;
+    return (((lo >>> (16 + ii)) & 1) << 1) | ((lo >>> ii) & 1);
+  }
+
+  private static int argb (int a, int r, int g, int b) {
+    return (a << 24) | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+  }
+
+  private static int clamp (int value) {
+    return (value < 0) ? 0 : (value > 255 ? 255 : value);
+  }
+
+  private static int signed3 (int value) { return (value << 29) >> 29; }
+  private static int extend4 (int value) { return (value << 4) | value; }
+  private static int extend5 (int value) { return (value << 3) | (value >>> 2); }
+  private static int extend6 (int value) { return (value << 2) | (value >>> 4); }
+  private static int extend7 (int value) { return (value << 1) | (value >>> 6); }
+
+  private static long readLongBE (byte[] data, int offset) {
+    long value = 0;
+    for (int ii = 0; ii < 8; ii++) value = (value << 8) | (data[offset+ii] & 0xFF);
+    return value;
+  }
+
+  private static int readShortLE (byte[] data, int offset) {
+    return (data[offset] & 0xFF) | ((data[offset+1] & 0xFF) << 8);
+  }
+
+  private static int readIntLE (byte[] data, int offset) {
+    return readShortLE(data, offset) | (readShortLE(data, offset+2) << 16);
+  }
+
+  private static int fourCC (String code) {
+    return code.charAt(0) | (code.charAt(1) << 8) | (code.charAt(2) << 16) | (code.charAt(3) << 24);
+  }
+
+  private final byte[][] levels;
+
+  private static final byte[] KTX_MAGIC = {
+    (byte)0xAB, 0x4B, 0x54, 0x58, 0x20, 0x31, 0x31, (byte)0xBB, 0x0D, 0x0A, 0x1A, 0x0A };
+  private static final int DDS_MAGIC = 0x20534444; // "DDS "
+  private static final int DDSD_MIPMAPCOUNT = 0x20000;
+  private static final int DDPF_FOURCC = 0x4;
+
+  private static final int[][] ETC_MODIFIERS = {
+    { 2, 8 }, { 5, 17 }, { 9, 29 }, { 13, 42 }, { 18, 60 }, { 24, 80 }, { 33, 106 }, { 47, 183 }
+  };
+  private static final int[] ETC2_DISTANCES = { 3, 6, 11, 16, 23, 32, 41, 64 };
+  private static final int[][] EAC_MODIFIERS = {
+    { -3, -6, -9, -15, 2, 5, 8, 14 }, { -3, -7, -10, -13, 2, 6, 9, 12 },
+    { -2, -5, -8, -13, 1, 4, 7, 12 }, { -2, -4, -6, -13, 1, 3, 5, 12 },
+    { -3, -6, -8, -12, 2, 5, 7, 11 }, { -3, -7, -9, -11, 2, 6, 8, 10 },
+    { -4, -7, -8, -11, 3, 6, 7, 10 }, { -3, -5, -8, -11, 2, 4, 7, 10 },
+    { -2, -6, -8, -10, 1, 5, 7, 9 }, { -2, -5, -8, -10, 1, 4, 7, 9 },
+    { -2, -4, -8, -10, 1, 3, 7, 9 }, { -2, -5, -7, -10, 1, 4, 6, 9 },
+    { -3, -4, -7, -10, 2, 3, 6, 9 }, { -1, -2, -3, -10, 0, 1, 2, 9 },
+    { -4, -6, -8, -9, 3, 5, 7, 8 }, { -3, -5, -7, -9, 2, 4, 6, 8 }
+  };
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A quad batch which records quads into a command list rather than rendering them immediately.
+ * When flushed, it reorders the recorded quads to group together those that use the same target
+ * batch and texture, and then replays them into their target batches. A quad is only moved ahead
+ * of quads whose screen-space bounds it does not overlap, so the result is identical to rendering
+ * the quads in the order they were submitted.
+ *
+ * <p>This is used by {@link Surface} in its deferred mode (see {@link Surface#setDeferred}). Each
+ * recorded quad is associated with the batch configured via {@link #setTarget} at the time it was
+ * added. During replay, target batches are begun and ended as needed.</p>
+ */
+public class DeferredBatch extends QuadBatch {
+
+  /** The maximum number of groups a quad will be checked against when looking for a group with
+    * which it can be merged. This bounds the cost of reordering. */
+  public static final int MAX_LOOKBACK = 32;
+
+  private QuadBatch target;
+  private Texture curTex;
+  private float fbufWidth, fbufHeight;
+  private boolean flip;
+
+  private final List<Cmd> cmds = new ArrayList<Cmd>();
+  private int cmdCount;
+  private final List<Group> groups = new ArrayList<Group>();
+  private int groupCount;
+
+  private int drawsBefore, drawsAfter;
+
+  public DeferredBatch (GL20 gl) {
+    super(gl);
+  }
+
+  /** Configures the batch into which subsequently added quads will be replayed. */
+  public void setTarget (QuadBatch target) {
+    this.target = target;
+  }
+
+  /** Returns the batch into which subsequently added quads will be replayed. */
+  public QuadBatch target () {
+    return target;
+  }
+
+  /** Returns the number of draw calls that would have been needed to render the recorded quads in
+    * submission order (one per change of batch or texture), since the last {@link #resetStats}. */
+  public int drawsBefore () {
+    return drawsBefore;
+  }
+
+  /** Returns the number of draw calls needed to render the reordered quads (one per group of quads
+    * with the same batch and texture), since the last {@link #resetStats}. */
+  public int drawsAfter () {
+    return drawsAfter;
+  }
+
+  /** Resets the {@link #drawsBefore} and {@link #drawsAfter} counters. */
+  public void resetStats () {
+    drawsBefore = drawsAfter = 0;
+  }
+
+  @Override public void setTexture (Texture texture) {
+    curTex = texture; // no need to flush, we'll sort things out when we replay
+  }
+
+  @Override public void addQuad (int tint,
+                                 float m00, float m01, float m10, float m11, float tx, float ty,
+                                 float x1, float y1, float sx1, float sy1,
+                                 float x2, float y2, float sx2, float sy2,
+                                 float x3, float y3, float sx3, float sy3,
+                                 float x4, float y4, float sx4, float sy4) {
+    if (target == null) throw new IllegalStateException("DeferredBatch has no target batch");
+    if (cmdCount == cmds.size()) cmds.add(new Cmd());
+    Cmd cmd = cmds.get(cmdCount++);
+    cmd.batch = target;
+    cmd.tex = curTex;
+    cmd.tint = tint;
+    float[] d = cmd.data;
+    d[0] = m00; d[1] = m01; d[2] = m10; d[3] = m11; d[4] = tx; d[5] = ty;
+    d[6] = x1;  d[7] = y1;  d[8] = sx1;  d[9] = sy1;
+    d[10] = x2; d[11] = y2; d[12] = sx2; d[13] = sy2;
+    d[14] = x3; d[15] = y3; d[16] = sx3; d[17] = sy3;
+    d[18] = x4; d[19] = y4; d[20] = sx4; d[21] = sy4;
+
+    // compute the screen-space bounds of the transformed quad
+    float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+    float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+    for (int ii = 6; ii < 22; ii += 4) {
+      float x = d[ii], y = d[ii+1];
+      float bx = m00*x + m10*y + tx, by = m01*x + m11*y + ty;
+      if (bx < minX) minX = bx;
+      if (bx > maxX) maxX = bx;
+      if (by < minY) minY = by;
+      if (by > maxY) maxY = by;
+    }
+    cmd.minX = minX; cmd.minY = minY; cmd.maxX = maxX; cmd.maxY = maxY;
+  }
+
+  @Override public void begin (float fbufWidth, float fbufHeight, boolean flip) {
+    super.begin(fbufWidth, fbufHeight, flip);
+    this.fbufWidth = fbufWidth;
+    this.fbufHeight = fbufHeight;
+    this.flip = flip;
+  }
+
+  @Override public void flush () {
+    super.flush();
+    if (cmdCount > 0) {
+      sort();
+      replay();
+      for (int ii = 0; ii < cmdCount; ii++) cmds.get(ii).clear();
+      cmdCount = 0;
+    }
+  }
+
+  @Override public void end () {
+    super.end();
+    curTex = null;
+  }
+
+  @Override public String toString () { return "deferred/" + target; }
+
+  private void sort () {
+    groupCount = 0;
+    Cmd prev = null;
+    for (int ii = 0; ii < cmdCount; ii++) {
+      Cmd cmd = cmds.get(ii);
+      if (prev == null || !cmd.sameKey(prev)) drawsBefore++;
+      prev = cmd;
+
+      // look back through our groups for one with the same batch and texture; we can join such a
+      // group only if we don't overlap anything in the groups that follow it
+      Group join = null;
+      for (int gg = groupCount-1, ll = Math.max(0, groupCount-MAX_LOOKBACK); gg >= ll; gg--) {
+        Group group = groups.get(gg);
+        if (group.cmd.sameKey(cmd)) { join = group; break; }
+        if (group.overlaps(cmd)) break;
+      }
+      if (join == null) {
+        if (groupCount == groups.size()) groups.add(new Group());
+        join = groups.get(groupCount++);
+        join.cmd = cmd;
+      }
+      join.add(cmd);
+    }
+    drawsAfter += groupCount;
+  }
+
+  private void replay () {
+    QuadBatch cur = null;
+    try {
+      for (int gg = 0; gg < groupCount; gg++) {
+        Group group = groups.get(gg);
+        QuadBatch batch = group.cmd.batch;
+        if (batch != cur) {
+          if (cur != null) cur.end(RenderStats.Flush.BATCH);
+          batch.begin(fbufWidth, fbufHeight, flip);
+          cur = batch;
+        }
+        for (Cmd cmd : group.cmds) cmd.addTo(batch);
+        group.clear();
+      }
+    } finally {
+      if (cur != null) cur.end(flushReason());
+    }
+  }
+
+  private static class Cmd {
+    public QuadBatch batch;
+    public Texture tex;
+    public int tint;
+    public final float[] data = new float[22];
+    public float minX, minY, maxX, maxY;
+
+    public boolean sameKey (Cmd other) {
+      return batch == other.batch && (tex == null ? other.tex == null :
+                                      other.tex != null && tex.id == other.tex.id);
+    }
+
+    public boolean overlaps (Cmd other) {
+      return minX < other.maxX && other.minX < maxX && minY < other.maxY && other.minY < maxY;
+    }
+
+    public void addTo (QuadBatch batch) {
+      if (tex != null) batch.setTexture(tex);
+      float[] d = data;
+      batch.addQuad(tint, d[0], d[1], d[2], d[3], d[4], d[5],
+                    d[6], d[7], d[8], d[9], d[10], d[11], d[12], d[13],
+                    d[14], d[15], d[16], d[17], d[18], d[19], d[20], d[21]);
+    }
+
+    public void clear () {
+      batch = null;
+      tex = null;
+    }
+  }
+
+  private static class Group {
+    public Cmd cmd; // the first command in this group, which defines its batch and texture
+    public final List<Cmd> cmds = new ArrayList<Cmd>();
+    public float minX, minY, maxX, maxY;
+
+    public void add (Cmd cmd) {
+      if (cmds.isEmpty()) {
+        minX = cmd.minX; minY = cmd.minY; maxX = cmd.maxX; maxY = cmd.maxY;
+      } else {
+        minX = Math.min(minX, cmd.minX); minY = Math.min(minY, cmd.minY);
+        maxX = Math.max(maxX, cmd.maxX); maxY = Math.max(maxY, cmd.maxY);
+      }
+      cmds.add(cmd);
+    }
+
+    public boolean overlaps (Cmd cmd) {
+      // check our overall bounds first, then the individual commands
+      if (!(minX < cmd.maxX && cmd.minX < maxX && minY < cmd.maxY && cmd.minY < maxY)) return false;
+      for (Cmd gcmd : cmds) if (gcmd.overlaps(cmd)) return true;
+      return false;
+    }
+
+    public void clear () {
+      cmd = null;
+      cmds.clear();
+    }
+  }
+}
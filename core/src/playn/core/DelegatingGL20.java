@@ -0,0 +1,595 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * A {@link GL20} implementation which forwards all calls to another GL20 implementation. This is
+ * the basis for GL decorators (like {@link CachingGL20}) which intercept some calls and pass the
+ * rest through untouched. The delegating GL shares the {@link #bufs}, {@link #stats} and {@link
+ * #programs} of its delegate.
+ */
+public class DelegatingGL20 extends GL20 {
+
+  /** The GL to which we forward calls. */
+  public final GL20 delegate;
+
+  public DelegatingGL20 (GL20 delegate) {
+    super(delegate.bufs, delegate.checkErrors);
+    this.delegate = delegate;
+  }
+
+  @Override public RenderStats stats () {
+    return delegate.stats();
+  }
+
+  @Override public ProgramCache programs () {
+    return delegate.programs();
+  }
+
+  @Override public String getPlatformGLExtensions () {
+    return delegate.getPlatformGLExtensions();
+  }
+  @Override public int getSwapInterval () {
+    return delegate.getSwapInterval();
+  }
+  @Override public void glActiveTexture (int texture) {
+    delegate.glActiveTexture(texture);
+  }
+  @Override public void glAttachShader (int program, int shader) {
+    delegate.glAttachShader(program, shader);
+  }
+  @Override public void glBindAttribLocation (int program, int index, String name) {
+    delegate.glBindAttribLocation(program, index, name);
+  }
+  @Override public void glBindBuffer (int target, int buffer) {
+    delegate.glBindBuffer(target, buffer);
+  }
+  @Override public void glBindFramebuffer (int target, int framebuffer) {
+    delegate.glBindFramebuffer(target, framebuffer);
+  }
+  @Override public void glBindRenderbuffer (int target, int renderbuffer) {
+    delegate.glBindRenderbuffer(target, renderbuffer);
+  }
+  @Override public void glBindTexture (int target, int texture) {
+    delegate.glBindTexture(target, texture);
+  }
+  @Override public void glBlendColor (float red, float green, float blue, float alpha) {
+    delegate.glBlendColor(red, green, blue, alpha);
+  }
+  @Override public void glBlendEquation (int mode) {
+    delegate.glBlendEquation(mode);
+  }
+  @Override public void glBlendEquationSeparate (int modeRGB, int modeAlpha) {
+    delegate.glBlendEquationSeparate(modeRGB, modeAlpha);
+  }
+  @Override public void glBlendFunc (int sfactor, int dfactor) {
+    delegate.glBlendFunc(sfactor, dfactor);
+  }
+  @Override public void glBlendFuncSeparate (int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+    delegate.glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+  }
+  @Override public void glBufferData (int target, int size, Buffer data, int usage) {
+    delegate.glBufferData(target, size, data, usage);
+  }
+  @Override public void glBufferSubData (int target, int offset, int size, Buffer data) {
+    delegate.glBufferSubData(target, offset, size, data);
+  }
+  @Override public int glCheckFramebufferStatus (int target) {
+    return delegate.glCheckFramebufferStatus(target);
+  }
+  @Override public void glClear (int mask) {
+    delegate.glClear(mask);
+  }
+  @Override public void glClearColor (float red, float green, float blue, float alpha) {
+    delegate.glClearColor(red, green, blue, alpha);
+  }
+  @Override public void glClearDepth (double depth) {
+    delegate.glClearDepth(depth);
+  }
+  @Override public void glClearDepthf (float depth) {
+    delegate.glClearDepthf(depth);
+  }
+  @Override public void glClearStencil (int s) {
+    delegate.glClearStencil(s);
+  }
+  @Override public void glColorMask (boolean red, boolean green, boolean blue, boolean alpha) {
+    delegate.glColorMask(red, green, blue, alpha);
+  }
+  @Override public void glCompileShader (int shader) {
+    delegate.glCompileShader(shader);
+  }
+  @Override public void glCompressedTexImage2D (int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+    delegate.glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+  }
+  @Override public void glCompressedTexImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+    delegate.glCompressedTexImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+  }
+  @Override public void glCompressedTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, Buffer arg8) {
+    delegate.glCompressedTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+  }
+  @Override public void glCompressedTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    delegate.glCompressedTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+  }
+  @Override public void glCompressedTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+    delegate.glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+  }
+  @Override public void glCompressedTexSubImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    delegate.glCompressedTexSubImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+  }
+  @Override public void glCompressedTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, Buffer arg10) {
+    delegate.glCompressedTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+  }
+  @Override public void glCompressedTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+    delegate.glCompressedTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+  }
+  @Override public void glCopyTexImage2D (int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+    delegate.glCopyTexImage2D(target, level, internalformat, x, y, width, height, border);
+  }
+  @Override public void glCopyTexSubImage2D (int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+    delegate.glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+  }
+  @Override public void glCopyTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    delegate.glCopyTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+  }
+  @Override public int glCreateProgram () {
+    return delegate.glCreateProgram();
+  }
+  @Override public int glCreateShader (int type) {
+    return delegate.glCreateShader(type);
+  }
+  @Override public void glCullFace (int mode) {
+    delegate.glCullFace(mode);
+  }
+  @Override public void glDeleteBuffers (int n, IntBuffer buffers) {
+    delegate.glDeleteBuffers(n, buffers);
+  }
+  @Override public void glDeleteFramebuffers (int n, IntBuffer framebuffers) {
+    delegate.glDeleteFramebuffers(n, framebuffers);
+  }
+  @Override public void glDeleteProgram (int program) {
+    delegate.glDeleteProgram(program);
+  }
+  @Override public void glDeleteRenderbuffers (int n, IntBuffer renderbuffers) {
+    delegate.glDeleteRenderbuffers(n, renderbuffers);
+  }
+  @Override public void glDeleteShader (int shader) {
+    delegate.glDeleteShader(shader);
+  }
+  @Override public void glDeleteTextures (int n, IntBuffer textures) {
+    delegate.glDeleteTextures(n, textures);
+  }
+  @Override public void glDepthFunc (int func) {
+    delegate.glDepthFunc(func);
+  }
+  @Override public void glDepthMask (boolean flag) {
+    delegate.glDepthMask(flag);
+  }
+  @Override public void glDepthRange (double zNear, double zFar) {
+    delegate.glDepthRange(zNear, zFar);
+  }
+  @Override public void glDepthRangef (float zNear, float zFar) {
+    delegate.glDepthRangef(zNear, zFar);
+  }
+  @Override public void glDetachShader (int program, int shader) {
+    delegate.glDetachShader(program, shader);
+  }
+  @Override public void glDisable (int cap) {
+    delegate.glDisable(cap);
+  }
+  @Override public void glDisableVertexAttribArray (int index) {
+    delegate.glDisableVertexAttribArray(index);
+  }
+  @Override public void glDrawArrays (int mode, int first, int count) {
+    delegate.glDrawArrays(mode, first, count);
+  }
+  @Override public void glDrawElements (int mode, int count, int type, Buffer indices) {
+    delegate.glDrawElements(mode, count, type, indices);
+  }
+  @Override public void glDrawElements (int mode, int count, int type, int offset) {
+    delegate.glDrawElements(mode, count, type, offset);
+  }
+  @Override public void glEnable (int cap) {
+    delegate.glEnable(cap);
+  }
+  @Override public void glEnableVertexAttribArray (int index) {
+    delegate.glEnableVertexAttribArray(index);
+  }
+  @Override public void glFinish () {
+    delegate.glFinish();
+  }
+  @Override public void glFlush () {
+    delegate.glFlush();
+  }
+  @Override public void glFramebufferRenderbuffer (int target, int attachment, int renderbuffertarget, int renderbuffer) {
+    delegate.glFramebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer);
+  }
+  @Override public void glFramebufferTexture2D (int target, int attachment, int textarget, int texture, int level) {
+    delegate.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+  }
+  @Override public void glFramebufferTexture3D (int target, int attachment, int textarget, int texture, int level, int zoffset) {
+    delegate.glFramebufferTexture3D(target, attachment, textarget, texture, level, zoffset);
+  }
+  @Override public void glFrontFace (int mode) {
+    delegate.glFrontFace(mode);
+  }
+  @Override public void glGenBuffers (int n, IntBuffer buffers) {
+    delegate.glGenBuffers(n, buffers);
+  }
+  @Override public void glGenerateMipmap (int target) {
+    delegate.glGenerateMipmap(target);
+  }
+  @Override public void glGenFramebuffers (int n, IntBuffer framebuffers) {
+    delegate.glGenFramebuffers(n, framebuffers);
+  }
+  @Override public void glGenRenderbuffers (int n, IntBuffer renderbuffers) {
+    delegate.glGenRenderbuffers(n, renderbuffers);
+  }
+  @Override public void glGenTextures (int n, IntBuffer textures) {
+    delegate.glGenTextures(n, textures);
+  }
+  @Override public String glGetActiveAttrib (int program, int index, IntBuffer size, IntBuffer type) {
+    return delegate.glGetActiveAttrib(program, index, size, type);
+  }
+  @Override public String glGetActiveUniform (int program, int index, IntBuffer size, IntBuffer type) {
+    return delegate.glGetActiveUniform(program, index, size, type);
+  }
+  @Override public void glGetAttachedShaders (int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+    delegate.glGetAttachedShaders(program, maxcount, count, shaders);
+  }
+  @Override public int glGetAttribLocation (int program, String name) {
+    return delegate.glGetAttribLocation(program, name);
+  }
+  @Override public boolean glGetBoolean (int pname) {
+    return delegate.glGetBoolean(pname);
+  }
+  @Override public void glGetBooleanv (int pname, ByteBuffer params) {
+    delegate.glGetBooleanv(pname, params);
+  }
+  @Override public int glGetBoundBuffer (int arg0) {
+    return delegate.glGetBoundBuffer(arg0);
+  }
+  @Override public void glGetBufferParameteriv (int target, int pname, IntBuffer params) {
+    delegate.glGetBufferParameteriv(target, pname, params);
+  }
+  @Override public int glGetError () {
+    return delegate.glGetError();
+  }
+  @Override public float glGetFloat (int pname) {
+    return delegate.glGetFloat(pname);
+  }
+  @Override public void glGetFloatv (int pname, FloatBuffer params) {
+    delegate.glGetFloatv(pname, params);
+  }
+  @Override public void glGetFramebufferAttachmentParameteriv (int target, int attachment, int pname, IntBuffer params) {
+    delegate.glGetFramebufferAttachmentParameteriv(target, attachment, pname, params);
+  }
+  @Override public int glGetInteger (int pname) {
+    return delegate.glGetInteger(pname);
+  }
+  @Override public void glGetIntegerv (int pname, IntBuffer params) {
+    delegate.glGetIntegerv(pname, params);
+  }
+  @Override public void glGetProgramBinary (int arg0, int arg1, IntBuffer arg2, IntBuffer arg3, Buffer arg4) {
+    delegate.glGetProgramBinary(arg0, arg1, arg2, arg3, arg4);
+  }
+  @Override public void glGetProgramInfoLog (int program, int bufsize, IntBuffer length, ByteBuffer infolog) {
+    delegate.glGetProgramInfoLog(program, bufsize, length, infolog);
+  }
+  @Override public String glGetProgramInfoLog (int program) {
+    return delegate.glGetProgramInfoLog(program);
+  }
+  @Override public void glGetProgramiv (int program, int pname, IntBuffer params) {
+    delegate.glGetProgramiv(program, pname, params);
+  }
+  @Override public void glGetRenderbufferParameteriv (int target, int pname, IntBuffer params) {
+    delegate.glGetRenderbufferParameteriv(target, pname, params);
+  }
+  @Override public void glGetShaderInfoLog (int shader, int bufsize, IntBuffer length, ByteBuffer infolog) {
+    delegate.glGetShaderInfoLog(shader, bufsize, length, infolog);
+  }
+  @Override public String glGetShaderInfoLog (int shader) {
+    return delegate.glGetShaderInfoLog(shader);
+  }
+  @Override public void glGetShaderiv (int shader, int pname, IntBuffer params) {
+    delegate.glGetShaderiv(shader, pname, params);
+  }
+  @Override public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, int[] range, int rangeOffset, int[] precision, int precisionOffset) {
+    delegate.glGetShaderPrecisionFormat(shadertype, precisiontype, range, rangeOffset, precision, precisionOffset);
+  }
+  @Override public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+    delegate.glGetShaderPrecisionFormat(shadertype, precisiontype, range, precision);
+  }
+  @Override public void glGetShaderSource (int shader, int bufsize, int[] length, int lengthOffset, byte[] source, int sourceOffset) {
+    delegate.glGetShaderSource(shader, bufsize, length, lengthOffset, source, sourceOffset);
+  }
+  @Override public void glGetShaderSource (int shader, int bufsize, IntBuffer length, ByteBuffer source) {
+    delegate.glGetShaderSource(shader, bufsize, length, source);
+  }
+  @Override public String glGetString (int name) {
+    return delegate.glGetString(name);
+  }
+  @Override public void glGetTexParameterfv (int target, int pname, FloatBuffer params) {
+    delegate.glGetTexParameterfv(target, pname, params);
+  }
+  @Override public void glGetTexParameteriv (int target, int pname, IntBuffer params) {
+    delegate.glGetTexParameteriv(target, pname, params);
+  }
+  @Override public void glGetUniformfv (int program, int location, FloatBuffer params) {
+    delegate.glGetUniformfv(program, location, params);
+  }
+  @Override public void glGetUniformiv (int program, int location, IntBuffer params) {
+    delegate.glGetUniformiv(program, location, params);
+  }
+  @Override public int glGetUniformLocation (int program, String name) {
+    return delegate.glGetUniformLocation(program, name);
+  }
+  @Override public void glGetVertexAttribfv (int index, int pname, FloatBuffer params) {
+    delegate.glGetVertexAttribfv(index, pname, params);
+  }
+  @Override public void glGetVertexAttribiv (int index, int pname, IntBuffer params) {
+    delegate.glGetVertexAttribiv(index, pname, params);
+  }
+  @Override public void glHint (int target, int mode) {
+    delegate.glHint(target, mode);
+  }
+  @Override public boolean glIsBuffer (int buffer) {
+    return delegate.glIsBuffer(buffer);
+  }
+  @Override public boolean glIsEnabled (int cap) {
+    return delegate.glIsEnabled(cap);
+  }
+  @Override public boolean glIsFramebuffer (int framebuffer) {
+    return delegate.glIsFramebuffer(framebuffer);
+  }
+  @Override public boolean glIsProgram (int program) {
+    return delegate.glIsProgram(program);
+  }
+  @Override public boolean glIsRenderbuffer (int renderbuffer) {
+    return delegate.glIsRenderbuffer(renderbuffer);
+  }
+  @Override public boolean glIsShader (int shader) {
+    return delegate.glIsShader(shader);
+  }
+  @Override public boolean glIsTexture (int texture) {
+    return delegate.glIsTexture(texture);
+  }
+  @Override public boolean glIsVBOArrayEnabled () {
+    return delegate.glIsVBOArrayEnabled();
+  }
+  @Override public boolean glIsVBOElementEnabled () {
+    return delegate.glIsVBOElementEnabled();
+  }
+  @Override public void glLineWidth (float width) {
+    delegate.glLineWidth(width);
+  }
+  @Override public void glLinkProgram (int program) {
+    delegate.glLinkProgram(program);
+  }
+  @Override public ByteBuffer glMapBuffer (int arg0, int arg1) {
+    return delegate.glMapBuffer(arg0, arg1);
+  }
+  @Override public void glPixelStorei (int pname, int param) {
+    delegate.glPixelStorei(pname, param);
+  }
+  @Override public void glPolygonOffset (float factor, float units) {
+    delegate.glPolygonOffset(factor, units);
+  }
+  @Override public void glProgramBinary (int arg0, int arg1, Buffer arg2, int arg3) {
+    delegate.glProgramBinary(arg0, arg1, arg2, arg3);
+  }
+  @Override public void glProgramParameteri (int program, int pname, int value) {
+    delegate.glProgramParameteri(program, pname, value);
+  }
+  @Override public void glReadPixels (int x, int y, int width, int height, int format, int type, Buffer pixels) {
+    delegate.glReadPixels(x, y, width, height, format, type, pixels);
+  }
+  @Override public void glReadPixels (int x, int y, int width, int height, int format, int type, int pixelsBufferOffset) {
+    delegate.glReadPixels(x, y, width, height, format, type, pixelsBufferOffset);
+  }
+  @Override public void glReleaseShaderCompiler () {
+    delegate.glReleaseShaderCompiler();
+  }
+  @Override public void glRenderbufferStorage (int target, int internalformat, int width, int height) {
+    delegate.glRenderbufferStorage(target, internalformat, width, height);
+  }
+  @Override public void glSampleCoverage (float value, boolean invert) {
+    delegate.glSampleCoverage(value, invert);
+  }
+  @Override public void glScissor (int x, int y, int width, int height) {
+    delegate.glScissor(x, y, width, height);
+  }
+  @Override public void glShaderBinary (int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+    delegate.glShaderBinary(n, shaders, offset, binaryformat, binary, length);
+  }
+  @Override public void glShaderBinary (int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+    delegate.glShaderBinary(n, shaders, binaryformat, binary, length);
+  }
+  @Override public void glShaderSource (int shader, int count, String[] strings, int[] length, int lengthOffset) {
+    delegate.glShaderSource(shader, count, strings, length, lengthOffset);
+  }
+  @Override public void glShaderSource (int shader, int count, String[] strings, IntBuffer length) {
+    delegate.glShaderSource(shader, count, strings, length);
+  }
+  @Override public void glShaderSource (int shader, String string) {
+    delegate.glShaderSource(shader, string);
+  }
+  @Override public void glStencilFunc (int func, int ref, int mask) {
+    delegate.glStencilFunc(func, ref, mask);
+  }
+  @Override public void glStencilFuncSeparate (int face, int func, int ref, int mask) {
+    delegate.glStencilFuncSeparate(face, func, ref, mask);
+  }
+  @Override public void glStencilMask (int mask) {
+    delegate.glStencilMask(mask);
+  }
+  @Override public void glStencilMaskSeparate (int face, int mask) {
+    delegate.glStencilMaskSeparate(face, mask);
+  }
+  @Override public void glStencilOp (int fail, int zfail, int zpass) {
+    delegate.glStencilOp(fail, zfail, zpass);
+  }
+  @Override public void glStencilOpSeparate (int face, int fail, int zfail, int zpass) {
+    delegate.glStencilOpSeparate(face, fail, zfail, zpass);
+  }
+  @Override public void glTexImage2D (int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+    delegate.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+  }
+  @Override public void glTexImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    delegate.glTexImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+  }
+  @Override public void glTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, Buffer arg9) {
+    delegate.glTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+  }
+  @Override public void glTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9) {
+    delegate.glTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+  }
+  @Override public void glTexParameterf (int target, int pname, float param) {
+    delegate.glTexParameterf(target, pname, param);
+  }
+  @Override public void glTexParameterfv (int target, int pname, FloatBuffer params) {
+    delegate.glTexParameterfv(target, pname, params);
+  }
+  @Override public void glTexParameteri (int target, int pname, int param) {
+    delegate.glTexParameteri(target, pname, param);
+  }
+  @Override public void glTexParameteriv (int target, int pname, IntBuffer params) {
+    delegate.glTexParameteriv(target, pname, params);
+  }
+  @Override public void glTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+    delegate.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+  }
+  @Override public void glTexSubImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    delegate.glTexSubImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+  }
+  @Override public void glTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, Buffer arg10) {
+    delegate.glTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+  }
+  @Override public void glTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+    delegate.glTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+  }
+  @Override public void glUniform1f (int location, float x) {
+    delegate.glUniform1f(location, x);
+  }
+  @Override public void glUniform1fv (int location, int count, FloatBuffer v) {
+    delegate.glUniform1fv(location, count, v);
+  }
+  @Override public void glUniform1i (int location, int x) {
+    delegate.glUniform1i(location, x);
+  }
+  @Override public void glUniform1iv (int location, int count, IntBuffer v) {
+    delegate.glUniform1iv(location, count, v);
+  }
+  @Override public void glUniform2f (int location, float x, float y) {
+    delegate.glUniform2f(location, x, y);
+  }
+  @Override public void glUniform2fv (int location, int count, FloatBuffer v) {
+    delegate.glUniform2fv(location, count, v);
+  }
+  @Override public void glUniform2i (int location, int x, int y) {
+    delegate.glUniform2i(location, x, y);
+  }
+  @Override public void glUniform2iv (int location, int count, IntBuffer v) {
+    delegate.glUniform2iv(location, count, v);
+  }
+  @Override public void glUniform3f (int location, float x, float y, float z) {
+    delegate.glUniform3f(location, x, y, z);
+  }
+  @Override public void glUniform3fv (int location, int count, FloatBuffer v) {
+    delegate.glUniform3fv(location, count, v);
+  }
+  @Override public void glUniform3i (int location, int x, int y, int z) {
+    delegate.glUniform3i(location, x, y, z);
+  }
+  @Override public void glUniform3iv (int location, int count, IntBuffer v) {
+    delegate.glUniform3iv(location, count, v);
+  }
+  @Override public void glUniform4f (int location, float x, float y, float z, float w) {
+    delegate.glUniform4f(location, x, y, z, w);
+  }
+  @Override public void glUniform4fv (int location, int count, FloatBuffer v) {
+    delegate.glUniform4fv(location, count, v);
+  }
+  @Override public void glUniform4i (int location, int x, int y, int z, int w) {
+    delegate.glUniform4i(location, x, y, z, w);
+  }
+  @Override public void glUniform4iv (int location, int count, IntBuffer v) {
+    delegate.glUniform4iv(location, count, v);
+  }
+  @Override public void glUniformMatrix2fv (int location, int count, boolean transpose, FloatBuffer value) {
+    delegate.glUniformMatrix2fv(location, count, transpose, value);
+  }
+  @Override public void glUniformMatrix3fv (int location, int count, boolean transpose, FloatBuffer value) {
+    delegate.glUniformMatrix3fv(location, count, transpose, value);
+  }
+  @Override public void glUniformMatrix4fv (int location, int count, boolean transpose, FloatBuffer value) {
+    delegate.glUniformMatrix4fv(location, count, transpose, value);
+  }
+  @Override public boolean glUnmapBuffer (int arg0) {
+    return delegate.glUnmapBuffer(arg0);
+  }
+  @Override public void glUseProgram (int program) {
+    delegate.glUseProgram(program);
+  }
+  @Override public void glValidateProgram (int program) {
+    delegate.glValidateProgram(program);
+  }
+  @Override public void glVertexAttrib1f (int indx, float x) {
+    delegate.glVertexAttrib1f(indx, x);
+  }
+  @Override public void glVertexAttrib1fv (int indx, FloatBuffer values) {
+    delegate.glVertexAttrib1fv(indx, values);
+  }
+  @Override public void glVertexAttrib2f (int indx, float x, float y) {
+    delegate.glVertexAttrib2f(indx, x, y);
+  }
+  @Override public void glVertexAttrib2fv (int indx, FloatBuffer values) {
+    delegate.glVertexAttrib2fv(indx, values);
+  }
+  @Override public void glVertexAttrib3f (int indx, float x, float y, float z) {
+    delegate.glVertexAttrib3f(indx, x, y, z);
+  }
+  @Override public void glVertexAttrib3fv (int indx, FloatBuffer values) {
+    delegate.glVertexAttrib3fv(indx, values);
+  }
+  @Override public void glVertexAttrib4f (int indx, float x, float y, float z, float w) {
+    delegate.glVertexAttrib4f(indx, x, y, z, w);
+  }
+  @Override public void glVertexAttrib4fv (int indx, FloatBuffer values) {
+    delegate.glVertexAttrib4fv(indx, values);
+  }
+  @Override public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+    delegate.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+  }
+  @Override public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, int ptr) {
+    delegate.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+  }
+  @Override public void glViewport (int x, int y, int width, int height) {
+    delegate.glViewport(x, y, width, height);
+  }
+  @Override public boolean hasGLSL () {
+    return delegate.hasGLSL();
+  }
+  @Override public boolean isExtensionAvailable (String extension) {
+    return delegate.isExtensionAvailable(extension);
+  }
+  @Override public boolean isFunctionAvailable (String function) {
+    return delegate.isFunctionAvailable(function);
+  }
+}
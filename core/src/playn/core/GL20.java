@@ -426,12 +426,26 @@ public abstract class GL20 {
 
   public final Buffers bufs;
   public final boolean checkErrors;
+  private ProgramCache programs; // created lazily
+  private RenderStats stats; // created lazily
 
   protected GL20 (Buffers buffers, boolean checkErrors) {
     this.bufs = buffers;
     this.checkErrors = checkErrors;
   }
 
+  /** Returns the cache which shares shader programs between the users of this GL. */
+  public ProgramCache programs () {
+    if (programs == null) programs = new ProgramCache(this);
+    return programs;
+  }
+
+  /** Returns the stats which count the rendering work done via this GL. */
+  public RenderStats stats () {
+    if (stats == null) stats = new RenderStats();
+    return stats;
+  }
+
   /**
    * Checks for any GL error codes and logs them (if {@link #checkErrors} is true).
    * @return true if any errors were reported.
@@ -865,6 +879,7 @@ public abstract class GL20 {
   public abstract void glPixelStorei (int pname, int param);
   public abstract void glPolygonOffset (float factor, float units);
   public abstract void glProgramBinary (int arg0, int arg1, Buffer arg2, int arg3);
+  public abstract void glProgramParameteri (int program, int pname, int value);
   public abstract void glReadPixels (int x, int y, int width, int height, int format, int type, Buffer pixels);
   public abstract void glReadPixels (int x, int y, int width, int height, int format, int type, int pixelsBufferOffset);
   public abstract void glReleaseShaderCompiler ();
@@ -22,6 +22,8 @@ import react.Closeable;
 public abstract class GLBatch implements Closeable {
 
   private boolean begun; // for great sanity checking
+  private RenderStats.Flush flushReason = RenderStats.Flush.OTHER;
+  private RenderStats.Flush endReason = RenderStats.Flush.END;
 
   /**
    * Must be called before this batch is used to accumulate and send drawing commands.
@@ -44,6 +46,20 @@ public abstract class GLBatch implements Closeable {
       getClass().getSimpleName() + " flush() without begin()");
   }
 
+  /**
+   * Sends any accumulated drawing calls to the GPU (see {@link #flush()}), noting {@code reason}
+   * as the cause of the flush in the {@link RenderStats}.
+   */
+  public void flush (RenderStats.Flush reason) {
+    RenderStats.Flush oreason = flushReason;
+    flushReason = reason;
+    try {
+      flush();
+    } finally {
+      flushReason = oreason;
+    }
+  }
+
   /**
    * Must be called when one is done using this batch to accumulate and send drawing commands. The
    * default implementation calls {@link #flush} and marks this batch as inactive.
@@ -51,12 +67,32 @@ public abstract class GLBatch implements Closeable {
   public void end () {
     if (!begun) throw new IllegalStateException(getClass().getSimpleName() + " mismatched end()");
     try {
-      flush();
+      flush(endReason);
     } finally {
       begun = false;
     }
   }
 
+  /**
+   * Ends this batch (see {@link #end()}), noting {@code reason} as the cause of its final flush in
+   * the {@link RenderStats}.
+   */
+  public void end (RenderStats.Flush reason) {
+    RenderStats.Flush oreason = endReason;
+    endReason = reason;
+    try {
+      end();
+    } finally {
+      endReason = oreason;
+    }
+  }
+
+  /** Returns the reason for the flush in progress, which batches should report to {@link
+    * RenderStats#addFlush} if the flush issues draw calls. */
+  protected RenderStats.Flush flushReason () {
+    return flushReason;
+  }
+
   /**
    * Releases any GPU resources retained by this batch. This should be called when the batch will
    * never again be used.
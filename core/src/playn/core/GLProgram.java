@@ -18,7 +18,8 @@ package playn.core;
 import react.Closeable;
 
 /**
- * Encapsulates a GL vertex and fragment shader program pair.
+ * Encapsulates a GL vertex and fragment shader program pair. Programs which may be used by more
+ * than one batch are best obtained from {@link GL20#programs}, which shares identical programs.
  */
 public class GLProgram implements Closeable {
 
@@ -34,6 +35,19 @@ public class GLProgram implements Closeable {
    * @throws RuntimeException if the program fails to compile or link.
    */
   public GLProgram (GL20 gl, String vertexSource, String fragmentSource) {
+    this(gl, vertexSource, fragmentSource, false);
+  }
+
+  /**
+   * Compiles and links the shader program described by {@code vertexSource} and
+   * {@code fragmentSource}. If {@code retrievable} is true, the program is linked with {@link
+   * ProgramCache#GL_PROGRAM_BINARY_RETRIEVABLE_HINT} set, which some drivers require before they
+   * will return its binary via {@link GL20#glGetProgramBinary}. This must only be true if the
+   * driver supports program binaries.
+   * @throws RuntimeException if the program fails to compile or link.
+   */
+  protected GLProgram (GL20 gl, String vertexSource, String fragmentSource,
+                       boolean retrievable) {
     this.gl = gl;
 
     int id = 0, vertexShader = 0, fragmentShader = 0;
@@ -50,6 +64,8 @@ public class GLProgram implements Closeable {
       gl.glAttachShader(id, fragmentShader);
       gl.checkError("glAttachShader / fragment");
 
+      if (retrievable) gl.glProgramParameteri(
+        id, ProgramCache.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL20.GL_TRUE);
       gl.glLinkProgram(id);
       int[] linkStatus = new int[1];
       gl.glGetProgramiv(id, GL20.GL_LINK_STATUS, linkStatus, 0);
@@ -71,6 +87,17 @@ public class GLProgram implements Closeable {
     }
   }
 
+  /**
+   * Wraps the already linked program {@code id}, which was created without separately compiled
+   * shaders (from a program binary, for example).
+   */
+  protected GLProgram (GL20 gl, int id) {
+    this.gl = gl;
+    this.id = id;
+    this.vertexShader = 0;
+    this.fragmentShader = 0;
+  }
+
   /**
    * Returns the uniform location with the specified {@code name}.
    */
@@ -91,14 +118,21 @@ public class GLProgram implements Closeable {
 
   /** Binds this shader program, in preparation for rendering. */
   public void activate () {
+    activate(gl);
+  }
+
+  /** Binds this shader program via {@code gl}, which may be a decorator (like {@link
+    * CachingGL20}) of the GL that created it. Programs obtained from {@link GL20#programs} are
+    * shared with decorators, so batches should bind them via their own GL. */
+  public void activate (GL20 gl) {
     gl.glUseProgram(id);
   }
 
   /** Frees this program and associated compiled shaders.
     * The program must not be used after closure. */
   @Override public void close () {
-    gl.glDeleteShader(vertexShader);
-    gl.glDeleteShader(fragmentShader);
+    if (vertexShader != 0) gl.glDeleteShader(vertexShader);
+    if (fragmentShader != 0) gl.glDeleteShader(fragmentShader);
     gl.glDeleteProgram(id);
   }
 
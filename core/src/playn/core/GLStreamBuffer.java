@@ -0,0 +1,112 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.Buffer;
+
+import static playn.core.GL20.*;
+
+/**
+ * Streams data into a GL buffer object which is treated as a ring of {@link #segments} segments.
+ * Data is appended to the ring via {@code glBufferSubData} and the buffer's storage is only
+ * respecified (orphaned) via {@code glBufferData} when the ring wraps around.
+ *
+ * <p>The ring is sized from observed usage: each segment is made large enough to hold the most
+ * data written during a single <em>use</em> (the data written between calls to {@link #endUse}).
+ * A batch ends a use when it is {@link GLBatch#end}ed, which for a game's default batch is once
+ * per frame. Thus a well sized ring will be orphaned only once every {@link #segments} frames.
+ *
+ * <p>The stream buffer does not own its GL buffer, it must be bound to {@link #target} by the
+ * caller before data is written.
+ */
+public class GLStreamBuffer {
+
+  /** The GL20 implementation to which we write. */
+  public final GL20 gl;
+  /** The target to which our buffer is bound: {@code GL_ARRAY_BUFFER}, etc. */
+  public final int target;
+  /** The id of the GL buffer into which we stream. */
+  public final int id;
+  /** The number of uses for which we reserve space in the ring. */
+  public final int segments;
+
+  private int capacity, pos;
+  private int useBytes, peakUseBytes;
+  private int writes, orphans;
+
+  /**
+   * Creates a stream buffer which writes to the GL buffer {@code id}.
+   * @param segments the number of uses worth of data to reserve in the ring.
+   */
+  public GLStreamBuffer (GL20 gl, int target, int id, int segments) {
+    if (segments < 1) throw new IllegalArgumentException("Segments must be >= 1: " + segments);
+    this.gl = gl;
+    this.target = target;
+    this.id = id;
+    this.segments = segments;
+  }
+
+  /**
+   * Writes {@code bytes} bytes from {@code data} into the ring. The buffer must be bound to
+   * {@link #target}. If the data does not fit in the remainder of the ring, the ring is orphaned
+   * (possibly growing in the process) and the data is written at its start.
+   *
+   * @return the byte offset in the GL buffer at which the data was written.
+   */
+  public int write (Buffer data, int bytes) {
+    int offset = align(pos);
+    if (offset + bytes > capacity) {
+      // size each segment to hold our largest observed use (including the current use)
+      int segBytes = Math.max(Math.max(peakUseBytes, useBytes + bytes), bytes);
+      int newCapacity = Math.max(capacity, MIN_CAPACITY);
+      while (newCapacity < segBytes * segments) newCapacity <<= 1;
+      gl.glBufferData(target, newCapacity, null, GL_STREAM_DRAW);
+      capacity = newCapacity;
+      peakUseBytes = 0;
+      offset = 0;
+      orphans++;
+    }
+    gl.glBufferSubData(target, offset, bytes, data);
+    pos = offset + bytes;
+    useBytes += bytes;
+    writes++;
+    return offset;
+  }
+
+  /** Notes the end of a use of this buffer. This is used to size the ring. */
+  public void endUse () {
+    if (useBytes > peakUseBytes) peakUseBytes = useBytes;
+    useBytes = 0;
+  }
+
+  /** Returns the current capacity of the ring, in bytes. */
+  public int capacity () { return capacity; }
+
+  /** Returns the number of times data has been written to this buffer. */
+  public int writes () { return writes; }
+
+  /** Returns the number of times this buffer has been (re)allocated via {@code glBufferData}. */
+  public int orphans () { return orphans; }
+
+  @Override public String toString () {
+    return "[id=" + id + ", capacity=" + capacity + ", segments=" + segments +
+      ", writes=" + writes + ", orphans=" + orphans + "]";
+  }
+
+  private static int align (int offset) {
+    return (offset + 3) & ~3;
+  }
+
+  private static final int MIN_CAPACITY = 4096;
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import react.Closeable;
+
+/**
+ * Rasterizes individual glyphs once per {@link TextFormat} and packs them into a {@link
+ * TextureAtlas}, so that text can be rendered as one quad per character via {@link
+ * Surface#drawText}. Rendering text which changes every frame (like a score counter) thus requires
+ * no rasterization and no texture uploads, once its glyphs are cached.
+ *
+ * <p>Glyphs are rasterized in white and are colored by the tint with which they are drawn. Each
+ * character is rendered independently, so kerning, ligatures and complex scripts are not
+ * supported; text which needs those should be rendered via {@link Canvas#fillText}.</p>
+ */
+public class GlyphCache implements Closeable {
+
+  /** A single cached glyph. */
+  public static class Glyph {
+    /** The rasterized glyph, or null if the glyph renders nothing (e.g. a space). */
+    public final Tile tile;
+    /** The offset of the glyph's image from the pen position (which is at the top of the line). */
+    public final float x, y;
+    /** The distance the pen moves after rendering this glyph. */
+    public final float advance;
+
+    public Glyph (Tile tile, float x, float y, float advance) {
+      this.tile = tile;
+      this.x = x;
+      this.y = y;
+      this.advance = advance;
+    }
+  }
+
+  /** The atlas into which glyphs are packed. */
+  public final TextureAtlas atlas;
+
+  /** Creates a glyph cache which packs glyphs into 512x512 pages. */
+  public GlyphCache (Graphics gfx) {
+    this(gfx, new TextureAtlas.Config(512, 1, false, 8));
+  }
+
+  /** Creates a glyph cache which packs glyphs into an atlas with the supplied configuration.
+    * Glyph images include transparent padding, so bleed is not needed. */
+  public GlyphCache (Graphics gfx, TextureAtlas.Config config) {
+    this.gfx = gfx;
+    this.atlas = new TextureAtlas(gfx, config);
+  }
+
+  /** Returns true if all of the glyphs needed to render {@code text} in {@code format} are
+    * cached. */
+  public boolean isCached (TextFormat format, String text) {
+    Face face = faceFor(format);
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      char c = text.charAt(ii);
+      if (c != '\n' && face.glyphs.get(c) == null) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Rasterizes and caches any glyphs needed to render {@code text} in {@code format} which are not
+   * already cached. This renders into the atlas, so it must not be called while a {@link Surface}
+   * is being rendered ({@link Surface#drawText} takes care of this).
+   */
+  public void prepare (TextFormat format, String text) {
+    Face face = faceFor(format);
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      char c = text.charAt(ii);
+      if (c != '\n' && face.glyphs.get(c) == null) face.glyphs.put(c, rasterize(face, c));
+    }
+  }
+
+  /** Returns the cached glyph for {@code c} in {@code format}, or null if it is not cached. */
+  public Glyph glyph (TextFormat format, char c) {
+    return faceFor(format).glyphs.get(c);
+  }
+
+  /** Returns the distance between the tops of successive lines of text in {@code format}. */
+  public float lineHeight (TextFormat format) {
+    return faceFor(format).lineHeight;
+  }
+
+  /** Returns the width of the widest line of {@code text} in {@code format}. Any glyphs which are
+    * not cached are ignored. */
+  public float measure (TextFormat format, String text) {
+    Face face = faceFor(format);
+    float width = 0, max = 0;
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      char c = text.charAt(ii);
+      if (c == '\n') {
+        max = Math.max(max, width);
+        width = 0;
+      } else {
+        Glyph glyph = face.glyphs.get(c);
+        if (glyph != null) width += glyph.advance;
+      }
+    }
+    return Math.max(max, width);
+  }
+
+  /** Returns the number of glyphs in this cache. */
+  public int glyphs () {
+    int count = 0;
+    for (Face face : faces.values()) count += face.glyphs.size();
+    return count;
+  }
+
+  /** Frees the atlas and any glyphs that did not fit in it. */
+  @Override public void close () {
+    atlas.close();
+    for (Canvas canvas : unpacked) canvas.close();
+    unpacked.clear();
+    faces.clear();
+  }
+
+  @Override public String toString () {
+    return "GlyphCache[faces=" + faces.size() + ", glyphs=" + glyphs() + ", " + atlas + "]";
+  }
+
+  protected Glyph rasterize (Face face, char c) {
+    // leave a pixel of transparent space around the glyph to accommodate antialiasing
+    GlyphRasterizer.Rendered glyph = face.rasterizer.render(c, 1/gfx.scale().factor);
+    if (glyph.canvas == null) return new Glyph(null, 0, 0, glyph.advance);
+
+    Tile tile = atlas.add(glyph.canvas.image);
+    // if the glyph did not fit in the atlas, it uses the canvas image's texture directly
+    if (tile instanceof Texture) unpacked.add(glyph.canvas);
+    else glyph.canvas.close();
+    return new Glyph(tile, glyph.x, glyph.y, glyph.advance);
+  }
+
+  protected Face faceFor (TextFormat format) {
+    Face face = faces.get(format);
+    if (face == null) faces.put(format, face = new Face(format));
+    return face;
+  }
+
+  protected class Face {
+    public final TextFormat format;
+    public final Map<Character,Glyph> glyphs = new HashMap<>();
+    public final float lineHeight;
+    final GlyphRasterizer rasterizer;
+
+    public Face (TextFormat format) {
+      this.format = format;
+      this.rasterizer = new GlyphRasterizer(gfx, format);
+      this.lineHeight = rasterizer.lineHeight;
+    }
+  }
+
+  private final Graphics gfx;
+  private final Map<TextFormat,Face> faces = new HashMap<>();
+  private final List<Canvas> unpacked = new ArrayList<>();
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+/**
+ * Measures and renders individual glyphs in a single {@link TextFormat}. This is shared by {@link
+ * GlyphCache} and {@link SDFFont}, which both render text one glyph at a time.
+ */
+class GlyphRasterizer {
+
+  /** A single rendered glyph. */
+  static class Rendered {
+    /** The canvas into which the glyph was rendered (in white), or null if the glyph renders
+      * nothing (e.g. a space). The caller is responsible for closing it. */
+    public final Canvas canvas;
+    /** The offset of the canvas from the pen position (which is at the top of the line). */
+    public final float x, y;
+    /** The distance the pen moves after rendering this glyph. */
+    public final float advance;
+
+    Rendered (Canvas canvas, float x, float y, float advance) {
+      this.canvas = canvas;
+      this.x = x;
+      this.y = y;
+      this.advance = advance;
+    }
+  }
+
+  /** The format in which glyphs are rendered. */
+  public final TextFormat format;
+
+  /** The distance between the tops of successive lines of text in {@link #format}. */
+  public final float lineHeight;
+
+  GlyphRasterizer (Graphics gfx, TextFormat format) {
+    this.gfx = gfx;
+    this.format = format;
+    TextLayout ref = gfx.layoutText(ADVANCE_REF, format);
+    this.lineHeight = ref.ascent() + ref.descent() + ref.leading();
+    this.refRight = rightEdge(ref);
+  }
+
+  /** Returns the distance the pen moves after rendering {@code c}. */
+  public float advance (char c) {
+    // layout bounds contain only the inked pixels, so we obtain the advance from the position of
+    // the right edge of a reference glyph when it follows the glyph in question
+    return rightEdge(gfx.layoutText(c + ADVANCE_REF, format)) - refRight;
+  }
+
+  /** Renders {@code c} into a canvas which leaves {@code pad} display units of transparent space
+    * around its inked bounds. */
+  public Rendered render (char c, float pad) {
+    TextLayout layout = gfx.layoutText(String.valueOf(c), format);
+    float advance = advance(c);
+    float bx = layout.bounds.x(), by = layout.bounds.y();
+    float bw = layout.bounds.width(), bh = layout.bounds.height();
+    if (bw <= 0 || bh <= 0) return new Rendered(null, 0, 0, advance);
+
+    Canvas canvas = gfx.createCanvas(bw + 2*pad, bh + 2*pad);
+    canvas.setFillColor(0xFFFFFFFF).fillText(layout, pad - bx, pad - by);
+    return new Rendered(canvas, bx - pad, by - pad, advance);
+  }
+
+  private static float rightEdge (TextLayout layout) {
+    return layout.bounds.x() + layout.bounds.width();
+  }
+
+  private final Graphics gfx;
+  private final float refRight;
+
+  private static final String ADVANCE_REF = "|";
+}
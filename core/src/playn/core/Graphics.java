@@ -33,6 +33,10 @@ public abstract class Graphics {
   private Scale scale;
   private int viewPixelWidth, viewPixelHeight;
   private Texture colorTex; // created lazily
+  private TextureAtlas atlas; // created lazily
+  private TextureAtlas.Config atlasConfig = TextureAtlas.Config.DEFAULT;
+  private final TextureManager textures = new TextureManager(this);
+  private final TextureUploader uploader = new TextureUploader(this);
 
   /** Enumerates detailed device orientations. */
   public static enum OrientationDetail {
@@ -55,8 +59,10 @@ public abstract class Graphics {
   /** Enumerates simplified device orientations. */
   public static enum Orientation { PORTRAIT, LANDSCAPE };
 
-  /** Provides access to GL services. */
-  public final GL20 gl;
+  /** Provides access to GL services. This may be replaced with a decorator which wraps the
+    * original GL (like {@link CachingGL20}), but that must be done before any batches, surfaces
+    * or textures are created, as they retain a reference to the GL in use when they are created. */
+  public GL20 gl;
 
   /** The current size of the graphics viewport. */
   public final IDimension viewSize = viewSizeM;
@@ -78,6 +84,12 @@ public abstract class Graphics {
     * orientation will always be {@code UNKNOWN}. */
   public final ValueView<OrientationDetail> orientDetail = orientDetailM;
 
+  /** Emits the {@link RenderStats} of {@link #gl} for the previous frame, at the start of each
+    * frame. The stats are only counted while a slot is connected (starting with the frame after
+    * it is connected). The stats are reset after being emitted, so slots must copy any values
+    * they wish to retain. */
+  public final Signal<RenderStats> renderStats = Signal.create();
+
   /** The render target for the default framebuffer. */
   public RenderTarget defaultRenderTarget = new RenderTarget(this) {
     public int id () { return defaultFramebuffer(); }
@@ -128,8 +140,9 @@ public abstract class Graphics {
       "Invalid texture size: " + texWidth + "x" + texHeight);
 
     int id = createTexture(config);
-    gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, texWidth, texHeight,
-                    0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+    Texture.Format format = config.format;
+    gl.glTexImage2D(GL_TEXTURE_2D, 0, format.glFormat, texWidth, texHeight,
+                    0, format.glFormat, format.glType, null);
     return new Texture(this, id, config, texWidth, texHeight, scale, width, height);
   }
 
@@ -138,6 +151,47 @@ public abstract class Graphics {
     return createTexture(size.width(), size.height(), config);
   }
 
+  /**
+   * Creates a pool of offscreen render targets whose surfaces use {@code defaultBatch}. See
+   * {@link RenderTargetPool}.
+   */
+  public RenderTargetPool createRenderTargetPool (QuadBatch defaultBatch) {
+    return new RenderTargetPool(this, defaultBatch);
+  }
+
+  /** Returns the manager which tracks the GPU memory used by textures, and which can enforce a
+    * budget on it. */
+  public TextureManager textures () {
+    return textures;
+  }
+
+  /** Returns the uploader which creates textures for {@link Image#textureAsync}, and which can be
+    * configured with a per-frame upload budget. */
+  public TextureUploader uploader () {
+    return uploader;
+  }
+
+  /**
+   * Returns a shared texture atlas into which images can be packed so that they share textures
+   * when rendered. The atlas uses {@link TextureAtlas.Config#DEFAULT} unless another configuration
+   * is supplied via {@link #setAtlasConfig}. See {@link TextureAtlas}.
+   */
+  public TextureAtlas atlas () {
+    if (atlas == null) atlas = new TextureAtlas(this, atlasConfig);
+    return atlas;
+  }
+
+  /**
+   * Configures the layout of the shared {@link #atlas}. This must be called before the atlas is
+   * first used.
+   * @throws IllegalStateException if the shared atlas has already been created.
+   */
+  public void setAtlasConfig (TextureAtlas.Config config) {
+    if (atlas != null) throw new IllegalStateException(
+      "Shared atlas already created with: " + atlasConfig);
+    atlasConfig = config;
+  }
+
   /**
    * Lays out a single line of text using the specified format. The text may subsequently be
    * rendered on a canvas via {@link Canvas#fillText (TextLayout,float,float)}.
@@ -167,6 +221,20 @@ public abstract class Graphics {
     this.plat = plat;
     this.gl = gl;
     this.scale = scale;
+    if (plat != null) plat.frame.connect(new Slot<Platform>() {
+      public void onEmit (Platform plat) {
+        textures.frame();
+        uploader.frame();
+        emitRenderStats();
+      }
+    });
+  }
+
+  void emitRenderStats () {
+    RenderStats stats = gl.stats();
+    if (stats.isEnabled()) renderStats.emit(stats);
+    stats.reset();
+    stats.setEnabled(renderStats.hasConnections());
   }
 
   /**
@@ -181,6 +249,15 @@ public abstract class Graphics {
    */
   protected abstract Canvas createCanvasImpl (Scale scale, int pixelWidth, int pixelHeight);
 
+  /**
+   * Returns the format in which image data is actually uploaded to a texture configured to use
+   * {@code format}. Backends which cannot convert image data upload {@link
+   * Texture.Format#RGBA8888} regardless, so that is the default.
+   */
+  protected Texture.Format imageFormat (Texture.Format format) {
+    return Texture.Format.RGBA8888;
+  }
+
   /**
    * Informs the graphics system that the main framebuffer scaled has changed.
    */
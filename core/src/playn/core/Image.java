@@ -18,6 +18,7 @@ package playn.core;
 import react.Closeable;
 import react.Function;
 import react.RFuture;
+import react.Slot;
 import react.Try;
 
 /**
@@ -152,12 +153,28 @@ public abstract class Image extends TileSource implements Canvas.Drawable, Close
 
   /**
    * Returns a future which will deliver the default texture for this image once its loading has
-   * completed. Uses {@link #texture} to create the texture.
+   * completed and its texture has been uploaded. Uploads are performed by the {@link
+   * TextureUploader}, which converts image data on a background thread (where supported) and
+   * spreads the uploads across frames. If the default texture already exists, it is delivered
+   * immediately.
    */
   public RFuture<Texture> textureAsync () {
-    return state.map(new Function<Image,Texture>() {
-      public Texture apply (Image image) { return texture(); }
-    });
+    if (texture != null && !texture.disposed()) return RFuture.success(texture);
+    if (pendingTexture == null) {
+      final RFuture<Texture> pending = state.flatMap(new Function<Image,RFuture<Texture>>() {
+        public RFuture<Texture> apply (Image image) {
+          return gfx.uploader().upload(image, texconf);
+        }
+      });
+      pendingTexture = pending;
+      pending.onComplete(new Slot<Try<Texture>>() {
+        public void onEmit (Try<Texture> result) {
+          if (pendingTexture == pending) pendingTexture = null;
+        }
+      });
+      return pending;
+    }
+    return pendingTexture;
   }
 
   /**
@@ -165,6 +182,10 @@ public abstract class Image extends TileSource implements Canvas.Drawable, Close
    * texture with every call. This is generally only needed if you plan to create multiple textures
    * from the same bitmap, with different configurations. Otherwise just use {@link #texture} to
    * create the image's "default" texture which will be shared by all callers.
+   *
+   * <p>If a texture budget is configured (see {@link TextureManager#setBudget}), the texture
+   * retains this image so that it can be uploaded again after it is evicted. Textures created while
+   * there is no budget do not retain their image, and thus are never evicted.</p>
    */
   public Texture createTexture (Texture.Config config) {
     if (!isLoaded()) throw new IllegalStateException(
@@ -176,11 +197,27 @@ public abstract class Image extends TileSource implements Canvas.Drawable, Close
       "Invalid texture size: " + texWidth + "x" + texHeight + " from: " + this);
 
     Texture tex = new Texture(gfx, gfx.createTexture(config), config, texWidth, texHeight,
-                              scale(), width(), height());
+                              scale(), width(), height(), imageBits(config));
     tex.update(this); // this will handle non-POT source image conversion
+    // allows the texture to be reloaded if it is evicted; without a budget it never will be
+    if (gfx.textures().budget() > 0) tex.source = this;
     return tex;
   }
 
+  /** Creates a texture from {@code data}, which was prepared by {@link #prepareUpload}. */
+  Texture createTexture (Texture.Config config, TextureUploader.Data data) {
+    Texture tex = new Texture(gfx, gfx.createTexture(config), config, data.width, data.height,
+                              scale(), width(), height(), imageBits(config));
+    data.upload(gfx.gl, tex);
+    if (gfx.textures().budget() > 0) tex.source = this;
+    return tex;
+  }
+
+  // the bits per pixel actually used when our data is uploaded to a texture using config
+  private int imageBits (Texture.Config config) {
+    return gfx.imageFormat(config.format).bitsPerPixel;
+  }
+
   /** Disposes this image's default texture, if it has been already created. */
   public void close () {
     if (texture != null) texture.close();
@@ -219,6 +256,28 @@ public abstract class Image extends TileSource implements Canvas.Drawable, Close
     };
   }
 
+  /** Returns a region covering all of this image. Unlike {@link #region(float,float,float,float)}
+    * this may be called before the image is loaded, as the region reports the image's size. */
+  public Region region () {
+    final Image image = this;
+    return new Region() {
+      @Override public boolean isLoaded () { return image.isLoaded(); }
+      @Override public Tile tile () { return image.tile(); }
+      @Override public RFuture<Tile> tileAsync () { return image.tileAsync(); }
+
+      @Override public float width () { return image.width(); }
+      @Override public float height () { return image.height(); }
+
+      @Override public void draw (Object ctx, float x, float y, float width, float height) {
+        image.draw(ctx, x, y, width, height);
+      }
+      @Override public void draw (Object ctx, float dx, float dy, float dw, float dh,
+                                  float sx, float sy, float sw, float sh) {
+        image.draw(ctx, dx, dy, dw, dh, sx, sy, sw, sh);
+      }
+    };
+  }
+
   /** Used with {@link #transform}. */
   public static interface BitmapTransformer {}
 
@@ -238,6 +297,7 @@ public abstract class Image extends TileSource implements Canvas.Drawable, Close
   protected final Graphics gfx;
   protected Texture.Config texconf = Texture.Config.DEFAULT;
   protected Texture texture;
+  private RFuture<Texture> pendingTexture;
 
   protected Image (Graphics gfx, RFuture<Image> state) {
     this.gfx = gfx;
@@ -252,4 +312,22 @@ public abstract class Image extends TileSource implements Canvas.Drawable, Close
 
   /** Uploads this image's data into {@code tex}. */
   protected abstract void upload (Graphics gfx, Texture tex);
+
+  /** Uploads the {@code width x height} region at {@code (x, y)} (in pixels) of this image's data
+    * into the same region of {@code tex}, which must be the same size as this image. The default
+    * implementation uploads the entire image. */
+  protected void upload (Graphics gfx, Texture tex, int x, int y, int width, int height) {
+    upload(gfx, tex);
+  }
+
+  /**
+   * Converts this image's data into a form which can be uploaded to a texture with {@code config}
+   * without further processing, scaling it to a power of two size if {@code config} requires. This
+   * is called on a background thread (where supported) by the {@link TextureUploader}, so it must
+   * not use GL. The default implementation returns null, in which case the image is converted and
+   * uploaded on the render thread via {@link #upload}.
+   */
+  protected TextureUploader.Data prepareUpload (Texture.Config config) {
+    return null;
+  }
 }
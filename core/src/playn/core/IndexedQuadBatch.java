@@ -0,0 +1,153 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import static playn.core.GL20.*;
+
+/**
+ * A triangle batch optimized for rendering quads. Every quad uses the same index pattern, so this
+ * batch fills a static element array buffer with the indices for {@link #maxQuads} quads when it
+ * is created and streams only vertex data when it is flushed.
+ *
+ * <p>Triangles may still be added via {@link #addTris}, in which case the batch falls back to the
+ * standard {@link TriangleBatch} behavior (uploading its indices on flush) until it is next
+ * flushed. Any quads that were pending when the first triangles are added are flushed first.</p>
+ */
+public class IndexedQuadBatch extends TriangleBatch {
+
+  /** The default maximum number of quads per draw call. */
+  public static final int DEFAULT_MAX_QUADS = 4096;
+
+  /** The maximum number of quads that can be indexed with unsigned short indices. */
+  public static final int MAX_QUADS = 65536/4;
+
+  /** The maximum number of quads rendered in a single draw call. */
+  public final int maxQuads;
+
+  protected final int quadElemsId;
+
+  private boolean quadsOnly = true;
+  private int quads;
+
+  /** Creates a quad batch with the default shader program and maximum quads. */
+  public IndexedQuadBatch (GL20 gl) {
+    this(gl, new Source(), DEFAULT_MAX_QUADS);
+  }
+
+  /**
+   * Creates a quad batch with the supplied custom shader program.
+   * @param maxQuads the number of quads for which to create indices. Once this many quads have
+   * been added to the batch, it will be flushed. Must be no more than {@link #MAX_QUADS}.
+   */
+  public IndexedQuadBatch (GL20 gl, Source source, int maxQuads) {
+    super(gl, source);
+    if (maxQuads < 1 || maxQuads > MAX_QUADS) throw new IllegalArgumentException(
+      "maxQuads must be between 1 and " + MAX_QUADS + ": " + maxQuads);
+    this.maxQuads = maxQuads;
+
+    short[] indices = new short[maxQuads*QUAD_INDICES.length];
+    for (int qq = 0, ii = 0; qq < maxQuads; qq++) {
+      for (int idx : QUAD_INDICES) indices[ii++] = (short)(4*qq + idx);
+    }
+    quadElemsId = gl.glGenBuffer();
+    gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, quadElemsId);
+    gl.bufs.setShortBuffer(indices, 0, indices.length);
+    gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices.length*2, gl.bufs.shortBuffer,
+                    GL_STATIC_DRAW);
+    gl.checkError("IndexedQuadBatch end ctor");
+  }
+
+  @Override public void addTris (float[] xys, int xysOffset, int xysLen, float tw, float th,
+                                 int[] indices, int indicesOffset, int indicesLen, int indexBase) {
+    useTris();
+    super.addTris(xys, xysOffset, xysLen, tw, th, indices, indicesOffset, indicesLen, indexBase);
+  }
+
+  @Override public void addTris (float[] xys, float[] sxys, int xysOffset, int xysLen,
+                                 int[] indices, int indicesOffset, int indicesLen, int indexBase) {
+    useTris();
+    super.addTris(xys, sxys, xysOffset, xysLen, indices, indicesOffset, indicesLen, indexBase);
+  }
+
+  @Override public void addQuad (int tint,
+                                 float m00, float m01, float m10, float m11, float tx, float ty,
+                                 float x1, float y1, float sx1, float sy1,
+                                 float x2, float y2, float sx2, float sy2,
+                                 float x3, float y3, float sx3, float sy3,
+                                 float x4, float y4, float sx4, float sy4) {
+    if (!quadsOnly) {
+      super.addQuad(tint, m00, m01, m10, m11, tx, ty,
+                    x1, y1, sx1, sy1, x2, y2, sx2, sy2, x3, y3, sx3, sy3, x4, y4, sx4, sy4);
+      return;
+    }
+
+    if (quads == maxQuads) flush(RenderStats.Flush.FULL);
+    prepare(tint, m00, m01, m10, m11, tx, ty);
+
+    beginPrimitive(4, 0); int offset = vertPos;
+    float[] verts = vertices, stables = stableAttrs;
+    offset = add(verts, add(verts, offset, stables), x1, y1, sx1, sy1);
+    offset = add(verts, add(verts, offset, stables), x2, y2, sx2, sy2);
+    offset = add(verts, add(verts, offset, stables), x3, y3, sx3, sy3);
+    offset = add(verts, add(verts, offset, stables), x4, y4, sx4, sy4);
+    vertPos = offset;
+    quads++;
+    quadsAdded++;
+  }
+
+  @Override public void flush () {
+    // our indices are already in the static buffer, we just need to draw the right number of them
+    if (quadsOnly) elemPos = quads*QUAD_INDICES.length;
+    super.flush();
+    quadsOnly = true;
+    quads = 0;
+  }
+
+  @Override public void close () {
+    super.close();
+    gl.glDeleteBuffer(quadElemsId);
+    gl.checkError("IndexedQuadBatch close");
+  }
+
+  @Override public String toString () { return "iquads/" + maxQuads; }
+
+  @Override protected int uploadElements () {
+    if (quadsOnly) {
+      gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, quadElemsId);
+      return 0;
+    } else {
+      gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, elementsId);
+      return super.uploadElements();
+    }
+  }
+
+  @Override protected int elementType () {
+    return quadsOnly ? GL_UNSIGNED_SHORT : super.elementType();
+  }
+
+  @Override protected int beginPrimitive (int vertexCount, int elemCount) {
+    // if adding this primitive triggers a flush, we remain in the mode needed by the primitive
+    boolean wasQuadsOnly = quadsOnly;
+    int vertIdx = super.beginPrimitive(vertexCount, elemCount);
+    quadsOnly = wasQuadsOnly;
+    return vertIdx;
+  }
+
+  private void useTris () {
+    if (quadsOnly) {
+      if (quads > 0) flush();
+      quadsOnly = false;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import static playn.core.GL20.*;
+
+/**
+ * A triangle batch which binds up to {@link #units} textures to separate texture units and selects
+ * among them per-vertex. Switching between textures that are already bound does not flush the
+ * batch, so a scene which alternates between a handful of sprite sheets can be rendered with a
+ * single draw call. The batch is only flushed when a texture is needed and all units are in use.
+ */
+public class MultiTexBatch extends TriangleBatch {
+
+  /** The source for the stock multi-texture shader program. */
+  public static class Source extends TriangleBatch.Source {
+
+    /** The attribute that selects the texture unit for a vertex. */
+    public static final String TEXINDEX_ATTRS =
+      "attribute float a_TexIndex;\n";
+
+    /** Declares the texture unit varying for our vertex shader. */
+    public static final String TEXINDEX_VARS =
+      "varying float v_TexIndex;\n";
+
+    /** The shader code that computes {@code v_TexIndex}. */
+    public static final String VERT_SETTEXINDEX =
+      "v_TexIndex = a_TexIndex;\n";
+
+    @Override public String vertex () {
+      return (VERT_UNIFS +
+              VERT_ATTRS +
+              TEXINDEX_ATTRS +
+              PER_VERT_ATTRS +
+              VERT_VARS +
+              TEXINDEX_VARS +
+              "void main(void) {\n" +
+              VERT_SETPOS +
+              VERT_SETTEX +
+              VERT_SETCOLOR +
+              VERT_SETTEXINDEX +
+              "}");
+    }
+
+    /** Returns the source of the fragment shader program for a batch which selects between
+      * {@code units} texture units. */
+    public String fragment (int units) {
+      StringBuilder str = new StringBuilder(FRAGMENT_PREAMBLE);
+      str.append(textureUniforms(units));
+      str.append(textureVaryings());
+      str.append("void main(void) {\n");
+      str.append(textureColor(units));
+      str.append(textureTint());
+      str.append(textureAlpha());
+      str.append("  gl_FragColor = textureColor;\n" +
+                 "}");
+      return str.toString();
+    }
+
+    protected String textureUniforms (int units) {
+      // GL reports the location of the first element for an array's bare name, so the stock
+      // triangle batch binding of u_Texture to unit zero continues to work
+      return "uniform lowp sampler2D u_Texture[" + units + "];\n";
+    }
+    @Override protected String textureVaryings () {
+      return super.textureVaryings() + "varying mediump float v_TexIndex;\n";
+    }
+    protected String textureColor (int units) {
+      // GLSL ES only allows samplers to be indexed by constant expressions, so we have to select
+      // our sampler with a chain of conditionals
+      StringBuilder str = new StringBuilder("  vec4 textureColor;\n");
+      for (int ii = 0; ii < units; ii++) {
+        str.append(ii == 0 ? "  " : "  else ");
+        if (ii < units-1) str.append("if (v_TexIndex < ").append(ii).append(".5) ");
+        str.append("textureColor = texture2D(u_Texture[").append(ii).append("], v_TexCoord);\n");
+      }
+      return str.toString();
+    }
+  }
+
+  /** The maximum number of units we'll use, regardless of how many the GPU supports. */
+  public static final int MAX_UNITS = 16;
+
+  /**
+   * Returns the number of texture units a multi-texture batch will use on {@code gl}. This is the
+   * value of {@code GL_MAX_TEXTURE_IMAGE_UNITS}, limited to {@link #MAX_UNITS}.
+   */
+  public static int usableUnits (GL20 gl) {
+    int units = gl.glGetInteger(GL_MAX_TEXTURE_IMAGE_UNITS);
+    int glErr = gl.glGetError();
+    if (glErr != GL_NO_ERROR) throw new RuntimeException(
+      "Unable to query GL_MAX_TEXTURE_IMAGE_UNITS, error " + glErr);
+    return Math.max(1, Math.min(units, MAX_UNITS));
+  }
+
+  /** The number of texture units used by this batch. */
+  public final int units;
+
+  protected final int aTexIndex;
+
+  private final int[] unitTexIds, unitIndices;
+  private int usedUnits, curUnit;
+  private int flushesAvoided;
+
+  /** Creates a multi-texture batch with the default shader program. */
+  public MultiTexBatch (GL20 gl) {
+    this(gl, new Source());
+  }
+
+  /** Creates a multi-texture batch with the supplied custom shader program. */
+  public MultiTexBatch (GL20 gl, Source source) {
+    this(gl, source, usableUnits(gl));
+  }
+
+  /** Creates a multi-texture batch which uses (at most) {@code units} texture units. */
+  public MultiTexBatch (GL20 gl, Source source, int units) {
+    super(gl, source.vertex(), source.fragment(units), false);
+    if (units < 1) throw new IllegalArgumentException("Units must be >= 1: " + units);
+    this.units = units;
+    aTexIndex = program.getAttribLocation("a_TexIndex");
+    unitTexIds = new int[units];
+    unitIndices = new int[units];
+    for (int ii = 0; ii < units; ii++) unitIndices[ii] = ii;
+    gl.checkError("MultiTexBatch end ctor");
+  }
+
+  /** Returns the number of times this batch switched textures without flushing. Each of these
+    * would have resulted in a flush (and a draw call) in a single texture batch. */
+  public int flushesAvoided () {
+    return flushesAvoided;
+  }
+
+  /** Resets the {@link #flushesAvoided} counter. */
+  public void resetStats () {
+    flushesAvoided = 0;
+  }
+
+  @Override public void setTexture (Texture texture) {
+    texture.used();
+    int id = texture.id;
+    if (id == curTexId) return;
+
+    boolean flushed = false;
+    int unit = findUnit(id);
+    if (unit < 0) {
+      // if all of our units are in use, we have to flush and start over
+      if (usedUnits == units) {
+        flush(RenderStats.Flush.TEXTURE);
+        usedUnits = 0;
+        flushed = true;
+      }
+      unit = usedUnits++;
+      unitTexIds[unit] = id;
+    }
+    if (curTexId != 0 && !flushed) flushesAvoided++;
+    curUnit = unit;
+    curTexId = id;
+  }
+
+  @Override public void begin (float fbufWidth, float fbufHeight, boolean flip) {
+    super.begin(fbufWidth, fbufHeight, flip);
+    gl.glUniform1iv(uTexture, units, unitIndices, 0);
+    gl.checkError("MultiTexBatch begin");
+  }
+
+  @Override public void end () {
+    super.end();
+    usedUnits = 0;
+    gl.glDisableVertexAttribArray(aTexIndex);
+    gl.checkError("MultiTexBatch end");
+  }
+
+  @Override public String toString () { return "multitex/" + units; }
+
+  @Override protected void bindTexture () {
+    for (int ii = usedUnits-1; ii >= 0; ii--) {
+      gl.glActiveTexture(GL_TEXTURE0 + ii);
+      gl.glBindTexture(GL_TEXTURE_2D, unitTexIds[ii]);
+    }
+    // we bind in reverse so that we leave unit zero active, which everyone else expects
+    gl.checkError("MultiTexBatch glBindTexture");
+  }
+
+  @Override protected int stableAttrsSize () { return super.stableAttrsSize() + 1; }
+
+  @Override protected int addExtraStableAttrs (float[] buf, int sidx) {
+    buf[sidx++] = curUnit;
+    return super.addExtraStableAttrs(buf, sidx);
+  }
+
+  @Override protected void bindExtraStableAttribs (int stride, int offset) {
+    glBindVertAttrib(aTexIndex, 1, GL_FLOAT, stride, offset);
+    super.bindExtraStableAttribs(stride, offset+4);
+  }
+
+  private int findUnit (int texId) {
+    for (int ii = 0; ii < usedUnits; ii++) if (unitTexIds[ii] == texId) return ii;
+    return -1;
+  }
+}
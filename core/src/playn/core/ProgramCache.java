@@ -0,0 +1,272 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares shader programs between the batches which use a particular {@link GL20}. Programs are
+ * keyed by their vertex and fragment shader source and reference counted: {@link #get} compiles a
+ * program only if no identical program is in use, and closing a shared program deletes it only
+ * when its last user has closed it. The stock batches obtain their programs via {@link
+ * GL20#programs}.
+ *
+ * <p>If a {@link BinaryStore} is configured and the driver supports {@code
+ * GL_OES_get_program_binary} (or {@code GL_ARB_get_program_binary}), newly linked programs are
+ * saved to the store, and subsequently (usually on a later run) loaded from it rather than being
+ * compiled. If the driver rejects a stored binary (because it was created by a different driver or
+ * driver version, for example), the program is compiled from source and the binary replaced.</p>
+ */
+public class ProgramCache {
+
+  /** Persists program binaries. Binaries are opaque, and are identified by a key which is safe
+    * to use as a file name. */
+  public interface BinaryStore {
+    /** Returns the data saved for {@code key}, or null if there is none. */
+    byte[] load (String key);
+    /** Saves {@code data} for {@code key}, replacing any previously saved data. */
+    void save (String key, byte[] data);
+  }
+
+  /** From {@code GL_OES_get_program_binary}. */
+  public static final int GL_PROGRAM_BINARY_LENGTH = 0x8741;
+  /** From {@code GL_OES_get_program_binary}. */
+  public static final int GL_NUM_PROGRAM_BINARY_FORMATS = 0x87FE;
+  /** From {@code GL_OES_get_program_binary}. */
+  public static final int GL_PROGRAM_BINARY_FORMATS = 0x87FF;
+  /** From {@code GL_ARB_get_program_binary} (and OpenGL ES 3.0). */
+  public static final int GL_PROGRAM_BINARY_RETRIEVABLE_HINT = 0x8257;
+
+  public ProgramCache (GL20 gl) {
+    this.gl = gl;
+  }
+
+  /**
+   * Returns a program for {@code vertexSource} and {@code fragmentSource}, sharing an existing
+   * program if one is in use. The caller must {@link GLProgram#close} the returned program when
+   * it no longer needs it.
+   * @throws RuntimeException if the program fails to compile or link.
+   */
+  public GLProgram get (String vertexSource, String fragmentSource) {
+    Key key = new Key(vertexSource, fragmentSource);
+    Shared program = programs.get(key);
+    if (program != null) {
+      hits++;
+      program.refs++;
+      return program;
+    }
+    misses++;
+    program = (store != null && supportsBinaries()) ? loadOrCompile(key) : new Shared(key, false);
+    programs.put(key, program);
+    return program;
+  }
+
+  /** Configures the store in which program binaries are saved, or null to save none. */
+  public void setBinaryStore (BinaryStore store) {
+    this.store = store;
+  }
+
+  /** Returns whether the driver supports saving and loading program binaries. */
+  public boolean supportsBinaries () {
+    if (binaryFormats == null) binaryFormats = queryBinaryFormats();
+    return binaryFormats.length > 0;
+  }
+
+  /** Returns the number of programs currently in use. */
+  public int size () {
+    return programs.size();
+  }
+
+  /** Returns the number of requests which were satisfied by a program already in use. */
+  public int hits () {
+    return hits;
+  }
+
+  /** Returns the number of requests which required a new program (loaded or compiled). */
+  public int misses () {
+    return misses;
+  }
+
+  /** Returns the number of programs which were loaded from the binary store. */
+  public int binaryLoads () {
+    return binaryLoads;
+  }
+
+  /** Returns the number of stored binaries which were rejected by the driver. */
+  public int binaryFailures () {
+    return binaryFailures;
+  }
+
+  @Override public String toString () {
+    return "ProgramCache[size=" + size() + ", hits=" + hits + ", misses=" + misses +
+      ", binaryLoads=" + binaryLoads + ", binaryFailures=" + binaryFailures + "]";
+  }
+
+  private Shared loadOrCompile (Key key) {
+    String skey = key.storeKey(gl);
+    byte[] data = store.load(skey);
+    if (data != null) {
+      Shared program = load(key, data);
+      if (program != null) {
+        binaryLoads++;
+        return program;
+      }
+      binaryFailures++;
+    }
+    Shared program = new Shared(key, true);
+    data = fetchBinary(program.id);
+    if (data != null) store.save(skey, data);
+    return program;
+  }
+
+  private Shared load (Key key, byte[] data) {
+    if (data.length <= 4) return null;
+    int format = ((data[0] & 0xFF) << 24) | ((data[1] & 0xFF) << 16) |
+      ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+    if (!isBinaryFormat(format)) return null;
+
+    int id = gl.glCreateProgram();
+    if (id == 0) return null;
+    ByteBuffer binary = gl.bufs.createByteBuffer(data.length-4);
+    binary.put(data, 4, data.length-4).flip();
+    gl.glProgramBinary(id, format, binary, binary.remaining());
+    int[] linkStatus = new int[1];
+    gl.glGetProgramiv(id, GL20.GL_LINK_STATUS, linkStatus, 0);
+    // flush any error reported for the rejected binary, so it isn't blamed on a later call
+    while (gl.glGetError() != GL20.GL_NO_ERROR) linkStatus[0] = GL20.GL_FALSE;
+    if (linkStatus[0] == GL20.GL_FALSE) {
+      gl.glDeleteProgram(id);
+      return null;
+    }
+    return new Shared(key, id);
+  }
+
+  private byte[] fetchBinary (int id) {
+    int[] length = new int[1];
+    gl.glGetProgramiv(id, GL_PROGRAM_BINARY_LENGTH, length, 0);
+    if (length[0] <= 0) return null;
+    ByteBuffer binary = gl.bufs.createByteBuffer(length[0]);
+    IntBuffer lengthBuf = gl.bufs.createIntBuffer(1), formatBuf = gl.bufs.createIntBuffer(1);
+    gl.glGetProgramBinary(id, length[0], lengthBuf, formatBuf, binary);
+    if (gl.checkError("glGetProgramBinary")) return null;
+
+    int size = Math.min(lengthBuf.get(0), length[0]), format = formatBuf.get(0);
+    if (size <= 0) return null;
+    byte[] data = new byte[4+size];
+    data[0] = (byte)(format >>> 24); data[1] = (byte)(format >>> 16);
+    data[2] = (byte)(format >>> 8);  data[3] = (byte)format;
+    binary.position(0);
+    binary.get(data, 4, size);
+    return data;
+  }
+
+  private boolean isBinaryFormat (int format) {
+    for (int ff : binaryFormats) if (ff == format) return true;
+    return false;
+  }
+
+  private int[] queryBinaryFormats () {
+    String exts = gl.glGetString(GL20.GL_EXTENSIONS);
+    if (exts == null || !(exts.contains("GL_OES_get_program_binary") ||
+                          exts.contains("GL_ARB_get_program_binary"))) return new int[0];
+    int count = gl.glGetInteger(GL_NUM_PROGRAM_BINARY_FORMATS);
+    if (count <= 0) return new int[0];
+    int[] formats = new int[count];
+    gl.glGetIntegerv(GL_PROGRAM_BINARY_FORMATS, formats, 0);
+    return formats;
+  }
+
+  private void release (Shared program) {
+    if (--program.refs > 0) return;
+    programs.remove(program.key);
+    program.dispose();
+  }
+
+  // a program which is shared by all users of the same source
+  private class Shared extends GLProgram {
+    public final Key key;
+    public int refs = 1;
+
+    public Shared (Key key, boolean retrievable) {
+      super(gl, key.vertexSource, key.fragmentSource, retrievable);
+      this.key = key;
+    }
+
+    public Shared (Key key, int id) {
+      super(gl, id);
+      this.key = key;
+    }
+
+    public void dispose () {
+      super.close();
+    }
+
+    @Override public void close () {
+      release(this);
+    }
+  }
+
+  private static class Key {
+    public final String vertexSource, fragmentSource;
+    private final int hash;
+
+    public Key (String vertexSource, String fragmentSource) {
+      this.vertexSource = vertexSource;
+      this.fragmentSource = fragmentSource;
+      this.hash = vertexSource.hashCode() * 31 + fragmentSource.hashCode();
+    }
+
+    /** Returns a key for this program's binary, which includes the driver identity so that
+      * binaries are not needlessly loaded into a different driver. */
+    public String storeKey (GL20 gl) {
+      long hash = FNV_OFFSET;
+      hash = fnv(hash, gl.glGetString(GL20.GL_RENDERER));
+      hash = fnv(hash, gl.glGetString(GL20.GL_VERSION));
+      hash = fnv(hash, vertexSource);
+      hash = fnv(hash, fragmentSource);
+      String hex = Long.toHexString(hash);
+      return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    @Override public boolean equals (Object other) {
+      if (!(other instanceof Key)) return false;
+      Key ok = (Key)other;
+      return hash == ok.hash && vertexSource.equals(ok.vertexSource) &&
+        fragmentSource.equals(ok.fragmentSource);
+    }
+
+    @Override public int hashCode () {
+      return hash;
+    }
+
+    private static long fnv (long hash, String text) {
+      if (text != null) for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+        hash = (hash ^ text.charAt(ii)) * FNV_PRIME;
+      }
+      return (hash ^ 0xFFFF) * FNV_PRIME; // separate each string from the next
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+  }
+
+  private final GL20 gl;
+  private final Map<Key,Shared> programs = new HashMap<>();
+  private BinaryStore store;
+  private int[] binaryFormats;
+  private int hits, misses, binaryLoads, binaryFailures;
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+/**
+ * Counts the rendering work done by the batches which use a particular {@link GL20}: draw calls,
+ * quads and triangles drawn, bytes of vertex and index data uploaded, and the reasons batches were
+ * flushed. Nothing is counted unless the stats are enabled. The stats for each frame are emitted
+ * via {@link Graphics#renderStats}, which enables them while any slot is connected to it.
+ *
+ * <p>Custom batches can report their work via the {@code add} methods.</p>
+ */
+public class RenderStats {
+
+  /** The reasons for which a batch is flushed. */
+  public static enum Flush {
+    /** The batch was given a texture other than the one with which it was drawing. */
+    TEXTURE,
+    /** The batch's buffers were full. */
+    FULL,
+    /** A surface switched to a different batch (see {@link Surface#pushBatch}). */
+    BATCH,
+    /** A surface started or ended clipping (see {@link Surface#startClipped}). */
+    CLIP,
+    /** The batch was ended (see {@link GLBatch#end}). */
+    END,
+    /** The batch was flushed for some other reason. */
+    OTHER
+  };
+
+  /** Configures whether these stats are counted. */
+  public void setEnabled (boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Returns whether these stats are being counted. */
+  public boolean isEnabled () {
+    return enabled;
+  }
+
+  /** Returns the number of draw calls issued. */
+  public int drawCalls () {
+    return drawCalls;
+  }
+
+  /** Returns the number of quads drawn. */
+  public int quads () {
+    return quads;
+  }
+
+  /** Returns the number of triangles drawn (including those which make up quads). */
+  public int triangles () {
+    return triangles;
+  }
+
+  /** Returns the number of bytes of vertex data uploaded. This includes per-quad data which is
+    * uploaded as shader uniforms (by {@link UniformQuadBatch}, for example). */
+  public long vertexBytes () {
+    return vertexBytes;
+  }
+
+  /** Returns the number of bytes of index data uploaded. */
+  public long indexBytes () {
+    return indexBytes;
+  }
+
+  /** Returns the number of flushes which issued draw calls. */
+  public int flushes () {
+    int total = 0;
+    for (int count : flushes) total += count;
+    return total;
+  }
+
+  /** Returns the number of flushes for {@code reason} which issued draw calls. */
+  public int flushes (Flush reason) {
+    return flushes[reason.ordinal()];
+  }
+
+  /** Notes that a draw call was issued for {@code quads} quads and {@code triangles} triangles
+    * (including those which make up the quads). */
+  public void addDraw (int quads, int triangles) {
+    if (!enabled) return;
+    drawCalls++;
+    this.quads += quads;
+    this.triangles += triangles;
+  }
+
+  /** Notes that a batch flush for {@code reason} issued draw calls. */
+  public void addFlush (Flush reason) {
+    if (enabled) flushes[reason.ordinal()]++;
+  }
+
+  /** Notes that vertex and index data were uploaded. */
+  public void addUpload (int vertexBytes, int indexBytes) {
+    if (!enabled) return;
+    this.vertexBytes += vertexBytes;
+    this.indexBytes += indexBytes;
+  }
+
+  /** Resets all counts to zero. */
+  public void reset () {
+    drawCalls = quads = triangles = 0;
+    vertexBytes = indexBytes = 0;
+    for (int ii = 0; ii < flushes.length; ii++) flushes[ii] = 0;
+  }
+
+  @Override public String toString () {
+    StringBuilder buf = new StringBuilder("RenderStats[draws=").append(drawCalls).
+      append(", quads=").append(quads).append(", tris=").append(triangles).
+      append(", vbytes=").append(vertexBytes).append(", ibytes=").append(indexBytes).
+      append(", flushes={");
+    for (Flush reason : Flush.values()) {
+      if (reason.ordinal() > 0) buf.append(", ");
+      buf.append(reason).append("=").append(flushes[reason.ordinal()]);
+    }
+    return buf.append("}]").toString();
+  }
+
+  private boolean enabled;
+  private int drawCalls, quads, triangles;
+  private long vertexBytes, indexBytes;
+  private final int[] flushes = new int[Flush.values().length];
+}
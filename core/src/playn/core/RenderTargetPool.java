@@ -0,0 +1,260 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import react.Closeable;
+
+/**
+ * A pool of offscreen render targets (a texture, and a framebuffer and {@link TextureSurface}
+ * which render into it). Effects and offscreen passes which need a render target every frame can
+ * acquire one from the pool and release it when done, rather than creating and disposing GPU
+ * resources each time. Targets are pooled by size and texture config. Obtain a pool via {@link
+ * Graphics#createRenderTargetPool}.
+ *
+ * <p>The pool owns its targets' textures and surfaces: they must not be closed (or, if drawn via
+ * an {@code ImageLayer}, must be referenced for as long as they are displayed), and must not be
+ * used after their target is released. A target which becomes unreachable without being released
+ * can be returned to the pool on platforms that can detect this (see {@link #leaks}); elsewhere
+ * its resources remain allocated until the pool is closed, so targets should always be
+ * released.</p>
+ */
+public class RenderTargetPool implements Closeable {
+
+  /** A render target acquired from a pool. Hold on to the target itself (not just its texture or
+    * surface) until it is released. */
+  public final class Target implements Closeable {
+    /** The texture into which this target renders. */
+    public final Texture texture;
+    /** A surface which renders into {@link #texture}. */
+    public final TextureSurface surface;
+
+    /** Returns this target to its pool. Its texture and surface must no longer be used. */
+    public void release () {
+      RenderTargetPool.this.release(this);
+    }
+
+    /** Releases this target. See {@link #release}. */
+    @Override public void close () {
+      release();
+    }
+
+    @Override public String toString () {
+      return "Target[" + entry + "]";
+    }
+
+    private final Entry entry;
+    private boolean released;
+
+    private Target (Entry entry) {
+      this.entry = entry;
+      this.texture = entry.texture;
+      this.surface = entry.surface;
+    }
+  }
+
+  /** Creates a pool whose target surfaces use {@code defaultBatch}. */
+  public RenderTargetPool (Graphics gfx, QuadBatch defaultBatch) {
+    this.gfx = gfx;
+    this.defaultBatch = defaultBatch;
+  }
+
+  /**
+   * Returns a render target which is {@code width x height} in display units, with a texture
+   * created using {@code config} (though pooled textures are never managed). The target's
+   * texture contains whatever was last rendered into it, so it should be cleared if needed.
+   */
+  public Target acquire (float width, float height, Texture.Config config) {
+    if (closed) throw new IllegalStateException("Pool is closed: " + this);
+    poll();
+    Texture.Config tconf = !config.managed ? config : new Texture.Config(
+      false, config.repeatX, config.repeatY, config.minFilter, config.magFilter, config.mipmaps,
+      config.format);
+    Key key = new Key(width, height, tconf);
+    List<Entry> free = pool.get(key);
+    Entry entry;
+    if (free != null && !free.isEmpty()) {
+      entry = free.remove(free.size()-1);
+      pooled--;
+      reuses++;
+    } else {
+      Texture tex = gfx.createTexture(width, height, tconf);
+      entry = new Entry(key, tex, new TextureSurface(gfx, defaultBatch, tex));
+      allocations++;
+      bytes += tex.bytes();
+      peakBytes = Math.max(peakBytes, bytes);
+    }
+    outstanding++;
+    Target target = new Target(entry);
+    acquired(target, entry);
+    return target;
+  }
+
+  /** Returns {@code target} to this pool. Releasing a target more than once is an error. */
+  public void release (Target target) {
+    if (target.released) throw new IllegalStateException("Target already released: " + target);
+    target.released = true;
+    released(target.entry);
+    reclaim(target.entry);
+  }
+
+  /** Returns the number of targets this pool has created. */
+  public int allocations () {
+    return allocations;
+  }
+
+  /** Returns the number of times a pooled target has been reused. */
+  public int reuses () {
+    return reuses;
+  }
+
+  /** Returns the number of targets which have been acquired and not yet released. */
+  public int outstanding () {
+    poll();
+    return outstanding;
+  }
+
+  /** Returns the number of released targets which are waiting to be reused. */
+  public int pooled () {
+    return pooled;
+  }
+
+  /** Returns the number of targets which became unreachable without being released, and were
+    * thus returned to the pool automatically. This is always zero on platforms which cannot
+    * detect unreachable targets. */
+  public int leaks () {
+    poll();
+    return leaks;
+  }
+
+  /** Returns the number of bytes of texture memory used by this pool's targets. */
+  public long bytes () {
+    return bytes;
+  }
+
+  /** Returns the largest number of bytes of texture memory used by this pool's targets. */
+  public long peakBytes () {
+    return peakBytes;
+  }
+
+  /** Disposes all targets which are waiting in the pool to be reused. */
+  public void trim () {
+    poll();
+    for (List<Entry> free : pool.values()) {
+      for (Entry entry : free) dispose(entry);
+    }
+    pool.clear();
+    pooled = 0;
+  }
+
+  /** Disposes all pooled targets, and all outstanding targets when they are released. */
+  @Override public void close () {
+    closed = true;
+    trim();
+  }
+
+  @Override public String toString () {
+    return "RenderTargetPool[allocations=" + allocations + ", reuses=" + reuses +
+      ", outstanding=" + outstanding + ", pooled=" + pooled + ", leaks=" + leaks +
+      ", bytes=" + bytes + ", peak=" + peakBytes + "]";
+  }
+
+  /** Notes that {@code target} was acquired. {@code handle} identifies the resources it holds,
+    * and does not reference {@code target}. This allows a platform to track targets which become
+    * unreachable without being released, and pass their handles to {@link #leaked}. */
+  protected void acquired (Target target, Object handle) {}
+
+  /** Notes that the target with {@code handle} was released. */
+  protected void released (Object handle) {}
+
+  /** Called before this pool's state is used, to give a platform a chance to report targets which
+    * became unreachable without being released, via {@link #leaked}. */
+  protected void poll () {}
+
+  /** Returns the resources identified by {@code handle} to the pool. Called by {@link #poll} for
+    * targets which became unreachable without being released. */
+  protected final void leaked (Object handle) {
+    leaks++;
+    reclaim((Entry)handle);
+  }
+
+  private void reclaim (Entry entry) {
+    outstanding--;
+    if (closed) {
+      dispose(entry);
+      return;
+    }
+    List<Entry> free = pool.get(entry.key);
+    if (free == null) pool.put(entry.key, free = new ArrayList<>());
+    free.add(entry);
+    pooled++;
+  }
+
+  private void dispose (Entry entry) {
+    bytes -= entry.texture.bytes();
+    entry.surface.close();
+    entry.texture.close();
+  }
+
+  private static final class Key {
+    public final float width, height;
+    public final Texture.Config config;
+
+    public Key (float width, float height, Texture.Config config) {
+      this.width = width;
+      this.height = height;
+      this.config = config;
+    }
+
+    @Override public boolean equals (Object other) {
+      if (!(other instanceof Key)) return false;
+      Key ok = (Key)other;
+      return width == ok.width && height == ok.height && config.equals(ok.config);
+    }
+
+    @Override public int hashCode () {
+      return (Float.floatToIntBits(width) * 31 + Float.floatToIntBits(height)) * 31 +
+        config.hashCode();
+    }
+  }
+
+  // the resources of a target; these are retained by the pool while the target is outstanding,
+  // but do not reference the target, so that it can become unreachable if it is not released
+  private static final class Entry {
+    public final Key key;
+    public final Texture texture;
+    public final TextureSurface surface;
+
+    public Entry (Key key, Texture texture, TextureSurface surface) {
+      this.key = key;
+      this.texture = texture;
+      this.surface = surface;
+    }
+
+    @Override public String toString () {
+      return key.width + "x" + key.height + " " + key.config;
+    }
+  }
+
+  private final Graphics gfx;
+  private final QuadBatch defaultBatch;
+  private final Map<Key,List<Entry>> pool = new HashMap<>();
+  private int allocations, reuses, outstanding, pooled, leaks;
+  private long bytes, peakBytes;
+  private boolean closed;
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+/**
+ * A triangle batch which renders signed distance field textures (like those of an {@link
+ * SDFFont}). The distance stored in the alpha channel of the texture is turned into coverage by
+ * a smoothed threshold at 0.5, so that the shapes remain crisp at any scale or rotation.
+ *
+ * <p>The width of the smoothed edge is a uniform which depends on the scale at which the field is
+ * drawn (see {@link #setSmoothing}). Changing it flushes the batch. When drawing text to a deferred
+ * {@link Surface}, the surface flushes its deferred draws whenever the smoothing changes, so that
+ * each draw is rendered with the smoothing with which it was recorded.</p>
+ */
+public class SDFBatch extends TriangleBatch {
+
+  /** The source for the distance field shader program. */
+  public static class Source extends TriangleBatch.Source {
+
+    @Override protected String textureUniforms () {
+      return super.textureUniforms() + "uniform mediump float u_Smoothing;\n";
+    }
+
+    @Override protected String textureColor () {
+      return ("  mediump float dist = texture2D(u_Texture, v_TexCoord).a;\n" +
+              "  lowp float coverage = smoothstep(0.5 - u_Smoothing, 0.5 + u_Smoothing, dist);\n" +
+              // we produce premultiplied white, which is then colored by the tint
+              "  vec4 textureColor = vec4(coverage);\n");
+    }
+  }
+
+  /** Returns the smoothing to use when drawing a distance field with the specified {@code
+    * spread} (in texels) such that one texel covers {@code scale} pixels. */
+  public static float smoothing (int spread, float scale) {
+    // the field goes from 0 to 1 over 2*spread texels; we smooth over about one pixel
+    return Math.min(0.5f, 0.5f / (2*spread*Math.max(scale, 0.001f)));
+  }
+
+  /** Creates a distance field batch with the default shader program. */
+  public SDFBatch (GL20 gl) {
+    this(gl, new Source());
+  }
+
+  /** Creates a distance field batch with a custom shader program. */
+  public SDFBatch (GL20 gl, Source source) {
+    super(gl, source);
+    uSmoothing = program.getUniformLocation("u_Smoothing");
+  }
+
+  /** Returns the current smoothing. */
+  public float smoothing () {
+    return smoothing;
+  }
+
+  /** Configures the half-width of the smoothed edge, in distance field units (where the edge is
+    * at 0.5). See {@link #smoothing(int,float)}. */
+  public void setSmoothing (float smoothing) {
+    if (smoothing == this.smoothing) return;
+    if (active) {
+      flush();
+      gl.glUniform1f(uSmoothing, smoothing);
+    }
+    this.smoothing = smoothing;
+  }
+
+  @Override public void begin (float fbufWidth, float fbufHeight, boolean flip) {
+    super.begin(fbufWidth, fbufHeight, flip);
+    gl.glUniform1f(uSmoothing, smoothing);
+    active = true;
+  }
+
+  @Override public void end () {
+    try {
+      super.end();
+    } finally {
+      active = false;
+    }
+  }
+
+  @Override public String toString () { return "sdf/" + super.toString(); }
+
+  protected final int uSmoothing;
+  private float smoothing = 0.1f;
+  private boolean active;
+}
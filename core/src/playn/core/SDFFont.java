@@ -0,0 +1,345 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pythagoras.f.AffineTransform;
+import react.Closeable;
+import react.Function;
+import react.RFuture;
+import react.RPromise;
+
+import static playn.core.GL20.*;
+
+/**
+ * A font whose glyphs are stored as signed distance fields in a single texture, so that text can
+ * be rendered at any size and rotation from one set of glyphs, via {@link Surface#drawText(SDFFont,
+ * float,String,float,float)} and an {@link SDFBatch}.
+ *
+ * <p>Glyphs are rasterized once at the size of the font's {@link TextFormat}, on the game thread,
+ * after which their distance fields are computed on a background thread (where the platform
+ * supports it, see {@link Exec#invokeAsync}). Glyphs are colored by the tint with which they are
+ * drawn. As with {@link GlyphCache}, each character is rendered independently, so kerning,
+ * ligatures and complex scripts are not supported.</p>
+ */
+public class SDFFont implements Closeable {
+
+  /** The printable ASCII characters, a reasonable default character set. */
+  public static final String ASCII;
+  static {
+    StringBuilder buf = new StringBuilder();
+    for (char c = ' '; c <= '~'; c++) buf.append(c);
+    ASCII = buf.toString();
+  }
+
+  /**
+   * Creates a distance field font which contains {@code chars} rendered in {@code format}. The
+   * glyphs are rasterized immediately, so this must be called on the game thread.
+   *
+   * @param batch the batch used to render the font.
+   * @param spread the distance (in pixels) over which the distance field ranges from fully inside
+   * to fully outside a glyph. This determines how far text can be scaled down before its edges
+   * degrade, and should be larger for larger base font sizes.
+   */
+  public static RFuture<SDFFont> create (final Graphics gfx, final SDFBatch batch,
+                                         final TextFormat format, String chars, final int spread) {
+    if (spread < 1) throw new IllegalArgumentException("Spread must be positive: " + spread);
+    final List<Raster> rasters = rasterize(gfx, format, chars, spread);
+    final RPromise<Page> page = gfx.exec().deferredPromise();
+    Runnable compute = new Runnable() {
+      public void run () {
+        try {
+          page.succeed(pack(rasters, spread));
+        } catch (Throwable t) {
+          page.fail(t);
+        }
+      }
+    };
+    if (gfx.exec().isAsyncSupported()) gfx.exec().invokeAsync(compute);
+    else compute.run();
+    return page.map(new Function<Page,SDFFont>() {
+      public SDFFont apply (Page page) { return new SDFFont(gfx, batch, format, spread, page); }
+    });
+  }
+
+  /** The format in which the glyphs were rasterized. Its font size is the base size. */
+  public final TextFormat format;
+
+  /** The batch used to render this font. */
+  public final SDFBatch batch;
+
+  /** The spread of the distance fields, in pixels. */
+  public final int spread;
+
+  /** The texture which holds the distance fields of all glyphs. */
+  public final Texture texture;
+
+  /** Returns the size of the font at which the glyphs were rasterized. */
+  public float baseSize () {
+    return format.font.size;
+  }
+
+  /** Returns the glyph for {@code c} (with metrics at the base size), or null if {@code c} is not
+    * in this font. */
+  public GlyphCache.Glyph glyph (char c) {
+    return glyphs.get(c);
+  }
+
+  /** Returns the distance between the tops of successive lines of text at {@code size}. */
+  public float lineHeight (float size) {
+    return lineHeight * size / baseSize();
+  }
+
+  /** Returns the width of the widest line of {@code text} at {@code size}. */
+  public float measure (float size, String text) {
+    float width = 0, max = 0;
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      char c = text.charAt(ii);
+      if (c == '\n') {
+        max = Math.max(max, width);
+        width = 0;
+      } else {
+        GlyphCache.Glyph glyph = glyphs.get(c);
+        if (glyph != null) width += glyph.advance;
+      }
+    }
+    return Math.max(max, width) * size / baseSize();
+  }
+
+  /** Returns the smoothing for {@link #batch} to use when rendering text at {@code size} with
+    * the transform {@code xf} (which maps display units to pixels). */
+  public float smoothing (float size, AffineTransform xf) {
+    float xfScale = (float)Math.sqrt(Math.abs(xf.m00*xf.m11 - xf.m01*xf.m10));
+    float texelsPerUnit = texture.pixelWidth / texture.displayWidth;
+    return SDFBatch.smoothing(spread, xfScale * size / baseSize() / texelsPerUnit);
+  }
+
+  /** Releases this font's texture. */
+  @Override public void close () {
+    texture.close();
+  }
+
+  @Override public String toString () {
+    return "SDFFont[" + format + ", glyphs=" + glyphs.size() + ", spread=" + spread + "]";
+  }
+
+  /**
+   * Computes the signed distance field of the shape formed by the pixels of {@code argb} whose
+   * alpha is at least one half. The result has one byte per pixel, where 128 is the edge of the
+   * shape, 255 is {@code spread} or more pixels inside it and 0 is {@code spread} or more pixels
+   * outside it.
+   */
+  static byte[] distanceField (int[] argb, int width, int height, int spread) {
+    int size = width*height;
+    boolean[] inside = new boolean[size], outside = new boolean[size];
+    for (int ii = 0; ii < size; ii++) {
+      inside[ii] = (argb[ii] >>> 24) >= 128;
+      outside[ii] = !inside[ii];
+    }
+    // the distance from each pixel to the nearest inside pixel, and to the nearest outside pixel
+    float[] toInside = distances(inside, width, height);
+    float[] toOutside = distances(outside, width, height);
+    byte[] field = new byte[size];
+    for (int ii = 0; ii < size; ii++) {
+      // distances are between pixel centers, so the edge lies halfway between the two
+      float dist = inside[ii] ? toOutside[ii] - 0.5f : 0.5f - toInside[ii];
+      float value = 0.5f + dist / (2*spread);
+      field[ii] = (byte)Math.round(255 * Math.max(0, Math.min(1, value)));
+    }
+    return field;
+  }
+
+  // computes the Euclidean distance from every pixel to the nearest seed pixel using the
+  // eight-point sequential signed Euclidean distance transform (8SSEDT)
+  private static float[] distances (boolean[] seeds, int width, int height) {
+    int size = width*height, far = width + height;
+    int[] dx = new int[size], dy = new int[size];
+    for (int ii = 0; ii < size; ii++) {
+      if (!seeds[ii]) dx[ii] = dy[ii] = far;
+    }
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        relax(dx, dy, width, height, x, y, -1, 0);
+        relax(dx, dy, width, height, x, y, 0, -1);
+        relax(dx, dy, width, height, x, y, -1, -1);
+        relax(dx, dy, width, height, x, y, 1, -1);
+      }
+      for (int x = width-1; x >= 0; x--) relax(dx, dy, width, height, x, y, 1, 0);
+    }
+    for (int y = height-1; y >= 0; y--) {
+      for (int x = width-1; x >= 0; x--) {
+        relax(dx, dy, width, height, x, y, 1, 0);
+        relax(dx, dy, width, height, x, y, 0, 1);
+        relax(dx, dy, width, height, x, y, -1, 1);
+        relax(dx, dy, width, height, x, y, 1, 1);
+      }
+      for (int x = 0; x < width; x++) relax(dx, dy, width, height, x, y, -1, 0);
+    }
+    float[] dists = new float[size];
+    for (int ii = 0; ii < size; ii++) {
+      dists[ii] = (float)Math.sqrt(dx[ii]*dx[ii] + dy[ii]*dy[ii]);
+    }
+    return dists;
+  }
+
+  // updates the offset to the nearest seed of pixel (x, y) if the neighbor at (x+ox, y+oy) knows
+  // of a closer one
+  private static void relax (int[] dx, int[] dy, int width, int height,
+                             int x, int y, int ox, int oy) {
+    int nx = x + ox, ny = y + oy;
+    if (nx < 0 || ny < 0 || nx >= width || ny >= height) return;
+    int idx = y*width + x, nidx = ny*width + nx;
+    int cx = dx[nidx] - ox, cy = dy[nidx] - oy;
+    if (cx*cx + cy*cy < dx[idx]*dx[idx] + dy[idx]*dy[idx]) {
+      dx[idx] = cx;
+      dy[idx] = cy;
+    }
+  }
+
+  // a rasterized glyph, awaiting conversion into a distance field
+  private static class Raster {
+    public final char c;
+    public final int width, height; // in pixels
+    public final int[] argb; // null for glyphs which render nothing
+    public final float x, y, advance; // in display units
+    public int px, py; // the position of the field in the page, in pixels
+
+    public Raster (char c, int width, int height, int[] argb, float x, float y, float advance) {
+      this.c = c;
+      this.width = width;
+      this.height = height;
+      this.argb = argb;
+      this.x = x;
+      this.y = y;
+      this.advance = advance;
+    }
+  }
+
+  // the packed distance fields, one byte per pixel
+  private static class Page {
+    public final List<Raster> rasters;
+    public final int size;
+    public final byte[] alpha;
+
+    public Page (List<Raster> rasters, int size) {
+      this.rasters = rasters;
+      this.size = size;
+      this.alpha = new byte[size*size];
+    }
+  }
+
+  private static List<Raster> rasterize (Graphics gfx, TextFormat format, String chars,
+                                         int spread) {
+    GlyphRasterizer rasterizer = new GlyphRasterizer(gfx, format);
+    // leave enough space around each glyph for its distance field to fall off
+    float pad = spread / gfx.scale().factor;
+    List<Raster> rasters = new ArrayList<>();
+    for (int ii = 0, ll = chars.length(); ii < ll; ii++) {
+      char c = chars.charAt(ii);
+      GlyphRasterizer.Rendered glyph = rasterizer.render(c, pad);
+      if (glyph.canvas == null) {
+        rasters.add(new Raster(c, 0, 0, null, 0, 0, glyph.advance));
+        continue;
+      }
+      Image image = glyph.canvas.image;
+      try {
+        int pw = image.pixelWidth(), ph = image.pixelHeight();
+        int[] argb = new int[pw*ph];
+        image.getRgb(0, 0, pw, ph, argb, 0, pw);
+        rasters.add(new Raster(c, pw, ph, argb, glyph.x, glyph.y, glyph.advance));
+      } finally {
+        glyph.canvas.close();
+      }
+    }
+    return rasters;
+  }
+
+  private static Page pack (List<Raster> rasters, int spread) {
+    List<Raster> sorted = new ArrayList<>(rasters);
+    // packing tall glyphs first yields a tighter skyline
+    Collections.sort(sorted, new Comparator<Raster>() {
+      public int compare (Raster a, Raster b) { return b.height - a.height; }
+    });
+    int size = 64;
+    while (!fits(sorted, size)) {
+      if (size >= MAX_PAGE_SIZE) throw new IllegalArgumentException(
+        "Glyphs do not fit in a " + MAX_PAGE_SIZE + "x" + MAX_PAGE_SIZE + " texture");
+      size *= 2;
+    }
+
+    Page page = new Page(rasters, size);
+    for (Raster r : sorted) {
+      if (r.argb == null) continue;
+      byte[] field = distanceField(r.argb, r.width, r.height, spread);
+      for (int y = 0; y < r.height; y++) {
+        System.arraycopy(field, y*r.width, page.alpha, (r.py + y)*size + r.px, r.width);
+      }
+    }
+    return page;
+  }
+
+  private static boolean fits (List<Raster> rasters, int size) {
+    TextureAtlas.Skyline sky = new TextureAtlas.Skyline(size, size);
+    for (Raster r : rasters) {
+      if (r.argb == null) continue;
+      // leave a pixel between glyphs so that linear filtering does not sample neighbors
+      int pos = sky.pack(r.width + 1, r.height + 1);
+      if (pos < 0) return false;
+      r.px = pos >> 16;
+      r.py = pos & 0xFFFF;
+    }
+    return true;
+  }
+
+  private SDFFont (Graphics gfx, SDFBatch batch, TextFormat format, int spread, Page page) {
+    this.format = format;
+    this.batch = batch;
+    this.spread = spread;
+
+    GL20 gl = gfx.gl;
+    int id = gfx.createTexture(CONFIG);
+    ByteBuffer buf = gl.bufs.createByteBuffer(page.alpha.length);
+    buf.put(page.alpha);
+    buf.flip();
+    // the shader only reads the alpha channel, so that's all we store
+    gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_ALPHA, page.size, page.size, 0,
+                    GL_ALPHA, GL_UNSIGNED_BYTE, buf);
+    gl.checkError("SDFFont texture upload");
+    Scale scale = gfx.scale();
+    float dsize = scale.invScaled(page.size);
+    texture = new Texture(gfx, id, CONFIG, page.size, page.size, scale, dsize, dsize);
+
+    for (Raster r : page.rasters) {
+      Tile tile = (r.argb == null) ? null : texture.tile(
+        scale.invScaled(r.px), scale.invScaled(r.py),
+        scale.invScaled(r.width), scale.invScaled(r.height));
+      glyphs.put(r.c, new GlyphCache.Glyph(tile, r.x, r.y, r.advance));
+    }
+    lineHeight = new GlyphRasterizer(gfx, format).lineHeight;
+  }
+
+  private final Map<Character,GlyphCache.Glyph> glyphs = new HashMap<>();
+  private final float lineHeight;
+
+  private static final int MAX_PAGE_SIZE = 4096;
+  private static final Texture.Config CONFIG = new Texture.Config(
+    false, false, false, GL_LINEAR, GL_LINEAR, false, Texture.Format.ALPHA8);
+}
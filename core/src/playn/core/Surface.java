@@ -46,6 +46,7 @@ public class Surface implements Closeable {
   private int scissorDepth;
 
   private QuadBatch batch;
+  private DeferredBatch deferred; // null unless we're in deferred mode
   private int fillColor;
   private int tint = Tint.NOOP_TINT;
   private Texture patternTex;
@@ -76,16 +77,60 @@ public class Surface implements Closeable {
     this.checkIntersection = checkIntersection;
   }
 
+  /**
+   * Configures this surface to record its drawing commands and reorder them before sending them to
+   * the GPU. Recorded quads are grouped by batch and texture (where doing so does not change the
+   * result of overlapping draws) when the surface is ended, or when clipping starts or ends. This
+   * reduces the number of draw calls for scenes which interleave textures. See {@link
+   * DeferredBatch}. This must not be called between {@link #begin} and {@link #end}.
+   */
+  public Surface setDeferred (boolean deferred) {
+    if (deferred && this.deferred == null) this.deferred = new DeferredBatch(batch.gl);
+    else if (!deferred) this.deferred = null;
+    return this;
+  }
+
+  /** Returns the batch which records this surface's drawing commands in deferred mode, or null if
+    * this surface is not deferred. This provides access to its draw call statistics. */
+  public DeferredBatch deferredBatch () {
+    return deferred;
+  }
+
   /** Starts a series of drawing commands to this surface. */
   public Surface begin () {
     target.bind();
-    beginBatch(batch);
+    if (deferred != null) deferred.setTarget(batch);
+    beginBatch(drawBatch());
     return this;
   }
 
   /** Completes a series of drawing commands to this surface. */
   public Surface end () {
-    batch.end();
+    drawBatch().end();
+    return this;
+  }
+
+  /**
+   * Temporarily suspends drawing to this surface, between {@link #begin} and {@link #end}, so that
+   * another surface (usually a {@link TextureSurface}) can be rendered. Pending draws are flushed
+   * and any clipping is disabled. This must be followed by a call to {@link #resume}.
+   */
+  public Surface suspend () {
+    drawBatch().end();
+    if (scissorDepth > 0) batch.gl.glDisable(GL20.GL_SCISSOR_TEST);
+    return this;
+  }
+
+  /** Resumes drawing to this surface after a call to {@link #suspend}. This rebinds our render
+    * target and restores any clipping that was in effect. */
+  public Surface resume () {
+    target.bind();
+    if (scissorDepth > 0) {
+      Rectangle r = scissors.get(scissorDepth - 1);
+      batch.gl.glScissor(r.x, r.y, r.width, r.height);
+      batch.gl.glEnable(GL20.GL_SCISSOR_TEST);
+    }
+    beginBatch(drawBatch());
     return this;
   }
 
@@ -95,15 +140,20 @@ public class Surface implements Closeable {
   public QuadBatch pushBatch (QuadBatch newBatch) {
     if (newBatch == null) return null;
     QuadBatch oldBatch = batch;
-    batch.end();
-    batch = beginBatch(newBatch);
+    if (deferred != null) deferred.setTarget(batch = newBatch);
+    else {
+      batch.end(RenderStats.Flush.BATCH);
+      batch = beginBatch(newBatch);
+    }
     return oldBatch;
   }
 
   /** Restores the batch that was in effect prior to a {@link #pushBatch} call. */
   public void popBatch (QuadBatch oldBatch) {
-    if (oldBatch != null) {
-      batch.end();
+    if (oldBatch == null) return;
+    if (deferred != null) deferred.setTarget(batch = oldBatch);
+    else {
+      batch.end(RenderStats.Flush.BATCH);
       batch = beginBatch(oldBatch);
     }
   }
@@ -135,7 +185,7 @@ public class Surface implements Closeable {
     * @return whether the resulting clip rectangle is non-empty. <em>Note:</em> the caller may wish
     * to skip their drawing if this returns false, but they must still call {@link #endClipped}. */
   public boolean startClipped (int x, int y, int width, int height) {
-    batch.flush(); // flush any pending unclipped calls
+    drawBatch().flush(RenderStats.Flush.CLIP); // flush any pending unclipped calls
     Rectangle r = pushScissorState(x, target.flip() ? target.height()-y-height : y, width, height);
     batch.gl.glScissor(r.x, r.y, r.width, r.height);
     if (scissorDepth == 1) batch.gl.glEnable(GL20.GL_SCISSOR_TEST);
@@ -145,7 +195,7 @@ public class Surface implements Closeable {
 
   /** Ends a series of drawing commands that were clipped per a call to {@link #startClipped}. */
   public void endClipped () {
-    batch.flush(); // flush our clipped calls with SCISSOR_TEST still enabled
+    drawBatch().flush(RenderStats.Flush.CLIP); // flush clipped calls with SCISSOR_TEST enabled
     Rectangle r = popScissorState();
     if (r == null) batch.gl.glDisable(GL20.GL_SCISSOR_TEST);
     else batch.gl.glScissor(r.x, r.y, r.width, r.height);
@@ -270,12 +320,31 @@ public class Surface implements Closeable {
     return (ix + iw > 0) && (ix < tw) && (iy + ih > 0) && (iy < th);
   }
 
+  /**
+   * Returns whether the given rectangle, once transformed by the current transform, may intersect
+   * the render target area of this surface. Unlike {@link #intersects}, this tests the axis-aligned
+   * bounds of all four transformed corners (so it remains correct for rotated and flipped
+   * transforms) and ignores any clipping region. It is thus suitable for conservative culling.
+   */
+  public boolean mayIntersect (float x, float y, float w, float h) {
+    AffineTransform tx = tx();
+    float m00 = tx.m00, m01 = tx.m01, m10 = tx.m10, m11 = tx.m11;
+    float x0 = m00*x + m10*y + tx.tx, y0 = m01*x + m11*y + tx.ty;
+    float wx = m00*w, wy = m01*w, hx = m10*h, hy = m11*h;
+    float minX = x0 + Math.min(0, wx) + Math.min(0, hx);
+    float maxX = x0 + Math.max(0, wx) + Math.max(0, hx);
+    float minY = y0 + Math.min(0, wy) + Math.min(0, hy);
+    float maxY = y0 + Math.max(0, wy) + Math.max(0, hy);
+    return (maxX > 0) && (minX < target.width()) && (maxY > 0) && (minY < target.height());
+  }
+
   /** Clears the entire surface to transparent blackness. */
   public Surface clear () { return clear(0, 0, 0, 0); }
 
   /** Clears the entire surface to the specified color.
     * The channels are values in the range {@code [0,1]}. */
   public Surface clear (float red, float green, float blue, float alpha) {
+    if (deferred != null) deferred.flush(); // draws recorded prior to the clear must precede it
     batch.gl.glClearColor(red, green, blue, alpha);
     batch.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
     return this;
@@ -291,7 +360,7 @@ public class Surface implements Closeable {
    */
   public Surface draw (Tile tile, float x, float y, float w, float h) {
     if (!checkIntersection || intersects(x, y, w, h)) {
-      tile.addToBatch(batch, tint, tx(), x, y, w, h);
+      tile.addToBatch(drawBatch(), tint, tx(), x, y, w, h);
     }
     return this;
   }
@@ -303,7 +372,7 @@ public class Surface implements Closeable {
    */
   public Surface draw (Tile tile, int tint, float x, float y, float w, float h) {
     if (!checkIntersection || intersects(x, y, w, h)) {
-      tile.addToBatch(batch, tint, tx(), x, y, w, h);
+      tile.addToBatch(drawBatch(), tint, tx(), x, y, w, h);
     }
     return this;
   }
@@ -315,7 +384,7 @@ public class Surface implements Closeable {
   public Surface draw (Tile tile, float dx, float dy, float dw, float dh,
                        float sx, float sy, float sw, float sh) {
     if (!checkIntersection || intersects(dx, dy, dw, dh)) {
-      tile.addToBatch(batch, tint, tx(), dx, dy, dw, dh, sx, sy, sw, sh);
+      tile.addToBatch(drawBatch(), tint, tx(), dx, dy, dw, dh, sx, sy, sw, sh);
     }
     return this;
   }
@@ -328,7 +397,88 @@ public class Surface implements Closeable {
   public Surface draw (Tile tile, int tint, float dx, float dy, float dw, float dh,
                        float sx, float sy, float sw, float sh) {
     if (!checkIntersection || intersects(dx, dy, dw, dh)) {
-      tile.addToBatch(batch, tint, tx(), dx, dy, dw, dh, sx, sy, sw, sh);
+      tile.addToBatch(drawBatch(), tint, tx(), dx, dy, dw, dh, sx, sy, sw, sh);
+    }
+    return this;
+  }
+
+  /**
+   * Draws {@code text} with the upper left of its first line at {@code (x, y)}, using one quad per
+   * character with glyphs obtained from {@code glyphs}. The text is drawn in the current tint
+   * (see {@link #setTint}), and newlines start new lines. Any glyphs not yet in the cache are
+   * rasterized first (which suspends rendering to this surface while they are added to the
+   * cache's atlas), but thereafter text can be redrawn without any texture uploads.
+   */
+  public Surface drawText (GlyphCache glyphs, TextFormat format, String text, float x, float y) {
+    if (!glyphs.isCached(format, text)) {
+      suspend();
+      try { glyphs.prepare(format, text); }
+      finally { resume(); }
+    }
+    float px = x, py = y, lineHeight = glyphs.lineHeight(format);
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      char c = text.charAt(ii);
+      if (c == '\n') {
+        px = x;
+        py += lineHeight;
+        continue;
+      }
+      GlyphCache.Glyph glyph = glyphs.glyph(format, c);
+      if (glyph.tile != null) draw(glyph.tile, px + glyph.x, py + glyph.y);
+      px += glyph.advance;
+    }
+    return this;
+  }
+
+  /**
+   * Draws {@code text} at {@code size} with the upper left of its first line at {@code (x, y)},
+   * using one quad per character with glyphs from the distance field font {@code font}. The text
+   * is drawn with the font's {@link SDFFont#batch} in the current tint, and newlines start new
+   * lines. Characters which are not in the font are skipped.
+   */
+  public Surface drawText (SDFFont font, float size, String text, float x, float y) {
+    QuadBatch oldBatch = pushBatch(font.batch);
+    try {
+      float smoothing = font.smoothing(size, tx());
+      // deferred draws are rendered with the smoothing in effect when they are replayed, so any
+      // recorded with a different smoothing must be rendered before we change it
+      if (deferred != null && smoothing != font.batch.smoothing()) deferred.flush();
+      font.batch.setSmoothing(smoothing);
+      float scale = size / font.baseSize();
+      float px = x, py = y, lineHeight = font.lineHeight(size);
+      for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+        char c = text.charAt(ii);
+        if (c == '\n') {
+          px = x;
+          py += lineHeight;
+          continue;
+        }
+        GlyphCache.Glyph glyph = font.glyph(c);
+        if (glyph == null) continue;
+        if (glyph.tile != null) draw(glyph.tile, px + glyph.x*scale, py + glyph.y*scale,
+                                     glyph.tile.width()*scale, glyph.tile.height()*scale);
+        px += glyph.advance*scale;
+      }
+    } finally {
+      popBatch(oldBatch);
+    }
+    return this;
+  }
+
+  /**
+   * Draws baked geometry with the current transform and tint. Any pending draws are flushed first,
+   * and the geometry is drawn with its {@link BakedGeometry#batch}.
+   */
+  public Surface draw (BakedGeometry geom) {
+    if (deferred != null) deferred.flush();
+    else batch.end();
+    BakedBatch bbatch = geom.batch;
+    bbatch.begin(target.width(), target.height(), target.flip());
+    try {
+      bbatch.draw(geom, tint, tx());
+    } finally {
+      bbatch.end();
+      if (deferred == null) beginBatch(batch);
     }
     return this;
   }
@@ -372,9 +522,9 @@ public class Surface implements Closeable {
     Transforms.multiply(tx(), xf, xf);
 
     if (patternTex != null) {
-      batch.addQuad(patternTex, tint, xf, 0, 0, length, width);
+      drawBatch().addQuad(patternTex, tint, xf, 0, 0, length, width);
     } else {
-      batch.addQuad(colorTex, Tint.combine(fillColor, tint), xf, 0, 0, length, width);
+      drawBatch().addQuad(colorTex, Tint.combine(fillColor, tint), xf, 0, 0, length, width);
     }
     return this;
   }
@@ -384,9 +534,9 @@ public class Surface implements Closeable {
    */
   public Surface fillRect (float x, float y, float width, float height) {
     if (patternTex != null) {
-      batch.addQuad(patternTex, tint, tx(), x, y, width, height);
+      drawBatch().addQuad(patternTex, tint, tx(), x, y, width, height);
     } else {
-      batch.addQuad(colorTex, Tint.combine(fillColor, tint), tx(), x, y, width, height);
+      drawBatch().addQuad(colorTex, Tint.combine(fillColor, tint), tx(), x, y, width, height);
     }
     return this;
   }
@@ -395,6 +545,11 @@ public class Surface implements Closeable {
     // nothing; this exists to make life easier for users of TextureSurface
   }
 
+  // the batch to which we send drawing commands: our recorder in deferred mode, else our batch
+  private QuadBatch drawBatch () {
+    return deferred == null ? batch : deferred;
+  }
+
   private QuadBatch beginBatch (QuadBatch batch) {
     batch.begin(target.width(), target.height(), target.flip());
     return batch;
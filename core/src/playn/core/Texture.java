@@ -30,6 +30,33 @@ import static playn.core.GL20.*;
  */
 public class Texture extends Tile implements Closeable {
 
+  /** The pixel formats in which a texture's data can be stored on the GPU. The reduced precision
+    * formats save memory and upload time where their loss of quality is acceptable. */
+  public static enum Format {
+    /** Eight bits for each of red, green, blue and alpha. */
+    RGBA8888(GL_RGBA, GL_UNSIGNED_BYTE, 32),
+    /** Four bits for each of red, green, blue and alpha. Smooth gradients will show banding. */
+    RGBA4444(GL_RGBA, GL_UNSIGNED_SHORT_4_4_4_4, 16),
+    /** Five bits of red, six of green and five of blue, with no alpha. For opaque images. */
+    RGB565(GL_RGB, GL_UNSIGNED_SHORT_5_6_5, 16),
+    /** Eight bits of alpha, with no color. The texture draws as black with the image's alpha,
+      * which is useful for masks and shadows. This format cannot be rendered into. */
+    ALPHA8(GL_ALPHA, GL_UNSIGNED_BYTE, 8);
+
+    /** The GL format (and internal format) used for textures of this format. */
+    public final int glFormat;
+    /** The GL data type used to upload data in this format. */
+    public final int glType;
+    /** The number of bits used to store each pixel. */
+    public final int bitsPerPixel;
+
+    Format (int glFormat, int glType, int bitsPerPixel) {
+      this.glFormat = glFormat;
+      this.glType = glType;
+      this.bitsPerPixel = bitsPerPixel;
+    }
+  }
+
   /** Used to configure texture at creation time. */
   public final static class Config {
 
@@ -53,19 +80,36 @@ public class Texture extends Tile implements Closeable {
     /** Whether texture has mipmaps generated. */
     public final boolean mipmaps;
 
+    /** The format in which the texture's pixels are stored. Image data is converted to this format
+      * when it is uploaded. Backends which cannot convert image data (currently all but the Java
+      * backends) upload {@link Format#RGBA8888} data regardless, and {@link Texture#bytes} reports
+      * the size of the data actually uploaded. */
+    public final Format format;
+
     public Config (boolean managed, boolean repeatX, boolean repeatY,
                    int minFilter, int magFilter, boolean mipmaps) {
+      this(managed, repeatX, repeatY, minFilter, magFilter, mipmaps, Format.RGBA8888);
+    }
+
+    public Config (boolean managed, boolean repeatX, boolean repeatY,
+                   int minFilter, int magFilter, boolean mipmaps, Format format) {
       this.managed = managed;
       this.repeatX = repeatX;
       this.repeatY = repeatY;
       this.minFilter = minFilter;
       this.magFilter = magFilter;
       this.mipmaps = mipmaps;
+      this.format = format;
     }
 
     /** Returns a copy of this config with {@code repeatX}, {@code repeatY} set as specified. */
     public Config repeat (boolean repeatX, boolean repeatY) {
-      return new Config(managed, repeatX, repeatY, minFilter, magFilter, mipmaps);
+      return new Config(managed, repeatX, repeatY, minFilter, magFilter, mipmaps, format);
+    }
+
+    /** Returns a copy of this config with {@code format} set as specified. */
+    public Config format (Format format) {
+      return new Config(managed, repeatX, repeatY, minFilter, magFilter, mipmaps, format);
     }
 
     /** Returns {@code sourceWidth} rounded up to a POT if necessary. */
@@ -77,10 +121,24 @@ public class Texture extends Tile implements Closeable {
       return (repeatY || mipmaps) ? nextPOT(sourceHeight) : sourceHeight;
     }
 
+    @Override public boolean equals (Object other) {
+      if (!(other instanceof Config)) return false;
+      Config oc = (Config)other;
+      return managed == oc.managed && repeatX == oc.repeatX && repeatY == oc.repeatY &&
+        minFilter == oc.minFilter && magFilter == oc.magFilter && mipmaps == oc.mipmaps &&
+        format == oc.format;
+    }
+
+    @Override public int hashCode () {
+      int hash = (managed ? 1 : 0) | (repeatX ? 2 : 0) | (repeatY ? 4 : 0) | (mipmaps ? 8 : 0);
+      return ((hash * 31 + minFilter) * 31 + magFilter) * 31 + format.ordinal();
+    }
+
     @Override public String toString () {
       String repstr = (repeatX ? "x" : "") + (repeatY ? "y" : "");
       return "[managed=" + managed + ", repeat=" + repstr +
-        ", filter=" + minFilter + "/" + magFilter + ", mipmaps=" + mipmaps + "]";
+        ", filter=" + minFilter + "/" + magFilter + ", mipmaps=" + mipmaps +
+        ", format=" + format + "]";
     }
   }
 
@@ -118,11 +176,24 @@ public class Texture extends Tile implements Closeable {
 
   // needed to access GL20 and to queue our destruction on finalize
   private final Graphics gfx;
+  private final int bitsPerPixel;
   private int refs;
   private boolean disposed;
 
+  // used by TextureManager to reload evicted textures and to track recency of use
+  Image source;
+  CompressedImage compressedSource;
+  int lastUse = -1;
+  boolean evicted, candidate;
+
   public Texture (Graphics gfx, int id, Config config, int pixWidth, int pixHeight,
                   Scale scale, float dispWidth, float dispHeight) {
+    this(gfx, id, config, pixWidth, pixHeight, scale, dispWidth, dispHeight,
+         config.format.bitsPerPixel);
+  }
+
+  Texture (Graphics gfx, int id, Config config, int pixWidth, int pixHeight,
+           Scale scale, float dispWidth, float dispHeight, int bitsPerPixel) {
     this.gfx = gfx;
     this.id = id;
     this.config = config;
@@ -131,6 +202,22 @@ public class Texture extends Tile implements Closeable {
     this.scale = scale;
     this.displayWidth = dispWidth;
     this.displayHeight = dispHeight;
+    this.bitsPerPixel = bitsPerPixel;
+    if (gfx != null) gfx.textures().created(this);
+  }
+
+  /** Returns the number of bytes of GPU memory used by this texture's data, including its mipmaps
+    * (if any). This does not account for driver overhead or padding. */
+  public long bytes () {
+    long bytes = (long)pixelWidth * pixelHeight * bitsPerPixel / 8;
+    // a full mipmap chain adds (at most) a third to the size of the base level
+    return config.mipmaps ? bytes * 4 / 3 : bytes;
+  }
+
+  /** Returns whether this texture's GPU memory has been freed by the {@link TextureManager}. An
+    * evicted texture is uploaded again from its image when it is next drawn. */
+  public boolean evicted () {
+    return evicted;
   }
 
   /** Increments this texture's reference count. NOOP unless {@link Config#managed}. */
@@ -151,6 +238,8 @@ public class Texture extends Tile implements Closeable {
     * size as this texture and must be fully loaded. This is generally useful for updating a
     * texture which was created from a canvas when the canvas has been changed. */
   public void update (Image image) {
+    // an evicted texture has no storage, so this upload restores it
+    if (evicted) gfx.textures().restored(this);
     // if we're a repeating texture (or we want mipmaps) and this image is non-POT on the relevant
     // axes, we need to scale it before we upload it; we'll just do this on the CPU since it feels
     // like creating a second texture, a frame buffer to render into it, sending a GPU batch and
@@ -169,6 +258,59 @@ public class Texture extends Tile implements Closeable {
     if (config.mipmaps) gfx.gl.glGenerateMipmap(GL_TEXTURE_2D);
   }
 
+  /** Uploads the {@code width x height} region at {@code (x, y)} (in pixels) of {@code image} to
+    * the same region of this texture. This is useful for updating a texture created from a canvas
+    * when only part of the canvas has changed (see {@link Canvas#dirtyRegion}). If this texture
+    * was scaled up from {@code image} (to a power of two size), or has been evicted, all of {@code
+    * image} is uploaded. */
+  public void update (Image image, int x, int y, int width, int height) {
+    // an evicted texture has zero size, so we can't upload a region into it
+    if (evicted || image.pixelWidth() != pixelWidth || image.pixelHeight() != pixelHeight)
+      update(image);
+    else {
+      image.upload(gfx, this, x, y, width, height);
+      if (config.mipmaps) gfx.gl.glGenerateMipmap(GL_TEXTURE_2D);
+    }
+  }
+
+  /** Uploads {@code image} to this texture's GPU memory. {@code image} must have the exact same
+    * size as this texture. If the GPU supports {@code image}'s format, its data is uploaded as is
+    * (along with its mipmaps, if this texture uses them). Otherwise, or if this texture needs
+    * mipmaps which {@code image} lacks, it is decoded on the CPU and uploaded uncompressed. */
+  public void update (CompressedImage image) {
+    if (image.width != pixelWidth || image.height != pixelHeight) throw new IllegalArgumentException(
+      "Compressed image size must match texture size: " + image + " vs " + this);
+    if (evicted) gfx.textures().restored(this);
+    GL20 gl = gfx.gl;
+    gl.glBindTexture(GL_TEXTURE_2D, id);
+    if (image.uploadsCompressed(gl, config)) {
+      int format = image.format.uploadFormat(gl);
+      for (int level = 0, levels = config.mipmaps ? image.levels() : 1; level < levels; level++) {
+        byte[] data = image.level(level);
+        gl.bufs.setByteBuffer(data, 0, data.length);
+        gl.glCompressedTexImage2D(GL_TEXTURE_2D, level, format,
+                                  CompressedImage.levelSize(pixelWidth, level),
+                                  CompressedImage.levelSize(pixelHeight, level),
+                                  0, data.length, gl.bufs.byteBuffer);
+      }
+    } else {
+      int[] argb = image.decode(0);
+      byte[] rgba = new byte[argb.length*4];
+      for (int ii = 0, bb = 0; ii < argb.length; ii++) {
+        int pixel = argb[ii];
+        rgba[bb++] = (byte)(pixel >> 16);
+        rgba[bb++] = (byte)(pixel >> 8);
+        rgba[bb++] = (byte)pixel;
+        rgba[bb++] = (byte)(pixel >>> 24);
+      }
+      gl.bufs.setByteBuffer(rgba, 0, rgba.length);
+      gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, pixelWidth, pixelHeight, 0,
+                      GL_RGBA, GL_UNSIGNED_BYTE, gl.bufs.byteBuffer);
+      if (config.mipmaps) gl.glGenerateMipmap(GL_TEXTURE_2D);
+    }
+    gl.checkError("Texture.update(CompressedImage)");
+  }
+
   /**
    * Returns an instance that can be used to render a sub-region of this texture.
    */
@@ -187,8 +329,8 @@ public class Texture extends Tile implements Closeable {
       @Override public float height () { return tileHeight; }
       @Override public float sx () { return tileX/displayWidth; }
       @Override public float sy () { return tileY/displayHeight; }
-      @Override public float tx () { return (tileX+tileWidth)/displayHeight; }
-      @Override public float ty () { return (tileY+tileWidth)/displayHeight; }
+      @Override public float tx () { return (tileX+tileWidth)/displayWidth; }
+      @Override public float ty () { return (tileY+tileHeight)/displayHeight; }
       @Override public void addToBatch (QuadBatch batch, int tint, AffineTransform tx,
                                         float x, float y, float width, float height) {
         batch.addQuad(texture(), tint, tx, x, y, width, height, tileX, tileY, tileWidth, tileHeight);
@@ -241,10 +383,10 @@ public class Texture extends Tile implements Closeable {
     if (!disposed) {
       disposed = true;
       if (gfx.exec().isMainThread()) {
-        gfx.gl.glDeleteTexture(id);
+        delete();
       } else {
         gfx.exec().invokeNextFrame(new Runnable() {
-          public void run () { gfx.gl.glDeleteTexture(id); }
+          public void run () { delete(); }
         });
       }
     }
@@ -255,6 +397,20 @@ public class Texture extends Tile implements Closeable {
       ", dsize=" + displayWidth + "x" + displayHeight + " @ " + scale + ", config=" + config + "]";
   }
 
+  /** Notes that this texture is about to be drawn. This reloads it if it was evicted. */
+  void used () {
+    if (gfx != null && (evicted || lastUse != gfx.textures().frameNumber())) {
+      gfx.textures().used(this);
+    }
+  }
+
+  private void delete () {
+    gfx.gl.glDeleteTexture(id);
+    gfx.textures().closed(this);
+    source = null;
+    compressedSource = null;
+  }
+
   protected void finalize () {
     this.close();
   }
@@ -0,0 +1,480 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import pythagoras.f.AffineTransform;
+import react.Closeable;
+import react.Function;
+import react.RFuture;
+
+import static playn.core.GL20.*;
+
+/**
+ * Packs images into a small number of shared textures (pages) at runtime. Tiles obtained from the
+ * same page share a texture, and can thus be rendered together in a single draw call, whereas
+ * each image's own {@link Image#texture} forces a texture switch (and hence a flush) when it is
+ * drawn between other images.
+ *
+ * <p>Images are copied into a page on the GPU (by rendering the image's texture into the page),
+ * so adding images to an atlas must not be done while a {@link Surface} is being rendered. Images
+ * which are too large to fit in a page (or which do not fit once the maximum number of pages is in
+ * use) transparently fall back to their own texture.</p>
+ *
+ * <p>Tiles can be removed from the atlas via {@link #remove}, after which the space they occupy
+ * will be reclaimed when their page becomes empty or the atlas is {@link #repack}ed. Repacking
+ * moves tiles between pages, but tiles obtained from the atlas remain valid.</p>
+ *
+ * @see Graphics#atlas
+ */
+public class TextureAtlas implements Closeable {
+
+  /** Configures the layout of an atlas. */
+  public static final class Config {
+
+    /** The default configuration: 1024x1024 pages, two pixels of bleed around each tile, and at
+      * most eight pages. See {@link Graphics#setAtlasConfig} to configure the shared atlas. */
+    public static final Config DEFAULT = new Config(1024, 2, true, 8);
+
+    /** The width and height of each page, in pixels. */
+    public final int pageSize;
+
+    /** The number of pixels left empty around each tile. This avoids sampling neighboring tiles
+      * when tiles are scaled or drawn at non-integral positions. */
+    public final int padding;
+
+    /** Whether the outermost pixels of each image are extended into its padding. This avoids
+      * blending in transparent pixels along the edges of scaled tiles. */
+    public final boolean bleed;
+
+    /** The maximum number of pages this atlas will create. */
+    public final int maxPages;
+
+    public Config (int pageSize, int padding, boolean bleed, int maxPages) {
+      if (pageSize <= 2*padding) throw new IllegalArgumentException(
+        "Page size must exceed twice the padding: " + pageSize + " vs " + padding);
+      if (maxPages < 1) throw new IllegalArgumentException(
+        "maxPages must be at least one: " + maxPages);
+      this.pageSize = pageSize;
+      this.padding = padding;
+      this.bleed = bleed;
+      this.maxPages = maxPages;
+    }
+
+    @Override public String toString () {
+      return "[page=" + pageSize + ", padding=" + padding + ", bleed=" + bleed +
+        ", maxPages=" + maxPages + "]";
+    }
+  }
+
+  /** The configuration of this atlas. */
+  public final Config config;
+
+  /** Creates an atlas with the supplied configuration. */
+  public TextureAtlas (Graphics gfx, Config config) {
+    this.gfx = gfx;
+    this.config = config;
+  }
+
+  /**
+   * Adds {@code image} to this atlas and returns a tile which renders it. If the image cannot be
+   * added to the atlas, its own texture is returned instead (see {@link Image#texture}).
+   *
+   * @throws IllegalStateException if the image is not yet loaded.
+   */
+  public Tile add (Image image) {
+    if (!image.isLoaded()) throw new IllegalStateException(
+      "Cannot add unready image to atlas: " + image);
+
+    int pw = image.pixelWidth(), ph = image.pixelHeight();
+    int pad = config.padding, limit = config.pageSize - 2*pad;
+    if (pw <= 0 || ph <= 0 || pw > limit || ph > limit) return image.texture();
+
+    AtlasTile tile = new AtlasTile(image.width(), image.height(), pw, ph);
+    if (!place(tile)) {
+      // if enough space has been freed by removed tiles, repacking may make room
+      if (freedPixels() < config.pageSize*config.pageSize/2 || !repack() || !place(tile))
+        return image.texture();
+    }
+
+    Texture source = image.createTexture(Texture.Config.UNMANAGED);
+    try {
+      copyImage(tile.page, tile.x, tile.y, pw, ph, source);
+    } finally {
+      source.close();
+    }
+    tiles.add(tile);
+    return tile;
+  }
+
+  /** Adds {@code image} to this atlas once it has loaded. See {@link #add}. */
+  public RFuture<Tile> addAsync (Image image) {
+    return image.state.map(new Function<Image,Tile>() {
+      public Tile apply (Image image) { return add(image); }
+    });
+  }
+
+  /**
+   * Removes {@code tile} from this atlas. The tile must no longer be rendered. The space it
+   * occupied is reclaimed when its page becomes empty or when the atlas is repacked. This is a
+   * NOOP for tiles which were not obtained from this atlas (i.e. fallback textures).
+   */
+  public void remove (Tile tile) {
+    if (!(tile instanceof AtlasTile) || !tiles.remove(tile)) return;
+    AtlasTile atile = (AtlasTile)tile;
+    Page page = atile.page;
+    page.freed += padded(atile.pw)*padded(atile.ph);
+    if (--page.tiles == 0) page.reset();
+    atile.page = null;
+  }
+
+  /**
+   * Repacks the tiles in this atlas into as few pages as possible, reclaiming the space of removed
+   * tiles. Tiles are copied to their new locations on the GPU, and remain valid. Unused pages are
+   * freed.
+   *
+   * <p>The new layout is planned in full before anything is copied, so if the tiles do not fit in
+   * {@link Config#maxPages} pages when packed anew, the atlas is left untouched. While the tiles are
+   * being copied, both the old and new pages exist, so peak texture memory use is up to double
+   * that of the atlas.</p>
+   *
+   * @return true if the tiles were repacked, false if they would not fit and nothing was changed.
+   */
+  public boolean repack () {
+    List<AtlasTile> moving = new ArrayList<>(tiles);
+    // packing tall tiles first yields a tighter skyline
+    Collections.sort(moving, new Comparator<AtlasTile>() {
+      public int compare (AtlasTile a, AtlasTile b) { return b.ph - a.ph; }
+    });
+
+    // plan the new layout first, so that we can bail out before disturbing anything
+    List<Skyline> plan = new ArrayList<>();
+    int[] planPage = new int[moving.size()], planPos = new int[moving.size()];
+    for (int ii = 0, ll = moving.size(); ii < ll; ii++) {
+      AtlasTile tile = moving.get(ii);
+      int pw = padded(tile.pw), ph = padded(tile.ph), pos = -1, pp = 0;
+      for (int pl = plan.size(); pp < pl && (pos = plan.get(pp).pack(pw, ph)) < 0; pp++);
+      if (pos < 0) {
+        if (plan.size() == config.maxPages) return false;
+        Skyline sky = new Skyline(config.pageSize, config.pageSize);
+        plan.add(sky);
+        if ((pos = sky.pack(pw, ph)) < 0) return false;
+      }
+      planPage[ii] = pp;
+      planPos[ii] = pos;
+    }
+
+    List<Page> newPages = new ArrayList<>();
+    for (Skyline sky : plan) newPages.add(new Page(sky));
+    int pad = config.padding;
+    for (int ii = 0, ll = moving.size(); ii < ll; ii++) {
+      AtlasTile tile = moving.get(ii);
+      Page from = tile.page, to = newPages.get(planPage[ii]);
+      int fromX = tile.x - pad, fromY = tile.y - pad, pw = padded(tile.pw), ph = padded(tile.ph);
+      tile.page = to;
+      tile.x = (planPos[ii] >>> 16) + pad;
+      tile.y = (planPos[ii] & 0xFFFF) + pad;
+      to.tiles++;
+      // copy the padded region, so that any bleed is copied along with the image
+      copyRegion(to, tile.x - pad, tile.y - pad, pw, ph, from.tex, fromX, fromY, pw, ph);
+    }
+    for (Page page : pages) page.close();
+    pages.clear();
+    pages.addAll(newPages);
+    return true;
+  }
+
+  /** Returns the number of pages currently in use by this atlas. */
+  public int pages () {
+    return pages.size();
+  }
+
+  /** Returns the number of tiles currently in this atlas. */
+  public int tiles () {
+    return tiles.size();
+  }
+
+  /** Returns the number of bytes of texture memory used by this atlas's pages. */
+  public long bytes () {
+    return (long)pages.size()*config.pageSize*config.pageSize*4;
+  }
+
+  /** Frees all of the pages of this atlas. Tiles obtained from this atlas become unusable. */
+  @Override public void close () {
+    for (Page page : pages) page.close();
+    pages.clear();
+    tiles.clear();
+    if (batch != null) {
+      batch.close();
+      batch = null;
+    }
+  }
+
+  @Override public String toString () {
+    return "TextureAtlas" + config + " pages=" + pages.size() + " tiles=" + tiles.size();
+  }
+
+  /** Packs rectangles into a fixed size area using the skyline bottom-left heuristic. Each
+    * packed rectangle is placed as low as possible, preferring the leftmost such position. This
+    * is also used by the offline atlas tool. */
+  public static class Skyline {
+    public final int width, height;
+    // the skyline is a series of segments, each with an x position, a width and a height
+    private int[] xs = new int[16], ys = new int[16], ws = new int[16];
+    private int count;
+
+    public Skyline (int width, int height) {
+      this.width = width;
+      this.height = height;
+      reset();
+    }
+
+    /** Clears all packed rectangles from this skyline. */
+    public void reset () {
+      xs[0] = 0; ys[0] = 0; ws[0] = width;
+      count = 1;
+    }
+
+    /** Packs a {@code w x h} rectangle, returning its position as {@code (x << 16) | y}, or -1 if
+      * it does not fit. */
+    public int pack (int w, int h) {
+      int bestIdx = -1, bestY = Integer.MAX_VALUE, bestX = 0;
+      for (int ii = 0; ii < count; ii++) {
+        int x = xs[ii], y = fit(ii, w);
+        if (y < 0 || y + h > height) continue;
+        if (y < bestY) {
+          bestIdx = ii; bestY = y; bestX = x;
+        }
+      }
+      if (bestIdx < 0) return -1;
+      insert(bestIdx, bestX, bestY + h, w);
+      return (bestX << 16) | bestY;
+    }
+
+    // returns the y position at which a rectangle of width w can be placed at the start of the
+    // segment at idx, or -1 if it would overhang the right edge
+    private int fit (int idx, int w) {
+      int x = xs[idx];
+      if (x + w > width) return -1;
+      int y = 0;
+      for (int ii = idx, remain = w; remain > 0; ii++) {
+        y = Math.max(y, ys[ii]);
+        remain -= ws[ii];
+      }
+      return y;
+    }
+
+    private void insert (int idx, int x, int y, int w) {
+      if (count == xs.length) {
+        xs = Arrays.copyOf(xs, count*2);
+        ys = Arrays.copyOf(ys, count*2);
+        ws = Arrays.copyOf(ws, count*2);
+      }
+      System.arraycopy(xs, idx, xs, idx+1, count-idx);
+      System.arraycopy(ys, idx, ys, idx+1, count-idx);
+      System.arraycopy(ws, idx, ws, idx+1, count-idx);
+      xs[idx] = x; ys[idx] = y; ws[idx] = w;
+      count++;
+
+      // trim or remove the segments now covered by the new segment
+      int right = x + w;
+      for (int ii = idx+1; ii < count; ) {
+        if (xs[ii] >= right) break;
+        int overlap = right - xs[ii];
+        if (overlap < ws[ii]) {
+          xs[ii] += overlap;
+          ws[ii] -= overlap;
+          break;
+        }
+        removeAt(ii);
+      }
+
+      // merge adjacent segments of the same height
+      for (int ii = 0; ii < count-1; ) {
+        if (ys[ii] == ys[ii+1]) {
+          ws[ii] += ws[ii+1];
+          removeAt(ii+1);
+        } else ii++;
+      }
+    }
+
+    private void removeAt (int idx) {
+      System.arraycopy(xs, idx+1, xs, idx, count-idx-1);
+      System.arraycopy(ys, idx+1, ys, idx, count-idx-1);
+      System.arraycopy(ws, idx+1, ws, idx, count-idx-1);
+      count--;
+    }
+  }
+
+  private class Page {
+    public final Texture tex;
+    public final TextureSurface surf;
+    public final Skyline skyline;
+    public int tiles, freed;
+
+    public Page () {
+      this(new Skyline(config.pageSize, config.pageSize));
+    }
+
+    public Page (Skyline skyline) {
+      this.skyline = skyline;
+      int size = config.pageSize;
+      Texture.Config tconf = Texture.Config.UNMANAGED;
+      int id = gfx.createTexture(tconf);
+      gfx.gl.glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, size, size, 0, GL_RGBA, GL_UNSIGNED_BYTE, null);
+      // our pages use a unit scale, so that their display units are pixels
+      tex = new Texture(gfx, id, tconf, size, size, Scale.ONE, size, size);
+      surf = new TextureSurface(gfx, batch(), tex);
+      surf.begin().clear().end();
+    }
+
+    public void reset () {
+      skyline.reset();
+      freed = 0;
+    }
+
+    public void close () {
+      surf.close();
+      tex.close();
+    }
+  }
+
+  private class AtlasTile extends Tile {
+    public final float width, height;
+    public final int pw, ph;
+    public Page page;
+    public int x, y; // the pixel position of the image in its page (inside its padding)
+
+    public AtlasTile (float width, float height, int pw, int ph) {
+      this.width = width;
+      this.height = height;
+      this.pw = pw;
+      this.ph = ph;
+    }
+
+    @Override public Texture texture () { return page.tex; }
+    @Override public float width () { return width; }
+    @Override public float height () { return height; }
+    @Override public float sx () { return x / (float)config.pageSize; }
+    @Override public float sy () { return y / (float)config.pageSize; }
+    @Override public float tx () { return (x + pw) / (float)config.pageSize; }
+    @Override public float ty () { return (y + ph) / (float)config.pageSize; }
+
+    @Override public void addToBatch (QuadBatch batch, int tint, AffineTransform tx,
+                                      float x, float y, float width, float height) {
+      batch.addQuad(page.tex, tint, tx, x, y, width, height, this.x, this.y, pw, ph);
+    }
+
+    @Override public void addToBatch (QuadBatch batch, int tint, AffineTransform tx,
+                                      float dx, float dy, float dw, float dh,
+                                      float sx, float sy, float sw, float sh) {
+      // the source region is in display units, but our page is in pixels
+      float kx = pw / width, ky = ph / height;
+      batch.addQuad(page.tex, tint, tx, dx, dy, dw, dh,
+                    this.x + sx*kx, this.y + sy*ky, sw*kx, sh*ky);
+    }
+  }
+
+  private final Graphics gfx;
+  private final List<Page> pages = new ArrayList<>();
+  private final List<AtlasTile> tiles = new ArrayList<>();
+  private QuadBatch batch; // created lazily
+
+  private QuadBatch batch () {
+    if (batch == null) batch = new TriangleBatch(gfx.gl);
+    return batch;
+  }
+
+  private int padded (int size) {
+    return size + 2*config.padding;
+  }
+
+  private int freedPixels () {
+    int freed = 0;
+    for (Page page : pages) freed += page.freed;
+    return freed;
+  }
+
+  // places the supplied tile in an existing page or a new page, returns false if it won't fit
+  private boolean place (AtlasTile tile) {
+    int pw = padded(tile.pw), ph = padded(tile.ph), pad = config.padding;
+    for (int ii = 0, ll = pages.size(); ii <= ll; ii++) {
+      Page page;
+      if (ii < ll) page = pages.get(ii);
+      else if (ll < config.maxPages) pages.add(page = new Page());
+      else return false;
+      int pos = page.skyline.pack(pw, ph);
+      if (pos >= 0) {
+        tile.page = page;
+        tile.x = (pos >>> 16) + pad;
+        tile.y = (pos & 0xFFFF) + pad;
+        page.tiles++;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // copies (sx, sy, sw, sh) of source into the w x h region of page at (x, y)
+  private void copyRegion (Page page, int x, int y, int w, int h, Texture source,
+                           float sx, float sy, float sw, float sh) {
+    Surface surf = page.surf.begin();
+    try {
+      clear(surf, x, y, w, h);
+      surf.draw(source, x, y, w, h, sx, sy, sw, sh);
+    } finally {
+      surf.end();
+    }
+  }
+
+  // copies all of source into the w x h region of page at (x, y); if we're configured to bleed,
+  // the source's edges are extended into the padding around that region
+  private void copyImage (Page page, int x, int y, int w, int h, Texture source) {
+    float sw = source.displayWidth, sh = source.displayHeight;
+    float onePixX = sw/source.pixelWidth, onePixY = sh/source.pixelHeight;
+    float ex = sw - onePixX, ey = sh - onePixY;
+    int pad = config.padding;
+    Surface surf = page.surf.begin();
+    try {
+      clear(surf, x - pad, y - pad, w + 2*pad, h + 2*pad);
+      surf.draw(source, x, y, w, h, 0, 0, sw, sh);
+      if (config.bleed && pad > 0) {
+        // edges: left, right, top, bottom
+        surf.draw(source, x - pad, y, pad, h, 0, 0, onePixX, sh);
+        surf.draw(source, x + w, y, pad, h, ex, 0, onePixX, sh);
+        surf.draw(source, x, y - pad, w, pad, 0, 0, sw, onePixY);
+        surf.draw(source, x, y + h, w, pad, 0, ey, sw, onePixY);
+        // corners: upper left, upper right, lower left, lower right
+        surf.draw(source, x - pad, y - pad, pad, pad, 0, 0, onePixX, onePixY);
+        surf.draw(source, x + w, y - pad, pad, pad, ex, 0, onePixX, onePixY);
+        surf.draw(source, x - pad, y + h, pad, pad, 0, ey, onePixX, onePixY);
+        surf.draw(source, x + w, y + h, pad, pad, ex, ey, onePixX, onePixY);
+      }
+    } finally {
+      surf.end();
+    }
+  }
+
+  // clears anything left behind by tiles which previously occupied the specified region
+  private static void clear (Surface surf, int x, int y, int w, int h) {
+    surf.startClipped(x, y, w, h);
+    surf.clear();
+    surf.endClipped();
+  }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static playn.core.GL20.*;
+
+/**
+ * Tracks the GPU memory used by textures and (optionally) keeps it within a budget. Obtained via
+ * {@link Graphics#textures}.
+ *
+ * <p>When a budget is configured, textures which were created from an {@link Image} (and can thus
+ * be uploaded again) become candidates for eviction once they are drawn. At the start of each
+ * frame, if more than the budget is in use, the least recently drawn candidates are evicted:
+ * their GPU memory is freed, but they remain valid. An evicted texture is uploaded again from its
+ * image the next time it is drawn. Eviction candidates (and their images) are retained until the
+ * texture is closed, so configuring a budget requires that textures be closed (or released, if
+ * managed) rather than left to the garbage collector.</p>
+ *
+ * <p>A texture retains its image only if it is created while a budget is configured, so textures
+ * created before a budget is set can never be evicted. Configure the budget at startup, before
+ * loading any images, to make all of them candidates.</p>
+ */
+public class TextureManager {
+
+  /** Returns the number of bytes of GPU memory used by texture data, including evicted textures
+    * (which use none). */
+  public long bytes () {
+    return bytes;
+  }
+
+  /** Returns the number of live (not closed) textures. */
+  public int textures () {
+    return textures;
+  }
+
+  /** Returns the number of textures which are currently evicted. */
+  public int evicted () {
+    return evicted;
+  }
+
+  /** Returns the total number of times a texture has been evicted. */
+  public int evictions () {
+    return evictions;
+  }
+
+  /** Returns the total number of times an evicted texture has been uploaded again. */
+  public int reloads () {
+    return reloads;
+  }
+
+  /** Returns the budget, in bytes, or zero if there is no budget. */
+  public long budget () {
+    return budget;
+  }
+
+  /**
+   * Configures the maximum number of bytes of texture data to keep on the GPU. Zero (the default)
+   * disables the budget. The budget is enforced at the start of each frame, so usage may exceed it
+   * for the duration of a frame. If the textures drawn in a single frame exceed the budget, they
+   * will be evicted and uploaded again every frame. Only textures created while a budget is
+   * configured are candidates for eviction. Disabling the budget releases the images retained by
+   * textures which are not currently evicted.
+   */
+  public void setBudget (long budget) {
+    if (budget < 0) throw new IllegalArgumentException("Invalid budget: " + budget);
+    this.budget = budget;
+    if (budget == 0) {
+      for (Texture tex : candidates) {
+        tex.candidate = false;
+        if (!tex.evicted) releaseSource(tex);
+      }
+      candidates.clear();
+    }
+  }
+
+  /** Evicts least recently drawn textures until usage is within the budget (if there is one).
+    * This is called automatically at the start of every frame. */
+  public void enforceBudget () {
+    if (budget == 0 || bytes <= budget) return;
+    List<Texture> lru = new ArrayList<>(candidates);
+    Collections.sort(lru, new Comparator<Texture>() {
+      public int compare (Texture a, Texture b) { return a.lastUse - b.lastUse; }
+    });
+    for (Texture tex : lru) {
+      if (bytes <= budget) break;
+      if (!tex.evicted) evict(tex);
+    }
+  }
+
+  @Override public String toString () {
+    return "TextureManager[textures=" + textures + ", bytes=" + bytes + ", budget=" + budget +
+      ", evicted=" + evicted + ", evictions=" + evictions + ", reloads=" + reloads + "]";
+  }
+
+  TextureManager (Graphics gfx) {
+    this.gfx = gfx;
+  }
+
+  void frame () {
+    frame++;
+    enforceBudget();
+  }
+
+  void created (Texture tex) {
+    textures++;
+    bytes += tex.bytes();
+  }
+
+  void closed (Texture tex) {
+    textures--;
+    if (tex.evicted) evicted--;
+    else bytes -= tex.bytes();
+    if (tex.candidate) {
+      candidates.remove(tex);
+      tex.candidate = false;
+    }
+  }
+
+  // called when an evicted texture is about to have all of its data uploaded again, either by
+  // reload or because its owner updated it in full
+  void restored (Texture tex) {
+    tex.evicted = false;
+    bytes += tex.bytes();
+    evicted--;
+    reloads++;
+  }
+
+  void used (Texture tex) {
+    tex.lastUse = frame;
+    if (tex.evicted) {
+      reload(tex);
+      // an evicted texture keeps its image after the budget is disabled, until it is reloaded
+      if (budget == 0) releaseSource(tex);
+    }
+    if (budget > 0 && !tex.candidate &&
+        (tex.source != null || tex.compressedSource != null)) {
+      candidates.add(tex);
+      tex.candidate = true;
+    }
+  }
+
+  int frameNumber () {
+    return frame;
+  }
+
+  protected void evict (Texture tex) {
+    GL20 gl = gfx.gl;
+    gl.glBindTexture(GL_TEXTURE_2D, tex.id);
+    // respecify every level with an empty image, which frees its storage but keeps the texture id
+    int levels = 1;
+    if (tex.config.mipmaps) {
+      for (int size = Math.max(tex.pixelWidth, tex.pixelHeight); size > 1; size >>= 1) levels++;
+    }
+    Texture.Format format = tex.config.format;
+    for (int level = 0; level < levels; level++) {
+      gl.glTexImage2D(GL_TEXTURE_2D, level, format.glFormat, 0, 0, 0,
+                      format.glFormat, format.glType, null);
+    }
+    gl.checkError("TextureManager evict");
+    tex.evicted = true;
+    bytes -= tex.bytes();
+    evicted++;
+    evictions++;
+  }
+
+  protected void reload (Texture tex) {
+    restored(tex);
+    if (tex.compressedSource != null) tex.update(tex.compressedSource);
+    else tex.update(tex.source);
+  }
+
+  private static void releaseSource (Texture tex) {
+    tex.source = null;
+    tex.compressedSource = null;
+  }
+
+  private final Graphics gfx;
+  private final List<Texture> candidates = new ArrayList<>();
+  private long bytes, budget;
+  private int frame, textures, evicted, evictions, reloads;
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import react.RPromise;
+
+import static playn.core.GL20.*;
+
+/**
+ * Creates textures for images loaded via {@link Image#textureAsync}, spreading the work over
+ * multiple frames so that loading many images at once does not cause frame hitches. Obtained via
+ * {@link Graphics#uploader}.
+ *
+ * <p>Where the platform supports it, an image's pixels are first converted (and scaled to a power
+ * of two size, if needed) into upload ready {@link Data} on a background thread. The resulting
+ * uploads are then performed at the start of each frame, oldest first, until the frame's byte or
+ * time budget is used up. At least one upload is performed every frame, so images larger than the
+ * byte budget are still uploaded. Images which cannot be converted in the background are
+ * converted and uploaded on the render thread, but are still spread across frames.</p>
+ */
+public class TextureUploader {
+
+  /** Image data which has been converted into a form that can be uploaded to a texture without
+    * further processing. Created by {@link Image#prepareUpload}. */
+  public static class Data {
+    /** The size of the image data, in pixels. This is the size of the texture to be created. */
+    public final int width, height;
+    /** The GL format and data type of the image data. */
+    public final int format, type;
+    /** The image data, from position to limit. This should usually be a direct buffer. */
+    public final ByteBuffer data;
+
+    public Data (int width, int height, int format, int type, ByteBuffer data) {
+      this.width = width;
+      this.height = height;
+      this.format = format;
+      this.type = type;
+      this.data = data;
+    }
+
+    /** Uploads this data into {@code tex} and generates its mipmaps (if needed). */
+    public void upload (GL20 gl, Texture tex) {
+      gl.glBindTexture(GL_TEXTURE_2D, tex.id);
+      // packed rows are not necessarily a multiple of four bytes long
+      gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+      gl.glTexImage2D(GL_TEXTURE_2D, 0, format, width, height, 0, format, type, data);
+      gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+      if (tex.config.mipmaps) gl.glGenerateMipmap(GL_TEXTURE_2D);
+      gl.checkError("TextureUploader.Data upload");
+    }
+
+    /** Releases any resources held by this data (e.g. returns its buffer to a pool). This is
+      * called on the render thread once the data has been uploaded, or once it is known that it
+      * never will be. The data must not be used after it is released. */
+    public void release () {}
+  }
+
+  /** Returns the number of uploads which are waiting for a frame. This does not include images
+    * which are still being converted. */
+  public int pending () {
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  /** Returns the total number of uploads performed. */
+  public int uploads () {
+    return uploads;
+  }
+
+  /** Returns the number of bytes uploaded during the most recent frame. */
+  public long frameBytes () {
+    return frameBytes;
+  }
+
+  /** Returns the maximum number of bytes uploaded per frame. */
+  public long byteBudget () {
+    return byteBudget;
+  }
+
+  /** Returns the maximum number of milliseconds spent uploading per frame. */
+  public double timeBudget () {
+    return timeBudget;
+  }
+
+  /**
+   * Configures the per-frame upload budget. Uploads stop for the frame once either budget is
+   * reached. The defaults are 4MB and 4ms. Note that the time budget can only be checked between
+   * uploads, and that the first upload of each frame is performed regardless of either budget.
+   */
+  public void setBudget (long bytes, double millis) {
+    byteBudget = bytes;
+    timeBudget = millis;
+  }
+
+  @Override public String toString () {
+    return "TextureUploader[pending=" + pending() + ", uploads=" + uploads +
+      ", budget=" + byteBudget + "b/" + timeBudget + "ms]";
+  }
+
+  TextureUploader (Graphics gfx) {
+    this.gfx = gfx;
+  }
+
+  /** Creates {@code image}'s default texture using the upload pipeline. */
+  RPromise<Texture> upload (final Image image, final Texture.Config config) {
+    final RPromise<Texture> result = gfx.exec().deferredPromise();
+    Runnable prepare = new Runnable() {
+      public void run () {
+        try {
+          enqueue(new Upload(image, config, image.prepareUpload(config), result));
+        } catch (Throwable t) {
+          result.fail(t);
+        }
+      }
+    };
+    if (gfx.exec().isAsyncSupported()) gfx.exec().invokeAsync(prepare);
+    else prepare.run();
+    return result;
+  }
+
+  /** Performs queued uploads, until this frame's budget is used up. */
+  void frame () {
+    frameBytes = 0;
+    double start = gfx.plat.time();
+    while (true) {
+      Upload up;
+      synchronized (queue) {
+        if (queue.isEmpty()) break;
+        up = queue.remove(0);
+      }
+      try {
+        frameBytes += up.perform();
+        uploads++;
+      } catch (Throwable t) {
+        up.result.fail(t);
+      }
+      if (frameBytes >= byteBudget || gfx.plat.time() - start >= timeBudget) break;
+    }
+  }
+
+  private void enqueue (Upload up) {
+    synchronized (queue) {
+      queue.add(up);
+    }
+  }
+
+  private class Upload {
+    public final Image image;
+    public final Texture.Config config;
+    public final Data data; // null if the image must be converted on the render thread
+    public final RPromise<Texture> result;
+
+    public Upload (Image image, Texture.Config config, Data data, RPromise<Texture> result) {
+      this.image = image;
+      this.config = config;
+      this.data = data;
+      this.result = result;
+    }
+
+    /** Creates the image's texture (unless it was created while we waited) and returns the
+      * number of bytes uploaded. */
+    public long perform () {
+      try {
+        Texture tex = image.texture;
+        long bytes = 0;
+        if (tex == null || tex.disposed()) {
+          tex = (data == null) ? image.createTexture(config) : image.createTexture(config, data);
+          image.texture = tex;
+          bytes = tex.bytes();
+        }
+        result.succeed(tex);
+        return bytes;
+      } finally {
+        // our data is done with whether it was uploaded, made redundant or failed to upload
+        if (data != null) data.release();
+      }
+    }
+  }
+
+  private final Graphics gfx;
+  private final List<Upload> queue = new ArrayList<>();
+  private long byteBudget = 4*1024*1024, frameBytes;
+  private double timeBudget = 4;
+  private int uploads;
+}
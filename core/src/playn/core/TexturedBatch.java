@@ -73,7 +73,8 @@ public class TexturedBatch extends GLBatch {
     * <p>Note: if you call {@code add} methods that take a texture, you do not need to call this
     * method manually. Only if you're adding bare primitives is it needed. */
   public void setTexture (Texture texture) {
-    if (curTexId != 0 && curTexId != texture.id) flush();
+    texture.used();
+    if (curTexId != 0 && curTexId != texture.id) flush(RenderStats.Flush.TEXTURE);
     this.curTexId = texture.id;
   }
 
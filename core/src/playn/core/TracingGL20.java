@@ -0,0 +1,1193 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A GL decorator which records every GL call made through it, along with its duration, the frame
+ * in which it was made, and the label path in effect when it was made. Labels are pushed and
+ * popped by the caller (see {@link #pushLabel}) to attribute calls to parts of the scene, and are
+ * joined with {@code /} to form paths like {@code paint:rootLayer/hud}. Frames are delimited by
+ * calls to {@link #frame}, usually from a slot connected to {@link Platform#frame}.
+ *
+ * <p>The recording can be exported as Chrome {@code trace_event} JSON (see {@link
+ * #toChromeTrace}), which can be loaded into {@code chrome://tracing}, or as a compact call log
+ * without timings (see {@link #toCallLog}), which can be diffed between builds to catch changes
+ * in the GL calls made to render a scene.</p>
+ *
+ * <p>To use it, install it on {@link Graphics#gl} before creating any batches, surfaces or
+ * textures: {@code gfx.gl = new TracingGL20(gfx.gl)}.</p>
+ */
+public class TracingGL20 extends DelegatingGL20 {
+
+  public TracingGL20 (GL20 delegate) {
+    super(delegate);
+  }
+
+  /** Configures whether calls are recorded. Recording starts out enabled. */
+  public void setEnabled (boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Returns whether calls are being recorded. */
+  public boolean isEnabled () {
+    return enabled;
+  }
+
+  /** Marks the start of a new frame. Calls recorded hereafter are attributed to it. */
+  public void frame () {
+    frame++;
+    if (enabled) {
+      if (frameStarts.length == frames) frameStarts = Arrays.copyOf(frameStarts, frames*2);
+      frameStarts[frames++] = System.nanoTime();
+    }
+  }
+
+  /** Pushes {@code label} onto the label stack. Calls made until the matching {@link #popLabel}
+    * are attributed to the path formed by the labels on the stack. */
+  public void pushLabel (String label) {
+    int parent = labelStack.isEmpty() ? -1 : labelStack.get(labelStack.size()-1);
+    String path = parent < 0 ? label : labels.get(parent) + "/" + label;
+    Integer id = labelIds.get(path);
+    if (id == null) {
+      labelIds.put(path, id = labels.size());
+      labels.add(path);
+    }
+    labelStack.add(id);
+    labelStarts.add(System.nanoTime());
+  }
+
+  /** Pops the label most recently pushed by {@link #pushLabel}. */
+  public void popLabel () {
+    if (labelStack.isEmpty()) throw new IllegalStateException("Label stack is empty");
+    int label = labelStack.remove(labelStack.size()-1);
+    long start = labelStarts.remove(labelStarts.size()-1);
+    if (enabled) {
+      if (spanCount == spanLabels.length) {
+        spanLabels = Arrays.copyOf(spanLabels, spanCount*2);
+        spanFrames = Arrays.copyOf(spanFrames, spanCount*2);
+        spanStarts = Arrays.copyOf(spanStarts, spanCount*2);
+        spanEnds = Arrays.copyOf(spanEnds, spanCount*2);
+      }
+      spanLabels[spanCount] = label;
+      spanFrames[spanCount] = frame;
+      spanStarts[spanCount] = start;
+      spanEnds[spanCount++] = System.nanoTime();
+    }
+  }
+
+  /** Returns the number of calls recorded. */
+  public int calls () {
+    return count;
+  }
+
+  /** Returns the number of recorded calls to {@code name}. */
+  public int count (String name) {
+    int total = 0;
+    for (int ii = 0; ii < count; ii++) if (names[ii].equals(name)) total++;
+    return total;
+  }
+
+  /** Returns the number of recorded calls to {@code name} in {@code frame}. Frames are numbered
+    * from zero, which contains any calls made before the first call to {@link #frame}. */
+  public int count (int frame, String name) {
+    int total = 0;
+    for (int ii = 0; ii < count; ii++) {
+      if (callFrames[ii] == frame && names[ii].equals(name)) total++;
+    }
+    return total;
+  }
+
+  /** Discards all recorded calls, labels spans and frame marks. The frame counter and label
+    * stack are preserved. */
+  public void clear () {
+    Arrays.fill(names, 0, count, null);
+    count = 0;
+    spanCount = 0;
+    frames = 0;
+  }
+
+  /**
+   * Returns the recording in Chrome {@code trace_event} JSON format. Each call is a complete
+   * ({@code X}) event in category {@code gl}, with its frame and label path as arguments. Each
+   * label span is a complete event in category {@code label}, and the start of each frame is an
+   * instant ({@code i}) event.
+   */
+  public String toChromeTrace () {
+    long origin = Long.MAX_VALUE;
+    if (count > 0) origin = Math.min(origin, starts[0]);
+    if (spanCount > 0) origin = Math.min(origin, spanStarts[0]);
+    if (frames > 0) origin = Math.min(origin, frameStarts[0]);
+    for (int ii = 0; ii < spanCount; ii++) origin = Math.min(origin, spanStarts[ii]);
+
+    StringBuilder buf = new StringBuilder("{\"traceEvents\":[");
+    boolean first = true;
+    for (int ii = 0, frame0 = frame - frames + 1; ii < frames; ii++) {
+      first = sep(buf, first);
+      buf.append("{\"name\":\"frame ").append(frame0 + ii).append("\",\"ph\":\"i\",\"s\":\"g\"");
+      appendTime(buf.append(",\"pid\":1,\"tid\":1,\"ts\":"), frameStarts[ii] - origin);
+      buf.append('}');
+    }
+    for (int ii = 0; ii < spanCount; ii++) {
+      first = sep(buf, first);
+      buf.append("{\"name\":");
+      appendString(buf, labels.get(spanLabels[ii]));
+      appendTime(buf.append(",\"cat\":\"label\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":"),
+                 spanStarts[ii] - origin);
+      appendTime(buf.append(",\"dur\":"), spanEnds[ii] - spanStarts[ii]);
+      buf.append(",\"args\":{\"frame\":").append(spanFrames[ii]).append("}}");
+    }
+    for (int ii = 0; ii < count; ii++) {
+      first = sep(buf, first);
+      buf.append("{\"name\":\"").append(names[ii]).append('"');
+      appendTime(buf.append(",\"cat\":\"gl\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":"),
+                 starts[ii] - origin);
+      appendTime(buf.append(",\"dur\":"), durations[ii]);
+      buf.append(",\"args\":{\"frame\":").append(callFrames[ii]);
+      if (callLabels[ii] >= 0) appendString(buf.append(",\"label\":"), labels.get(callLabels[ii]));
+      buf.append("}}");
+    }
+    return buf.append("]}").toString();
+  }
+
+  /**
+   * Returns the recorded calls as a compact log without timings, suitable for diffing. Each frame
+   * starts with a {@code frame N} line, followed by a line for each run of consecutive calls with
+   * the same name and label path, like {@code paint:rootLayer/hud glDrawElements x3}. Calls made
+   * without a label are logged with the label {@code -}.
+   */
+  public String toCallLog () {
+    StringBuilder buf = new StringBuilder();
+    int curFrame = -1;
+    for (int ii = 0; ii < count; ) {
+      if (callFrames[ii] != curFrame) {
+        curFrame = callFrames[ii];
+        buf.append("frame ").append(curFrame).append('\n');
+      }
+      int run = ii + 1;
+      while (run < count && callFrames[run] == curFrame && callLabels[run] == callLabels[ii] &&
+             names[run].equals(names[ii])) run++;
+      buf.append(callLabels[ii] < 0 ? "-" : labels.get(callLabels[ii])).append(' ');
+      buf.append(names[ii]);
+      if (run - ii > 1) buf.append(" x").append(run - ii);
+      buf.append('\n');
+      ii = run;
+    }
+    return buf.toString();
+  }
+
+  @Override public String toString () {
+    return "TracingGL20[calls=" + count + ", frame=" + frame + ", labels=" + labels.size() + "]";
+  }
+
+  protected long start () {
+    return enabled ? System.nanoTime() : 0L;
+  }
+
+  protected void end (String name, long start) {
+    if (!enabled) return;
+    long end = System.nanoTime();
+    if (count == names.length) {
+      int size = count*2;
+      names = Arrays.copyOf(names, size);
+      starts = Arrays.copyOf(starts, size);
+      durations = Arrays.copyOf(durations, size);
+      callFrames = Arrays.copyOf(callFrames, size);
+      callLabels = Arrays.copyOf(callLabels, size);
+    }
+    names[count] = name;
+    starts[count] = start;
+    durations[count] = end - start;
+    callFrames[count] = frame;
+    callLabels[count++] = labelStack.isEmpty() ? -1 : labelStack.get(labelStack.size()-1);
+  }
+
+  @Override public void glActiveTexture (int texture) {
+    long start = start();
+    super.glActiveTexture(texture);
+    end("glActiveTexture", start);
+  }
+  @Override public void glAttachShader (int program, int shader) {
+    long start = start();
+    super.glAttachShader(program, shader);
+    end("glAttachShader", start);
+  }
+  @Override public void glBindAttribLocation (int program, int index, String name) {
+    long start = start();
+    super.glBindAttribLocation(program, index, name);
+    end("glBindAttribLocation", start);
+  }
+  @Override public void glBindBuffer (int target, int buffer) {
+    long start = start();
+    super.glBindBuffer(target, buffer);
+    end("glBindBuffer", start);
+  }
+  @Override public void glBindFramebuffer (int target, int framebuffer) {
+    long start = start();
+    super.glBindFramebuffer(target, framebuffer);
+    end("glBindFramebuffer", start);
+  }
+  @Override public void glBindRenderbuffer (int target, int renderbuffer) {
+    long start = start();
+    super.glBindRenderbuffer(target, renderbuffer);
+    end("glBindRenderbuffer", start);
+  }
+  @Override public void glBindTexture (int target, int texture) {
+    long start = start();
+    super.glBindTexture(target, texture);
+    end("glBindTexture", start);
+  }
+  @Override public void glBlendColor (float red, float green, float blue, float alpha) {
+    long start = start();
+    super.glBlendColor(red, green, blue, alpha);
+    end("glBlendColor", start);
+  }
+  @Override public void glBlendEquation (int mode) {
+    long start = start();
+    super.glBlendEquation(mode);
+    end("glBlendEquation", start);
+  }
+  @Override public void glBlendEquationSeparate (int modeRGB, int modeAlpha) {
+    long start = start();
+    super.glBlendEquationSeparate(modeRGB, modeAlpha);
+    end("glBlendEquationSeparate", start);
+  }
+  @Override public void glBlendFunc (int sfactor, int dfactor) {
+    long start = start();
+    super.glBlendFunc(sfactor, dfactor);
+    end("glBlendFunc", start);
+  }
+  @Override public void glBlendFuncSeparate (int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+    long start = start();
+    super.glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+    end("glBlendFuncSeparate", start);
+  }
+  @Override public void glBufferData (int target, int size, Buffer data, int usage) {
+    long start = start();
+    super.glBufferData(target, size, data, usage);
+    end("glBufferData", start);
+  }
+  @Override public void glBufferSubData (int target, int offset, int size, Buffer data) {
+    long start = start();
+    super.glBufferSubData(target, offset, size, data);
+    end("glBufferSubData", start);
+  }
+  @Override public int glCheckFramebufferStatus (int target) {
+    long start = start();
+    int result = super.glCheckFramebufferStatus(target);
+    end("glCheckFramebufferStatus", start);
+    return result;
+  }
+  @Override public void glClear (int mask) {
+    long start = start();
+    super.glClear(mask);
+    end("glClear", start);
+  }
+  @Override public void glClearColor (float red, float green, float blue, float alpha) {
+    long start = start();
+    super.glClearColor(red, green, blue, alpha);
+    end("glClearColor", start);
+  }
+  @Override public void glClearDepth (double depth) {
+    long start = start();
+    super.glClearDepth(depth);
+    end("glClearDepth", start);
+  }
+  @Override public void glClearDepthf (float depth) {
+    long start = start();
+    super.glClearDepthf(depth);
+    end("glClearDepthf", start);
+  }
+  @Override public void glClearStencil (int s) {
+    long start = start();
+    super.glClearStencil(s);
+    end("glClearStencil", start);
+  }
+  @Override public void glColorMask (boolean red, boolean green, boolean blue, boolean alpha) {
+    long start = start();
+    super.glColorMask(red, green, blue, alpha);
+    end("glColorMask", start);
+  }
+  @Override public void glCompileShader (int shader) {
+    long start = start();
+    super.glCompileShader(shader);
+    end("glCompileShader", start);
+  }
+  @Override public void glCompressedTexImage2D (int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+    long start = start();
+    super.glCompressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+    end("glCompressedTexImage2D", start);
+  }
+  @Override public void glCompressedTexImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+    long start = start();
+    super.glCompressedTexImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7);
+    end("glCompressedTexImage2D", start);
+  }
+  @Override public void glCompressedTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, Buffer arg8) {
+    long start = start();
+    super.glCompressedTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    end("glCompressedTexImage3D", start);
+  }
+  @Override public void glCompressedTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    long start = start();
+    super.glCompressedTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    end("glCompressedTexImage3D", start);
+  }
+  @Override public void glCompressedTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+    long start = start();
+    super.glCompressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+    end("glCompressedTexSubImage2D", start);
+  }
+  @Override public void glCompressedTexSubImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    long start = start();
+    super.glCompressedTexSubImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    end("glCompressedTexSubImage2D", start);
+  }
+  @Override public void glCompressedTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, Buffer arg10) {
+    long start = start();
+    super.glCompressedTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    end("glCompressedTexSubImage3D", start);
+  }
+  @Override public void glCompressedTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+    long start = start();
+    super.glCompressedTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    end("glCompressedTexSubImage3D", start);
+  }
+  @Override public void glCopyTexImage2D (int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+    long start = start();
+    super.glCopyTexImage2D(target, level, internalformat, x, y, width, height, border);
+    end("glCopyTexImage2D", start);
+  }
+  @Override public void glCopyTexSubImage2D (int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+    long start = start();
+    super.glCopyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+    end("glCopyTexSubImage2D", start);
+  }
+  @Override public void glCopyTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    long start = start();
+    super.glCopyTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    end("glCopyTexSubImage3D", start);
+  }
+  @Override public int glCreateProgram () {
+    long start = start();
+    int result = super.glCreateProgram();
+    end("glCreateProgram", start);
+    return result;
+  }
+  @Override public int glCreateShader (int type) {
+    long start = start();
+    int result = super.glCreateShader(type);
+    end("glCreateShader", start);
+    return result;
+  }
+  @Override public void glCullFace (int mode) {
+    long start = start();
+    super.glCullFace(mode);
+    end("glCullFace", start);
+  }
+  @Override public void glDeleteBuffers (int n, IntBuffer buffers) {
+    long start = start();
+    super.glDeleteBuffers(n, buffers);
+    end("glDeleteBuffers", start);
+  }
+  @Override public void glDeleteFramebuffers (int n, IntBuffer framebuffers) {
+    long start = start();
+    super.glDeleteFramebuffers(n, framebuffers);
+    end("glDeleteFramebuffers", start);
+  }
+  @Override public void glDeleteProgram (int program) {
+    long start = start();
+    super.glDeleteProgram(program);
+    end("glDeleteProgram", start);
+  }
+  @Override public void glDeleteRenderbuffers (int n, IntBuffer renderbuffers) {
+    long start = start();
+    super.glDeleteRenderbuffers(n, renderbuffers);
+    end("glDeleteRenderbuffers", start);
+  }
+  @Override public void glDeleteShader (int shader) {
+    long start = start();
+    super.glDeleteShader(shader);
+    end("glDeleteShader", start);
+  }
+  @Override public void glDeleteTextures (int n, IntBuffer textures) {
+    long start = start();
+    super.glDeleteTextures(n, textures);
+    end("glDeleteTextures", start);
+  }
+  @Override public void glDepthFunc (int func) {
+    long start = start();
+    super.glDepthFunc(func);
+    end("glDepthFunc", start);
+  }
+  @Override public void glDepthMask (boolean flag) {
+    long start = start();
+    super.glDepthMask(flag);
+    end("glDepthMask", start);
+  }
+  @Override public void glDepthRange (double zNear, double zFar) {
+    long start = start();
+    super.glDepthRange(zNear, zFar);
+    end("glDepthRange", start);
+  }
+  @Override public void glDepthRangef (float zNear, float zFar) {
+    long start = start();
+    super.glDepthRangef(zNear, zFar);
+    end("glDepthRangef", start);
+  }
+  @Override public void glDetachShader (int program, int shader) {
+    long start = start();
+    super.glDetachShader(program, shader);
+    end("glDetachShader", start);
+  }
+  @Override public void glDisable (int cap) {
+    long start = start();
+    super.glDisable(cap);
+    end("glDisable", start);
+  }
+  @Override public void glDisableVertexAttribArray (int index) {
+    long start = start();
+    super.glDisableVertexAttribArray(index);
+    end("glDisableVertexAttribArray", start);
+  }
+  @Override public void glDrawArrays (int mode, int first, int count) {
+    long start = start();
+    super.glDrawArrays(mode, first, count);
+    end("glDrawArrays", start);
+  }
+  @Override public void glDrawElements (int mode, int count, int type, Buffer indices) {
+    long start = start();
+    super.glDrawElements(mode, count, type, indices);
+    end("glDrawElements", start);
+  }
+  @Override public void glDrawElements (int mode, int count, int type, int offset) {
+    long start = start();
+    super.glDrawElements(mode, count, type, offset);
+    end("glDrawElements", start);
+  }
+  @Override public void glEnable (int cap) {
+    long start = start();
+    super.glEnable(cap);
+    end("glEnable", start);
+  }
+  @Override public void glEnableVertexAttribArray (int index) {
+    long start = start();
+    super.glEnableVertexAttribArray(index);
+    end("glEnableVertexAttribArray", start);
+  }
+  @Override public void glFinish () {
+    long start = start();
+    super.glFinish();
+    end("glFinish", start);
+  }
+  @Override public void glFlush () {
+    long start = start();
+    super.glFlush();
+    end("glFlush", start);
+  }
+  @Override public void glFramebufferRenderbuffer (int target, int attachment, int renderbuffertarget, int renderbuffer) {
+    long start = start();
+    super.glFramebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer);
+    end("glFramebufferRenderbuffer", start);
+  }
+  @Override public void glFramebufferTexture2D (int target, int attachment, int textarget, int texture, int level) {
+    long start = start();
+    super.glFramebufferTexture2D(target, attachment, textarget, texture, level);
+    end("glFramebufferTexture2D", start);
+  }
+  @Override public void glFramebufferTexture3D (int target, int attachment, int textarget, int texture, int level, int zoffset) {
+    long start = start();
+    super.glFramebufferTexture3D(target, attachment, textarget, texture, level, zoffset);
+    end("glFramebufferTexture3D", start);
+  }
+  @Override public void glFrontFace (int mode) {
+    long start = start();
+    super.glFrontFace(mode);
+    end("glFrontFace", start);
+  }
+  @Override public void glGenBuffers (int n, IntBuffer buffers) {
+    long start = start();
+    super.glGenBuffers(n, buffers);
+    end("glGenBuffers", start);
+  }
+  @Override public void glGenerateMipmap (int target) {
+    long start = start();
+    super.glGenerateMipmap(target);
+    end("glGenerateMipmap", start);
+  }
+  @Override public void glGenFramebuffers (int n, IntBuffer framebuffers) {
+    long start = start();
+    super.glGenFramebuffers(n, framebuffers);
+    end("glGenFramebuffers", start);
+  }
+  @Override public void glGenRenderbuffers (int n, IntBuffer renderbuffers) {
+    long start = start();
+    super.glGenRenderbuffers(n, renderbuffers);
+    end("glGenRenderbuffers", start);
+  }
+  @Override public void glGenTextures (int n, IntBuffer textures) {
+    long start = start();
+    super.glGenTextures(n, textures);
+    end("glGenTextures", start);
+  }
+  @Override public String glGetActiveAttrib (int program, int index, IntBuffer size, IntBuffer type) {
+    long start = start();
+    String result = super.glGetActiveAttrib(program, index, size, type);
+    end("glGetActiveAttrib", start);
+    return result;
+  }
+  @Override public String glGetActiveUniform (int program, int index, IntBuffer size, IntBuffer type) {
+    long start = start();
+    String result = super.glGetActiveUniform(program, index, size, type);
+    end("glGetActiveUniform", start);
+    return result;
+  }
+  @Override public void glGetAttachedShaders (int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+    long start = start();
+    super.glGetAttachedShaders(program, maxcount, count, shaders);
+    end("glGetAttachedShaders", start);
+  }
+  @Override public int glGetAttribLocation (int program, String name) {
+    long start = start();
+    int result = super.glGetAttribLocation(program, name);
+    end("glGetAttribLocation", start);
+    return result;
+  }
+  @Override public boolean glGetBoolean (int pname) {
+    long start = start();
+    boolean result = super.glGetBoolean(pname);
+    end("glGetBoolean", start);
+    return result;
+  }
+  @Override public void glGetBooleanv (int pname, ByteBuffer params) {
+    long start = start();
+    super.glGetBooleanv(pname, params);
+    end("glGetBooleanv", start);
+  }
+  @Override public int glGetBoundBuffer (int arg0) {
+    long start = start();
+    int result = super.glGetBoundBuffer(arg0);
+    end("glGetBoundBuffer", start);
+    return result;
+  }
+  @Override public void glGetBufferParameteriv (int target, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetBufferParameteriv(target, pname, params);
+    end("glGetBufferParameteriv", start);
+  }
+  @Override public int glGetError () {
+    long start = start();
+    int result = super.glGetError();
+    end("glGetError", start);
+    return result;
+  }
+  @Override public float glGetFloat (int pname) {
+    long start = start();
+    float result = super.glGetFloat(pname);
+    end("glGetFloat", start);
+    return result;
+  }
+  @Override public void glGetFloatv (int pname, FloatBuffer params) {
+    long start = start();
+    super.glGetFloatv(pname, params);
+    end("glGetFloatv", start);
+  }
+  @Override public void glGetFramebufferAttachmentParameteriv (int target, int attachment, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetFramebufferAttachmentParameteriv(target, attachment, pname, params);
+    end("glGetFramebufferAttachmentParameteriv", start);
+  }
+  @Override public int glGetInteger (int pname) {
+    long start = start();
+    int result = super.glGetInteger(pname);
+    end("glGetInteger", start);
+    return result;
+  }
+  @Override public void glGetIntegerv (int pname, IntBuffer params) {
+    long start = start();
+    super.glGetIntegerv(pname, params);
+    end("glGetIntegerv", start);
+  }
+  @Override public void glGetProgramBinary (int arg0, int arg1, IntBuffer arg2, IntBuffer arg3, Buffer arg4) {
+    long start = start();
+    super.glGetProgramBinary(arg0, arg1, arg2, arg3, arg4);
+    end("glGetProgramBinary", start);
+  }
+  @Override public void glGetProgramInfoLog (int program, int bufsize, IntBuffer length, ByteBuffer infolog) {
+    long start = start();
+    super.glGetProgramInfoLog(program, bufsize, length, infolog);
+    end("glGetProgramInfoLog", start);
+  }
+  @Override public String glGetProgramInfoLog (int program) {
+    long start = start();
+    String result = super.glGetProgramInfoLog(program);
+    end("glGetProgramInfoLog", start);
+    return result;
+  }
+  @Override public void glGetProgramiv (int program, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetProgramiv(program, pname, params);
+    end("glGetProgramiv", start);
+  }
+  @Override public void glGetRenderbufferParameteriv (int target, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetRenderbufferParameteriv(target, pname, params);
+    end("glGetRenderbufferParameteriv", start);
+  }
+  @Override public void glGetShaderInfoLog (int shader, int bufsize, IntBuffer length, ByteBuffer infolog) {
+    long start = start();
+    super.glGetShaderInfoLog(shader, bufsize, length, infolog);
+    end("glGetShaderInfoLog", start);
+  }
+  @Override public String glGetShaderInfoLog (int shader) {
+    long start = start();
+    String result = super.glGetShaderInfoLog(shader);
+    end("glGetShaderInfoLog", start);
+    return result;
+  }
+  @Override public void glGetShaderiv (int shader, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetShaderiv(shader, pname, params);
+    end("glGetShaderiv", start);
+  }
+  @Override public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, int[] range, int rangeOffset, int[] precision, int precisionOffset) {
+    long start = start();
+    super.glGetShaderPrecisionFormat(shadertype, precisiontype, range, rangeOffset, precision, precisionOffset);
+    end("glGetShaderPrecisionFormat", start);
+  }
+  @Override public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+    long start = start();
+    super.glGetShaderPrecisionFormat(shadertype, precisiontype, range, precision);
+    end("glGetShaderPrecisionFormat", start);
+  }
+  @Override public void glGetShaderSource (int shader, int bufsize, int[] length, int lengthOffset, byte[] source, int sourceOffset) {
+    long start = start();
+    super.glGetShaderSource(shader, bufsize, length, lengthOffset, source, sourceOffset);
+    end("glGetShaderSource", start);
+  }
+  @Override public void glGetShaderSource (int shader, int bufsize, IntBuffer length, ByteBuffer source) {
+    long start = start();
+    super.glGetShaderSource(shader, bufsize, length, source);
+    end("glGetShaderSource", start);
+  }
+  @Override public String glGetString (int name) {
+    long start = start();
+    String result = super.glGetString(name);
+    end("glGetString", start);
+    return result;
+  }
+  @Override public void glGetTexParameterfv (int target, int pname, FloatBuffer params) {
+    long start = start();
+    super.glGetTexParameterfv(target, pname, params);
+    end("glGetTexParameterfv", start);
+  }
+  @Override public void glGetTexParameteriv (int target, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetTexParameteriv(target, pname, params);
+    end("glGetTexParameteriv", start);
+  }
+  @Override public void glGetUniformfv (int program, int location, FloatBuffer params) {
+    long start = start();
+    super.glGetUniformfv(program, location, params);
+    end("glGetUniformfv", start);
+  }
+  @Override public void glGetUniformiv (int program, int location, IntBuffer params) {
+    long start = start();
+    super.glGetUniformiv(program, location, params);
+    end("glGetUniformiv", start);
+  }
+  @Override public int glGetUniformLocation (int program, String name) {
+    long start = start();
+    int result = super.glGetUniformLocation(program, name);
+    end("glGetUniformLocation", start);
+    return result;
+  }
+  @Override public void glGetVertexAttribfv (int index, int pname, FloatBuffer params) {
+    long start = start();
+    super.glGetVertexAttribfv(index, pname, params);
+    end("glGetVertexAttribfv", start);
+  }
+  @Override public void glGetVertexAttribiv (int index, int pname, IntBuffer params) {
+    long start = start();
+    super.glGetVertexAttribiv(index, pname, params);
+    end("glGetVertexAttribiv", start);
+  }
+  @Override public void glHint (int target, int mode) {
+    long start = start();
+    super.glHint(target, mode);
+    end("glHint", start);
+  }
+  @Override public boolean glIsBuffer (int buffer) {
+    long start = start();
+    boolean result = super.glIsBuffer(buffer);
+    end("glIsBuffer", start);
+    return result;
+  }
+  @Override public boolean glIsEnabled (int cap) {
+    long start = start();
+    boolean result = super.glIsEnabled(cap);
+    end("glIsEnabled", start);
+    return result;
+  }
+  @Override public boolean glIsFramebuffer (int framebuffer) {
+    long start = start();
+    boolean result = super.glIsFramebuffer(framebuffer);
+    end("glIsFramebuffer", start);
+    return result;
+  }
+  @Override public boolean glIsProgram (int program) {
+    long start = start();
+    boolean result = super.glIsProgram(program);
+    end("glIsProgram", start);
+    return result;
+  }
+  @Override public boolean glIsRenderbuffer (int renderbuffer) {
+    long start = start();
+    boolean result = super.glIsRenderbuffer(renderbuffer);
+    end("glIsRenderbuffer", start);
+    return result;
+  }
+  @Override public boolean glIsShader (int shader) {
+    long start = start();
+    boolean result = super.glIsShader(shader);
+    end("glIsShader", start);
+    return result;
+  }
+  @Override public boolean glIsTexture (int texture) {
+    long start = start();
+    boolean result = super.glIsTexture(texture);
+    end("glIsTexture", start);
+    return result;
+  }
+  @Override public boolean glIsVBOArrayEnabled () {
+    long start = start();
+    boolean result = super.glIsVBOArrayEnabled();
+    end("glIsVBOArrayEnabled", start);
+    return result;
+  }
+  @Override public boolean glIsVBOElementEnabled () {
+    long start = start();
+    boolean result = super.glIsVBOElementEnabled();
+    end("glIsVBOElementEnabled", start);
+    return result;
+  }
+  @Override public void glLineWidth (float width) {
+    long start = start();
+    super.glLineWidth(width);
+    end("glLineWidth", start);
+  }
+  @Override public void glLinkProgram (int program) {
+    long start = start();
+    super.glLinkProgram(program);
+    end("glLinkProgram", start);
+  }
+  @Override public ByteBuffer glMapBuffer (int arg0, int arg1) {
+    long start = start();
+    ByteBuffer result = super.glMapBuffer(arg0, arg1);
+    end("glMapBuffer", start);
+    return result;
+  }
+  @Override public void glPixelStorei (int pname, int param) {
+    long start = start();
+    super.glPixelStorei(pname, param);
+    end("glPixelStorei", start);
+  }
+  @Override public void glPolygonOffset (float factor, float units) {
+    long start = start();
+    super.glPolygonOffset(factor, units);
+    end("glPolygonOffset", start);
+  }
+  @Override public void glProgramBinary (int arg0, int arg1, Buffer arg2, int arg3) {
+    long start = start();
+    super.glProgramBinary(arg0, arg1, arg2, arg3);
+    end("glProgramBinary", start);
+  }
+  @Override public void glProgramParameteri (int program, int pname, int value) {
+    long start = start();
+    super.glProgramParameteri(program, pname, value);
+    end("glProgramParameteri", start);
+  }
+  @Override public void glReadPixels (int x, int y, int width, int height, int format, int type, Buffer pixels) {
+    long start = start();
+    super.glReadPixels(x, y, width, height, format, type, pixels);
+    end("glReadPixels", start);
+  }
+  @Override public void glReadPixels (int x, int y, int width, int height, int format, int type, int pixelsBufferOffset) {
+    long start = start();
+    super.glReadPixels(x, y, width, height, format, type, pixelsBufferOffset);
+    end("glReadPixels", start);
+  }
+  @Override public void glReleaseShaderCompiler () {
+    long start = start();
+    super.glReleaseShaderCompiler();
+    end("glReleaseShaderCompiler", start);
+  }
+  @Override public void glRenderbufferStorage (int target, int internalformat, int width, int height) {
+    long start = start();
+    super.glRenderbufferStorage(target, internalformat, width, height);
+    end("glRenderbufferStorage", start);
+  }
+  @Override public void glSampleCoverage (float value, boolean invert) {
+    long start = start();
+    super.glSampleCoverage(value, invert);
+    end("glSampleCoverage", start);
+  }
+  @Override public void glScissor (int x, int y, int width, int height) {
+    long start = start();
+    super.glScissor(x, y, width, height);
+    end("glScissor", start);
+  }
+  @Override public void glShaderBinary (int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+    long start = start();
+    super.glShaderBinary(n, shaders, offset, binaryformat, binary, length);
+    end("glShaderBinary", start);
+  }
+  @Override public void glShaderBinary (int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+    long start = start();
+    super.glShaderBinary(n, shaders, binaryformat, binary, length);
+    end("glShaderBinary", start);
+  }
+  @Override public void glShaderSource (int shader, int count, String[] strings, int[] length, int lengthOffset) {
+    long start = start();
+    super.glShaderSource(shader, count, strings, length, lengthOffset);
+    end("glShaderSource", start);
+  }
+  @Override public void glShaderSource (int shader, int count, String[] strings, IntBuffer length) {
+    long start = start();
+    super.glShaderSource(shader, count, strings, length);
+    end("glShaderSource", start);
+  }
+  @Override public void glShaderSource (int shader, String string) {
+    long start = start();
+    super.glShaderSource(shader, string);
+    end("glShaderSource", start);
+  }
+  @Override public void glStencilFunc (int func, int ref, int mask) {
+    long start = start();
+    super.glStencilFunc(func, ref, mask);
+    end("glStencilFunc", start);
+  }
+  @Override public void glStencilFuncSeparate (int face, int func, int ref, int mask) {
+    long start = start();
+    super.glStencilFuncSeparate(face, func, ref, mask);
+    end("glStencilFuncSeparate", start);
+  }
+  @Override public void glStencilMask (int mask) {
+    long start = start();
+    super.glStencilMask(mask);
+    end("glStencilMask", start);
+  }
+  @Override public void glStencilMaskSeparate (int face, int mask) {
+    long start = start();
+    super.glStencilMaskSeparate(face, mask);
+    end("glStencilMaskSeparate", start);
+  }
+  @Override public void glStencilOp (int fail, int zfail, int zpass) {
+    long start = start();
+    super.glStencilOp(fail, zfail, zpass);
+    end("glStencilOp", start);
+  }
+  @Override public void glStencilOpSeparate (int face, int fail, int zfail, int zpass) {
+    long start = start();
+    super.glStencilOpSeparate(face, fail, zfail, zpass);
+    end("glStencilOpSeparate", start);
+  }
+  @Override public void glTexImage2D (int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+    long start = start();
+    super.glTexImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    end("glTexImage2D", start);
+  }
+  @Override public void glTexImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    long start = start();
+    super.glTexImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    end("glTexImage2D", start);
+  }
+  @Override public void glTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, Buffer arg9) {
+    long start = start();
+    super.glTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+    end("glTexImage3D", start);
+  }
+  @Override public void glTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9) {
+    long start = start();
+    super.glTexImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9);
+    end("glTexImage3D", start);
+  }
+  @Override public void glTexParameterf (int target, int pname, float param) {
+    long start = start();
+    super.glTexParameterf(target, pname, param);
+    end("glTexParameterf", start);
+  }
+  @Override public void glTexParameterfv (int target, int pname, FloatBuffer params) {
+    long start = start();
+    super.glTexParameterfv(target, pname, params);
+    end("glTexParameterfv", start);
+  }
+  @Override public void glTexParameteri (int target, int pname, int param) {
+    long start = start();
+    super.glTexParameteri(target, pname, param);
+    end("glTexParameteri", start);
+  }
+  @Override public void glTexParameteriv (int target, int pname, IntBuffer params) {
+    long start = start();
+    super.glTexParameteriv(target, pname, params);
+    end("glTexParameteriv", start);
+  }
+  @Override public void glTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+    long start = start();
+    super.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    end("glTexSubImage2D", start);
+  }
+  @Override public void glTexSubImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    long start = start();
+    super.glTexSubImage2D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8);
+    end("glTexSubImage2D", start);
+  }
+  @Override public void glTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, Buffer arg10) {
+    long start = start();
+    super.glTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    end("glTexSubImage3D", start);
+  }
+  @Override public void glTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+    long start = start();
+    super.glTexSubImage3D(arg0, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10);
+    end("glTexSubImage3D", start);
+  }
+  @Override public void glUniform1f (int location, float x) {
+    long start = start();
+    super.glUniform1f(location, x);
+    end("glUniform1f", start);
+  }
+  @Override public void glUniform1fv (int location, int count, FloatBuffer v) {
+    long start = start();
+    super.glUniform1fv(location, count, v);
+    end("glUniform1fv", start);
+  }
+  @Override public void glUniform1i (int location, int x) {
+    long start = start();
+    super.glUniform1i(location, x);
+    end("glUniform1i", start);
+  }
+  @Override public void glUniform1iv (int location, int count, IntBuffer v) {
+    long start = start();
+    super.glUniform1iv(location, count, v);
+    end("glUniform1iv", start);
+  }
+  @Override public void glUniform2f (int location, float x, float y) {
+    long start = start();
+    super.glUniform2f(location, x, y);
+    end("glUniform2f", start);
+  }
+  @Override public void glUniform2fv (int location, int count, FloatBuffer v) {
+    long start = start();
+    super.glUniform2fv(location, count, v);
+    end("glUniform2fv", start);
+  }
+  @Override public void glUniform2i (int location, int x, int y) {
+    long start = start();
+    super.glUniform2i(location, x, y);
+    end("glUniform2i", start);
+  }
+  @Override public void glUniform2iv (int location, int count, IntBuffer v) {
+    long start = start();
+    super.glUniform2iv(location, count, v);
+    end("glUniform2iv", start);
+  }
+  @Override public void glUniform3f (int location, float x, float y, float z) {
+    long start = start();
+    super.glUniform3f(location, x, y, z);
+    end("glUniform3f", start);
+  }
+  @Override public void glUniform3fv (int location, int count, FloatBuffer v) {
+    long start = start();
+    super.glUniform3fv(location, count, v);
+    end("glUniform3fv", start);
+  }
+  @Override public void glUniform3i (int location, int x, int y, int z) {
+    long start = start();
+    super.glUniform3i(location, x, y, z);
+    end("glUniform3i", start);
+  }
+  @Override public void glUniform3iv (int location, int count, IntBuffer v) {
+    long start = start();
+    super.glUniform3iv(location, count, v);
+    end("glUniform3iv", start);
+  }
+  @Override public void glUniform4f (int location, float x, float y, float z, float w) {
+    long start = start();
+    super.glUniform4f(location, x, y, z, w);
+    end("glUniform4f", start);
+  }
+  @Override public void glUniform4fv (int location, int count, FloatBuffer v) {
+    long start = start();
+    super.glUniform4fv(location, count, v);
+    end("glUniform4fv", start);
+  }
+  @Override public void glUniform4i (int location, int x, int y, int z, int w) {
+    long start = start();
+    super.glUniform4i(location, x, y, z, w);
+    end("glUniform4i", start);
+  }
+  @Override public void glUniform4iv (int location, int count, IntBuffer v) {
+    long start = start();
+    super.glUniform4iv(location, count, v);
+    end("glUniform4iv", start);
+  }
+  @Override public void glUniformMatrix2fv (int location, int count, boolean transpose, FloatBuffer value) {
+    long start = start();
+    super.glUniformMatrix2fv(location, count, transpose, value);
+    end("glUniformMatrix2fv", start);
+  }
+  @Override public void glUniformMatrix3fv (int location, int count, boolean transpose, FloatBuffer value) {
+    long start = start();
+    super.glUniformMatrix3fv(location, count, transpose, value);
+    end("glUniformMatrix3fv", start);
+  }
+  @Override public void glUniformMatrix4fv (int location, int count, boolean transpose, FloatBuffer value) {
+    long start = start();
+    super.glUniformMatrix4fv(location, count, transpose, value);
+    end("glUniformMatrix4fv", start);
+  }
+  @Override public boolean glUnmapBuffer (int arg0) {
+    long start = start();
+    boolean result = super.glUnmapBuffer(arg0);
+    end("glUnmapBuffer", start);
+    return result;
+  }
+  @Override public void glUseProgram (int program) {
+    long start = start();
+    super.glUseProgram(program);
+    end("glUseProgram", start);
+  }
+  @Override public void glValidateProgram (int program) {
+    long start = start();
+    super.glValidateProgram(program);
+    end("glValidateProgram", start);
+  }
+  @Override public void glVertexAttrib1f (int indx, float x) {
+    long start = start();
+    super.glVertexAttrib1f(indx, x);
+    end("glVertexAttrib1f", start);
+  }
+  @Override public void glVertexAttrib1fv (int indx, FloatBuffer values) {
+    long start = start();
+    super.glVertexAttrib1fv(indx, values);
+    end("glVertexAttrib1fv", start);
+  }
+  @Override public void glVertexAttrib2f (int indx, float x, float y) {
+    long start = start();
+    super.glVertexAttrib2f(indx, x, y);
+    end("glVertexAttrib2f", start);
+  }
+  @Override public void glVertexAttrib2fv (int indx, FloatBuffer values) {
+    long start = start();
+    super.glVertexAttrib2fv(indx, values);
+    end("glVertexAttrib2fv", start);
+  }
+  @Override public void glVertexAttrib3f (int indx, float x, float y, float z) {
+    long start = start();
+    super.glVertexAttrib3f(indx, x, y, z);
+    end("glVertexAttrib3f", start);
+  }
+  @Override public void glVertexAttrib3fv (int indx, FloatBuffer values) {
+    long start = start();
+    super.glVertexAttrib3fv(indx, values);
+    end("glVertexAttrib3fv", start);
+  }
+  @Override public void glVertexAttrib4f (int indx, float x, float y, float z, float w) {
+    long start = start();
+    super.glVertexAttrib4f(indx, x, y, z, w);
+    end("glVertexAttrib4f", start);
+  }
+  @Override public void glVertexAttrib4fv (int indx, FloatBuffer values) {
+    long start = start();
+    super.glVertexAttrib4fv(indx, values);
+    end("glVertexAttrib4fv", start);
+  }
+  @Override public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+    long start = start();
+    super.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    end("glVertexAttribPointer", start);
+  }
+  @Override public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, int ptr) {
+    long start = start();
+    super.glVertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    end("glVertexAttribPointer", start);
+  }
+  @Override public void glViewport (int x, int y, int width, int height) {
+    long start = start();
+    super.glViewport(x, y, width, height);
+    end("glViewport", start);
+  }
+
+  private static boolean sep (StringBuilder buf, boolean first) {
+    if (!first) buf.append(',');
+    return false;
+  }
+
+  // appends a duration in nanoseconds as (fractional) microseconds
+  private static void appendTime (StringBuilder buf, long nanos) {
+    buf.append(nanos / 1000).append('.');
+    int frac = (int)(nanos % 1000);
+    if (frac < 100) buf.append('0');
+    if (frac < 10) buf.append('0');
+    buf.append(frac);
+  }
+
+  private static void appendString (StringBuilder buf, String text) {
+    buf.append('"');
+    for (int ii = 0, ll = text.length(); ii < ll; ii++) {
+      char c = text.charAt(ii);
+      if (c == '"' || c == '\\') buf.append('\\').append(c);
+      else if (c < 0x20) {
+        String hex = Integer.toHexString(c);
+        buf.append("\\u00").append(hex.length() < 2 ? "0" : "").append(hex);
+      }
+      else buf.append(c);
+    }
+    buf.append('"');
+  }
+
+  private boolean enabled = true;
+  private int frame;
+
+  // the recorded calls
+  private String[] names = new String[1024];
+  private long[] starts = new long[1024], durations = new long[1024];
+  private int[] callFrames = new int[1024], callLabels = new int[1024];
+  private int count;
+
+  // the label paths, and the label stack (as indices into labels)
+  private final List<String> labels = new ArrayList<>();
+  private final Map<String,Integer> labelIds = new HashMap<>();
+  private final List<Integer> labelStack = new ArrayList<>();
+  private final List<Long> labelStarts = new ArrayList<>();
+
+  // the recorded label spans
+  private int[] spanLabels = new int[64], spanFrames = new int[64];
+  private long[] spanStarts = new long[64], spanEnds = new long[64];
+  private int spanCount;
+
+  // the start times of the recorded frames
+  private long[] frameStarts = new long[64];
+  private int frames;
+}
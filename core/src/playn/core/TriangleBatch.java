@@ -13,6 +13,9 @@
  */
 package playn.core;
 
+import java.nio.Buffer;
+import java.util.Arrays;
+
 import pythagoras.f.AffineTransform;
 import static playn.core.GL20.*;
 
@@ -89,10 +92,30 @@ public class TriangleBatch extends QuadBatch {
   }
 
   private static final int START_VERTS = 16*4;
-  private static final int EXPAND_VERTS = 16*4;
   private static final int START_ELEMS = 6*START_VERTS/4;
-  private static final int EXPAND_ELEMS = 6*EXPAND_VERTS/4;
   private static final int FLOAT_SIZE_BYTES = 4;
+  private static final int BASE_STABLE_ATTRS_SIZE = 8;
+
+  /** The number of segments used by the vertex and index rings of a streaming batch. */
+  public static final int STREAM_SEGMENTS = 4;
+
+  /** The maximum number of vertices that can be referenced by 16-bit element indices. */
+  public static final int MAX_SHORT_INDEX_VERTS = 65536;
+
+  /** The default ceiling on the number of vertices buffered between flushes. */
+  public static final int DEFAULT_MAX_VERTS = MAX_SHORT_INDEX_VERTS;
+
+  /**
+   * Returns true if {@code gl} supports {@code GL_UNSIGNED_INT} element indices. These are always
+   * supported by desktop OpenGL, and are supported by OpenGL ES and WebGL if the {@code
+   * OES_element_index_uint} extension is present.
+   */
+  public static boolean supportsIntIndices (GL20 gl) {
+    String exts = gl.glGetString(GL_EXTENSIONS), version = gl.glGetString(GL_VERSION);
+    if (exts != null && exts.contains("OES_element_index_uint")) return true;
+    return version != null && version.length() > 0 &&
+      !version.startsWith("OpenGL ES") && !version.contains("WebGL");
+  }
 
   private final boolean delayedBinding;
 
@@ -100,14 +123,20 @@ public class TriangleBatch extends QuadBatch {
   protected final int uTexture;
   protected final int uHScreenSize;
   protected final int uFlip;
-  protected final int aMatrix, aTranslation, aColor; // stable (same for whole quad)
-  protected final int aPosition, aTexCoord; // changing (varies per quad vertex)
+  // assigned by initAttribs, which subclasses may override (hence not final)
+  protected int aMatrix, aTranslation, aColor; // stable (same for whole quad)
+  protected int aPosition, aTexCoord; // changing (varies per quad vertex)
 
   protected final int verticesId, elementsId;
+  protected final GLStreamBuffer vertStream, elemStream; // null unless streaming
   protected final float[] stableAttrs;
   protected float[] vertices;
   protected short[] elements;
+  protected int[] intElements; // null unless using 32-bit indices
   protected int vertPos, elemPos;
+  int quadsAdded; // since the last flush, for render stats
+
+  private int maxVerts = DEFAULT_MAX_VERTS;
 
   /** Creates a triangle batch with the default shader program. */
   public TriangleBatch (GL20 gl) {
@@ -116,28 +145,51 @@ public class TriangleBatch extends QuadBatch {
 
   /** Creates a triangle batch with the supplied custom shader program. */
   public TriangleBatch (GL20 gl, Source source) {
+    this(gl, source, false);
+  }
+
+  /**
+   * Creates a triangle batch with the supplied custom shader program.
+   *
+   * @param streaming if true, vertex and index data are streamed into ring buffers via
+   * {@code glBufferSubData} (see {@link GLStreamBuffer}) rather than respecifying the buffers on
+   * every {@link #flush}. This reduces buffer reallocation in the driver when a batch is flushed
+   * many times per frame.
+   */
+  public TriangleBatch (GL20 gl, Source source, boolean streaming) {
+    this(gl, source.vertex(), source.fragment(), streaming);
+  }
+
+  /**
+   * Creates a triangle batch with the supplied vertex and fragment shader sources. This is used by
+   * subclasses which need to generate their shader program based on their configuration.
+   */
+  protected TriangleBatch (GL20 gl, String vertexSource, String fragmentSource,
+                           boolean streaming) {
     super(gl);
     delayedBinding = "Intel".equals(gl.glGetString(GL20.GL_VENDOR));
 
-    program = new GLProgram(gl, source.vertex(), source.fragment());
+    program = gl.programs().get(vertexSource, fragmentSource);
     uTexture = program.getUniformLocation("u_Texture");
     uHScreenSize = program.getUniformLocation("u_HScreenSize");
     uFlip = program.getUniformLocation("u_Flip");
-    aMatrix = program.getAttribLocation("a_Matrix");
-    aTranslation = program.getAttribLocation("a_Translation");
-    aColor = program.getAttribLocation("a_Color");
-    aPosition = program.getAttribLocation("a_Position");
-    aTexCoord = program.getAttribLocation("a_TexCoord");
+    initAttribs(program);
 
     // create our vertex and index buffers
     stableAttrs = new float[stableAttrsSize()];
-    vertices = new float[START_VERTS*vertexSize()];
+    resizeVerts(START_VERTS, false);
     elements = new short[START_ELEMS];
 
     // create our GL buffers
     int[] ids = new int[2];
     gl.glGenBuffers(2, ids, 0);
     verticesId = ids[0]; elementsId = ids[1];
+    if (streaming) {
+      vertStream = new GLStreamBuffer(gl, GL_ARRAY_BUFFER, verticesId, STREAM_SEGMENTS);
+      elemStream = new GLStreamBuffer(gl, GL_ELEMENT_ARRAY_BUFFER, elementsId, STREAM_SEGMENTS);
+    } else {
+      vertStream = elemStream = null;
+    }
 
     gl.checkError("TriangleBatch end ctor");
   }
@@ -257,6 +309,7 @@ public class TriangleBatch extends QuadBatch {
     prepare(tint, m00, m01, m10, m11, tx, ty);
 
     int vertIdx = beginPrimitive(4, 6); int offset = vertPos;
+    quadsAdded++;
     float[] verts = vertices, stables = stableAttrs;
     offset = add(verts, add(verts, offset, stables), x1, y1, sx1, sy1);
     offset = add(verts, add(verts, offset, stables), x2, y2, sx2, sy2);
@@ -269,7 +322,7 @@ public class TriangleBatch extends QuadBatch {
 
   @Override public void begin (float fbufWidth, float fbufHeight, boolean flip) {
     super.begin(fbufWidth, fbufHeight, flip);
-    program.activate();
+    program.activate(gl);
     gl.glUniform2f(uHScreenSize, fbufWidth/2f, fbufHeight/2f);
     gl.glUniform1f(uFlip, flip ? -1 : 1);
     // certain graphics cards (I'm looking at you, Intel) exhibit broken behavior if we bind our
@@ -278,23 +331,72 @@ public class TriangleBatch extends QuadBatch {
     gl.checkError("TriangleBatch begin");
   }
 
+  /** Returns true if this batch streams its data into ring buffers. */
+  public boolean isStreaming () {
+    return vertStream != null;
+  }
+
+  /**
+   * Configures the maximum number of vertices this batch will buffer before it is forced to flush.
+   * The batch's buffers grow geometrically as needed up to this ceiling. Unless {@link
+   * #useIntIndices} is enabled, the ceiling is also limited to {@link #MAX_SHORT_INDEX_VERTS}.
+   */
+  public TriangleBatch setMaxVertices (int maxVerts) {
+    if (maxVerts < 4) throw new IllegalArgumentException("maxVerts must be >= 4: " + maxVerts);
+    this.maxVerts = maxVerts;
+    return this;
+  }
+
+  /** Returns the maximum number of vertices this batch will buffer before it is forced to flush,
+    * accounting for the limits of its element indices. */
+  public int maxVertices () {
+    return intElements == null ? Math.min(maxVerts, MAX_SHORT_INDEX_VERTS) : maxVerts;
+  }
+
+  /**
+   * Switches this batch to 32-bit ({@code GL_UNSIGNED_INT}) element indices, if they are supported
+   * by GL (see {@link #supportsIntIndices}). This allows more than {@link #MAX_SHORT_INDEX_VERTS}
+   * vertices to be drawn in a single call, if {@link #setMaxVertices} is also raised accordingly.
+   * This must not be called while primitives are pending.
+   *
+   * @return true if the batch now uses 32-bit indices, false if they are not supported.
+   */
+  public boolean useIntIndices () {
+    if (intElements != null) return true;
+    if (elemPos > 0) throw new IllegalStateException("Cannot change index size with pending elements");
+    if (!supportsIntIndices(gl)) return false;
+    intElements = new int[elements.length];
+    elements = new short[0];
+    return true;
+  }
+
+  /** Returns true if this batch is using 32-bit element indices. */
+  public boolean hasIntIndices () {
+    return intElements != null;
+  }
+
   private void bindAttribsBufs () {
     gl.glBindBuffer(GL_ARRAY_BUFFER, verticesId);
+    bindVertAttribs(0);
+    gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, elementsId);
+    gl.glActiveTexture(GL_TEXTURE0);
+    gl.glUniform1i(uTexture, 0);
+  }
 
+  /** Enables and binds this batch's vertex attributes, for vertex data which starts at byte
+    * {@code base} of the vertex buffer. */
+  protected void bindVertAttribs (int base) {
     // bind our stable vertex attributes
     int stride = vertexStride();
-    glBindVertAttrib(aMatrix, 4, GL_FLOAT, stride, 0);
-    glBindVertAttrib(aTranslation, 2, GL_FLOAT, stride, 16);
-    glBindVertAttrib(aColor, 2, GL_FLOAT, stride, 24);
+    glBindVertAttrib(aMatrix, 4, GL_FLOAT, stride, base);
+    glBindVertAttrib(aTranslation, 2, GL_FLOAT, stride, base+16);
+    glBindVertAttrib(aColor, 2, GL_FLOAT, stride, base+24);
+    bindExtraStableAttribs(stride, base+BASE_STABLE_ATTRS_SIZE*FLOAT_SIZE_BYTES);
 
     // bind our changing vertex attributes
-    int offset = stableAttrsSize()*FLOAT_SIZE_BYTES;
+    int offset = base + stableAttrsSize()*FLOAT_SIZE_BYTES;
     glBindVertAttrib(aPosition, 2, GL_FLOAT, stride, offset);
     glBindVertAttrib(aTexCoord, 2, GL_FLOAT, stride, offset+8);
-
-    gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, elementsId);
-    gl.glActiveTexture(GL_TEXTURE0);
-    gl.glUniform1i(uTexture, 0);
   }
 
   @Override public void flush () {
@@ -307,28 +409,39 @@ public class TriangleBatch extends QuadBatch {
         gl.checkError("TriangleBatch.flush bind");
       }
 
-      gl.bufs.setFloatBuffer(vertices, 0, vertPos);
-      gl.glBufferData(GL_ARRAY_BUFFER, vertPos*4, gl.bufs.floatBuffer, GL_STREAM_DRAW);
+      Buffer data = vertexData();
+      if (vertStream == null) {
+        gl.glBufferData(GL_ARRAY_BUFFER, vertPos*4, data, GL_STREAM_DRAW);
+      } else {
+        // our vertex data lands somewhere in the middle of the ring, so we have to rebind our
+        // attributes to point to it (which is much cheaper than reallocating the buffer)
+        bindVertAttribs(vertStream.write(data, vertPos*4));
+      }
 
-      gl.bufs.setShortBuffer(elements, 0, elemPos);
-      gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, elemPos*2, gl.bufs.shortBuffer, GL_STREAM_DRAW);
+      int elemOffset = uploadElements();
       gl.checkError("TriangleBatch.flush BufferData");
 
-      gl.glDrawElements(GL_TRIANGLES, elemPos, GL_UNSIGNED_SHORT, 0);
+      gl.glDrawElements(GL_TRIANGLES, elemPos, elementType(), elemOffset);
       gl.checkError("TriangleBatch.flush DrawElements");
 
+      RenderStats stats = gl.stats();
+      stats.addFlush(flushReason());
+      stats.addDraw(quadsAdded, elemPos/3);
+      stats.addUpload(vertPos*4, 0);
+
       vertPos = 0;
       elemPos = 0;
+      quadsAdded = 0;
     }
   }
 
   @Override public void end () {
     super.end();
-    gl.glDisableVertexAttribArray(aMatrix);
-    gl.glDisableVertexAttribArray(aTranslation);
-    gl.glDisableVertexAttribArray(aColor);
-    gl.glDisableVertexAttribArray(aPosition);
-    gl.glDisableVertexAttribArray(aTexCoord);
+    if (vertStream != null) {
+      vertStream.endUse();
+      elemStream.endUse();
+    }
+    disableVertAttribs();
     gl.checkError("TriangleBatch end");
   }
 
@@ -339,30 +452,115 @@ public class TriangleBatch extends QuadBatch {
     gl.checkError("TriangleBatch close");
   }
 
-  @Override public String toString () { return "tris/" + (elements.length/QUAD_INDICES.length); }
+  @Override public String toString () { return "tris/" + (elemCapacity()/QUAD_INDICES.length); }
 
   /** Returns the size (in floats) of the stable attributes. If a custom shader adds additional
     * stable attributes, it should use this to determine the offset at which to bind them, and
     * override this method to return the new size including their attributes. */
-  protected int stableAttrsSize() { return 8; }
+  protected int stableAttrsSize() { return BASE_STABLE_ATTRS_SIZE; }
   protected int vertexSize () { return stableAttrsSize() + 4; }
   protected int vertexStride () { return vertexSize() * FLOAT_SIZE_BYTES; }
 
+  /** Looks up the locations of this batch's vertex attributes in {@code program}. This is called
+    * from the constructor, so an override must not rely on its subclass's fields. A subclass
+    * whose shader lacks some of the standard attributes must override this to look up only
+    * those it declares. */
+  protected void initAttribs (GLProgram program) {
+    aMatrix = program.getAttribLocation("a_Matrix");
+    aTranslation = program.getAttribLocation("a_Translation");
+    aColor = program.getAttribLocation("a_Color");
+    aPosition = program.getAttribLocation("a_Position");
+    aTexCoord = program.getAttribLocation("a_TexCoord");
+  }
+
+  /** Disables the vertex attributes enabled by {@link #bindVertAttribs}. */
+  protected void disableVertAttribs () {
+    gl.glDisableVertexAttribArray(aMatrix);
+    gl.glDisableVertexAttribArray(aTranslation);
+    gl.glDisableVertexAttribArray(aColor);
+    gl.glDisableVertexAttribArray(aPosition);
+    gl.glDisableVertexAttribArray(aTexCoord);
+  }
+
+  /** Copies the first {@link #vertPos} words of vertex data into one of {@link GL20#bufs}, and
+    * returns that buffer. */
+  protected Buffer vertexData () {
+    gl.bufs.setFloatBuffer(vertices, 0, vertPos);
+    return gl.bufs.floatBuffer;
+  }
+
+  /** Returns the number of vertices our vertex array can hold. */
+  protected int vertCapacity () {
+    return vertices.length / vertexSize();
+  }
+
+  /** Replaces our vertex array with one which holds {@code verts} vertices. If {@code keep} is
+    * true, the contents of the old array are preserved. */
+  protected void resizeVerts (int verts, boolean keep) {
+    vertices = keep ? Arrays.copyOf(vertices, verts*vertexSize()) : new float[verts*vertexSize()];
+  }
+
   protected int addExtraStableAttrs (float[] buf, int sidx) {
     return sidx;
   }
 
+  /** Binds any extra stable attributes added by a custom shader. {@code offset} is the byte offset
+    * of the first extra attribute (as written by {@link #addExtraStableAttrs}) in each vertex. */
+  protected void bindExtraStableAttribs (int stride, int offset) {
+  }
+
+  /**
+   * Uploads the first {@link #elemPos} entries of {@link #elements} to the element array buffer.
+   * This is called during {@link #flush} and returns the byte offset in the element array buffer
+   * at which the elements were written.
+   */
+  protected int uploadElements () {
+    Buffer data;
+    int bytes;
+    if (intElements != null) {
+      gl.bufs.setIntBuffer(intElements, 0, elemPos);
+      data = gl.bufs.intBuffer;
+      bytes = elemPos*4;
+    } else {
+      gl.bufs.setShortBuffer(elements, 0, elemPos);
+      data = gl.bufs.shortBuffer;
+      bytes = elemPos*2;
+    }
+    gl.stats().addUpload(0, bytes);
+    if (elemStream == null) {
+      gl.glBufferData(GL_ELEMENT_ARRAY_BUFFER, bytes, data, GL_STREAM_DRAW);
+      return 0;
+    } else {
+      return elemStream.write(data, bytes);
+    }
+  }
+
+  /** Returns the type of the elements uploaded by {@link #uploadElements}. */
+  protected int elementType () {
+    return intElements != null ? GL_UNSIGNED_INT : GL_UNSIGNED_SHORT;
+  }
+
   protected int beginPrimitive (int vertexCount, int elemCount) {
     // check whether we have enough room to hold this primitive
     int vertIdx = vertPos / vertexSize();
     int verts = vertIdx + vertexCount, elems = elemPos + elemCount;
-    int availVerts = vertices.length / vertexSize(), availElems = elements.length;
+    int availVerts = vertCapacity(), availElems = elemCapacity();
     if (verts <= availVerts && elems <= availElems) return vertIdx;
 
-    // otherwise, flush and expand our buffers if needed
-    flush();
-    if (verts > availVerts) expandVerts(verts);
-    if (elems > availElems) expandElems(elems);
+    // if we can grow our buffers to hold this primitive without exceeding our vertex ceiling, do
+    // so and keep accumulating; otherwise flush and grow our buffers for the next batch
+    int maxVerts = maxVertices();
+    if (verts <= maxVerts) {
+      if (verts > availVerts) expandVerts(verts, maxVerts, true);
+      if (elems > availElems) expandElems(elems, true);
+      return vertIdx;
+    }
+
+    if (vertexCount > maxVerts) throw new IllegalArgumentException(
+      "Primitive has too many vertices (" + vertexCount + " > " + maxVerts + ")");
+    flush(RenderStats.Flush.FULL);
+    expandVerts(vertexCount, maxVerts, false);
+    if (elemCount > availElems) expandElems(elemCount, false);
     return 0;
   }
 
@@ -373,24 +571,43 @@ public class TriangleBatch extends QuadBatch {
 
   protected final void addElems (int vertIdx, int[] indices, int indicesOffset, int indicesLen,
                                  int indexBase) {
-    short[] data = elements;
     int offset = elemPos;
-    for (int ii = indicesOffset, ll = ii+indicesLen; ii < ll; ii++) {
-      data[offset++] = (short)(vertIdx+indices[ii]-indexBase);
+    if (intElements != null) {
+      int[] data = intElements;
+      for (int ii = indicesOffset, ll = ii+indicesLen; ii < ll; ii++) {
+        data[offset++] = vertIdx+indices[ii]-indexBase;
+      }
+    } else {
+      short[] data = elements;
+      for (int ii = indicesOffset, ll = ii+indicesLen; ii < ll; ii++) {
+        data[offset++] = (short)(vertIdx+indices[ii]-indexBase);
+      }
     }
     elemPos = offset;
   }
 
-  private final void expandVerts (int vertCount) {
-    int newVerts = vertices.length / vertexSize();
-    while (newVerts < vertCount) newVerts += EXPAND_VERTS;
-    vertices = new float[newVerts*vertexSize()];
+  /** Returns the number of elements our element array can hold. */
+  protected final int elemCapacity () {
+    return intElements != null ? intElements.length : elements.length;
+  }
+
+  private final void expandVerts (int vertCount, int maxVerts, boolean keep) {
+    resizeVerts(grow(vertCapacity(), vertCount, maxVerts), keep);
+  }
+
+  private final void expandElems (int elemCount, boolean keep) {
+    int newElems = grow(elemCapacity(), elemCount, Integer.MAX_VALUE);
+    if (intElements != null) {
+      intElements = keep ? Arrays.copyOf(intElements, newElems) : new int[newElems];
+    } else {
+      elements = keep ? Arrays.copyOf(elements, newElems) : new short[newElems];
+    }
   }
 
-  private final void expandElems(int elemCount) {
-    int newElems = elements.length;
-    while (newElems < elemCount) newElems += EXPAND_ELEMS;
-    elements = new short[newElems];
+  private static int grow (int size, int needed, int ceiling) {
+    int newSize = Math.max(size, 1);
+    while (newSize < needed) newSize *= 2;
+    return Math.max(needed, Math.min(newSize, ceiling));
   }
 
   protected static int add (float[] into, int offset, float[] stables) {
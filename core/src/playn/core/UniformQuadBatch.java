@@ -135,7 +135,7 @@ public class UniformQuadBatch extends QuadBatch {
         ", need at least " + vec4sPerQuad());
     maxQuads = maxVecs / vec4sPerQuad();
 
-    program = new GLProgram(gl, source.vertex(this), source.fragment());
+    program = gl.programs().get(source.vertex(this), source.fragment());
     uTexture = program.getUniformLocation("u_Texture");
     uHScreenSize = program.getUniformLocation("u_HScreenSize");
     uFlip = program.getUniformLocation("u_Flip");
@@ -198,15 +198,14 @@ public class UniformQuadBatch extends QuadBatch {
     pos = addExtraQuadData(data, pos);
     quadCounter++;
 
-    if (quadCounter >= maxQuads) flush();
+    if (quadCounter >= maxQuads) flush(RenderStats.Flush.FULL);
   }
 
   @Override public void begin (float fbufWidth, float fbufHeight, boolean flip) {
     super.begin(fbufWidth, fbufHeight, flip);
-    program.activate();
-    // TODO: apparently we can avoid glUniform calls because they're part of the program state; so
-    // we can cache the last set values for all these glUniform calls and only set them anew if
-    // they differ...
+    program.activate(gl);
+    // uniforms are part of the program state, so these calls are redundant if nothing changed
+    // since our last begin; install a CachingGL20 on Graphics.gl to have them elided
     gl.glUniform2f(uHScreenSize, fbufWidth/2f, fbufHeight/2f);
     gl.glUniform1f(uFlip, flip ? -1 : 1);
     gl.glBindBuffer(GL_ARRAY_BUFFER, verticesId);
@@ -225,6 +224,10 @@ public class UniformQuadBatch extends QuadBatch {
       gl.glUniform4fv(uData, quadCounter * vec4sPerQuad(), data, 0);
       gl.glDrawElements(GL_TRIANGLES, quadCounter*ELEMENTS_PER_QUAD, GL_UNSIGNED_SHORT, 0);
       gl.checkError("UniformQuadBatch flush");
+      RenderStats stats = gl.stats();
+      stats.addFlush(flushReason());
+      stats.addDraw(quadCounter, quadCounter*2);
+      stats.addUpload(quadCounter*vec4sPerQuad()*16, 0);
       quadCounter = 0;
     }
   }
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class AtlasIndexTest {
+
+  @Test public void testRoundTrip () {
+    AtlasIndex index = new AtlasIndex();
+    int p0 = index.addPage("atlas0.png"), p1 = index.addPage("atlas1.png");
+    index.add("ui/button.png", p0, 2, 2, 64, 32);
+    index.add("bg/sky tile.png", p1, 2, 2, 512, 512);
+    index.add("ui/icon.png", p0, 70, 2, 16, 16);
+
+    AtlasIndex parsed = AtlasIndex.parse(index.write());
+    assertEquals(index.pages(), parsed.pages());
+    assertEquals(index.paths(), parsed.paths());
+    AtlasIndex.Entry icon = parsed.get("ui/icon.png");
+    assertEquals(0, icon.page);
+    assertEquals(70, icon.x);
+    assertEquals(16, icon.height);
+    assertEquals(1, parsed.get("bg/sky tile.png").page);
+    assertNull(parsed.get("ui/missing.png"));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testRejectsBadHeader () {
+    AtlasIndex.parse("not an atlas\npage\tatlas0.png\n");
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void testRejectsEntryBeforePage () {
+    AtlasIndex.parse(AtlasIndex.HEADER + "\nfoo.png\t0\t0\t1\t1\n");
+  }
+}
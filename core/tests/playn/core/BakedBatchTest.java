@@ -0,0 +1,107 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import pythagoras.f.AffineTransform;
+import static org.junit.Assert.*;
+
+public class BakedBatchTest {
+
+  @Test public void testDrawsWithoutUploads () {
+    RecordingGL20 gl = new RecordingGL20();
+    BakedBatch batch = new BakedBatch(gl);
+    Texture t1 = TriangleBatchTest.texture(1), t2 = TriangleBatchTest.texture(2);
+    int quads = 100;
+    int[] verts = new int[quads*4*BakedGeometry.VERTEX_SIZE];
+    BakedGeometry geom = new BakedGeometry(batch, verts, verts.length, new Texture[] { t1, t2, t1 },
+                                           new int[] { 0, 40, 50 }, new int[] { 40, 10, 50 });
+    assertEquals(quads, geom.quads);
+    assertEquals(3, geom.runs());
+    gl.reset();
+
+    batch.begin(640, 480, true);
+    for (int ff = 0; ff < 10; ff++) batch.draw(geom, Tint.NOOP_TINT, new AffineTransform());
+    batch.end();
+    assertEquals(30, gl.count("glDrawElements"));
+    assertEquals(0, gl.count("glBufferData"));
+  }
+
+  @Test public void testSplitsLongRuns () {
+    RecordingGL20 gl = new RecordingGL20();
+    BakedBatch batch = new BakedBatch(gl);
+    Texture t1 = TriangleBatchTest.texture(1), t2 = TriangleBatchTest.texture(2);
+    int quads = IndexedQuadBatch.MAX_QUADS + 100;
+    int[] verts = new int[quads*4*BakedGeometry.VERTEX_SIZE];
+    BakedGeometry geom = new BakedGeometry(batch, verts, verts.length, new Texture[] { t1, t2 },
+                                           new int[] { 0, quads-50 }, new int[] { quads-50, 50 });
+    assertEquals(IndexedQuadBatch.MAX_QUADS, geom.maxQuads);
+    gl.reset();
+
+    batch.begin(640, 480, true);
+    batch.draw(geom, Tint.NOOP_TINT, new AffineTransform());
+    batch.end();
+    // the first run exceeds the size of our index buffer and must be drawn in two chunks
+    assertEquals(3, gl.count("glDrawElements"));
+  }
+
+  @Test public void testBakesAndReplaysQuads () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    RecordingGL20 gl = gfx.recorder();
+    Texture t1 = new Texture(gfx, 1, Texture.Config.DEFAULT, 16, 16, Scale.ONE, 16, 16);
+    Texture t2 = new Texture(gfx, 2, Texture.Config.DEFAULT, 16, 16, Scale.ONE, 16, 16);
+    t1.reference();
+    t2.reference();
+
+    BakedGeometry.Baker baker = new BakedGeometry.Baker(gfx, new BakedBatch(gl));
+    assertSame(baker, baker.setDeferred(true));
+    baker.begin();
+    baker.draw(t1, 0, 0);
+    baker.draw(t2, 20, 0);
+    baker.draw(t1, 40, 0);
+    baker.end();
+    gl.reset();
+    BakedGeometry geom = baker.bake();
+    // the non-overlapping quads are grouped by texture
+    assertEquals(3, geom.quads);
+    assertEquals(2, geom.runs());
+    // four vertices of five words per quad, and six two byte indices per quad
+    assertEquals(3*4*BakedGeometry.VERTEX_SIZE*4 + 3*6*2, gl.bufferBytes);
+
+    // the geometry keeps its textures alive after their owner lets them go
+    t1.release();
+    t2.release();
+    assertFalse(t1.disposed());
+    assertFalse(t2.disposed());
+
+    gl.reset();
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gl));
+    surf.begin();
+    surf.draw(geom);
+    surf.draw(geom);
+    surf.end();
+    // each replay takes one draw call per run and uploads nothing
+    assertEquals(4, gl.count("glDrawElements"));
+    assertEquals(0, gl.bufferBytes);
+
+    geom.close();
+    assertTrue(t1.disposed());
+    assertTrue(t2.disposed());
+  }
+
+  @Test(expected=IllegalArgumentException.class) public void testBakerIsAlwaysDeferred () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    new BakedGeometry.Baker(gfx, new BakedBatch(gfx.gl)).setDeferred(false);
+  }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static playn.core.GL20.*;
+
+public class CachingGL20Test {
+
+  @Test public void testElidesRedundantCalls () {
+    RecordingGL20 rgl = new RecordingGL20();
+    CachingGL20 gl = new CachingGL20(rgl);
+
+    gl.glUseProgram(3);
+    gl.glUseProgram(3);
+    gl.glBindBuffer(GL_ARRAY_BUFFER, 1);
+    gl.glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 1);
+    gl.glBindBuffer(GL_ARRAY_BUFFER, 1);
+    gl.glEnable(GL_SCISSOR_TEST);
+    gl.glEnable(GL_SCISSOR_TEST);
+    gl.glDisable(GL_SCISSOR_TEST);
+    gl.glViewport(0, 0, 640, 480);
+    gl.glViewport(0, 0, 640, 480);
+    gl.glViewport(0, 0, 320, 480);
+
+    assertEquals(1, rgl.count("glUseProgram"));
+    assertEquals(2, rgl.count("glBindBuffer"));
+    assertEquals(1, rgl.count("glEnable"));
+    assertEquals(1, rgl.count("glDisable"));
+    assertEquals(2, rgl.count("glViewport"));
+    assertEquals(1, gl.elided(CachingGL20.Call.USE_PROGRAM));
+    assertEquals(1, gl.elided(CachingGL20.Call.BIND_BUFFER));
+    assertEquals(1, gl.elided(CachingGL20.Call.ENABLE));
+    assertEquals(1, gl.elided(CachingGL20.Call.VIEWPORT));
+    assertEquals(4, gl.elided());
+  }
+
+  @Test public void testTexturesPerUnit () {
+    RecordingGL20 rgl = new RecordingGL20();
+    CachingGL20 gl = new CachingGL20(rgl);
+
+    gl.glActiveTexture(GL_TEXTURE0);
+    gl.glBindTexture(GL_TEXTURE_2D, 5);
+    gl.glActiveTexture(GL_TEXTURE1);
+    gl.glBindTexture(GL_TEXTURE_2D, 5); // different unit, must not be elided
+    gl.glActiveTexture(GL_TEXTURE0);
+    gl.glBindTexture(GL_TEXTURE_2D, 5);
+    assertEquals(2, rgl.count("glBindTexture"));
+    assertEquals(1, gl.elided(CachingGL20.Call.BIND_TEXTURE));
+
+    // deleting a texture unbinds it, so rebinding its (reused) id must not be elided
+    gl.glDeleteTexture(5);
+    gl.glBindTexture(GL_TEXTURE_2D, 5);
+    assertEquals(3, rgl.count("glBindTexture"));
+  }
+
+  @Test public void testUniformsPerProgram () {
+    RecordingGL20 rgl = new RecordingGL20();
+    CachingGL20 gl = new CachingGL20(rgl);
+
+    gl.glUseProgram(1);
+    gl.glUniform2f(0, 320, 240);
+    gl.glUniform2f(0, 320, 240);
+    gl.glUseProgram(2);
+    gl.glUniform2f(0, 320, 240); // same location, different program
+    gl.glUseProgram(1);
+    gl.glUniform2f(0, 320, 240);
+    gl.glUniform2f(0, 320, 241);
+    assertEquals(3, rgl.count("glUniform2f"));
+    assertEquals(2, gl.elided(CachingGL20.Call.UNIFORM));
+
+    // relinking a program resets its uniforms
+    gl.glLinkProgram(1);
+    gl.glUniform2f(0, 320, 241);
+    assertEquals(4, rgl.count("glUniform2f"));
+
+    // unknown state is never elided
+    gl.invalidate();
+    gl.glUniform2f(0, 320, 241);
+    assertEquals(5, rgl.count("glUniform2f"));
+  }
+
+  @Test public void testBatchFrames () {
+    RecordingGL20 rgl = new RecordingGL20();
+    CachingGL20 gl = new CachingGL20(rgl);
+    TriangleBatch batch = new TriangleBatch(gl);
+    Texture[] texs = TriangleBatchTest.textures();
+    for (int ff = 0; ff < TriangleBatchTest.FRAMES; ff++) TriangleBatchTest.renderFrame(batch, texs);
+
+    // the batch's program and buffers should only be bound once, no matter how many frames
+    assertEquals(1, rgl.count("glUseProgram"));
+    assertTrue(gl.elided(CachingGL20.Call.USE_PROGRAM) > 0);
+    assertTrue(gl.elided() > 0);
+  }
+}
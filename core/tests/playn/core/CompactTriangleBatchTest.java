@@ -0,0 +1,130 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+import pythagoras.f.AffineTransform;
+import static org.junit.Assert.*;
+
+public class CompactTriangleBatchTest {
+
+  // a GL which, like a real one, has no location for attributes its shaders do not declare
+  static class ShaderGL20 extends RecordingGL20 {
+    public final StringBuilder sources = new StringBuilder();
+    @Override public void glShaderSource (int shader, String string) {
+      super.glShaderSource(shader, string);
+      sources.append(string);
+    }
+    @Override public int glGetAttribLocation (int program, String name) {
+      int loc = super.glGetAttribLocation(program, name);
+      return sources.indexOf("attribute vec2 " + name + ";") >= 0 ||
+        sources.indexOf("attribute vec4 " + name + ";") >= 0 ? loc : -1;
+    }
+  }
+
+  @Test public void testLooksUpOnlyDeclaredAttribs () {
+    ShaderGL20 gl = new ShaderGL20();
+    CompactTriangleBatch batch = new CompactTriangleBatch(gl);
+    assertTrue(batch.aPosition >= 0);
+    assertTrue(batch.aTexCoord >= 0);
+    assertTrue(batch.aColor >= 0);
+    assertEquals(3, gl.count("glGetAttribLocation"));
+
+    // and the batch renders without touching the undeclared attributes
+    batch.begin(640, 480, true);
+    batch.addQuad(TriangleBatchTest.texture(1), Tint.NOOP_TINT, new AffineTransform(), 0, 0, 8, 8);
+    batch.end();
+    assertEquals(1, gl.count("glDrawElements"));
+  }
+
+  @Test public void testTransformsOnCPU () {
+    RecordingGL20 gl = new RecordingGL20();
+    CompactTriangleBatch batch = new CompactTriangleBatch(gl);
+    AffineTransform xf = new AffineTransform(2, 0, 10, 20); // scale by 2, then translate
+    Texture tex = TriangleBatchTest.texture(1);
+
+    batch.begin(640, 480, true);
+    batch.addQuad(tex, 0x80FF4020, xf, 5, 5, 16, 8);
+    assertEquals(4*CompactTriangleBatch.VERTEX_SIZE, batch.vertPos);
+    // the first vertex is the top-left corner of the quad
+    assertEquals(20f, Float.intBitsToFloat(batch.packed[0]), 0);
+    assertEquals(30f, Float.intBitsToFloat(batch.packed[1]), 0);
+    // the last vertex is the bottom-right corner
+    int last = 3*CompactTriangleBatch.VERTEX_SIZE;
+    assertEquals(52f, Float.intBitsToFloat(batch.packed[last]), 0);
+    assertEquals(46f, Float.intBitsToFloat(batch.packed[last+1]), 0);
+
+    // GL should see the tint bytes in RGBA order
+    ByteBuffer color = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+    color.putInt(0, batch.packed[4]);
+    assertEquals(0xFF, color.get(0) & 0xFF);
+    assertEquals(0x40, color.get(1) & 0xFF);
+    assertEquals(0x20, color.get(2) & 0xFF);
+    assertEquals(0x80, color.get(3) & 0xFF);
+    batch.end();
+  }
+
+  @Test public void testAddTris () {
+    RecordingGL20 gl = new RecordingGL20();
+    CompactTriangleBatch batch = new CompactTriangleBatch(gl);
+    float[] xys = { 0, 0, 10, 0, 10, 10, 0, 10 };
+    int[] indices = { 0, 1, 2, 0, 2, 3 };
+
+    batch.begin(640, 480, true);
+    batch.addTris(TriangleBatchTest.texture(1), Tint.NOOP_TINT, new AffineTransform(),
+                  xys, 0, xys.length, 10, 10, indices, 0, indices.length, 0);
+    assertEquals(4*CompactTriangleBatch.VERTEX_SIZE, batch.vertPos);
+    assertEquals(6, batch.elemPos);
+    // texture coords are generated from the vertices and texture size
+    assertEquals(1f, Float.intBitsToFloat(batch.packed[2*CompactTriangleBatch.VERTEX_SIZE+2]), 0);
+    batch.end();
+    assertEquals(1, gl.count("glDrawElements"));
+  }
+
+  /** Checks the number of bytes uploaded per quad by the standard and compact batches. */
+  @Test public void testBytesPerQuad () {
+    RecordingGL20 stdGL = new RecordingGL20(), compactGL = new RecordingGL20();
+    QuadBatch std = new TriangleBatch(stdGL), compact = new CompactTriangleBatch(compactGL);
+    Texture[] texs = TriangleBatchTest.textures();
+    for (int ff = 0; ff < TriangleBatchTest.FRAMES; ff++) {
+      TriangleBatchTest.renderFrame(std, texs);
+      TriangleBatchTest.renderFrame(compact, texs);
+    }
+
+    int quads = TriangleBatchTest.FRAMES * TriangleBatchTest.QUADS;
+    long stdBytes = stdGL.bufferBytes / quads, compactBytes = compactGL.bufferBytes / quads;
+    // both batches upload 12 bytes of indices per quad, plus their vertex data
+    assertEquals(4*12*4 + 12, stdBytes);
+    assertEquals(4*CompactTriangleBatch.VERTEX_SIZE*4 + 12, compactBytes);
+  }
+
+  @Test public void testGrowsVertices () {
+    RecordingGL20 gl = new RecordingGL20();
+    CompactTriangleBatch batch = new CompactTriangleBatch(gl);
+    Texture tex = TriangleBatchTest.texture(1);
+    int start = batch.packed.length;
+    batch.begin(640, 480, true);
+    // add enough quads to overflow the initial vertex array, which should grow geometrically
+    int quads = start/CompactTriangleBatch.VERTEX_SIZE/4 + 1;
+    for (int ii = 0; ii < quads; ii++) batch.addQuad(tex, Tint.NOOP_TINT, new AffineTransform(),
+                                                     ii, 0, 1, 1);
+    assertEquals(2*start, batch.packed.length);
+    assertEquals(quads*4*CompactTriangleBatch.VERTEX_SIZE, batch.vertPos);
+    batch.end();
+    assertEquals(1, gl.count("glDrawElements"));
+  }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.CompressedImage.Format;
+
+public class CompressedImageTest {
+
+  static final Texture.Config MIPMAPS = new Texture.Config(
+    true, false, false, GL20.GL_LINEAR, GL20.GL_LINEAR, true);
+
+  @Test public void testDecodeDXT1 () {
+    // c0 = red, c1 = blue (c0 > c1 so four color mode); pixel 1 uses c1, pixel 2 is 2/3 c0
+    int[] px = decode(Format.DXT1_RGB, 0x00, 0xF8, 0x1F, 0x00, 0x24, 0x00, 0x00, 0x00);
+    assertEquals(0xFFFF0000, px[0]);
+    assertEquals(0xFF0000FF, px[1]);
+    assertEquals(0xFFAA0055, px[2]);
+
+    // c0 < c1 selects three color mode, in which index 3 is transparent (or black sans alpha)
+    byte[] block = bytes(0x1F, 0x00, 0x00, 0xF8, 0x03, 0x00, 0x00, 0x00);
+    assertEquals(0, decode(Format.DXT1_RGBA, block)[0]);
+    assertEquals(0xFF000000, decode(Format.DXT1_RGB, block)[0]);
+    assertEquals(0xFF0000FF, decode(Format.DXT1_RGBA, block)[1]);
+  }
+
+  @Test public void testDecodeDXT5 () {
+    // alpha 255 to 0 in eight value mode, pixel 0 uses the first interpolant; black colors
+    int[] px = decode(Format.DXT5, 0xFF, 0x00, 0x02, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    assertEquals(0xDA000000, px[0]);
+    assertEquals(0xFF000000, px[1]);
+  }
+
+  @Test public void testDecodeETC1 () {
+    // individual mode, left half (255,136,0) and right half (0,136,255), both using table 0;
+    // pixel (0,1) has index 3 (-8), the rest index 0 (+2)
+    int[] px = decode(Format.ETC1, 0xF0, 0x88, 0x0F, 0x00, 0x00, 0x02, 0x00, 0x02);
+    assertEquals(0xFFFF8A02, px[0]);
+    assertEquals(0xFF028AFF, px[3]);
+    assertEquals(0xFFF78000, px[4]);
+  }
+
+  @Test public void testDecodeETC2Planar () {
+    // blue overflows in differential mode, selecting planar mode; red ramps from 0 to 255
+    // horizontally and everything else is zero
+    int[] px = decode(Format.ETC2_RGB8, 0x00, 0x00, 0x04, 0x7F, 0, 0, 0, 0);
+    assertEquals(0xFF000000, px[0]);
+    assertEquals(0xFF400000, px[1]);
+    assertEquals(0xFF800000, px[2]);
+    assertEquals(0xFFBF0000, px[3]);
+    assertEquals(0xFFBF0000, px[15]);
+  }
+
+  @Test public void testDecodeEACAlpha () {
+    // base 128, multiplier 1, table 0; pixel (0,1) has index 7 (+14), the rest index 0 (-3)
+    int[] px = decode(Format.ETC2_RGBA8, 0x80, 0x10, 0x1C, 0x00, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    assertEquals(0x7D020202, px[0]);
+    assertEquals(0x8E020202, px[4]);
+  }
+
+  @Test public void testDecodePartialBlocks () {
+    CompressedImage image = new CompressedImage(
+      Format.DXT1_RGB, 6, 2, new byte[][] { new byte[2*Format.DXT1_RGB.blockBytes] });
+    assertEquals(12, image.decode(0).length);
+  }
+
+  @Test public void testParseKTX () {
+    ByteBuffer buf = ktx(0x8D64, 8, 4, 1, 16);
+    CompressedImage image = CompressedImage.parse(buf);
+    assertEquals(Format.ETC1, image.format);
+    assertEquals(8, image.width);
+    assertEquals(4, image.height);
+    assertEquals(1, image.levels());
+    assertEquals(0, buf.position()); // parsing does not consume the caller's buffer
+  }
+
+  @Test(expected=IllegalArgumentException.class) public void testKTXRejectsCubeMaps () {
+    CompressedImage.parse(ktx(0x8D64, 8, 4, 6, 16));
+  }
+
+  @Test(expected=IllegalArgumentException.class) public void testKTXRejectsTruncated () {
+    CompressedImage.parse(ktx(0x8D64, 8, 4, 1, 8));
+  }
+
+  @Test(expected=IllegalArgumentException.class) public void testRejectsUnknownContainer () {
+    CompressedImage.parse(ByteBuffer.wrap(new byte[64]));
+  }
+
+  @Test public void testParseDDS () {
+    CompressedImage image = CompressedImage.parse(dds("DXT5", 4, 4, 3));
+    assertEquals(Format.DXT5, image.format);
+    assertEquals(3, image.levels());
+    assertTrue(image.hasMipmaps());
+    assertEquals(48, image.bytes());
+  }
+
+  @Test public void testUploadsCompressedWhenSupported () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RecordingGL20 gl = gfx.recorder();
+    gl.extensions = "GL_ARB_foo GL_EXT_texture_compression_s3tc";
+    Texture tex = CompressedImage.parse(dds("DXT5", 4, 4, 3)).createTexture(
+      gfx, MIPMAPS);
+    assertEquals(3, count(gl, "glCompressedTexImage2D"));
+    assertEquals(0, count(gl, "glTexImage2D"));
+    assertEquals(0, count(gl, "glGenerateMipmap"));
+    assertEquals(16*4/3, tex.bytes());
+  }
+
+  @Test public void testUploadsETC1AsETC2 () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RecordingGL20 gl = gfx.recorder();
+    gl.extensions = "GL_ARB_ES3_compatibility";
+    assertEquals(Format.ETC2_RGB8.glFormat, Format.ETC1.uploadFormat(gl));
+    assertEquals(0, Format.DXT1_RGB.uploadFormat(gl));
+  }
+
+  @Test public void testMatchesWholeExtensionNames () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RecordingGL20 gl = gfx.recorder();
+    // an extension whose name merely contains a supported name does not match
+    gl.extensions = "GL_EXT_texture_compression_s3tc_srgb GL_XOES_compressed_ETC1_RGB8_texture";
+    assertEquals(0, Format.DXT5.uploadFormat(gl));
+    assertEquals(0, Format.ETC1.uploadFormat(gl));
+    // WebGL reports extension names without the GL_ prefix
+    gl.extensions = "OES_texture_float WEBGL_compressed_texture_s3tc";
+    assertEquals(Format.DXT5.glFormat, Format.DXT5.uploadFormat(gl));
+    assertEquals(0, Format.ETC1.uploadFormat(gl));
+  }
+
+  @Test public void testDecodesWhenUnsupported () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RecordingGL20 gl = gfx.recorder();
+    Texture tex = CompressedImage.parse(ktx(0x8D64, 8, 4, 1, 16)).createTexture(
+      gfx, Texture.Config.DEFAULT);
+    assertEquals(0, count(gl, "glCompressedTexImage2D"));
+    assertEquals(1, count(gl, "glTexImage2D"));
+    assertEquals(8*4*4, tex.bytes());
+  }
+
+  @Test public void testDecodesWhenMipmapsMissing () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RecordingGL20 gl = gfx.recorder();
+    gl.extensions = "GL_OES_compressed_ETC1_RGB8_texture";
+    CompressedImage.parse(ktx(0x8D64, 8, 4, 1, 16)).createTexture(
+      gfx, MIPMAPS);
+    assertEquals(0, count(gl, "glCompressedTexImage2D"));
+    assertEquals(1, count(gl, "glTexImage2D"));
+    assertEquals(1, count(gl, "glGenerateMipmap"));
+  }
+
+  @Test(expected=IllegalArgumentException.class) public void testRejectsNonPOTMipmaps () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    CompressedImage image = new CompressedImage(
+      Format.ETC1, 12, 4, new byte[][] { new byte[3*Format.ETC1.blockBytes] });
+    image.createTexture(gfx, MIPMAPS);
+  }
+
+  private static int[] decode (Format format, int... block) {
+    return decode(format, bytes(block));
+  }
+
+  private static int[] decode (Format format, byte[] block) {
+    return new CompressedImage(format, 4, 4, new byte[][] { block }).decode(0);
+  }
+
+  private static byte[] bytes (int... values) {
+    byte[] bytes = new byte[values.length];
+    for (int ii = 0; ii < values.length; ii++) bytes[ii] = (byte)values[ii];
+    return bytes;
+  }
+
+  private static int count (RecordingGL20 gl, String call) {
+    return Collections.frequency(gl.calls, call);
+  }
+
+  private static ByteBuffer ktx (int glFormat, int width, int height, int faces, int dataBytes) {
+    ByteBuffer buf = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+    buf.put(bytes(0xAB, 0x4B, 0x54, 0x58, 0x20, 0x31, 0x31, 0xBB, 0x0D, 0x0A, 0x1A, 0x0A));
+    buf.putInt(0x04030201);
+    buf.putInt(0).putInt(1).putInt(0).putInt(glFormat).putInt(GL20.GL_RGB);
+    buf.putInt(width).putInt(height).putInt(0).putInt(0).putInt(faces).putInt(1);
+    buf.putInt(4).putInt(0); // four bytes of key/value data
+    buf.putInt(dataBytes).put(new byte[dataBytes]);
+    buf.flip();
+    return buf;
+  }
+
+  private static ByteBuffer dds (String fourCC, int width, int height, int mipmaps) {
+    Format format = Format.valueOf(fourCC);
+    int data = 0;
+    for (int ll = 0; ll < mipmaps; ll++) {
+      data += format.bytes(Math.max(1, width >> ll), Math.max(1, height >> ll));
+    }
+    ByteBuffer buf = ByteBuffer.allocate(128 + data).order(ByteOrder.LITTLE_ENDIAN);
+    buf.put(bytes('D', 'D', 'S', ' ')).putInt(124).putInt(0x1007 | 0x20000);
+    buf.putInt(height).putInt(width).putInt(0).putInt(0).putInt(mipmaps);
+    buf.position(80);
+    buf.putInt(0x4).put(bytes(fourCC.charAt(0), fourCC.charAt(1), fourCC.charAt(2),
+                              fourCC.charAt(3)));
+    buf.position(0);
+    return buf;
+  }
+}
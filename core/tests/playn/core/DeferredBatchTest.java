@@ -0,0 +1,101 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import pythagoras.f.AffineTransform;
+import static org.junit.Assert.*;
+
+public class DeferredBatchTest {
+
+  // records the texture id and left edge of each quad it is asked to render
+  static class LogBatch extends QuadBatch {
+    public final List<String> log = new ArrayList<>();
+    public int flushes;
+    public LogBatch () { super(new RecordingGL20()); }
+    @Override public void flush () {
+      super.flush();
+      flushes++;
+    }
+    @Override public void addQuad (int tint,
+                                   float m00, float m01, float m10, float m11, float tx, float ty,
+                                   float x1, float y1, float sx1, float sy1,
+                                   float x2, float y2, float sx2, float sy2,
+                                   float x3, float y3, float sx3, float sy3,
+                                   float x4, float y4, float sx4, float sy4) {
+      log.add(curTexId + "@" + (int)(x1 + tx));
+    }
+  }
+
+  @Test public void testGroupsDisjointQuads () {
+    LogBatch target = new LogBatch();
+    DeferredBatch batch = new DeferredBatch(target.gl);
+    batch.setTarget(target);
+    Texture t1 = TriangleBatchTest.texture(1), t2 = TriangleBatchTest.texture(2);
+    AffineTransform xf = new AffineTransform();
+
+    batch.begin(640, 480, true);
+    for (int ii = 0; ii < 4; ii++) {
+      batch.addQuad(ii % 2 == 0 ? t1 : t2, Tint.NOOP_TINT, xf, ii*20, 0, 10, 10);
+    }
+    batch.end();
+
+    assertEquals(4, batch.drawsBefore());
+    assertEquals(2, batch.drawsAfter());
+    assertEquals("[1@0, 1@40, 2@20, 2@60]", target.log.toString());
+  }
+
+  @Test public void testPreservesOverlapOrder () {
+    LogBatch target = new LogBatch();
+    DeferredBatch batch = new DeferredBatch(target.gl);
+    batch.setTarget(target);
+    Texture t1 = TriangleBatchTest.texture(1), t2 = TriangleBatchTest.texture(2);
+    AffineTransform xf = new AffineTransform();
+
+    batch.begin(640, 480, true);
+    batch.addQuad(t1, Tint.NOOP_TINT, xf, 0, 0, 10, 10);
+    batch.addQuad(t2, Tint.NOOP_TINT, xf, 5, 5, 10, 10); // overlaps the first quad
+    batch.addQuad(t1, Tint.NOOP_TINT, xf, 10, 10, 10, 10); // overlaps the second quad
+    batch.addQuad(t2, Tint.NOOP_TINT, xf, 100, 0, 10, 10); // overlaps nothing
+    batch.end();
+
+    assertEquals(4, batch.drawsBefore());
+    assertEquals(3, batch.drawsAfter());
+    assertEquals("[1@0, 2@5, 2@100, 1@10]", target.log.toString());
+  }
+
+  @Test public void testGroupsByBatch () {
+    LogBatch target1 = new LogBatch(), target2 = new LogBatch();
+    DeferredBatch batch = new DeferredBatch(target1.gl);
+    Texture t1 = TriangleBatchTest.texture(1);
+    AffineTransform xf = new AffineTransform();
+
+    batch.begin(640, 480, true);
+    for (int ii = 0; ii < 6; ii++) {
+      batch.setTarget(ii % 2 == 0 ? target1 : target2);
+      batch.addQuad(t1, Tint.NOOP_TINT, xf, ii*20, 0, 10, 10);
+    }
+    batch.end();
+
+    // each target batch should be begun and ended (and hence flushed) once
+    assertEquals(6, batch.drawsBefore());
+    assertEquals(2, batch.drawsAfter());
+    assertEquals(1, target1.flushes);
+    assertEquals(1, target2.flushes);
+    assertEquals("[1@0, 1@40, 1@80]", target1.log.toString());
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import pythagoras.f.AffineTransform;
+import static org.junit.Assert.*;
+
+public class IndexedQuadBatchTest {
+
+  @Test public void testUploadsOnlyVertices () {
+    RecordingGL20 gl = new RecordingGL20();
+    IndexedQuadBatch batch = new IndexedQuadBatch(gl);
+    gl.reset(); // ignore the upload of our static indices
+
+    Texture[] texs = TriangleBatchTest.textures();
+    for (int ff = 0; ff < TriangleBatchTest.FRAMES; ff++) TriangleBatchTest.renderFrame(batch, texs);
+
+    // one vertex upload per draw and no index uploads
+    int draws = gl.count("glDrawElements");
+    assertEquals(TriangleBatchTest.QUADS/5*TriangleBatchTest.FRAMES, draws);
+    assertEquals(draws, gl.count("glBufferData"));
+    int quads = TriangleBatchTest.QUADS*TriangleBatchTest.FRAMES;
+    assertEquals(4*12*4, gl.bufferBytes / quads);
+  }
+
+  @Test public void testMaxQuads () {
+    RecordingGL20 gl = new RecordingGL20();
+    IndexedQuadBatch batch = new IndexedQuadBatch(gl, new TriangleBatch.Source(), 16);
+    Texture tex = TriangleBatchTest.texture(1);
+    AffineTransform xf = new AffineTransform();
+    batch.begin(640, 480, true);
+    for (int ii = 0; ii < 40; ii++) batch.addQuad(tex, Tint.NOOP_TINT, xf, ii, ii, 16, 16);
+    batch.end();
+    assertEquals(3, gl.count("glDrawElements"));
+  }
+
+  @Test public void testTrisFallback () {
+    RecordingGL20 gl = new RecordingGL20();
+    IndexedQuadBatch batch = new IndexedQuadBatch(gl);
+    Texture tex = TriangleBatchTest.texture(1);
+    AffineTransform xf = new AffineTransform();
+    float[] xys = { 0, 0, 10, 0, 10, 10 };
+    int[] indices = { 0, 1, 2 };
+    gl.reset();
+
+    batch.begin(640, 480, true);
+    batch.addQuad(tex, Tint.NOOP_TINT, xf, 0, 0, 16, 16);
+    // adding triangles flushes our pending quads and switches to uploading indices
+    batch.addTris(tex, Tint.NOOP_TINT, xf, xys, 0, xys.length, 10, 10, indices, 0, 3, 0);
+    assertEquals(1, gl.count("glDrawElements"));
+    // subsequent quads are added with indices until the next flush
+    batch.addQuad(tex, Tint.NOOP_TINT, xf, 0, 0, 16, 16);
+    assertEquals(3+6, batch.elemPos);
+    batch.end();
+    assertEquals(2, gl.count("glDrawElements"));
+    assertEquals(3, gl.count("glBufferData")); // two vertex uploads and one index upload
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MultiTexBatchTest {
+
+  @Test public void testNoFlushOnBoundTextureSwitch () {
+    RecordingGL20 gl = new RecordingGL20();
+    gl.integers.put(GL20.GL_MAX_TEXTURE_IMAGE_UNITS, 32);
+    MultiTexBatch batch = new MultiTexBatch(gl);
+    assertEquals(MultiTexBatch.MAX_UNITS, batch.units);
+
+    // let the batch expand its buffers to hold a frame's worth of quads
+    Texture[] texs = TriangleBatchTest.textures();
+    for (int ff = 0; ff < TriangleBatchTest.FRAMES; ff++) TriangleBatchTest.renderFrame(batch, texs);
+    gl.reset();
+    batch.resetStats();
+
+    // all of our textures fit in the available units, so we should issue a single draw call
+    TriangleBatchTest.renderFrame(batch, texs);
+    assertEquals(1, gl.count("glDrawElements"));
+    assertEquals(TriangleBatchTest.QUADS/5-1, batch.flushesAvoided());
+  }
+
+  @Test public void testFlushWhenUnitsExhausted () {
+    RecordingGL20 gl = new RecordingGL20();
+    MultiTexBatch batch = new MultiTexBatch(gl, new MultiTexBatch.Source(), 2);
+    Texture[] texs = TriangleBatchTest.textures();
+    TriangleBatchTest.renderFrame(batch, texs);
+    gl.reset();
+    batch.resetStats();
+
+    // we cycle through eight textures, two units at a time
+    TriangleBatchTest.renderFrame(batch, texs);
+    int switches = TriangleBatchTest.QUADS/5;
+    assertEquals(switches/2, gl.count("glDrawElements"));
+    assertEquals(switches/2, batch.flushesAvoided());
+  }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ProgramCacheTest {
+
+  static final int FORMAT = 42;
+
+  // a GL which supports program binaries, in a single format, and which rejects them on request
+  static class BinaryGL20 extends RecordingGL20 {
+    public boolean rejectBinaries;
+    public int hinted; // times the retrievable hint was set before linking
+    private int rejectedId;
+    public BinaryGL20 () {
+      extensions = "GL_OES_get_program_binary";
+      integers.put(ProgramCache.GL_NUM_PROGRAM_BINARY_FORMATS, 1);
+      integers.put(ProgramCache.GL_PROGRAM_BINARY_FORMATS, FORMAT);
+    }
+    @Override public void glGetProgramBinary (int program, int bufSize, IntBuffer length,
+                                              IntBuffer format, Buffer binary) {
+      super.glGetProgramBinary(program, bufSize, length, format, binary);
+      length.put(0, 1);
+      format.put(0, FORMAT);
+      ((ByteBuffer)binary).put(0, (byte)7);
+    }
+    @Override public void glProgramBinary (int program, int format, Buffer binary, int length) {
+      super.glProgramBinary(program, format, binary, length);
+      if (rejectBinaries) rejectedId = program;
+    }
+    @Override public void glGetProgramiv (int program, int pname, IntBuffer params) {
+      super.glGetProgramiv(program, pname, params);
+      if (pname == GL_LINK_STATUS && program == rejectedId) params.put(params.position(), GL_FALSE);
+    }
+    @Override public void glProgramParameteri (int program, int pname, int value) {
+      super.glProgramParameteri(program, pname, value);
+      // the hint only has an effect if it is set before the program is linked
+      if (pname == ProgramCache.GL_PROGRAM_BINARY_RETRIEVABLE_HINT && value == GL_TRUE &&
+          count("glLinkProgram") == 0) hinted++;
+    }
+  }
+
+  static class MapStore implements ProgramCache.BinaryStore {
+    public final Map<String,byte[]> data = new HashMap<>();
+    @Override public byte[] load (String key) { return data.get(key); }
+    @Override public void save (String key, byte[] bytes) { data.put(key, bytes); }
+  }
+
+  @Test public void testSharesPrograms () {
+    RecordingGL20 gl = new RecordingGL20();
+    ProgramCache cache = gl.programs();
+    GLProgram p1 = cache.get("vert", "frag"), p2 = cache.get("vert", "frag");
+    GLProgram p3 = cache.get("vert", "frag2");
+    assertSame(p1, p2);
+    assertNotSame(p1, p3);
+    assertEquals(2, gl.count("glCreateProgram"));
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(2, cache.size());
+
+    p1.close();
+    assertEquals(0, gl.count("glDeleteProgram"));
+    p2.close();
+    assertEquals(1, gl.count("glDeleteProgram"));
+    assertEquals(1, cache.size());
+
+    // once closed, a program is compiled anew
+    GLProgram p4 = cache.get("vert", "frag");
+    assertNotSame(p1, p4);
+    assertEquals(3, gl.count("glCreateProgram"));
+  }
+
+  @Test public void testBatchesSharePrograms () {
+    RecordingGL20 gl = new RecordingGL20();
+    TriangleBatch b1 = new TriangleBatch(gl), b2 = new TriangleBatch(gl);
+    assertSame(b1.program, b2.program);
+    assertEquals(1, gl.count("glLinkProgram"));
+  }
+
+  @Test public void testDelegatesSharePrograms () {
+    RecordingGL20 gl = new RecordingGL20();
+    DelegatingGL20 delegating = new DelegatingGL20(gl);
+    assertSame(gl.programs(), delegating.programs());
+    // so batches created on either GL share their programs
+    TriangleBatch b1 = new TriangleBatch(gl), b2 = new TriangleBatch(delegating);
+    assertSame(b1.program, b2.program);
+    assertEquals(1, gl.count("glLinkProgram"));
+
+    // but a caching GL must see its programs' link and delete calls, so it creates its own
+    CachingGL20 caching = new CachingGL20(gl);
+    assertNotSame(gl.programs(), caching.programs());
+    TriangleBatch b3 = new TriangleBatch(caching);
+    assertNotSame(b1.program, b3.program);
+    assertEquals(2, gl.count("glLinkProgram"));
+  }
+
+  @Test public void testLoadsBinaries () {
+    MapStore store = new MapStore();
+    BinaryGL20 gl1 = new BinaryGL20();
+    gl1.programs().setBinaryStore(store);
+    gl1.programs().get("vert", "frag");
+    assertEquals(1, store.data.size());
+    byte[] saved = store.data.values().iterator().next();
+    assertArrayEquals(new byte[] { 0, 0, 0, FORMAT, 7 }, saved);
+    // the compiled program was linked as retrievable, so that its binary could be saved
+    assertEquals(1, gl1.hinted);
+
+    // a later run loads the binary rather than compiling
+    BinaryGL20 gl2 = new BinaryGL20();
+    gl2.programs().setBinaryStore(store);
+    gl2.programs().get("vert", "frag");
+    assertEquals(1, gl2.count("glProgramBinary"));
+    assertEquals(0, gl2.count("glCompileShader"));
+    assertEquals(1, gl2.programs().binaryLoads());
+  }
+
+  @Test public void testFallsBackOnRejectedBinary () {
+    MapStore store = new MapStore();
+    BinaryGL20 gl1 = new BinaryGL20();
+    gl1.programs().setBinaryStore(store);
+    gl1.programs().get("vert", "frag");
+
+    BinaryGL20 gl2 = new BinaryGL20();
+    gl2.rejectBinaries = true;
+    gl2.programs().setBinaryStore(store);
+    gl2.programs().get("vert", "frag");
+    assertEquals(1, gl2.count("glProgramBinary"));
+    assertEquals(1, gl2.count("glDeleteProgram"));
+    assertEquals(2, gl2.count("glCompileShader"));
+    assertEquals(0, gl2.programs().binaryLoads());
+    assertEquals(1, gl2.programs().binaryFailures());
+  }
+
+  @Test public void testFallsBackOnUnknownFormat () {
+    MapStore store = new MapStore();
+    BinaryGL20 gl1 = new BinaryGL20();
+    gl1.programs().setBinaryStore(store);
+    gl1.programs().get("vert", "frag");
+    String key = store.data.keySet().iterator().next();
+    store.data.put(key, new byte[] { 0, 0, 0, 99, 7 });
+
+    BinaryGL20 gl2 = new BinaryGL20();
+    gl2.programs().setBinaryStore(store);
+    gl2.programs().get("vert", "frag");
+    assertEquals(0, gl2.count("glProgramBinary"));
+    assertEquals(1, gl2.programs().binaryFailures());
+    // the rejected binary is replaced
+    assertArrayEquals(new byte[] { 0, 0, 0, FORMAT, 7 }, store.data.get(key));
+  }
+
+  @Test public void testIgnoresStoreWithoutSupport () {
+    MapStore store = new MapStore();
+    RecordingGL20 gl = new RecordingGL20();
+    gl.programs().setBinaryStore(store);
+    gl.programs().get("vert", "frag");
+    assertFalse(gl.programs().supportsBinaries());
+    assertTrue(store.data.isEmpty());
+    assertEquals(0, gl.count("glGetProgramBinary"));
+    assertEquals(0, gl.count("glProgramParameteri"));
+  }
+}
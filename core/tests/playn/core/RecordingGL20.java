@@ -0,0 +1,660 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link GL20} which renders nothing, but records the name of every call made on it. This
+ * allows tests to check how the batches and surfaces drive GL without a GPU.
+ */
+public class RecordingGL20 extends GL20 {
+
+  /** The names of the GL calls made on this instance, in order. */
+  public final List<String> calls = new ArrayList<>();
+
+  /** Values returned by {@link #glGetInteger}; unknown keys yield 1024. */
+  public final Map<Integer,Integer> integers = new HashMap<>();
+
+  /** The value returned for {@code glGetString(GL_EXTENSIONS)}. */
+  public String extensions = "";
+
+  /** The number of bytes of data supplied to {@code glBufferData} and {@code glBufferSubData}
+    * since the last {@link #reset}. */
+  public long bufferBytes;
+
+  public RecordingGL20 () {
+    super(new Buffers() {
+      public ByteBuffer createByteBuffer (int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+      }
+    }, false);
+  }
+
+  /** Returns the number of times {@code name} was called since the last {@link #reset}. */
+  public int count (String name) {
+    int count = 0;
+    for (String call : calls) if (call.equals(name)) count++;
+    return count;
+  }
+
+  /** Clears the recorded calls and byte counts. */
+  public void reset () {
+    calls.clear();
+    bufferBytes = 0;
+  }
+
+  private int lastId, lastLoc;
+
+  private void fillIds (int n, IntBuffer ids) {
+    for (int ii = 0; ii < n; ii++) ids.put(ids.position()+ii, ++lastId);
+  }
+
+  @Override public String getPlatformGLExtensions () {
+    calls.add("getPlatformGLExtensions");
+    return "";
+  }
+  @Override public int getSwapInterval () {
+    calls.add("getSwapInterval");
+    return 0;
+  }
+  @Override public void glActiveTexture (int texture) {
+    calls.add("glActiveTexture");
+  }
+  @Override public void glAttachShader (int program, int shader) {
+    calls.add("glAttachShader");
+  }
+  @Override public void glBindAttribLocation (int program, int index, String name) {
+    calls.add("glBindAttribLocation");
+  }
+  @Override public void glBindBuffer (int target, int buffer) {
+    calls.add("glBindBuffer");
+  }
+  @Override public void glBindFramebuffer (int target, int framebuffer) {
+    calls.add("glBindFramebuffer");
+  }
+  @Override public void glBindRenderbuffer (int target, int renderbuffer) {
+    calls.add("glBindRenderbuffer");
+  }
+  @Override public void glBindTexture (int target, int texture) {
+    calls.add("glBindTexture");
+  }
+  @Override public void glBlendColor (float red, float green, float blue, float alpha) {
+    calls.add("glBlendColor");
+  }
+  @Override public void glBlendEquation (int mode) {
+    calls.add("glBlendEquation");
+  }
+  @Override public void glBlendEquationSeparate (int modeRGB, int modeAlpha) {
+    calls.add("glBlendEquationSeparate");
+  }
+  @Override public void glBlendFunc (int sfactor, int dfactor) {
+    calls.add("glBlendFunc");
+  }
+  @Override public void glBlendFuncSeparate (int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+    calls.add("glBlendFuncSeparate");
+  }
+  @Override public void glBufferData (int target, int size, Buffer data, int usage) {
+    calls.add("glBufferData");
+    if (data != null) bufferBytes += size;
+  }
+  @Override public void glBufferSubData (int target, int offset, int size, Buffer data) {
+    calls.add("glBufferSubData");
+    bufferBytes += size;
+  }
+  @Override public int glCheckFramebufferStatus (int target) {
+    calls.add("glCheckFramebufferStatus");
+    return GL_FRAMEBUFFER_COMPLETE;
+  }
+  @Override public void glClear (int mask) {
+    calls.add("glClear");
+  }
+  @Override public void glClearColor (float red, float green, float blue, float alpha) {
+    calls.add("glClearColor");
+  }
+  @Override public void glClearDepth (double depth) {
+    calls.add("glClearDepth");
+  }
+  @Override public void glClearDepthf (float depth) {
+    calls.add("glClearDepthf");
+  }
+  @Override public void glClearStencil (int s) {
+    calls.add("glClearStencil");
+  }
+  @Override public void glColorMask (boolean red, boolean green, boolean blue, boolean alpha) {
+    calls.add("glColorMask");
+  }
+  @Override public void glCompileShader (int shader) {
+    calls.add("glCompileShader");
+  }
+  @Override public void glCompressedTexImage2D (int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+    calls.add("glCompressedTexImage2D");
+  }
+  @Override public void glCompressedTexImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7) {
+    calls.add("glCompressedTexImage2D");
+  }
+  @Override public void glCompressedTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, Buffer arg8) {
+    calls.add("glCompressedTexImage3D");
+  }
+  @Override public void glCompressedTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    calls.add("glCompressedTexImage3D");
+  }
+  @Override public void glCompressedTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+    calls.add("glCompressedTexSubImage2D");
+  }
+  @Override public void glCompressedTexSubImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    calls.add("glCompressedTexSubImage2D");
+  }
+  @Override public void glCompressedTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, Buffer arg10) {
+    calls.add("glCompressedTexSubImage3D");
+  }
+  @Override public void glCompressedTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+    calls.add("glCompressedTexSubImage3D");
+  }
+  @Override public void glCopyTexImage2D (int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+    calls.add("glCopyTexImage2D");
+  }
+  @Override public void glCopyTexSubImage2D (int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+    calls.add("glCopyTexSubImage2D");
+  }
+  @Override public void glCopyTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    calls.add("glCopyTexSubImage3D");
+  }
+  @Override public int glCreateProgram () {
+    calls.add("glCreateProgram");
+    return ++lastId;
+  }
+  @Override public int glCreateShader (int type) {
+    calls.add("glCreateShader");
+    return ++lastId;
+  }
+  @Override public void glCullFace (int mode) {
+    calls.add("glCullFace");
+  }
+  @Override public void glDeleteBuffers (int n, IntBuffer buffers) {
+    calls.add("glDeleteBuffers");
+  }
+  @Override public void glDeleteFramebuffers (int n, IntBuffer framebuffers) {
+    calls.add("glDeleteFramebuffers");
+  }
+  @Override public void glDeleteProgram (int program) {
+    calls.add("glDeleteProgram");
+  }
+  @Override public void glDeleteRenderbuffers (int n, IntBuffer renderbuffers) {
+    calls.add("glDeleteRenderbuffers");
+  }
+  @Override public void glDeleteShader (int shader) {
+    calls.add("glDeleteShader");
+  }
+  @Override public void glDeleteTextures (int n, IntBuffer textures) {
+    calls.add("glDeleteTextures");
+  }
+  @Override public void glDepthFunc (int func) {
+    calls.add("glDepthFunc");
+  }
+  @Override public void glDepthMask (boolean flag) {
+    calls.add("glDepthMask");
+  }
+  @Override public void glDepthRange (double zNear, double zFar) {
+    calls.add("glDepthRange");
+  }
+  @Override public void glDepthRangef (float zNear, float zFar) {
+    calls.add("glDepthRangef");
+  }
+  @Override public void glDetachShader (int program, int shader) {
+    calls.add("glDetachShader");
+  }
+  @Override public void glDisable (int cap) {
+    calls.add("glDisable");
+  }
+  @Override public void glDisableVertexAttribArray (int index) {
+    calls.add("glDisableVertexAttribArray");
+  }
+  @Override public void glDrawArrays (int mode, int first, int count) {
+    calls.add("glDrawArrays");
+  }
+  @Override public void glDrawElements (int mode, int count, int type, Buffer indices) {
+    calls.add("glDrawElements");
+  }
+  @Override public void glDrawElements (int mode, int count, int type, int offset) {
+    calls.add("glDrawElements");
+  }
+  @Override public void glEnable (int cap) {
+    calls.add("glEnable");
+  }
+  @Override public void glEnableVertexAttribArray (int index) {
+    calls.add("glEnableVertexAttribArray");
+  }
+  @Override public void glFinish () {
+    calls.add("glFinish");
+  }
+  @Override public void glFlush () {
+    calls.add("glFlush");
+  }
+  @Override public void glFramebufferRenderbuffer (int target, int attachment, int renderbuffertarget, int renderbuffer) {
+    calls.add("glFramebufferRenderbuffer");
+  }
+  @Override public void glFramebufferTexture2D (int target, int attachment, int textarget, int texture, int level) {
+    calls.add("glFramebufferTexture2D");
+  }
+  @Override public void glFramebufferTexture3D (int target, int attachment, int textarget, int texture, int level, int zoffset) {
+    calls.add("glFramebufferTexture3D");
+  }
+  @Override public void glFrontFace (int mode) {
+    calls.add("glFrontFace");
+  }
+  @Override public void glGenBuffers (int n, IntBuffer buffers) {
+    calls.add("glGenBuffers");
+    fillIds(n, buffers);
+  }
+  @Override public void glGenerateMipmap (int target) {
+    calls.add("glGenerateMipmap");
+  }
+  @Override public void glGenFramebuffers (int n, IntBuffer framebuffers) {
+    calls.add("glGenFramebuffers");
+    fillIds(n, framebuffers);
+  }
+  @Override public void glGenRenderbuffers (int n, IntBuffer renderbuffers) {
+    calls.add("glGenRenderbuffers");
+    fillIds(n, renderbuffers);
+  }
+  @Override public void glGenTextures (int n, IntBuffer textures) {
+    calls.add("glGenTextures");
+    fillIds(n, textures);
+  }
+  @Override public String glGetActiveAttrib (int program, int index, IntBuffer size, IntBuffer type) {
+    calls.add("glGetActiveAttrib");
+    return "";
+  }
+  @Override public String glGetActiveUniform (int program, int index, IntBuffer size, IntBuffer type) {
+    calls.add("glGetActiveUniform");
+    return "";
+  }
+  @Override public void glGetAttachedShaders (int program, int maxcount, IntBuffer count, IntBuffer shaders) {
+    calls.add("glGetAttachedShaders");
+  }
+  @Override public int glGetAttribLocation (int program, String name) {
+    calls.add("glGetAttribLocation");
+    return ++lastLoc;
+  }
+  @Override public boolean glGetBoolean (int pname) {
+    calls.add("glGetBoolean");
+    return false;
+  }
+  @Override public void glGetBooleanv (int pname, ByteBuffer params) {
+    calls.add("glGetBooleanv");
+  }
+  @Override public int glGetBoundBuffer (int arg0) {
+    calls.add("glGetBoundBuffer");
+    return 0;
+  }
+  @Override public void glGetBufferParameteriv (int target, int pname, IntBuffer params) {
+    calls.add("glGetBufferParameteriv");
+  }
+  @Override public int glGetError () {
+    return GL_NO_ERROR;
+  }
+  @Override public float glGetFloat (int pname) {
+    calls.add("glGetFloat");
+    return 0;
+  }
+  @Override public void glGetFloatv (int pname, FloatBuffer params) {
+    calls.add("glGetFloatv");
+  }
+  @Override public void glGetFramebufferAttachmentParameteriv (int target, int attachment, int pname, IntBuffer params) {
+    calls.add("glGetFramebufferAttachmentParameteriv");
+  }
+  @Override public int glGetInteger (int pname) {
+    calls.add("glGetInteger");
+    return integers.containsKey(pname) ? integers.get(pname) : 1024;
+  }
+  @Override public void glGetIntegerv (int pname, IntBuffer params) {
+    calls.add("glGetIntegerv");
+    params.put(params.position(), glGetInteger(pname));
+  }
+  @Override public void glGetProgramBinary (int arg0, int arg1, IntBuffer arg2, IntBuffer arg3, Buffer arg4) {
+    calls.add("glGetProgramBinary");
+  }
+  @Override public void glGetProgramInfoLog (int program, int bufsize, IntBuffer length, ByteBuffer infolog) {
+    calls.add("glGetProgramInfoLog");
+  }
+  @Override public String glGetProgramInfoLog (int program) {
+    calls.add("glGetProgramInfoLog");
+    return "";
+  }
+  @Override public void glGetProgramiv (int program, int pname, IntBuffer params) {
+    calls.add("glGetProgramiv");
+    params.put(params.position(), GL_TRUE);
+  }
+  @Override public void glGetRenderbufferParameteriv (int target, int pname, IntBuffer params) {
+    calls.add("glGetRenderbufferParameteriv");
+  }
+  @Override public void glGetShaderInfoLog (int shader, int bufsize, IntBuffer length, ByteBuffer infolog) {
+    calls.add("glGetShaderInfoLog");
+  }
+  @Override public String glGetShaderInfoLog (int shader) {
+    calls.add("glGetShaderInfoLog");
+    return "";
+  }
+  @Override public void glGetShaderiv (int shader, int pname, IntBuffer params) {
+    calls.add("glGetShaderiv");
+    params.put(params.position(), GL_TRUE);
+  }
+  @Override public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, int[] range, int rangeOffset, int[] precision, int precisionOffset) {
+    calls.add("glGetShaderPrecisionFormat");
+  }
+  @Override public void glGetShaderPrecisionFormat (int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+    calls.add("glGetShaderPrecisionFormat");
+  }
+  @Override public void glGetShaderSource (int shader, int bufsize, int[] length, int lengthOffset, byte[] source, int sourceOffset) {
+    calls.add("glGetShaderSource");
+  }
+  @Override public void glGetShaderSource (int shader, int bufsize, IntBuffer length, ByteBuffer source) {
+    calls.add("glGetShaderSource");
+  }
+  @Override public String glGetString (int name) {
+    calls.add("glGetString");
+    return (name == GL_EXTENSIONS) ? extensions : "";
+  }
+  @Override public void glGetTexParameterfv (int target, int pname, FloatBuffer params) {
+    calls.add("glGetTexParameterfv");
+  }
+  @Override public void glGetTexParameteriv (int target, int pname, IntBuffer params) {
+    calls.add("glGetTexParameteriv");
+  }
+  @Override public void glGetUniformfv (int program, int location, FloatBuffer params) {
+    calls.add("glGetUniformfv");
+  }
+  @Override public void glGetUniformiv (int program, int location, IntBuffer params) {
+    calls.add("glGetUniformiv");
+  }
+  @Override public int glGetUniformLocation (int program, String name) {
+    calls.add("glGetUniformLocation");
+    return ++lastLoc;
+  }
+  @Override public void glGetVertexAttribfv (int index, int pname, FloatBuffer params) {
+    calls.add("glGetVertexAttribfv");
+  }
+  @Override public void glGetVertexAttribiv (int index, int pname, IntBuffer params) {
+    calls.add("glGetVertexAttribiv");
+  }
+  @Override public void glHint (int target, int mode) {
+    calls.add("glHint");
+  }
+  @Override public boolean glIsBuffer (int buffer) {
+    calls.add("glIsBuffer");
+    return false;
+  }
+  @Override public boolean glIsEnabled (int cap) {
+    calls.add("glIsEnabled");
+    return false;
+  }
+  @Override public boolean glIsFramebuffer (int framebuffer) {
+    calls.add("glIsFramebuffer");
+    return false;
+  }
+  @Override public boolean glIsProgram (int program) {
+    calls.add("glIsProgram");
+    return false;
+  }
+  @Override public boolean glIsRenderbuffer (int renderbuffer) {
+    calls.add("glIsRenderbuffer");
+    return false;
+  }
+  @Override public boolean glIsShader (int shader) {
+    calls.add("glIsShader");
+    return false;
+  }
+  @Override public boolean glIsTexture (int texture) {
+    calls.add("glIsTexture");
+    return false;
+  }
+  @Override public boolean glIsVBOArrayEnabled () {
+    calls.add("glIsVBOArrayEnabled");
+    return false;
+  }
+  @Override public boolean glIsVBOElementEnabled () {
+    calls.add("glIsVBOElementEnabled");
+    return false;
+  }
+  @Override public void glLineWidth (float width) {
+    calls.add("glLineWidth");
+  }
+  @Override public void glLinkProgram (int program) {
+    calls.add("glLinkProgram");
+  }
+  @Override public ByteBuffer glMapBuffer (int arg0, int arg1) {
+    calls.add("glMapBuffer");
+    return null;
+  }
+  @Override public void glPixelStorei (int pname, int param) {
+    calls.add("glPixelStorei");
+  }
+  @Override public void glPolygonOffset (float factor, float units) {
+    calls.add("glPolygonOffset");
+  }
+  @Override public void glProgramBinary (int arg0, int arg1, Buffer arg2, int arg3) {
+    calls.add("glProgramBinary");
+  }
+  @Override public void glProgramParameteri (int program, int pname, int value) {
+    calls.add("glProgramParameteri");
+  }
+  @Override public void glReadPixels (int x, int y, int width, int height, int format, int type, Buffer pixels) {
+    calls.add("glReadPixels");
+  }
+  @Override public void glReadPixels (int x, int y, int width, int height, int format, int type, int pixelsBufferOffset) {
+    calls.add("glReadPixels");
+  }
+  @Override public void glReleaseShaderCompiler () {
+    calls.add("glReleaseShaderCompiler");
+  }
+  @Override public void glRenderbufferStorage (int target, int internalformat, int width, int height) {
+    calls.add("glRenderbufferStorage");
+  }
+  @Override public void glSampleCoverage (float value, boolean invert) {
+    calls.add("glSampleCoverage");
+  }
+  @Override public void glScissor (int x, int y, int width, int height) {
+    calls.add("glScissor");
+  }
+  @Override public void glShaderBinary (int n, int[] shaders, int offset, int binaryformat, Buffer binary, int length) {
+    calls.add("glShaderBinary");
+  }
+  @Override public void glShaderBinary (int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+    calls.add("glShaderBinary");
+  }
+  @Override public void glShaderSource (int shader, int count, String[] strings, int[] length, int lengthOffset) {
+    calls.add("glShaderSource");
+  }
+  @Override public void glShaderSource (int shader, int count, String[] strings, IntBuffer length) {
+    calls.add("glShaderSource");
+  }
+  @Override public void glShaderSource (int shader, String string) {
+    calls.add("glShaderSource");
+  }
+  @Override public void glStencilFunc (int func, int ref, int mask) {
+    calls.add("glStencilFunc");
+  }
+  @Override public void glStencilFuncSeparate (int face, int func, int ref, int mask) {
+    calls.add("glStencilFuncSeparate");
+  }
+  @Override public void glStencilMask (int mask) {
+    calls.add("glStencilMask");
+  }
+  @Override public void glStencilMaskSeparate (int face, int mask) {
+    calls.add("glStencilMaskSeparate");
+  }
+  @Override public void glStencilOp (int fail, int zfail, int zpass) {
+    calls.add("glStencilOp");
+  }
+  @Override public void glStencilOpSeparate (int face, int fail, int zfail, int zpass) {
+    calls.add("glStencilOpSeparate");
+  }
+  @Override public void glTexImage2D (int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+    calls.add("glTexImage2D");
+  }
+  @Override public void glTexImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    calls.add("glTexImage2D");
+  }
+  @Override public void glTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, Buffer arg9) {
+    calls.add("glTexImage3D");
+  }
+  @Override public void glTexImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9) {
+    calls.add("glTexImage3D");
+  }
+  @Override public void glTexParameterf (int target, int pname, float param) {
+    calls.add("glTexParameterf");
+  }
+  @Override public void glTexParameterfv (int target, int pname, FloatBuffer params) {
+    calls.add("glTexParameterfv");
+  }
+  @Override public void glTexParameteri (int target, int pname, int param) {
+    calls.add("glTexParameteri");
+  }
+  @Override public void glTexParameteriv (int target, int pname, IntBuffer params) {
+    calls.add("glTexParameteriv");
+  }
+  @Override public void glTexSubImage2D (int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+    calls.add("glTexSubImage2D");
+  }
+  @Override public void glTexSubImage2D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8) {
+    calls.add("glTexSubImage2D");
+  }
+  @Override public void glTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, Buffer arg10) {
+    calls.add("glTexSubImage3D");
+  }
+  @Override public void glTexSubImage3D (int arg0, int arg1, int arg2, int arg3, int arg4, int arg5, int arg6, int arg7, int arg8, int arg9, int arg10) {
+    calls.add("glTexSubImage3D");
+  }
+  @Override public void glUniform1f (int location, float x) {
+    calls.add("glUniform1f");
+  }
+  @Override public void glUniform1fv (int location, int count, FloatBuffer v) {
+    calls.add("glUniform1fv");
+  }
+  @Override public void glUniform1i (int location, int x) {
+    calls.add("glUniform1i");
+  }
+  @Override public void glUniform1iv (int location, int count, IntBuffer v) {
+    calls.add("glUniform1iv");
+  }
+  @Override public void glUniform2f (int location, float x, float y) {
+    calls.add("glUniform2f");
+  }
+  @Override public void glUniform2fv (int location, int count, FloatBuffer v) {
+    calls.add("glUniform2fv");
+  }
+  @Override public void glUniform2i (int location, int x, int y) {
+    calls.add("glUniform2i");
+  }
+  @Override public void glUniform2iv (int location, int count, IntBuffer v) {
+    calls.add("glUniform2iv");
+  }
+  @Override public void glUniform3f (int location, float x, float y, float z) {
+    calls.add("glUniform3f");
+  }
+  @Override public void glUniform3fv (int location, int count, FloatBuffer v) {
+    calls.add("glUniform3fv");
+  }
+  @Override public void glUniform3i (int location, int x, int y, int z) {
+    calls.add("glUniform3i");
+  }
+  @Override public void glUniform3iv (int location, int count, IntBuffer v) {
+    calls.add("glUniform3iv");
+  }
+  @Override public void glUniform4f (int location, float x, float y, float z, float w) {
+    calls.add("glUniform4f");
+  }
+  @Override public void glUniform4fv (int location, int count, FloatBuffer v) {
+    calls.add("glUniform4fv");
+  }
+  @Override public void glUniform4i (int location, int x, int y, int z, int w) {
+    calls.add("glUniform4i");
+  }
+  @Override public void glUniform4iv (int location, int count, IntBuffer v) {
+    calls.add("glUniform4iv");
+  }
+  @Override public void glUniformMatrix2fv (int location, int count, boolean transpose, FloatBuffer value) {
+    calls.add("glUniformMatrix2fv");
+  }
+  @Override public void glUniformMatrix3fv (int location, int count, boolean transpose, FloatBuffer value) {
+    calls.add("glUniformMatrix3fv");
+  }
+  @Override public void glUniformMatrix4fv (int location, int count, boolean transpose, FloatBuffer value) {
+    calls.add("glUniformMatrix4fv");
+  }
+  @Override public boolean glUnmapBuffer (int arg0) {
+    calls.add("glUnmapBuffer");
+    return false;
+  }
+  @Override public void glUseProgram (int program) {
+    calls.add("glUseProgram");
+  }
+  @Override public void glValidateProgram (int program) {
+    calls.add("glValidateProgram");
+  }
+  @Override public void glVertexAttrib1f (int indx, float x) {
+    calls.add("glVertexAttrib1f");
+  }
+  @Override public void glVertexAttrib1fv (int indx, FloatBuffer values) {
+    calls.add("glVertexAttrib1fv");
+  }
+  @Override public void glVertexAttrib2f (int indx, float x, float y) {
+    calls.add("glVertexAttrib2f");
+  }
+  @Override public void glVertexAttrib2fv (int indx, FloatBuffer values) {
+    calls.add("glVertexAttrib2fv");
+  }
+  @Override public void glVertexAttrib3f (int indx, float x, float y, float z) {
+    calls.add("glVertexAttrib3f");
+  }
+  @Override public void glVertexAttrib3fv (int indx, FloatBuffer values) {
+    calls.add("glVertexAttrib3fv");
+  }
+  @Override public void glVertexAttrib4f (int indx, float x, float y, float z, float w) {
+    calls.add("glVertexAttrib4f");
+  }
+  @Override public void glVertexAttrib4fv (int indx, FloatBuffer values) {
+    calls.add("glVertexAttrib4fv");
+  }
+  @Override public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+    calls.add("glVertexAttribPointer");
+  }
+  @Override public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, int ptr) {
+    calls.add("glVertexAttribPointer");
+  }
+  @Override public void glViewport (int x, int y, int width, int height) {
+    calls.add("glViewport");
+  }
+  @Override public boolean hasGLSL () {
+    calls.add("hasGLSL");
+    return false;
+  }
+  @Override public boolean isExtensionAvailable (String extension) {
+    calls.add("isExtensionAvailable");
+    return false;
+  }
+  @Override public boolean isFunctionAvailable (String function) {
+    calls.add("isFunctionAvailable");
+    return false;
+  }
+}
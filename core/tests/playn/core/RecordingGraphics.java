@@ -0,0 +1,53 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import pythagoras.f.IDimension;
+
+/**
+ * A {@link Graphics} which renders to a {@link RecordingGL20}, so that tests (including those of
+ * other modules) can render surfaces and check the resulting GL calls without a GPU. Text, paths,
+ * gradients and canvases are not supported.
+ */
+public class RecordingGraphics extends Graphics {
+
+  public RecordingGraphics (Platform plat, int width, int height) {
+    super(plat, new RecordingGL20(), Scale.ONE);
+    viewportChanged(width, height);
+  }
+
+  /** Returns the GL to which this graphics renders. */
+  public RecordingGL20 recorder () {
+    return (RecordingGL20)gl;
+  }
+
+  @Override public IDimension screenSize () { return viewSize; }
+  @Override public Path createPath () { throw new UnsupportedOperationException(); }
+  @Override public Gradient createGradient (Gradient.Config config) {
+    throw new UnsupportedOperationException();
+  }
+  @Override public TextLayout layoutText (String text, TextFormat format) {
+    throw new UnsupportedOperationException();
+  }
+  @Override public TextLayout[] layoutText (String text, TextFormat format, TextWrap wrap) {
+    throw new UnsupportedOperationException();
+  }
+  @Override protected Canvas createCanvasImpl (Scale scale, int pixelWidth, int pixelHeight) {
+    throw new UnsupportedOperationException();
+  }
+
+  // surfaces need a solid color texture, which is normally created from a canvas
+  @Override Texture colorTex () { return colorTex; }
+  private final Texture colorTex = TriangleBatchTest.texture(99);
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import pythagoras.f.AffineTransform;
+import react.Connection;
+import react.Slot;
+import static org.junit.Assert.*;
+
+import playn.core.RenderStats.Flush;
+
+public class RenderStatsTest {
+
+  // records the stats emitted each frame
+  static class StatsLog extends Slot<RenderStats> {
+    public final List<String> frames = new ArrayList<>();
+    public RenderStats last;
+    @Override public void onEmit (RenderStats stats) {
+      frames.add(stats.toString());
+      last = stats;
+    }
+  }
+
+  @Test public void testCountsDrawsAndFlushes () {
+    StubPlatform plat = new StubPlatform();
+    Graphics gfx = new RecordingGraphics(plat, 100, 100);
+    StatsLog log = new StatsLog();
+    gfx.renderStats.connect(log);
+    plat.frame.emit(plat); // enables the stats
+    assertEquals(0, log.frames.size());
+
+    TriangleBatch batch = new TriangleBatch(gfx.gl);
+    Texture t1 = TriangleBatchTest.texture(1), t2 = TriangleBatchTest.texture(2);
+    AffineTransform xf = new AffineTransform();
+    batch.begin(100, 100, false);
+    batch.addQuad(t1, Tint.NOOP_TINT, xf, 0, 0, 10, 10);
+    batch.addQuad(t1, Tint.NOOP_TINT, xf, 10, 0, 10, 10);
+    batch.addQuad(t2, Tint.NOOP_TINT, xf, 20, 0, 10, 10);
+    batch.end();
+    plat.frame.emit(plat);
+
+    assertEquals(1, log.frames.size());
+    RenderStats stats = gfx.gl.stats();
+    assertSame(stats, log.last);
+    // the stats are reset after being emitted
+    assertEquals(0, stats.drawCalls());
+    // each vertex is 12 floats, each quad has 6 short indices
+    assertEquals("RenderStats[draws=2, quads=3, tris=6, vbytes=576, ibytes=36, " +
+                 "flushes={TEXTURE=1, FULL=0, BATCH=0, CLIP=0, END=1, OTHER=0}]",
+                 log.frames.get(0));
+  }
+
+  @Test public void testAttributesFullFlushes () {
+    StubPlatform plat = new StubPlatform();
+    Graphics gfx = new RecordingGraphics(plat, 100, 100);
+    RenderStats stats = gfx.gl.stats();
+    stats.setEnabled(true);
+
+    IndexedQuadBatch batch = new IndexedQuadBatch(gfx.gl, new TriangleBatch.Source(), 2);
+    Texture tex = TriangleBatchTest.texture(1);
+    AffineTransform xf = new AffineTransform();
+    batch.begin(100, 100, false);
+    for (int ii = 0; ii < 5; ii++) batch.addQuad(tex, Tint.NOOP_TINT, xf, ii*10, 0, 10, 10);
+    batch.end();
+
+    assertEquals(3, stats.drawCalls());
+    assertEquals(5, stats.quads());
+    assertEquals(2, stats.flushes(Flush.FULL));
+    assertEquals(1, stats.flushes(Flush.END));
+    assertEquals(3, stats.flushes());
+  }
+
+  @Test public void testAttributesSurfaceFlushes () {
+    StubPlatform plat = new StubPlatform();
+    Graphics gfx = new RecordingGraphics(plat, 100, 100);
+    RenderStats stats = gfx.gl.stats();
+    stats.setEnabled(true);
+
+    TriangleBatch batch = new TriangleBatch(gfx.gl), other = new TriangleBatch(gfx.gl);
+    Texture tex = TriangleBatchTest.texture(1);
+    TextureSurface surf = new TextureSurface(gfx, batch, 100, 100);
+    surf.begin();
+    surf.draw(tex, 0, 0, 10, 10);
+    surf.startClipped(0, 0, 50, 50);
+    surf.draw(tex, 0, 0, 10, 10);
+    surf.endClipped();
+    surf.draw(tex, 0, 0, 10, 10);
+    QuadBatch obatch = surf.pushBatch(other);
+    surf.draw(tex, 0, 0, 10, 10);
+    surf.popBatch(obatch);
+    surf.draw(tex, 0, 0, 10, 10);
+    surf.end();
+
+    assertEquals(2, stats.flushes(Flush.CLIP));
+    assertEquals(2, stats.flushes(Flush.BATCH));
+    assertEquals(1, stats.flushes(Flush.END));
+    assertEquals(5, stats.drawCalls());
+  }
+
+  @Test public void testDisabledWithoutListeners () {
+    StubPlatform plat = new StubPlatform();
+    Graphics gfx = new RecordingGraphics(plat, 100, 100);
+    StatsLog log = new StatsLog();
+    Connection conn = gfx.renderStats.connect(log);
+    plat.frame.emit(plat);
+    conn.close();
+    plat.frame.emit(plat); // disables the stats
+    assertEquals(0, log.frames.size());
+    assertFalse(gfx.gl.stats().isEnabled());
+
+    TriangleBatch batch = new TriangleBatch(gfx.gl);
+    batch.begin(100, 100, false);
+    batch.addQuad(TriangleBatchTest.texture(1), Tint.NOOP_TINT, new AffineTransform(),
+                  0, 0, 10, 10);
+    batch.end();
+    assertEquals(0, gfx.gl.stats().drawCalls());
+  }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RenderTargetPoolTest {
+
+  // a pool which treats every acquired target as leaked when polled
+  static class LeakyPool extends RenderTargetPool {
+    public final List<Object> handles = new ArrayList<>();
+    public LeakyPool (Graphics gfx, QuadBatch batch) { super(gfx, batch); }
+    @Override protected void acquired (Target target, Object handle) { handles.add(handle); }
+    @Override protected void released (Object handle) { handles.remove(handle); }
+    @Override protected void poll () {
+      List<Object> leaked = new ArrayList<>(handles);
+      handles.clear();
+      for (Object handle : leaked) leaked(handle);
+    }
+  }
+
+  @Test public void testReusesReleasedTargets () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RenderTargetPool pool = gfx.createRenderTargetPool(new TriangleBatch(gfx.recorder()));
+
+    RenderTargetPool.Target t1 = pool.acquire(64, 32, Texture.Config.DEFAULT);
+    assertEquals(64, t1.texture.pixelWidth);
+    assertEquals(32, t1.texture.pixelHeight);
+    assertFalse(t1.texture.config.managed);
+    assertEquals(1, pool.outstanding());
+    Texture tex = t1.texture;
+    t1.release();
+    assertEquals(0, pool.outstanding());
+    assertEquals(1, pool.pooled());
+
+    RenderTargetPool.Target t2 = pool.acquire(64, 32, Texture.Config.DEFAULT);
+    assertSame(tex, t2.texture);
+    assertEquals(1, pool.allocations());
+    assertEquals(1, pool.reuses());
+    assertEquals(0, pool.pooled());
+
+    try {
+      t1.release();
+      fail("Double release should fail");
+    } catch (IllegalStateException ise) {} // expected
+  }
+
+  @Test public void testDistinguishesSizeAndConfig () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RenderTargetPool pool = gfx.createRenderTargetPool(new TriangleBatch(gfx.recorder()));
+
+    pool.acquire(64, 32, Texture.Config.DEFAULT).release();
+    pool.acquire(32, 64, Texture.Config.DEFAULT).release();
+    pool.acquire(64, 32, Texture.Config.DEFAULT.format(Texture.Format.RGBA4444)).release();
+    pool.acquire(64, 32, Texture.Config.UNMANAGED).release(); // pooled textures are unmanaged
+    assertEquals(3, pool.allocations());
+    assertEquals(1, pool.reuses());
+    assertEquals(3, pool.pooled());
+  }
+
+  @Test public void testTracksBytesAndTrims () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    RenderTargetPool pool = gfx.createRenderTargetPool(new TriangleBatch(gfx.recorder()));
+
+    RenderTargetPool.Target t1 = pool.acquire(64, 64, Texture.Config.DEFAULT);
+    RenderTargetPool.Target t2 = pool.acquire(64, 64, Texture.Config.DEFAULT);
+    assertEquals(2*64*64*4, pool.bytes());
+    t1.release();
+    t2.release();
+    pool.acquire(32, 32, Texture.Config.DEFAULT);
+    assertEquals(2*64*64*4 + 32*32*4, pool.peakBytes());
+
+    gfx.recorder().calls.clear();
+    pool.trim();
+    assertEquals(0, pool.pooled());
+    assertEquals(32*32*4, pool.bytes());
+    assertEquals(2*64*64*4 + 32*32*4, pool.peakBytes());
+    assertTrue(gfx.recorder().calls.contains("glDeleteTextures"));
+  }
+
+  @Test public void testCloseDisposesOutstandingOnRelease () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    RenderTargetPool pool = gfx.createRenderTargetPool(new TriangleBatch(gfx.recorder()));
+
+    RenderTargetPool.Target t1 = pool.acquire(16, 16, Texture.Config.DEFAULT);
+    pool.close();
+    t1.release();
+    assertEquals(0, pool.pooled());
+    assertEquals(0, pool.bytes());
+    try {
+      pool.acquire(16, 16, Texture.Config.DEFAULT);
+      fail("Acquire on closed pool should fail");
+    } catch (IllegalStateException ise) {} // expected
+  }
+
+  @Test public void testReclaimsLeakedTargets () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    LeakyPool pool = new LeakyPool(gfx, new TriangleBatch(gfx.recorder()));
+
+    Texture tex = pool.acquire(16, 16, Texture.Config.DEFAULT).texture;
+    assertEquals(0, pool.outstanding());
+    assertEquals(1, pool.leaks());
+    assertEquals(1, pool.pooled());
+    assertSame(tex, pool.acquire(16, 16, Texture.Config.DEFAULT).texture);
+  }
+}
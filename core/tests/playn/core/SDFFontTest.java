@@ -0,0 +1,50 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SDFFontTest {
+
+  @Test public void testDistanceField () {
+    // a 4x4 opaque square in the middle of a 16x16 transparent image
+    int size = 16, spread = 4;
+    int[] argb = new int[size*size];
+    for (int y = 6; y < 10; y++) for (int x = 6; x < 10; x++) argb[y*size+x] = 0xFFFFFFFF;
+    byte[] field = SDFFont.distanceField(argb, size, size, spread);
+
+    // pixels just inside and outside the edge straddle the midpoint
+    assertTrue(value(field, size, 6, 8) > 128);
+    assertTrue(value(field, size, 5, 8) < 128);
+    // the field falls off with distance from the edge
+    assertTrue(value(field, size, 4, 8) < value(field, size, 5, 8));
+    assertTrue(value(field, size, 3, 8) < value(field, size, 4, 8));
+    // and saturates beyond the spread
+    assertEquals(0, value(field, size, 0, 0));
+    // the field is symmetric for a symmetric shape
+    assertEquals(value(field, size, 5, 8), value(field, size, 10, 8));
+    assertEquals(value(field, size, 8, 5), value(field, size, 8, 10));
+  }
+
+  @Test public void testSmoothing () {
+    // smoothing shrinks as the field is magnified, and is capped when minified
+    assertTrue(SDFBatch.smoothing(4, 4) < SDFBatch.smoothing(4, 1));
+    assertEquals(0.5f, SDFBatch.smoothing(4, 0), 0);
+  }
+
+  private static int value (byte[] field, int width, int x, int y) {
+    return field[y*width+x] & 0xFF;
+  }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+/**
+ * An {@link Image} of a specified size which has no pixels, and which counts the times it is
+ * uploaded to a texture.
+ */
+public class TestImage extends Image {
+  public final int width, height;
+  public int uploads, regionUploads;
+  public TestImage (Graphics gfx, int width, int height) {
+    super(gfx);
+    this.width = width;
+    this.height = height;
+  }
+
+  @Override public Scale scale () { return Scale.ONE; }
+  @Override public int pixelWidth () { return width; }
+  @Override public int pixelHeight () { return height; }
+  @Override public void getRgb (int startX, int startY, int width, int height, int[] rgbArray,
+                                int offset, int scanSize) {}
+  @Override public void setRgb (int startX, int startY, int width, int height, int[] rgbArray,
+                                int offset, int scanSize) {}
+  @Override public Pattern createPattern (boolean repeatX, boolean repeatY) { return null; }
+  @Override public Image transform (BitmapTransformer xform) { return this; }
+  @Override public void draw (Object ctx, float x, float y, float w, float h) {}
+  @Override public void draw (Object ctx, float dx, float dy, float dw, float dh,
+                              float sx, float sy, float sw, float sh) {}
+  @Override protected void upload (Graphics gfx, Texture tex) { uploads++; }
+  @Override protected void upload (Graphics gfx, Texture tex, int x, int y, int w, int h) {
+    regionUploads++;
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import pythagoras.i.Rectangle;
+import static org.junit.Assert.*;
+
+public class TextureAtlasTest {
+
+  @Test public void testSkylinePacksWithoutOverlap () {
+    TextureAtlas.Skyline sky = new TextureAtlas.Skyline(64, 64);
+    List<Rectangle> packed = new ArrayList<>();
+    int[][] sizes = { {20, 10}, {30, 20}, {14, 5}, {40, 12}, {8, 30}, {24, 24}, {10, 10} };
+    for (int[] size : sizes) {
+      int pos = sky.pack(size[0], size[1]);
+      assertTrue("Failed to pack " + size[0] + "x" + size[1], pos >= 0);
+      Rectangle r = new Rectangle(pos >> 16, pos & 0xFFFF, size[0], size[1]);
+      assertTrue(r + " outside bounds", r.x >= 0 && r.y >= 0 && r.maxX() <= 64 && r.maxY() <= 64);
+      for (Rectangle o : packed) assertFalse(r + " overlaps " + o, r.intersects(o));
+      packed.add(r);
+    }
+  }
+
+  @Test public void testSkylineFillsAndResets () {
+    TextureAtlas.Skyline sky = new TextureAtlas.Skyline(32, 32);
+    // sixteen 8x8 squares exactly fill a 32x32 area
+    for (int ii = 0; ii < 16; ii++) assertTrue(sky.pack(8, 8) >= 0);
+    assertEquals(-1, sky.pack(1, 1));
+    sky.reset();
+    assertEquals(0, sky.pack(32, 32));
+    assertEquals(-1, sky.pack(1, 1));
+  }
+
+  @Test public void testSkylineRejectsOversize () {
+    TextureAtlas.Skyline sky = new TextureAtlas.Skyline(32, 32);
+    assertEquals(-1, sky.pack(33, 1));
+    assertEquals(-1, sky.pack(1, 33));
+    // the rejected rectangles should not have consumed any space
+    assertEquals(0, sky.pack(32, 32));
+  }
+
+  @Test public void testRepackReclaimsSpace () {
+    Graphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    TextureAtlas atlas = new TextureAtlas(gfx, new TextureAtlas.Config(16, 0, false, 2));
+    Tile a = atlas.add(new TestImage(gfx, 16, 8)), b = atlas.add(new TestImage(gfx, 16, 8));
+    Tile c = atlas.add(new TestImage(gfx, 16, 8));
+    assertEquals(2, atlas.pages());
+    atlas.remove(a);
+    atlas.remove(b);
+    Texture oldPage = c.texture();
+
+    assertTrue(atlas.repack());
+    assertEquals(1, atlas.pages());
+    assertNotSame(oldPage, c.texture());
+    assertTrue(oldPage.disposed());
+    assertFalse(c.texture().disposed());
+    atlas.close();
+  }
+
+  @Test public void testFailedRepackKeepsPages () {
+    Graphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    TextureAtlas atlas = new TextureAtlas(gfx, new TextureAtlas.Config(16, 0, false, 1));
+    // these fit when added in this order, but not when repacked tallest first
+    Tile[] tiles = { atlas.add(new TestImage(gfx, 13, 3)), atlas.add(new TestImage(gfx, 3, 11)),
+                     atlas.add(new TestImage(gfx, 15, 4)) };
+    Texture page = tiles[0].texture();
+    float[] sxs = new float[tiles.length], sys = new float[tiles.length];
+    for (int ii = 0; ii < tiles.length; ii++) {
+      assertSame(page, tiles[ii].texture());
+      sxs[ii] = tiles[ii].sx();
+      sys[ii] = tiles[ii].sy();
+    }
+
+    assertFalse(atlas.repack());
+    assertEquals(1, atlas.pages());
+    assertEquals(3, atlas.tiles());
+    assertFalse(page.disposed());
+    for (int ii = 0; ii < tiles.length; ii++) {
+      assertSame(page, tiles[ii].texture());
+      assertEquals(sxs[ii], tiles[ii].sx(), 0);
+      assertEquals(sys[ii], tiles[ii].sy(), 0);
+    }
+    atlas.close();
+  }
+
+  @Test public void testSharedAtlasConfig () {
+    Graphics gfx = new RecordingGraphics(new StubPlatform(), 100, 100);
+    TextureAtlas.Config config = new TextureAtlas.Config(256, 1, false, 2);
+    gfx.setAtlasConfig(config);
+    assertSame(config, gfx.atlas().config);
+    // the config can't be changed once the shared atlas exists
+    try {
+      gfx.setAtlasConfig(TextureAtlas.Config.DEFAULT);
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {}
+    assertSame(config, gfx.atlas().config);
+  }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TextureManagerTest {
+
+  @Test public void testTracksBytes () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    TextureManager mgr = gfx.textures();
+    Texture t1 = new TestImage(gfx, 10, 10).createTexture(Texture.Config.DEFAULT);
+    Texture t2 = new TestImage(gfx, 20, 10).createTexture(Texture.Config.DEFAULT);
+    assertEquals(2, mgr.textures());
+    assertEquals(400 + 800, mgr.bytes());
+    t1.close();
+    assertEquals(1, mgr.textures());
+    assertEquals(800, mgr.bytes());
+    t2.close();
+    assertEquals(0, mgr.bytes());
+  }
+
+  @Test public void testTracksUploadedFormat () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    Texture.Config config = Texture.Config.DEFAULT.format(Texture.Format.RGBA4444);
+    // our graphics can't convert image data, so it is uploaded (and counted) as RGBA8888
+    Texture tex = new TestImage(gfx, 10, 10).createTexture(config);
+    assertEquals(400, tex.bytes());
+    // but textures we render into are allocated in the requested format
+    assertEquals(200, gfx.createTexture(10, 10, config).bytes());
+    assertEquals(600, gfx.textures().bytes());
+  }
+
+  @Test public void testEvictsLeastRecentlyUsed () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    TextureManager mgr = gfx.textures();
+    mgr.setBudget(1000);
+
+    TestImage i1 = new TestImage(gfx, 10, 10), i2 = new TestImage(gfx, 10, 10);
+    TestImage i3 = new TestImage(gfx, 10, 10);
+    Texture t1 = i1.createTexture(Texture.Config.DEFAULT);
+    Texture t2 = i2.createTexture(Texture.Config.DEFAULT);
+    Texture t3 = i3.createTexture(Texture.Config.DEFAULT);
+    t2.used();
+    plat.frame.emit(plat);
+    t1.used();
+    t3.used();
+    // 1200 bytes are in use, so the least recently drawn texture is evicted
+    plat.frame.emit(plat);
+    assertTrue(t2.evicted());
+    assertFalse(t1.evicted());
+    assertFalse(t3.evicted());
+    assertEquals(800, mgr.bytes());
+    assertEquals(1, mgr.evictions());
+
+    // drawing an evicted texture uploads it again
+    t2.used();
+    assertFalse(t2.evicted());
+    assertEquals(2, i2.uploads);
+    assertEquals(1, mgr.reloads());
+    assertEquals(1200, mgr.bytes());
+  }
+
+  @Test public void testNoBudget () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    Texture tex = new TestImage(gfx, 100, 100).createTexture(Texture.Config.DEFAULT);
+    tex.used();
+    plat.frame.emit(plat);
+    assertFalse(tex.evicted());
+    assertEquals(40000, gfx.textures().bytes());
+  }
+
+  @Test public void testRetainsSourcesOnlyWithBudget () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    TextureManager mgr = gfx.textures();
+    // a texture created without a budget does not retain its image...
+    TestImage i1 = new TestImage(gfx, 10, 10);
+    Texture t1 = i1.createTexture(Texture.Config.DEFAULT);
+    assertNull(t1.source);
+    // ...and so is never evicted, even once a budget is set
+    mgr.setBudget(300);
+    TestImage i2 = new TestImage(gfx, 10, 10);
+    Texture t2 = i2.createTexture(Texture.Config.DEFAULT);
+    assertSame(i2, t2.source);
+    t1.used();
+    t2.used();
+    plat.frame.emit(plat);
+    assertFalse(t1.evicted());
+    assertTrue(t2.evicted());
+
+    // disabling the budget releases the images of textures which are not evicted
+    TestImage i3 = new TestImage(gfx, 10, 10);
+    Texture t3 = i3.createTexture(Texture.Config.DEFAULT);
+    t3.used();
+    mgr.setBudget(0);
+    assertNull(t3.source);
+    // and an evicted texture releases its image once it has been reloaded
+    assertSame(i2, t2.source);
+    t2.used();
+    assertFalse(t2.evicted());
+    assertNull(t2.source);
+  }
+
+  @Test public void testUpdateRestoresEvicted () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    TextureManager mgr = gfx.textures();
+    mgr.setBudget(300);
+
+    TestImage i1 = new TestImage(gfx, 10, 10), i2 = new TestImage(gfx, 10, 10);
+    Texture t1 = i1.createTexture(Texture.Config.DEFAULT);
+    Texture t2 = i2.createTexture(Texture.Config.DEFAULT);
+    t1.used();
+    t2.used();
+    plat.frame.emit(plat);
+    assertTrue(t1.evicted());
+    assertTrue(t2.evicted());
+
+    // a region can't be uploaded into an evicted texture, so the whole image is uploaded
+    t1.update(i1, 2, 2, 4, 4);
+    assertFalse(t1.evicted());
+    assertEquals(2, i1.uploads);
+    assertEquals(0, i1.regionUploads);
+    // once restored, region updates upload just the region
+    t1.update(i1, 2, 2, 4, 4);
+    assertEquals(2, i1.uploads);
+    assertEquals(1, i1.regionUploads);
+
+    // a full update restores the texture as well
+    t2.update(i2);
+    assertFalse(t2.evicted());
+    assertEquals(2, i2.uploads);
+    assertEquals(0, mgr.evicted());
+    assertEquals(2, mgr.reloads());
+    assertEquals(800, mgr.bytes());
+    // and using it does not upload it again
+    t2.used();
+    assertEquals(2, i2.uploads);
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.junit.Test;
+import react.RFuture;
+import static org.junit.Assert.*;
+
+public class TextureUploaderTest {
+
+  // an image which prepares its upload data in advance
+  static class PreparedImage extends TestImage {
+    public int prepares, releases;
+    public boolean failUpload;
+    public PreparedImage (Graphics gfx, int width, int height) { super(gfx, width, height); }
+    @Override protected TextureUploader.Data prepareUpload (Texture.Config config) {
+      prepares++;
+      return new TextureUploader.Data(width, height, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE,
+                                      ByteBuffer.allocateDirect(width*height*4)) {
+        @Override public void upload (GL20 gl, Texture tex) {
+          if (failUpload) throw new RuntimeException("Upload failed");
+          super.upload(gl, tex);
+        }
+        @Override public void release () { releases++; }
+      };
+    }
+  }
+
+  @Test public void testUploadsOnFrame () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    TestImage image = new TestImage(gfx, 10, 10);
+    RFuture<Texture> tex = image.textureAsync();
+    assertSame(tex, image.textureAsync()); // a second request shares the pending upload
+    assertFalse(tex.isCompleteNow());
+    assertEquals(1, gfx.uploader().pending());
+
+    plat.frame.emit(plat);
+    assertTrue(tex.isCompleteNow());
+    assertEquals(1, image.uploads);
+    assertSame(image.texture(), tex.result().get());
+    // once the texture exists it is delivered immediately
+    assertTrue(image.textureAsync().isCompleteNow());
+    assertEquals(1, image.uploads);
+  }
+
+  @Test public void testUsesPreparedData () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    RecordingGL20 gl = gfx.recorder();
+    PreparedImage image = new PreparedImage(gfx, 16, 8);
+    RFuture<Texture> tex = image.textureAsync();
+    assertEquals(1, image.prepares);
+    gl.calls.clear();
+    plat.frame.emit(plat);
+
+    assertEquals(0, image.uploads);
+    assertEquals(1, Collections.frequency(gl.calls, "glTexImage2D"));
+    assertEquals(16, tex.result().get().pixelWidth);
+    assertEquals(16*8*4, gfx.uploader().frameBytes());
+  }
+
+  @Test public void testSpreadsUploadsOverFrames () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    gfx.uploader().setBudget(50000, 1000);
+    RFuture<?>[] texs = new RFuture<?>[3];
+    for (int ii = 0; ii < texs.length; ii++) {
+      texs[ii] = new PreparedImage(gfx, 100, 100).textureAsync(); // 40000 bytes each
+    }
+
+    plat.frame.emit(plat);
+    assertTrue(texs[0].isCompleteNow());
+    assertTrue(texs[1].isCompleteNow()); // first upload leaves us under budget
+    assertFalse(texs[2].isCompleteNow());
+    assertEquals(1, gfx.uploader().pending());
+
+    plat.frame.emit(plat);
+    assertTrue(texs[2].isCompleteNow());
+    assertEquals(3, gfx.uploader().uploads());
+  }
+
+  @Test public void testUploadsOversizedImage () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    gfx.uploader().setBudget(100, 1000);
+    RFuture<Texture> tex = new PreparedImage(gfx, 100, 100).textureAsync();
+    plat.frame.emit(plat);
+    assertTrue(tex.isCompleteNow());
+  }
+
+  @Test public void testReleasesData () {
+    StubPlatform plat = new StubPlatform();
+    RecordingGraphics gfx = new RecordingGraphics(plat, 100, 100);
+    // data is released once it is uploaded
+    PreparedImage uploaded = new PreparedImage(gfx, 10, 10);
+    uploaded.textureAsync();
+    plat.frame.emit(plat);
+    assertEquals(1, uploaded.releases);
+
+    // or if the texture was created synchronously while the upload waited
+    PreparedImage created = new PreparedImage(gfx, 10, 10);
+    RFuture<Texture> tex = created.textureAsync();
+    Texture sync = created.texture();
+    plat.frame.emit(plat);
+    assertSame(sync, tex.result().get());
+    assertEquals(1, created.releases);
+
+    // or if the upload fails
+    PreparedImage failed = new PreparedImage(gfx, 10, 10);
+    failed.failUpload = true;
+    tex = failed.textureAsync();
+    plat.frame.emit(plat);
+    assertTrue(tex.isCompleteNow());
+    assertFalse(tex.result().isSuccess());
+    assertEquals(1, failed.releases);
+  }
+}
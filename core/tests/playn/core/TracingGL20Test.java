@@ -0,0 +1,87 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static playn.core.GL20.*;
+
+import playn.core.json.JsonImpl;
+
+public class TracingGL20Test {
+
+  @Test public void testRecordsCallsByFrameAndLabel () {
+    RecordingGL20 rgl = new RecordingGL20();
+    TracingGL20 gl = new TracingGL20(rgl);
+
+    gl.glClear(GL_COLOR_BUFFER_BIT);
+    gl.frame();
+    gl.pushLabel("paint:rootLayer");
+    gl.glBindTexture(GL_TEXTURE_2D, 1);
+    gl.pushLabel("hud");
+    gl.glDrawElements(GL_TRIANGLES, 6, GL_UNSIGNED_SHORT, 0);
+    gl.glDrawElements(GL_TRIANGLES, 6, GL_UNSIGNED_SHORT, 0);
+    gl.popLabel();
+    gl.popLabel();
+    gl.frame();
+    gl.glDrawElements(GL_TRIANGLES, 6, GL_UNSIGNED_SHORT, 0);
+
+    // calls are passed through to the delegate
+    assertEquals(3, rgl.count("glDrawElements"));
+    assertEquals(5, gl.calls());
+    assertEquals(3, gl.count("glDrawElements"));
+    assertEquals(2, gl.count(1, "glDrawElements"));
+    assertEquals(1, gl.count(2, "glDrawElements"));
+    assertEquals("frame 0\n" +
+                 "- glClear\n" +
+                 "frame 1\n" +
+                 "paint:rootLayer glBindTexture\n" +
+                 "paint:rootLayer/hud glDrawElements x2\n" +
+                 "frame 2\n" +
+                 "- glDrawElements\n", gl.toCallLog());
+  }
+
+  @Test public void testWritesChromeTrace () {
+    TracingGL20 gl = new TracingGL20(new RecordingGL20());
+    gl.frame();
+    gl.pushLabel("say \"hi\"");
+    gl.glDrawArrays(GL_TRIANGLES, 0, 3);
+    gl.popLabel();
+
+    Json.Object trace = (Json.Object)new JsonImpl().parse(gl.toChromeTrace());
+    Json.Array events = trace.getArray("traceEvents");
+    assertEquals(3, events.length());
+    assertEquals("frame 1", events.getObject(0).getString("name"));
+    assertEquals("i", events.getObject(0).getString("ph"));
+    assertEquals("say \"hi\"", events.getObject(1).getString("name"));
+    assertEquals("label", events.getObject(1).getString("cat"));
+    Json.Object call = events.getObject(2);
+    assertEquals("glDrawArrays", call.getString("name"));
+    assertEquals("X", call.getString("ph"));
+    assertTrue(call.getDouble("dur") >= 0);
+    assertEquals(1, call.getObject("args").getInt("frame"));
+    assertEquals("say \"hi\"", call.getObject("args").getString("label"));
+  }
+
+  @Test public void testDisabledAndClear () {
+    TracingGL20 gl = new TracingGL20(new RecordingGL20());
+    gl.glFlush();
+    gl.clear();
+    assertEquals(0, gl.calls());
+    gl.setEnabled(false);
+    gl.glFlush();
+    assertEquals(0, gl.calls());
+    assertEquals("{\"traceEvents\":[]}", gl.toChromeTrace());
+  }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.core;
+
+import org.junit.Test;
+import pythagoras.f.AffineTransform;
+import static org.junit.Assert.*;
+
+public class TriangleBatchTest {
+
+  static final int FRAMES = 16, QUADS = 200, TEXTURES = 8;
+
+  static Texture texture (int id) {
+    return new Texture(null, id, Texture.Config.UNMANAGED, 16, 16, Scale.ONE, 16, 16) {
+      @Override public void close () {} // we have no graphics with which to delete
+    };
+  }
+
+  // renders a frame that switches textures every few quads, triggering lots of flushes
+  static void renderFrame (QuadBatch batch, Texture[] texs) {
+    AffineTransform xf = new AffineTransform();
+    batch.begin(640, 480, true);
+    for (int ii = 0; ii < QUADS; ii++) {
+      batch.addQuad(texs[(ii/5) % texs.length], Tint.NOOP_TINT, xf, ii, ii, 16, 16);
+    }
+    batch.end();
+  }
+
+  static Texture[] textures () {
+    Texture[] texs = new Texture[TEXTURES];
+    for (int ii = 0; ii < texs.length; ii++) texs[ii] = texture(ii+1);
+    return texs;
+  }
+
+  @Test public void testStreamingReducesAllocations () {
+    RecordingGL20 plainGL = new RecordingGL20(), streamGL = new RecordingGL20();
+    TriangleBatch plain = new TriangleBatch(plainGL, new TriangleBatch.Source(), false);
+    TriangleBatch stream = new TriangleBatch(streamGL, new TriangleBatch.Source(), true);
+    assertFalse(plain.isStreaming());
+    assertTrue(stream.isStreaming());
+
+    Texture[] texs = textures();
+    // let the streaming batch observe a frame's usage and size its rings
+    renderFrame(plain, texs);
+    renderFrame(stream, texs);
+    plainGL.reset();
+    streamGL.reset();
+
+    for (int ff = 0; ff < FRAMES; ff++) {
+      renderFrame(plain, texs);
+      renderFrame(stream, texs);
+    }
+
+    // both batches should issue the same number of draw calls
+    int draws = plainGL.count("glDrawElements");
+    assertEquals(QUADS/5*FRAMES, draws);
+    assertEquals(draws, streamGL.count("glDrawElements"));
+
+    // but the plain batch reallocates both buffers on every flush, whereas the streaming batch
+    // only reallocates when its rings wrap around
+    int plainAllocs = plainGL.count("glBufferData"), streamAllocs = streamGL.count("glBufferData");
+    assertEquals(2*draws, plainAllocs);
+    assertTrue("Streaming allocs per frame (" + streamAllocs + "/" + FRAMES + ") should be " +
+               "fewer than plain allocs per frame (" + plainAllocs + "/" + FRAMES + ")",
+               streamAllocs < plainAllocs);
+    assertTrue(streamAllocs <= 2*(FRAMES/TriangleBatch.STREAM_SEGMENTS + 1));
+    assertEquals(2*draws, streamGL.count("glBufferSubData"));
+  }
+
+  @Test public void testStreamBufferGrowsToUse () {
+    RecordingGL20 gl = new RecordingGL20();
+    GLStreamBuffer buf = new GLStreamBuffer(gl, GL20.GL_ARRAY_BUFFER, 1, 4);
+    int useBytes = 6000;
+    // first use allocates enough room for all of our segments
+    assertEquals(0, buf.write(gl.bufs.byteBuffer, useBytes));
+    buf.endUse();
+    assertTrue(buf.capacity() >= 4*useBytes);
+    assertEquals(1, buf.orphans());
+
+    // subsequent uses of the same size should fit until we've wrapped around the ring
+    int prev = 0;
+    for (int ii = 1; ii < 4; ii++) {
+      int offset = buf.write(gl.bufs.byteBuffer, useBytes);
+      assertTrue(offset > prev);
+      prev = offset;
+      buf.endUse();
+    }
+    assertEquals(1, buf.orphans());
+    assertEquals(1, gl.count("glBufferData"));
+    assertEquals(4, gl.count("glBufferSubData"));
+  }
+
+  // a grid mesh of (size+1)^2 vertices and size^2*2 triangles
+  static float[] gridXys (int size) {
+    float[] xys = new float[(size+1)*(size+1)*2];
+    for (int yy = 0, ii = 0; yy <= size; yy++) {
+      for (int xx = 0; xx <= size; xx++) { xys[ii++] = xx; xys[ii++] = yy; }
+    }
+    return xys;
+  }
+  static int[] gridIndices (int size) {
+    int[] indices = new int[size*size*6];
+    for (int yy = 0, ii = 0; yy < size; yy++) {
+      for (int xx = 0; xx < size; xx++) {
+        int tl = yy*(size+1)+xx, tr = tl+1, bl = tl+size+1, br = bl+1;
+        indices[ii++] = tl; indices[ii++] = tr; indices[ii++] = bl;
+        indices[ii++] = tr; indices[ii++] = br; indices[ii++] = bl;
+      }
+    }
+    return indices;
+  }
+
+  @Test public void testGrowsWithoutFlushing () {
+    RecordingGL20 gl = new RecordingGL20();
+    TriangleBatch batch = new TriangleBatch(gl);
+    AffineTransform xf = new AffineTransform();
+    float[] xys = gridXys(100);
+    int[] indices = gridIndices(100);
+
+    batch.begin(640, 480, true);
+    // add a bunch of quads and then a large mesh, both of which should fit in one draw call
+    for (int ii = 0; ii < 100; ii++) batch.addQuad(texture(1), Tint.NOOP_TINT, xf, ii, ii, 8, 8);
+    batch.addTris(texture(1), Tint.NOOP_TINT, xf, xys, 0, xys.length, 100, 100,
+                  indices, 0, indices.length, 0);
+    assertEquals(0, gl.count("glDrawElements"));
+    assertEquals(100*4 + 101*101, batch.vertPos / batch.vertexSize());
+    batch.end();
+    assertEquals(1, gl.count("glDrawElements"));
+  }
+
+  @Test public void testMaxVertices () {
+    RecordingGL20 gl = new RecordingGL20();
+    TriangleBatch batch = new TriangleBatch(gl).setMaxVertices(64);
+    assertEquals(64, batch.maxVertices());
+    batch.setMaxVertices(1 << 20);
+    assertEquals(TriangleBatch.MAX_SHORT_INDEX_VERTS, batch.maxVertices());
+
+    batch.setMaxVertices(64);
+    AffineTransform xf = new AffineTransform();
+    batch.begin(640, 480, true);
+    for (int ii = 0; ii < 40; ii++) batch.addQuad(texture(1), Tint.NOOP_TINT, xf, ii, ii, 8, 8);
+    batch.end();
+    // 16 quads fit in 64 vertices, so 40 quads require three draws
+    assertEquals(3, gl.count("glDrawElements"));
+  }
+
+  @Test public void testIntIndices () {
+    RecordingGL20 gl = new RecordingGL20();
+    TriangleBatch batch = new TriangleBatch(gl);
+    assertFalse(TriangleBatch.supportsIntIndices(gl));
+    assertFalse(batch.useIntIndices());
+
+    gl.extensions = "GL_OES_element_index_uint GL_OES_texture_npot";
+    assertTrue(batch.useIntIndices());
+    batch.setMaxVertices(1 << 20);
+    assertEquals(1 << 20, batch.maxVertices());
+
+    // a mesh with more vertices than can be addressed with shorts goes out in one draw call
+    float[] xys = gridXys(300);
+    int[] indices = gridIndices(300);
+    AffineTransform xf = new AffineTransform();
+    gl.reset();
+    batch.begin(640, 480, true);
+    batch.addTris(texture(1), Tint.NOOP_TINT, xf, xys, 0, xys.length, 300, 300,
+                  indices, 0, indices.length, 0);
+    batch.end();
+    assertEquals(1, gl.count("glDrawElements"));
+    assertEquals(indices[indices.length-1], batch.intElements[indices.length-1]);
+  }
+}
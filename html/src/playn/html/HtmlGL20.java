@@ -25,6 +25,7 @@ import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.typedarrays.shared.ArrayBufferView;
 import com.google.gwt.typedarrays.shared.Float32Array;
 import com.google.gwt.typedarrays.shared.Int16Array;
@@ -51,6 +52,7 @@ import static com.google.gwt.webgl.client.WebGLRenderingContext.SHORT;
 import static com.google.gwt.webgl.client.WebGLRenderingContext.STREAM_DRAW;
 import static com.google.gwt.webgl.client.WebGLRenderingContext.UNPACK_PREMULTIPLY_ALPHA_WEBGL;
 import static com.google.gwt.webgl.client.WebGLRenderingContext.UNSIGNED_BYTE;
+import static com.google.gwt.webgl.client.WebGLRenderingContext.UNSIGNED_INT;
 import static com.google.gwt.webgl.client.WebGLRenderingContext.UNSIGNED_SHORT;
 
 import playn.core.GL20;
@@ -105,6 +107,7 @@ public final class HtmlGL20 extends GL20 {
 
 
   static final int VERTEX_ATTRIB_ARRAY_COUNT = 5; //  position, color, texture0, texture1, normals
+  static final String INT_INDICES_EXT = "OES_element_index_uint";
 
   private final IntMap<WebGLProgram> programs = IntMap.create();
   private final IntMap<WebGLShader> shaders = IntMap.create();
@@ -129,6 +132,9 @@ public final class HtmlGL20 extends GL20 {
   private WebGLBuffer requestedElementArrayBuffer;
 
   private WebGLRenderingContext gl;
+  private String extensions;
+  private boolean compressedTexturesEnabled;
+  private boolean intIndicesEnabled;
 
   public HtmlGL20 () {
     super(new Buffers() {
@@ -188,6 +194,8 @@ public final class HtmlGL20 extends GL20 {
         return TypedArrays.createUint16Array(webGLArray.buffer(), byteOffset, byteSize / 2);
       case INT:
         return TypedArrays.createInt32Array(webGLArray.buffer(), byteOffset, byteSize / 4);
+      case UNSIGNED_INT:
+        return TypedArrays.createUint32Array(webGLArray.buffer(), byteOffset, byteSize / 4);
       case SHORT:
         return TypedArrays.createInt16Array(webGLArray.buffer(), byteOffset, byteSize / 2);
       case BYTE:
@@ -201,6 +209,7 @@ public final class HtmlGL20 extends GL20 {
     switch(type) {
       case GL_FLOAT:
       case GL_INT:
+      case GL_UNSIGNED_INT:
         return 4;
       case GL_SHORT:
       case GL_UNSIGNED_SHORT:
@@ -221,6 +230,8 @@ public final class HtmlGL20 extends GL20 {
     // TODO: do we always want to do this?
     gl.pixelStorei(UNPACK_PREMULTIPLY_ALPHA_WEBGL, ONE);
     this.gl = gl;
+    // WebGL only accepts GL_UNSIGNED_INT element indices once this extension has been enabled
+    intIndicesEnabled = gl.getExtension(INT_INDICES_EXT) != null;
 
     elementBuffer = gl.createBuffer();
 
@@ -389,16 +400,24 @@ public final class HtmlGL20 extends GL20 {
         boundElementArrayBuffer = requestedElementArrayBuffer;
       }
     }
-    gl.bufferData(target, getTypedArray(data, GL_BYTE, byteSize), usage);
+    if (data == null) gl.bufferData(target, byteSize, usage);
+    else gl.bufferData(target, getTypedArray(data, GL_BYTE, byteSize), usage);
   }
 
   @Override
   public void glBufferSubData(int target, int offset, int size, Buffer data) {
-    if (target == GL_ARRAY_BUFFER && requestedArrayBuffer != boundArrayBuffer) {
-      gl.bindBuffer(target, requestedArrayBuffer);
-      boundArrayBuffer = requestedArrayBuffer;
+    if (target == GL_ARRAY_BUFFER) {
+      if (requestedArrayBuffer != boundArrayBuffer) {
+        gl.bindBuffer(target, requestedArrayBuffer);
+        boundArrayBuffer = requestedArrayBuffer;
+      }
+    } else if (target == GL_ELEMENT_ARRAY_BUFFER) {
+      if (requestedElementArrayBuffer != boundElementArrayBuffer) {
+        gl.bindBuffer(target, requestedElementArrayBuffer);
+        boundElementArrayBuffer = requestedElementArrayBuffer;
+      }
     }
-    throw new RuntimeException("NYI glBufferSubData");
+    gl.bufferSubData(target, offset, getTypedArray(data, GL_BYTE, size));
   }
 
   @Override
@@ -444,7 +463,9 @@ public final class HtmlGL20 extends GL20 {
 
   @Override
   public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
-    throw new RuntimeException("NYI glCompressedTexImage2D");
+    enableCompressedTextures();
+    gl.compressedTexImage2D(target, level, internalformat, width, height, border,
+                            getTypedArray(data, UNSIGNED_BYTE, imageSize));
   }
 
   @Override
@@ -961,9 +982,36 @@ public final class HtmlGL20 extends GL20 {
 
   @Override
   public String glGetString(int id) {
+    // WebGL has no GL_EXTENSIONS parameter, so we report its supported extensions in the same
+    // (space separated) form
+    if (id == GL_EXTENSIONS) {
+      if (extensions == null) {
+        JsArrayString exts = gl.getSupportedExtensions();
+        StringBuilder buf = new StringBuilder();
+        for (int ii = 0, ll = (exts == null) ? 0 : exts.length(); ii < ll; ii++) {
+          // if we could not enable 32-bit indices, we don't report them, so that batches (see
+          // TriangleBatch.supportsIntIndices) fall back to 16-bit indices
+          if (exts.get(ii).equals(INT_INDICES_EXT) && !intIndicesEnabled) continue;
+          if (buf.length() > 0) buf.append(' ');
+          buf.append(exts.get(ii));
+        }
+        extensions = buf.toString();
+      }
+      return extensions;
+    }
     return gl.getParameterString(id);
   }
 
+  // WebGL only accepts a compressed format once the extension that provides it has been enabled
+  private void enableCompressedTextures() {
+    if (compressedTexturesEnabled) return;
+    compressedTexturesEnabled = true;
+    JsArrayString exts = gl.getSupportedExtensions();
+    for (int ii = 0, ll = (exts == null) ? 0 : exts.length(); ii < ll; ii++) {
+      if (exts.get(ii).contains("compressed_texture")) gl.getExtension(exts.get(ii));
+    }
+  }
+
   @Override
   public void glGetTexParameterfv(int target, int pname, FloatBuffer params) {
     params.put(params.position(), gl.getTexParameter(target, pname));
@@ -1101,6 +1149,11 @@ public final class HtmlGL20 extends GL20 {
     throw new RuntimeException("NYI glProgramBinary");
   }
 
+  @Override
+  public void glProgramParameteri(int program, int pname, int value) {
+    throw new RuntimeException("NYI glProgramParameteri");
+  }
+
   @Override
   public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
     gl.readPixels(x, y, width, height, format, type, getTypedArray(pixels, type, -1));
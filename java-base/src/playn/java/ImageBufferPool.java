@@ -0,0 +1,105 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pool of direct byte buffers into which image data is staged for upload to the GPU. Buffers are
+ * bucketed by capacity (in powers of two), so that images of similar size share buffers, and a
+ * limited number of buffers are retained in each bucket. This class is thread safe, so buffers can
+ * be filled off the render thread.
+ */
+class ImageBufferPool {
+
+  /** The capacity of the smallest buffer allocated by the pool. */
+  public static final int MIN_CAPACITY = 64*1024;
+
+  /** Creates a pool which retains at most {@code maxPerBucket} buffers of each capacity. */
+  public ImageBufferPool (int maxPerBucket) {
+    this.maxPerBucket = maxPerBucket;
+  }
+
+  /** Returns a native ordered direct buffer with position zero and limit {@code bytes}. It should
+    * be returned to the pool via {@link #release} once it is no longer in use. */
+  public ByteBuffer acquire (int bytes) {
+    int capacity = capacity(bytes);
+    ByteBuffer buf = null;
+    synchronized (buckets) {
+      List<ByteBuffer> bucket = bucket(capacity);
+      if (!bucket.isEmpty()) {
+        buf = bucket.remove(bucket.size()-1);
+        retainedBytes -= capacity;
+      }
+    }
+    if (buf == null) {
+      buf = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+      synchronized (buckets) { allocations++; }
+    }
+    buf.clear();
+    buf.limit(bytes);
+    return buf;
+  }
+
+  /** Returns {@code buf} (which must have been obtained from {@link #acquire}) to the pool. */
+  public void release (ByteBuffer buf) {
+    int capacity = buf.capacity();
+    synchronized (buckets) {
+      List<ByteBuffer> bucket = bucket(capacity);
+      if (bucket.size() < maxPerBucket) {
+        bucket.add(buf);
+        retainedBytes += capacity;
+      }
+    }
+  }
+
+  /** Returns the number of bytes in buffers which are retained by the pool for reuse. */
+  public long retainedBytes () {
+    synchronized (buckets) { return retainedBytes; }
+  }
+
+  /** Returns the number of buffers the pool has allocated. */
+  public int allocations () {
+    synchronized (buckets) { return allocations; }
+  }
+
+  /** Releases all buffers retained by the pool. */
+  public void clear () {
+    synchronized (buckets) {
+      buckets.clear();
+      retainedBytes = 0;
+    }
+  }
+
+  static int capacity (int bytes) {
+    if (bytes > (1 << 30)) throw new IllegalArgumentException("Image buffer too large: " + bytes);
+    int capacity = MIN_CAPACITY;
+    while (capacity < bytes) capacity <<= 1;
+    return capacity;
+  }
+
+  private List<ByteBuffer> bucket (int capacity) {
+    int index = Integer.numberOfTrailingZeros(capacity);
+    while (buckets.size() <= index) buckets.add(new ArrayList<ByteBuffer>());
+    return buckets.get(index);
+  }
+
+  private final int maxPerBucket;
+  private final List<List<ByteBuffer>> buckets = new ArrayList<>();
+  private long retainedBytes;
+  private int allocations;
+}
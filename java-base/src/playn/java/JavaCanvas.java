@@ -18,6 +18,7 @@ package playn.java;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
+import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
@@ -32,6 +33,8 @@ import java.util.LinkedList;
 import playn.core.*;
 import pythagoras.f.FloatMath;
 import pythagoras.f.MathUtil;
+import pythagoras.i.IRectangle;
+import pythagoras.i.Rectangle;
 
 class JavaCanvas extends Canvas {
 
@@ -43,6 +46,9 @@ class JavaCanvas extends Canvas {
   private Rectangle2D.Float rect = new Rectangle2D.Float();
   private RoundRectangle2D.Float roundRect = new RoundRectangle2D.Float();
 
+  // the region of our image modified since the last call to clearDirty, in pixels
+  private final Rectangle dirtyRect;
+
   public JavaCanvas (Graphics gfx, JavaImage image) {
     super(gfx, image);
 
@@ -56,6 +62,9 @@ class JavaCanvas extends Canvas {
 
     // All clears go to rgba(0,0,0,0).
     g2d.setBackground(new Color(0, true));
+
+    // our image has not yet been uploaded, so all of it is dirty
+    dirtyRect = new Rectangle(0, 0, image.pixelWidth(), image.pixelHeight());
   }
 
   public float alpha() {
@@ -72,10 +81,22 @@ class JavaCanvas extends Canvas {
     return new JavaImage(gfx, image.scale(), snap, "<canvas>");
   }
 
+  @Override
+  public IRectangle dirtyRegion() {
+    return dirtyRect;
+  }
+
+  @Override
+  public void clearDirty() {
+    super.clearDirty();
+    dirtyRect.setBounds(0, 0, 0, 0);
+  }
+
   @Override
   public Canvas clear() {
     currentState().prepareClear(g2d);
     g2d.clearRect(0, 0, MathUtil.iceil(width), MathUtil.iceil(height));
+    dirtyRect.setBounds(0, 0, image.pixelWidth(), image.pixelHeight());
     isDirty = true;
     return this;
   }
@@ -85,7 +106,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareClear(g2d);
     g2d.clearRect(MathUtil.ifloor(x), MathUtil.ifloor(y),
                   MathUtil.iceil(width), MathUtil.iceil(height));
-    isDirty = true;
+    dirty(x, y, width, height);
     return this;
   }
 
@@ -110,7 +131,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareStroke(g2d);
     line.setLine(x0, y0, x1, y1);
     g2d.draw(line);
-    isDirty = true;
+    dirtyStroke(line);
     return this;
   }
 
@@ -118,7 +139,8 @@ class JavaCanvas extends Canvas {
   public Canvas drawPoint(float x, float y) {
     currentState().prepareStroke(g2d);
     g2d.drawLine((int) x, (int) y, (int) x, (int) y);
-    isDirty = true;
+    float pad = currentState().strokeWidth;
+    dirty((int) x - pad, (int) y - pad, 2*pad + 1, 2*pad + 1);
     return this;
   }
 
@@ -131,7 +153,8 @@ class JavaCanvas extends Canvas {
     g2d.drawArc(top, left, diam, diam,
                 FloatMath.round(FloatMath.toDegrees(startAngle)),
                 FloatMath.round(FloatMath.toDegrees(arcAngle)));
-    isDirty = true;
+    ellipse.setFrame(top, left, diam, diam);
+    dirtyStroke(ellipse);
     return this;
   }
 
@@ -139,7 +162,9 @@ class JavaCanvas extends Canvas {
   public Canvas drawText(String text, float x, float y) {
     currentState().prepareFill(g2d);
     g2d.drawString(text, x, y);
-    isDirty = true;
+    Rectangle2D bounds = g2d.getFontMetrics().getStringBounds(text, g2d);
+    dirty(x + (float)bounds.getX(), y + (float)bounds.getY(),
+          (float)bounds.getWidth(), (float)bounds.getHeight());
     return this;
   }
 
@@ -148,7 +173,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareFill(g2d);
     ellipse.setFrame(x - radius, y - radius, 2 * radius, 2 * radius);
     g2d.fill(ellipse);
-    isDirty = true;
+    dirty(ellipse);
     return this;
   }
 
@@ -156,7 +181,7 @@ class JavaCanvas extends Canvas {
   public Canvas fillPath(Path path) {
     currentState().prepareFill(g2d);
     g2d.fill(((JavaPath) path).path);
-    isDirty = true;
+    dirty(((JavaPath) path).path);
     return this;
   }
 
@@ -165,7 +190,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareFill(g2d);
     rect.setRect(x, y, width, height);
     g2d.fill(rect);
-    isDirty = true;
+    dirty(rect);
     return this;
   }
 
@@ -174,7 +199,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareFill(g2d);
     roundRect.setRoundRect(x, y, width, height, radius*2, radius*2);
     g2d.fill(roundRect);
-    isDirty = true;
+    dirty(roundRect);
     return this;
   }
 
@@ -182,7 +207,7 @@ class JavaCanvas extends Canvas {
   public Canvas fillText(TextLayout layout, float x, float y) {
     currentState().prepareFill(g2d);
     ((JavaTextLayout)layout).fill(g2d, x, y);
-    isDirty = true;
+    dirty(layout, x, y, 0);
     return this;
   }
 
@@ -285,7 +310,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareStroke(g2d);
     ellipse.setFrame(x - radius, y - radius, 2 * radius, 2 * radius);
     g2d.draw(ellipse);
-    isDirty = true;
+    dirtyStroke(ellipse);
     return this;
   }
 
@@ -294,7 +319,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareStroke(g2d);
     g2d.setColor(new Color(currentState().strokeColor, false));
     g2d.draw(((JavaPath) path).path);
-    isDirty = true;
+    dirtyStroke(((JavaPath) path).path);
     return this;
   }
 
@@ -303,7 +328,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareStroke(g2d);
     rect.setRect(x, y, width, height);
     g2d.draw(rect);
-    isDirty = true;
+    dirtyStroke(rect);
     return this;
   }
 
@@ -312,7 +337,7 @@ class JavaCanvas extends Canvas {
     currentState().prepareStroke(g2d);
     roundRect.setRoundRect(x, y, width, height, radius*2, radius*2);
     g2d.draw(roundRect);
-    isDirty = true;
+    dirtyStroke(roundRect);
     return this;
   }
 
@@ -320,7 +345,7 @@ class JavaCanvas extends Canvas {
   public Canvas strokeText(TextLayout layout, float x, float y) {
     currentState().prepareStroke(g2d);
     ((JavaTextLayout)layout).stroke(g2d, x, y);
-    isDirty = true;
+    dirty(layout, x, y, currentState().strokeWidth);
     return this;
   }
 
@@ -342,6 +367,42 @@ class JavaCanvas extends Canvas {
     return g2d;
   }
 
+  @Override
+  protected void dirty(float x, float y, float width, float height) {
+    rect.setRect(x, y, width, height);
+    dirty(rect);
+  }
+
+  private void dirty(TextLayout layout, float x, float y, float pad) {
+    pythagoras.f.IRectangle bounds = layout.bounds;
+    // text may be rendered outside its layout box (by an italic overhang, say), so use the union
+    // of the box and the text's precise bounds
+    float left = Math.min(0, bounds.x()), top = Math.min(0, bounds.y());
+    float right = Math.max(layout.size.width(), bounds.x() + bounds.width());
+    float bottom = Math.max(layout.size.height(), bounds.y() + bounds.height());
+    dirty(x + left - pad, y + top - pad, right - left + 2*pad, bottom - top + 2*pad);
+  }
+
+  private void dirtyStroke(Shape shape) {
+    dirty(g2d.getStroke().createStrokedShape(shape));
+  }
+
+  private void dirty(Shape shape) {
+    isDirty = true;
+    Rectangle2D bounds = g2d.getTransform().createTransformedShape(shape).getBounds2D();
+    // pad by a pixel to account for antialiasing, and clamp to our image
+    int x0 = Math.max(0, MathUtil.ifloor((float)bounds.getMinX()) - 1);
+    int y0 = Math.max(0, MathUtil.ifloor((float)bounds.getMinY()) - 1);
+    int x1 = Math.min(image.pixelWidth(), MathUtil.iceil((float)bounds.getMaxX()) + 1);
+    int y1 = Math.min(image.pixelHeight(), MathUtil.iceil((float)bounds.getMaxY()) + 1);
+    if (x1 <= x0 || y1 <= y0) return;
+    if (dirtyRect.isEmpty()) dirtyRect.setBounds(x0, y0, x1-x0, y1-y0);
+    else {
+      dirtyRect.add(x0, y0);
+      dirtyRect.add(x1, y1);
+    }
+  }
+
   private JavaCanvasState currentState() {
     return stateStack.getFirst();
   }
@@ -19,22 +19,41 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.font.FontRenderContext;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
 import playn.core.*;
+import static playn.core.GL20.*;
 
 public abstract class JavaGraphics extends Graphics {
 
   private final Map<String,java.awt.Font> fonts = new HashMap<String,java.awt.Font>();
-  private ByteBuffer imgBuf;
+  private final Map<Font,java.awt.Font> derivedFonts = new HashMap<Font,java.awt.Font>();
+  private final TextLayoutCache layoutCache;
+  private final boolean ditherTextures;
+  // stages image data for upload; retains up to two buffers of each (power of two) size
+  final ImageBufferPool bufferPool = new ImageBufferPool(2);
   // antialiased font context and aliased font context
   private FontRenderContext aaFontContext, aFontContext;
 
   protected JavaGraphics(Platform plat, GL20 gl20, Scale scale) {
     super(plat, gl20, scale);
+    JavaPlatform.Config config = (plat instanceof JavaPlatform) ?
+      ((JavaPlatform)plat).config : null;
+    layoutCache = new TextLayoutCache((config == null) ? 0 : config.textLayoutCacheSize);
+    ditherTextures = (config == null) || config.ditherTextures;
+    if (gl20 != null && config != null && config.programCacheDir != null) {
+      gl20.programs().setBinaryStore(
+        new JavaProgramStore(plat.log(), new File(config.programCacheDir)));
+    }
   }
 
   /** Sets the title of the window. */
@@ -71,7 +90,31 @@ public abstract class JavaGraphics extends Graphics {
    */
   public void registerFont (String name, java.awt.Font font) {
     if (font == null) throw new NullPointerException();
-    fonts.put(name, font);
+    synchronized (fonts) {
+      fonts.put(name, font);
+      derivedFonts.clear();
+    }
+    // cached layouts may have been created with a previous font of this name
+    layoutCache.clear();
+  }
+
+  /**
+   * Configures the maximum number of text layouts cached by {@link #layoutText}. Repeatedly laying
+   * out the same text in the same format (and wrap configuration) then returns the cached layout.
+   * Zero disables the cache. The initial size comes from {@link JavaPlatform.Config}.
+   */
+  public void setTextLayoutCacheSize (int size) {
+    layoutCache.setMaxSize(size);
+  }
+
+  /** Returns the number of {@link #layoutText} calls satisfied by the layout cache. */
+  public int textLayoutCacheHits () {
+    return layoutCache.hits();
+  }
+
+  /** Returns the number of {@link #layoutText} calls which missed the layout cache. */
+  public int textLayoutCacheMisses () {
+    return layoutCache.misses();
   }
 
   /**
@@ -85,6 +128,10 @@ public abstract class JavaGraphics extends Graphics {
     return new JavaPath();
   }
 
+  @Override public RenderTargetPool createRenderTargetPool(QuadBatch defaultBatch) {
+    return new JavaRenderTargetPool(this, defaultBatch);
+  }
+
   @Override public Gradient createGradient(Gradient.Config cfg) {
     if (cfg instanceof Gradient.Linear) return JavaGradient.create((Gradient.Linear)cfg);
     else if (cfg instanceof Gradient.Radial) return JavaGradient.create((Gradient.Radial)cfg);
@@ -92,11 +139,22 @@ public abstract class JavaGraphics extends Graphics {
   }
 
   @Override public TextLayout layoutText(String text, TextFormat format) {
-    return JavaTextLayout.layoutText(this, text, format);
+    TextLayout layout = (TextLayout)layoutCache.get(text, format, null);
+    if (layout == null) {
+      layout = JavaTextLayout.layoutText(this, text, format);
+      layoutCache.put(text, format, null, layout);
+    }
+    return layout;
   }
 
   @Override public TextLayout[] layoutText(String text, TextFormat format, TextWrap wrap) {
-    return JavaTextLayout.layoutText(this, text, format, wrap);
+    TextLayout[] layouts = (TextLayout[])layoutCache.get(text, format, wrap);
+    if (layouts == null) {
+      layouts = JavaTextLayout.layoutText(this, text, format, wrap);
+      layoutCache.put(text, format, wrap, layouts);
+    }
+    // layouts are immutable, but the array is not, so callers get their own copy
+    return layouts.clone();
   }
 
   @Override protected Canvas createCanvasImpl (Scale scale, int pixelWidth, int pixelHeight) {
@@ -105,14 +163,24 @@ public abstract class JavaGraphics extends Graphics {
     return new JavaCanvas(this, new JavaImage(this, scale, bitmap, "<canvas>"));
   }
 
+  @Override protected Texture.Format imageFormat (Texture.Format format) {
+    return format; // we convert image data to the texture's format in uploadPacked
+  }
+
   java.awt.Font resolveFont(Font font) {
-    java.awt.Font jfont = fonts.get(font.name);
-    // if we don't have a custom font registered for this name, assume it's a platform font
-    if (jfont == null) {
-      fonts.put(font.name, jfont = new java.awt.Font(font.name, java.awt.Font.PLAIN, 12));
+    synchronized (fonts) {
+      java.awt.Font derived = derivedFonts.get(font);
+      if (derived != null) return derived;
+      java.awt.Font jfont = fonts.get(font.name);
+      // if we don't have a custom font registered for this name, assume it's a platform font
+      if (jfont == null) {
+        fonts.put(font.name, jfont = new java.awt.Font(font.name, java.awt.Font.PLAIN, 12));
+      }
+      // derive a font instance at the desired style and size
+      derived = jfont.deriveFont(STYLE_TO_JAVA[font.style.ordinal()], font.size);
+      derivedFonts.put(font, derived);
+      return derived;
     }
-    // derive a font instance at the desired style and size
-    return jfont.deriveFont(STYLE_TO_JAVA[font.style.ordinal()], font.size);
   }
 
   /** Converts the given image into a format for quick upload to the GPU. */
@@ -137,17 +205,204 @@ public abstract class JavaGraphics extends Graphics {
     return convertedImage;
   }
 
-  ByteBuffer checkGetImageBuffer (int byteSize) {
-    if (imgBuf == null) imgBuf = createImageBuffer(Math.max(1024, byteSize));
-    if (imgBuf.capacity() >= byteSize) imgBuf.clear(); // reuse it!
-    else imgBuf = createImageBuffer(byteSize);
-    return imgBuf;
+  /** Uploads {@code bitmap} into {@code tex}, converting its pixels to the texture's {@link
+    * Texture.Config#format}. */
+  void uploadPacked (BufferedImage bitmap, Texture tex) {
+    int width = bitmap.getWidth(), height = bitmap.getHeight();
+    Texture.Format format = tex.config.format;
+    ByteBuffer bbuf = bufferPool.acquire(width*height*format.bitsPerPixel/8);
+    try {
+      pack(premultipliedPixels(bitmap), width, 0, 0, width, height, format, ditherTextures, bbuf);
+      gl.glBindTexture(GL_TEXTURE_2D, tex.id);
+      // packed rows are not necessarily a multiple of four bytes long
+      gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+      gl.glTexImage2D(GL_TEXTURE_2D, 0, format.glFormat, width, height, 0,
+                      format.glFormat, format.glType, bbuf);
+      gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+      gl.checkError("uploadPacked");
+    } finally {
+      bufferPool.release(bbuf);
+    }
+  }
+
+  /** Uploads the {@code width x height} region at {@code (x, y)} of {@code img} into the same
+    * region of {@code tex}. The region's rows are copied out of the image into a contiguous
+    * buffer, so only the region's pixels are uploaded. */
+  void uploadRegion (BufferedImage img, Texture tex, int x, int y, int width, int height) {
+    Texture.Format format = tex.config.format;
+    ByteBuffer bbuf = bufferPool.acquire(width*height*format.bitsPerPixel/8);
+    try {
+      pack(premultipliedPixels(img), img.getWidth(), x, y, width, height, format,
+           ditherTextures, bbuf);
+      gl.glBindTexture(GL_TEXTURE_2D, tex.id);
+      gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+      gl.glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, width, height,
+                         format.glFormat, format.glType, bbuf);
+      gl.glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+      gl.checkError("uploadRegion");
+    } finally {
+      bufferPool.release(bbuf);
+    }
+  }
+
+  /** Converts {@code img} into upload ready data for a texture with {@code config}. This is
+    * called on a background thread by the {@link TextureUploader}, and thus does not use GL. The
+    * game thread may be using {@code img} at the same time, so it is read but never modified. */
+  TextureUploader.Data prepareUpload (BufferedImage img, Texture.Config config) {
+    int width = config.toTexWidth(img.getWidth()), height = config.toTexHeight(img.getHeight());
+    BufferedImage bitmap = img;
+    if (width != img.getWidth() || height != img.getHeight()) {
+      bitmap = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+      Graphics2D g = bitmap.createGraphics();
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                         RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.drawImage(img, 0, 0, width, height, null);
+      g.dispose();
+    }
+    final Texture.Format format = config.format;
+    // the pool is thread safe; the buffer is returned to it when the render thread releases the
+    // data, whether or not it was uploaded
+    final ByteBuffer data = bufferPool.acquire(width*height*format.bitsPerPixel/8);
+    pack(premultipliedPixels(bitmap), width, 0, 0, width, height, format, ditherTextures, data);
+    return new TextureUploader.Data(width, height, format.glFormat, format.glType, data) {
+      @Override public void release () {
+        bufferPool.release(data);
+      }
+    };
+  }
+
+  /**
+   * Converts the {@code width x height} region at {@code (x0, y0)} of premultiplied ARGB {@code
+   * pixels} (which has rows {@code scanSize} pixels long) to {@code format}, writing it to {@code
+   * out} (which is flipped when done). If {@code dither} is true, a 4x4 ordered dither is applied
+   * when reducing the precision of a channel, which trades banding for a fine, regular noise.
+   */
+  static void pack (int[] pixels, int scanSize, int x0, int y0, int width, int height,
+                    Texture.Format format, boolean dither, ByteBuffer out) {
+    for (int y = y0; y < y0 + height; y++) {
+      for (int x = x0, ii = y*scanSize + x0; x < x0 + width; x++, ii++) {
+        int pixel = pixels[ii];
+        int a = pixel >>> 24, r = (pixel >> 16) & 0xFF, g = (pixel >> 8) & 0xFF, b = pixel & 0xFF;
+        // the bias added before truncating to the reduced precision; without dithering, we round
+        int bias = dither ? (2*DITHER[(y & 3)*4 + (x & 3)] + 1) * 255 / 32 : 127;
+        switch (format) {
+        case RGBA8888:
+          out.put((byte)r).put((byte)g).put((byte)b).put((byte)a);
+          break;
+        case RGBA4444:
+          int qa = quantize(a, 15, bias);
+          // keep the colors premultiplied, which dithering them independently could undo
+          int qr = Math.min(quantize(r, 15, bias), qa), qg = Math.min(quantize(g, 15, bias), qa);
+          int qb = Math.min(quantize(b, 15, bias), qa);
+          out.putShort((short)((qr << 12) | (qg << 8) | (qb << 4) | qa));
+          break;
+        case RGB565:
+          out.putShort((short)((quantize(r, 31, bias) << 11) | (quantize(g, 63, bias) << 5) |
+                               quantize(b, 31, bias)));
+          break;
+        case ALPHA8:
+          out.put((byte)a);
+          break;
+        }
+      }
+    }
+    out.flip();
+  }
+
+  private static int quantize (int value, int max, int bias) {
+    return (value*max + bias) / 255;
   }
 
-  private static ByteBuffer createImageBuffer (int byteSize) {
-    return ByteBuffer.allocateDirect(byteSize).order(ByteOrder.nativeOrder());
+  // returns the pixels of img as premultiplied ARGB, without modifying img
+  private static int[] premultipliedPixels (BufferedImage img) {
+    // the pixels of an unclipped INT_ARGB_PRE image can be used as is
+    WritableRaster raster = img.getRaster();
+    if (img.getType() == BufferedImage.TYPE_INT_ARGB_PRE && raster.getParent() == null) {
+      return ((DataBufferInt)raster.getDataBuffer()).getData();
+    }
+    int[] pixels = new int[img.getWidth()*img.getHeight()];
+    writePremultiplied(img, IntBuffer.wrap(pixels));
+    return pixels;
   }
 
+  /**
+   * Writes the pixels of {@code img} to {@code out} as premultiplied ARGB. Images of the common
+   * types are read directly from their rasters and converted and premultiplied in a single pass,
+   * without modifying {@code img} or making intermediate copies. Other types are first converted
+   * via {@link #convertImage}. This uses no shared state, so may be called from any thread.
+   */
+  static void writePremultiplied (BufferedImage img, IntBuffer out) {
+    int width = img.getWidth(), height = img.getHeight();
+    WritableRaster raster = img.getRaster();
+    int tx = raster.getSampleModelTranslateX(), ty = raster.getSampleModelTranslateY();
+    // the image type does not change when an image's data is premultiplied in place (as
+    // convertImage does via coerceData), so we consult the color model rather than the type
+    boolean premul = img.isAlphaPremultiplied();
+    switch (img.getType()) {
+    case BufferedImage.TYPE_INT_ARGB_PRE:
+    case BufferedImage.TYPE_INT_ARGB:
+    case BufferedImage.TYPE_INT_RGB: {
+      DataBufferInt dbuf = (DataBufferInt)raster.getDataBuffer();
+      int[] data = dbuf.getData();
+      int stride = ((SinglePixelPackedSampleModel)raster.getSampleModel()).getScanlineStride();
+      int base = dbuf.getOffset() - ty*stride - tx;
+      int type = img.getType();
+      for (int y = 0; y < height; y++) {
+        int row = base + y*stride;
+        if (type == BufferedImage.TYPE_INT_RGB) {
+          for (int ii = row, end = row + width; ii < end; ii++) out.put(0xFF000000 | data[ii]);
+        } else if (premul) out.put(data, row, width);
+        else {
+          for (int ii = row, end = row + width; ii < end; ii++) out.put(premultiply(data[ii]));
+        }
+      }
+      break;
+    }
+
+    case BufferedImage.TYPE_3BYTE_BGR:
+    case BufferedImage.TYPE_4BYTE_ABGR:
+    case BufferedImage.TYPE_4BYTE_ABGR_PRE: {
+      DataBufferByte dbuf = (DataBufferByte)raster.getDataBuffer();
+      byte[] data = dbuf.getData();
+      PixelInterleavedSampleModel sm = (PixelInterleavedSampleModel)raster.getSampleModel();
+      int stride = sm.getScanlineStride(), pstride = sm.getPixelStride();
+      int base = dbuf.getOffset() - ty*stride - tx*pstride;
+      int type = img.getType();
+      for (int y = 0; y < height; y++) {
+        for (int ii = base + y*stride, end = ii + width*pstride; ii < end; ii += pstride) {
+          if (type == BufferedImage.TYPE_3BYTE_BGR) {
+            out.put(0xFF000000 | ((data[ii+2] & 0xFF) << 16) | ((data[ii+1] & 0xFF) << 8) |
+                    (data[ii] & 0xFF));
+          } else {
+            int argb = ((data[ii] & 0xFF) << 24) | ((data[ii+3] & 0xFF) << 16) |
+              ((data[ii+2] & 0xFF) << 8) | (data[ii+1] & 0xFF);
+            out.put(premul ? argb : premultiply(argb));
+          }
+        }
+      }
+      break;
+    }
+
+    default:
+      writePremultiplied(convertImage(img), out);
+      break;
+    }
+  }
+
+  private static int premultiply (int argb) {
+    int a = argb >>> 24;
+    if (a == 255) return argb;
+    if (a == 0) return 0;
+    int r = ((argb >> 16) & 0xFF) * a + 127, g = ((argb >> 8) & 0xFF) * a + 127;
+    int b = (argb & 0xFF) * a + 127;
+    return (a << 24) | ((r / 255) << 16) | ((g / 255) << 8) | (b / 255);
+  }
+
+  // a 4x4 ordered (Bayer) dither matrix
+  private static final int[] DITHER = {
+    0, 8, 2, 10, 12, 4, 14, 6, 3, 11, 1, 9, 15, 7, 13, 5
+  };
+
   // this matches the order in Font.Style
   private static final int[] STYLE_TO_JAVA = {
     java.awt.Font.PLAIN, java.awt.Font.BOLD, java.awt.Font.ITALIC,
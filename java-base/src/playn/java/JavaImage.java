@@ -27,6 +27,7 @@ import playn.core.Graphics;
 import playn.core.Pattern;
 import playn.core.Scale;
 import playn.core.Texture;
+import playn.core.TextureUploader;
 import pythagoras.f.MathUtil;
 
 public class JavaImage extends ImageImpl {
@@ -98,6 +99,15 @@ public class JavaImage extends ImageImpl {
     ((JavaGraphics)gfx).upload(img, tex);
   }
 
+  @Override protected void upload (Graphics gfx, Texture tex, int x, int y, int width,
+                                  int height) {
+    ((JavaGraphics)gfx).uploadRegion(img, tex, x, y, width, height);
+  }
+
+  @Override protected TextureUploader.Data prepareUpload (Texture.Config config) {
+    return ((JavaGraphics)gfx).prepareUpload(img, config);
+  }
+
   @Override protected void setBitmap (Object bitmap) {
     img = (BufferedImage)bitmap;
   }
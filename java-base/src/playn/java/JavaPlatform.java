@@ -73,6 +73,19 @@ public abstract class JavaPlatform extends Platform {
 
     /** Stop processing frames while the app is "inactive", to better emulate iOS. */
     public boolean truePause;
+
+    /** The maximum number of text layouts cached by {@link JavaGraphics#layoutText}. Zero
+      * disables the cache. See {@link JavaGraphics#setTextLayoutCacheSize}. */
+    public int textLayoutCacheSize = 256;
+
+    /** Whether to dither image data when converting it to a reduced precision texture format
+      * (see {@link playn.core.Texture.Config#format}). */
+    public boolean ditherTextures = true;
+
+    /** If set, shader program binaries are saved in this directory, and loaded from it on later
+      * runs rather than compiling the programs (where the driver supports it). See {@link
+      * playn.core.ProgramCache}. */
+    public String programCacheDir;
   }
 
   protected final Config config;
@@ -96,19 +109,30 @@ public abstract class JavaPlatform extends Platform {
   private final JavaAssets assets = new JavaAssets(this);
 
   public static class Headless extends JavaPlatform {
-    private JavaGraphics graphics = new JavaGraphics(this, null, Scale.ONE) {
-      /*ctor*/ { setSize(config.width, config.height, config.fullscreen); }
-      @Override public void setSize (int width, int height, boolean fullscreen) {
-        viewportChanged(width, height);
-      }
-      @Override public IDimension screenSize () {
-        return new Dimension(config.width, config.height);
-      }
-      @Override void setTitle (String title) {} // noop!
-      @Override void upload (BufferedImage img, Texture tex) {} // noop!
-    };
+    private final JavaGraphics graphics;
     private JavaInput input = new JavaInput(this);
-    public Headless (Config config) { super(config); }
+
+    /** Creates a headless platform whose graphics have no GL. */
+    public Headless (Config config) { this(config, null); }
+
+    /** Creates a headless platform whose graphics use {@code gl}. Using a {@link NullGL20}
+      * (perhaps wrapped in a {@link TracingGL20}) allows rendering code to be run and checked
+      * without a GPU. Image data is never uploaded to textures. */
+    public Headless (final Config config, GL20 gl) {
+      super(config);
+      graphics = new JavaGraphics(this, gl, Scale.ONE) {
+        /*ctor*/ { setSize(config.width, config.height, config.fullscreen); }
+        @Override public void setSize (int width, int height, boolean fullscreen) {
+          viewportChanged(width, height);
+        }
+        @Override public IDimension screenSize () {
+          return new Dimension(config.width, config.height);
+        }
+        @Override void setTitle (String title) {} // noop!
+        @Override void upload (BufferedImage img, Texture tex) {} // noop!
+      };
+    }
+
     @Override public JavaGraphics graphics () { return graphics; }
     @Override public JavaInput input () { return input; }
     @Override protected void loop () {} // noop!
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import playn.core.Log;
+import playn.core.ProgramCache;
+
+/**
+ * Saves program binaries as files in a directory. See {@link JavaPlatform.Config#programCacheDir}.
+ */
+class JavaProgramStore implements ProgramCache.BinaryStore {
+
+  public JavaProgramStore (Log log, File dir) {
+    this.log = log;
+    this.dir = dir;
+  }
+
+  @Override public byte[] load (String key) {
+    File file = file(key);
+    if (!file.exists()) return null;
+    try {
+      return Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      log.warn("Failed to read program binary: " + file, e);
+      return null;
+    }
+  }
+
+  @Override public void save (String key, byte[] data) {
+    File file = file(key), temp = new File(dir, key + ".tmp");
+    // write to a temporary file and rename it, so a crash never leaves a partial binary
+    try {
+      if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Unable to create " + dir);
+      try (FileOutputStream out = new FileOutputStream(temp)) {
+        out.write(data);
+      }
+      if (!temp.renameTo(file)) {
+        file.delete();
+        if (!temp.renameTo(file)) throw new IOException("Unable to rename " + temp);
+      }
+    } catch (IOException e) {
+      log.warn("Failed to save program binary: " + file, e);
+      temp.delete();
+    }
+  }
+
+  private File file (String key) {
+    return new File(dir, key + ".bin");
+  }
+
+  private final Log log;
+  private final File dir;
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import playn.core.Graphics;
+import playn.core.QuadBatch;
+import playn.core.RenderTargetPool;
+
+/**
+ * A render target pool which uses a reference queue to notice targets which become unreachable
+ * without being released, and returns their resources to the pool.
+ */
+class JavaRenderTargetPool extends RenderTargetPool {
+
+  public JavaRenderTargetPool (Graphics gfx, QuadBatch defaultBatch) {
+    super(gfx, defaultBatch);
+  }
+
+  @Override protected void acquired (Target target, Object handle) {
+    refs.put(handle, new TargetRef(target, handle, queue));
+  }
+
+  @Override protected void released (Object handle) {
+    TargetRef ref = refs.remove(handle);
+    if (ref != null) ref.clear();
+  }
+
+  @Override protected void poll () {
+    for (TargetRef ref; (ref = (TargetRef)queue.poll()) != null; ) {
+      // if the target was released, its ref was cleared and removed, and won't be enqueued; but
+      // its handle may since have been reacquired (with a new ref), so check identity
+      if (refs.get(ref.handle) == ref) {
+        refs.remove(ref.handle);
+        leaked(ref.handle);
+      }
+    }
+  }
+
+  private static class TargetRef extends WeakReference<Target> {
+    public final Object handle;
+    public TargetRef (Target target, Object handle, ReferenceQueue<Target> queue) {
+      super(target, queue);
+      this.handle = handle;
+    }
+  }
+
+  private final ReferenceQueue<Target> queue = new ReferenceQueue<>();
+  private final Map<Object,TargetRef> refs = new IdentityHashMap<>();
+}
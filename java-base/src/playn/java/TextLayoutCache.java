@@ -0,0 +1,123 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import playn.core.TextFormat;
+import playn.core.TextWrap;
+
+/**
+ * A bounded, least recently used cache of text layouts, keyed on text, format and (for wrapped
+ * layouts) wrap configuration. Used by {@link JavaGraphics#layoutText}.
+ */
+class TextLayoutCache {
+
+  public TextLayoutCache (int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public synchronized int maxSize () {
+    return maxSize;
+  }
+
+  /** Changes the maximum size of this cache, evicting entries if needed. Zero disables it. */
+  public synchronized void setMaxSize (int maxSize) {
+    if (maxSize < 0) throw new IllegalArgumentException("Invalid cache size: " + maxSize);
+    this.maxSize = maxSize;
+    if (layouts.size() > maxSize) {
+      int excess = layouts.size() - maxSize;
+      Iterator<Key> iter = layouts.keySet().iterator();
+      while (excess-- > 0) {
+        iter.next();
+        iter.remove();
+      }
+    }
+  }
+
+  public synchronized int size () {
+    return layouts.size();
+  }
+
+  public synchronized int hits () {
+    return hits;
+  }
+
+  public synchronized int misses () {
+    return misses;
+  }
+
+  /** Returns the cached layout for the supplied key, or null. Lookups are not counted toward
+    * hits or misses when the cache is disabled. */
+  public synchronized Object get (String text, TextFormat format, TextWrap wrap) {
+    if (maxSize == 0) return null;
+    lookup.init(text, format, wrap);
+    Object layout = layouts.get(lookup);
+    if (layout == null) misses++;
+    else hits++;
+    return layout;
+  }
+
+  public synchronized void put (String text, TextFormat format, TextWrap wrap, Object layout) {
+    if (maxSize == 0) return;
+    Key key = new Key();
+    key.init(text, format, wrap);
+    layouts.put(key, layout);
+  }
+
+  /** Clears all cached layouts (e.g. because the fonts they use have changed). */
+  public synchronized void clear () {
+    layouts.clear();
+  }
+
+  @Override public synchronized String toString () {
+    return "TextLayoutCache[size=" + layouts.size() + "/" + maxSize + ", hits=" + hits +
+      ", misses=" + misses + "]";
+  }
+
+  private static class Key {
+    public String text;
+    public TextFormat format;
+    public TextWrap wrap; // null for single line layouts
+
+    public void init (String text, TextFormat format, TextWrap wrap) {
+      this.text = text;
+      this.format = format;
+      this.wrap = wrap;
+    }
+
+    @Override public int hashCode () {
+      int hash = text.hashCode() * 31 + format.hashCode();
+      return (wrap == null) ? hash : hash * 31 + wrap.hashCode();
+    }
+
+    @Override public boolean equals (Object other) {
+      if (!(other instanceof Key)) return false;
+      Key okey = (Key)other;
+      return text.equals(okey.text) && format.equals(okey.format) &&
+        (wrap == null ? okey.wrap == null : wrap.equals(okey.wrap));
+    }
+  }
+
+  private final Map<Key,Object> layouts = new LinkedHashMap<Key,Object>(16, 0.75f, true) {
+    @Override protected boolean removeEldestEntry (Map.Entry<Key,Object> eldest) {
+      return size() > maxSize;
+    }
+  };
+  // reused to avoid allocating a key for every lookup (access is synchronized)
+  private final Key lookup = new Key();
+  private int maxSize, hits, misses;
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.*;
+
+public class GlyphCacheTest {
+
+  // a glyph cache which counts its rasterizations
+  static class CountingCache extends GlyphCache {
+    public int rasterized;
+    public CountingCache (Graphics gfx, TextureAtlas.Config config) { super(gfx, config); }
+    @Override protected Glyph rasterize (Face face, char c) {
+      rasterized++;
+      return super.rasterize(face, c);
+    }
+  }
+
+  static final TextFormat FORMAT = new TextFormat(new Font("Helvetica", 24));
+
+  static JavaGraphics graphics () {
+    return new JavaPlatform.Headless(new JavaPlatform.Config(), new NullGL20()).graphics();
+  }
+
+  @Test public void testCacheHits () {
+    CountingCache cache = new CountingCache(graphics(), new TextureAtlas.Config(256, 1, false, 1));
+    assertFalse(cache.isCached(FORMAT, "ABA"));
+    cache.prepare(FORMAT, "ABA");
+    // repeated characters are rasterized only once
+    assertEquals(2, cache.rasterized);
+    assertEquals(2, cache.glyphs());
+    assertTrue(cache.isCached(FORMAT, "BA\nAB"));
+
+    GlyphCache.Glyph a = cache.glyph(FORMAT, 'A');
+    cache.prepare(FORMAT, "BAB");
+    assertEquals(2, cache.rasterized);
+    assertSame(a, cache.glyph(FORMAT, 'A'));
+
+    // a different format has its own glyphs
+    TextFormat bigger = new TextFormat(new Font("Helvetica", 36));
+    assertFalse(cache.isCached(bigger, "A"));
+    cache.prepare(bigger, "A");
+    assertEquals(3, cache.rasterized);
+    assertNotSame(a, cache.glyph(bigger, 'A'));
+    cache.close();
+  }
+
+  @Test public void testPageOverflow () {
+    // a single page which can hold only a few glyphs
+    GlyphCache cache = new GlyphCache(graphics(), new TextureAtlas.Config(64, 1, false, 1));
+    String text = "ABCDEFGHIJKLMNOP";
+    cache.prepare(FORMAT, text);
+    assertEquals(1, cache.atlas.pages());
+    int packed = 0, unpacked = 0;
+    for (int ii = 0; ii < text.length(); ii++) {
+      Tile tile = cache.glyph(FORMAT, text.charAt(ii)).tile;
+      assertNotNull(tile);
+      // glyphs which did not fit in the atlas use their own texture
+      if (tile instanceof Texture) unpacked++;
+      else packed++;
+    }
+    assertTrue(packed > 0);
+    assertTrue(unpacked > 0);
+    cache.close();
+  }
+
+  @Test public void testAdvances () {
+    GlyphCache cache = new GlyphCache(graphics());
+    cache.prepare(FORMAT, "iW \nx");
+    float i = cache.glyph(FORMAT, 'i').advance, w = cache.glyph(FORMAT, 'W').advance;
+    assertTrue(i > 0);
+    assertTrue(w > i);
+    // a space renders nothing, but still advances the pen
+    GlyphCache.Glyph space = cache.glyph(FORMAT, ' ');
+    assertNull(space.tile);
+    assertTrue(space.advance > 0);
+
+    assertEquals(i + w, cache.measure(FORMAT, "iW"), 0.001f);
+    // measure reports the widest line
+    assertEquals(i + w + space.advance, cache.measure(FORMAT, "iW \nx"), 0.001f);
+    assertEquals(2*w, cache.measure(FORMAT, "i\nWW"), 0.001f);
+    assertTrue(cache.lineHeight(FORMAT) > 0);
+    cache.close();
+  }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.*;
+
+public class HeadlessGLTest {
+
+  @Test public void testTracesRendering () {
+    TracingGL20 gl = new TracingGL20(new NullGL20());
+    JavaPlatform plat = new JavaPlatform.Headless(new JavaPlatform.Config(), gl);
+    JavaGraphics gfx = plat.graphics();
+    assertSame(gl, gfx.gl);
+
+    Texture t1 = gfx.createTexture(16, 16, Texture.Config.DEFAULT);
+    Texture t2 = gfx.createTexture(16, 16, Texture.Config.DEFAULT);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gfx.gl));
+    gl.clear();
+
+    gl.frame();
+    gl.pushLabel("paint");
+    surf.begin();
+    surf.draw(t1, 0, 0);
+    surf.draw(t1, 20, 0);
+    surf.draw(t2, 40, 0);
+    surf.end();
+    gl.popLabel();
+
+    // drawing two textures takes two draw calls
+    assertEquals(2, gl.count(1, "glDrawElements"));
+    assertTrue(gl.toCallLog().contains("paint glDrawElements"));
+  }
+}
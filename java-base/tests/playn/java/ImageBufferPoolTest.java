@@ -0,0 +1,145 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.Scale;
+import playn.core.Texture;
+import playn.core.TextureUploader;
+
+public class ImageBufferPoolTest {
+
+  @Test public void testReusesBuckets () {
+    ImageBufferPool pool = new ImageBufferPool(2);
+    ByteBuffer b1 = pool.acquire(100);
+    assertTrue(b1.isDirect());
+    assertEquals(ByteOrder.nativeOrder(), b1.order());
+    assertEquals(100, b1.limit());
+    assertEquals(ImageBufferPool.MIN_CAPACITY, b1.capacity());
+    pool.release(b1);
+
+    // a request in the same bucket reuses the released buffer, with a fresh limit
+    ByteBuffer b2 = pool.acquire(200);
+    assertSame(b1, b2);
+    assertEquals(200, b2.limit());
+    // a larger request gets a buffer from the next power of two bucket
+    ByteBuffer b3 = pool.acquire(ImageBufferPool.MIN_CAPACITY + 1);
+    assertEquals(2*ImageBufferPool.MIN_CAPACITY, b3.capacity());
+    assertEquals(2, pool.allocations());
+  }
+
+  @Test public void testLimitsRetained () {
+    ImageBufferPool pool = new ImageBufferPool(1);
+    ByteBuffer b1 = pool.acquire(100), b2 = pool.acquire(100);
+    pool.release(b1);
+    pool.release(b2);
+    assertEquals(ImageBufferPool.MIN_CAPACITY, pool.retainedBytes());
+    pool.clear();
+    assertEquals(0, pool.retainedBytes());
+  }
+
+  @Test public void testWritePremultiplied () {
+    int[] argb = { 0xFFFF8000, 0x80FF8000, 0x00FFFFFF, 0x40404040 };
+    int[] expect = { 0xFFFF8000, 0x80804000, 0x00000000, 0x40101010 };
+    int[] types = { BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE,
+                    BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_4BYTE_ABGR_PRE };
+    for (int type : types) {
+      BufferedImage img = new BufferedImage(2, 2, type);
+      img.setRGB(0, 0, 2, 2, argb, 0, 2);
+      assertPixels("type " + type, expect, img, 1);
+    }
+  }
+
+  @Test public void testWriteConverted () {
+    // convertImage premultiplies 4BYTE_ABGR images in place (as JavaAssets does on load), which
+    // must not cause them to be premultiplied a second time on upload
+    int[] argb = { 0xFFFF8000, 0x80FF8000, 0x00FFFFFF, 0x40404040 };
+    int[] expect = { 0xFFFF8000, 0x80804000, 0x00000000, 0x40101010 };
+    for (int type : new int[] { BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_ARGB }) {
+      BufferedImage img = new BufferedImage(2, 2, type);
+      img.setRGB(0, 0, 2, 2, argb, 0, 2);
+      assertPixels("converted " + type, expect, JavaGraphics.convertImage(img), 1);
+    }
+    // an image coerced to premultiplied without conversion keeps its type but not its semantics
+    BufferedImage img = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+    img.setRGB(0, 0, 2, 2, argb, 0, 2);
+    img.coerceData(true);
+    assertEquals(BufferedImage.TYPE_INT_ARGB, img.getType());
+    assertPixels("coerced", expect, img, 1);
+  }
+
+  @Test public void testWriteOpaque () {
+    int[] rgb = { 0xFF102030, 0xFF405060 };
+    for (int type : new int[] { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR,
+                                BufferedImage.TYPE_INT_BGR }) {
+      BufferedImage img = new BufferedImage(2, 1, type);
+      img.setRGB(0, 0, 2, 1, rgb, 0, 2);
+      // INT_BGR is not handled directly, so exercises the convertImage fallback
+      assertPixels("type " + type, rgb, img, 0);
+    }
+  }
+
+  @Test public void testWriteSubimage () {
+    BufferedImage img = new BufferedImage(4, 4, BufferedImage.TYPE_3BYTE_BGR);
+    for (int y = 0; y < 4; y++) {
+      for (int x = 0; x < 4; x++) img.setRGB(x, y, 0xFF000000 | (x << 8) | y);
+    }
+    assertPixels("subimage", new int[] { 0xFF000201, 0xFF000301, 0xFF000202, 0xFF000302 },
+                 img.getSubimage(2, 1, 2, 2), 0);
+  }
+
+  @Test public void testPrepareUploadDoesNotModifyImage () {
+    JavaGraphics gfx = new JavaPlatform.Headless(
+      new JavaPlatform.Config(), new NullGL20()).graphics();
+    BufferedImage img = new BufferedImage(2, 1, BufferedImage.TYPE_4BYTE_ABGR);
+    img.setRGB(0, 0, 2, 1, new int[] { 0x80FF8000, 0xFF102030 }, 0, 2);
+    int allocs = gfx.bufferPool.allocations();
+
+    TextureUploader.Data data = gfx.prepareUpload(img, Texture.Config.DEFAULT);
+    // the upload data is premultiplied, but the (possibly shared) image is left as is
+    assertFalse(img.isAlphaPremultiplied());
+    assertEquals(0x80FF8000, img.getRGB(0, 0));
+    assertEquals(0x80, data.data.get(0) & 0xFF);
+    assertEquals(0x40, data.data.get(1) & 0xFF);
+    assertEquals(0x80, data.data.get(3) & 0xFF);
+
+    // the staging buffer comes from the pool and is returned to it once released
+    assertEquals(allocs + 1, gfx.bufferPool.allocations());
+    long retained = gfx.bufferPool.retainedBytes();
+    data.upload(gfx.gl, new Texture(gfx, 1, Texture.Config.UNMANAGED, 2, 1, Scale.ONE, 2, 1));
+    assertEquals(retained, gfx.bufferPool.retainedBytes());
+    data.release();
+    assertEquals(retained + data.data.capacity(), gfx.bufferPool.retainedBytes());
+  }
+
+  private void assertPixels (String msg, int[] expect, BufferedImage img, int slop) {
+    IntBuffer out = IntBuffer.allocate(expect.length);
+    JavaGraphics.writePremultiplied(img, out);
+    assertEquals(msg, expect.length, out.position());
+    for (int ii = 0; ii < expect.length; ii++) {
+      for (int shift = 0; shift < 32; shift += 8) {
+        int want = (expect[ii] >>> shift) & 0xFF, got = (out.get(ii) >>> shift) & 0xFF;
+        assertTrue(msg + " pixel " + ii + ": " + Integer.toHexString(out.get(ii)),
+                   Math.abs(want - got) <= slop);
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import pythagoras.i.IRectangle;
+import pythagoras.i.Rectangle;
+
+import playn.core.Canvas;
+
+/**
+ * Tests the dirty region tracking of JavaCanvas.
+ */
+public class JavaCanvasTest extends AbstractPlayNTest {
+
+  @Test public void testInitiallyAllDirty () {
+    Canvas canvas = plat.graphics().createCanvas(100, 50);
+    assertEquals(new Rectangle(0, 0, 100, 50), canvas.dirtyRegion());
+    canvas.clearDirty();
+    assertTrue(canvas.dirtyRegion().isEmpty());
+  }
+
+  @Test public void testTracksFills () {
+    Canvas canvas = plat.graphics().createCanvas(100, 50);
+    canvas.clearDirty();
+    canvas.fillRect(10, 10, 5, 5);
+    // fills are padded by a pixel for antialiasing
+    assertEquals(new Rectangle(9, 9, 7, 7), canvas.dirtyRegion());
+    canvas.fillRect(30, 20, 5, 5);
+    assertEquals(new Rectangle(9, 9, 27, 17), canvas.dirtyRegion());
+  }
+
+  @Test public void testAppliesTransform () {
+    Canvas canvas = plat.graphics().createCanvas(100, 50);
+    canvas.clearDirty();
+    canvas.translate(20, 10).scale(2, 2).fillRect(0, 0, 5, 5);
+    assertEquals(new Rectangle(19, 9, 12, 12), canvas.dirtyRegion());
+  }
+
+  @Test public void testPadsStrokesAndClamps () {
+    Canvas canvas = plat.graphics().createCanvas(100, 50);
+    canvas.clearDirty();
+    canvas.setStrokeWidth(4).strokeRect(10, 10, 10, 10);
+    assertEquals(new Rectangle(7, 7, 16, 16), canvas.dirtyRegion());
+    canvas.fillRect(90, 40, 20, 20);
+    IRectangle dirty = canvas.dirtyRegion();
+    assertEquals(100, dirty.x() + dirty.width());
+    assertEquals(50, dirty.y() + dirty.height());
+  }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import pythagoras.f.AffineTransform;
+import react.RFuture;
+
+import playn.core.*;
+
+public class SDFFontTest {
+
+  // records the smoothing uniform in effect for each draw call, and the format of uploads
+  static class SmoothingGL20 extends NullGL20 {
+    public final List<Float> draws = new ArrayList<>();
+    public final List<Integer> uploads = new ArrayList<>();
+    private float uniform;
+    @Override public void glTexImage2D (int target, int level, int ifmt, int width, int height,
+                                       int border, int format, int type, Buffer pixels) {
+      uploads.add(format);
+    }
+    @Override public void glUniform1f (int location, float x) { uniform = x; }
+    @Override public void glDrawElements (int mode, int count, int type, int offset) {
+      draws.add(uniform);
+    }
+  }
+
+  @Test public void testDeferredSmoothing () {
+    SmoothingGL20 gl = new SmoothingGL20();
+    JavaPlatform plat = new JavaPlatform.Headless(new JavaPlatform.Config(), gl);
+    JavaGraphics gfx = plat.graphics();
+    SDFBatch batch = new SDFBatch(gfx.gl);
+    TextFormat format = new TextFormat(new Font("Helvetica", 24));
+    SDFFont font = await(plat, SDFFont.create(gfx, batch, format, "AB", 4));
+    // the distance field is stored with one byte per texel
+    assertEquals(1, gl.uploads.size());
+    assertEquals(GL20.GL_ALPHA, gl.uploads.get(0).intValue());
+    assertEquals(font.texture.pixelWidth*font.texture.pixelHeight, font.texture.bytes());
+
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gfx.gl));
+    surf.setDeferred(true);
+    surf.begin();
+    surf.drawText(font, 12, "A", 0, 0);
+    surf.drawText(font, 48, "B", 0, 100);
+    surf.end();
+
+    // each string is drawn with its own smoothing, even though the draws were deferred
+    assertEquals(2, gl.draws.size());
+    AffineTransform ident = new AffineTransform();
+    assertEquals(font.smoothing(12, ident), gl.draws.get(0), 0);
+    assertEquals(font.smoothing(48, ident), gl.draws.get(1), 0);
+  }
+
+  static <T> T await (Platform plat, RFuture<T> future) {
+    for (int ii = 0; ii < 500 && future.result() == null; ii++) {
+      plat.frame.emit(plat);
+      try { Thread.sleep(10); } catch (InterruptedException ie) {}
+    }
+    assertNotNull("Timed out waiting for " + future, future.result());
+    return future.result().get();
+  }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.Font;
+import playn.core.TextFormat;
+import playn.core.TextWrap;
+
+public class TextLayoutCacheTest {
+
+  private final TextFormat format = new TextFormat(new Font("Helvetica", 12));
+
+  @Test public void testHitsAndMisses () {
+    TextLayoutCache cache = new TextLayoutCache(4);
+    assertNull(cache.get("hello", format, null));
+    cache.put("hello", format, null, "layout");
+    assertEquals("layout", cache.get("hello", format, null));
+    // wrapped and unwrapped layouts of the same text are distinct
+    assertNull(cache.get("hello", format, new TextWrap(100)));
+    cache.put("hello", format, new TextWrap(100), "wrapped");
+    assertEquals("wrapped", cache.get("hello", format, new TextWrap(100)));
+    assertNull(cache.get("hello", format.withAntialias(false), null));
+    assertEquals(2, cache.hits());
+    assertEquals(3, cache.misses());
+  }
+
+  @Test public void testEvictsLeastRecentlyUsed () {
+    TextLayoutCache cache = new TextLayoutCache(2);
+    cache.put("a", format, null, "A");
+    cache.put("b", format, null, "B");
+    cache.get("a", format, null); // a is now more recently used than b
+    cache.put("c", format, null, "C");
+    assertEquals(2, cache.size());
+    assertEquals("A", cache.get("a", format, null));
+    assertNull(cache.get("b", format, null));
+
+    cache.setMaxSize(1);
+    assertEquals(1, cache.size());
+    assertEquals("A", cache.get("a", format, null));
+  }
+
+  @Test public void testDisabled () {
+    TextLayoutCache cache = new TextLayoutCache(0);
+    cache.put("a", format, null, "A");
+    assertNull(cache.get("a", format, null));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.misses());
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2010-2015 The PlayN Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package playn.java;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import playn.core.Texture;
+
+public class TexturePackingTest {
+
+  @Test public void testPackRGB565 () {
+    ByteBuffer out = pack(Texture.Format.RGB565, false, 0xFFFFFFFF, 0xFF808080, 0xFFFF0000);
+    assertEquals(6, out.remaining());
+    assertEquals((short)0xFFFF, out.getShort());
+    assertEquals((short)0x8410, out.getShort());
+    assertEquals((short)0xF800, out.getShort());
+  }
+
+  @Test public void testPackRGBA4444 () {
+    ByteBuffer out = pack(Texture.Format.RGBA4444, false, 0xFFFFFFFF, 0x80808080, 0x00000000);
+    assertEquals((short)0xFFFF, out.getShort());
+    assertEquals((short)0x8888, out.getShort());
+    assertEquals((short)0x0000, out.getShort());
+  }
+
+  @Test public void testPackAlpha8 () {
+    ByteBuffer out = pack(Texture.Format.ALPHA8, true, 0xFF123456, 0x80000000, 0x00FFFFFF);
+    assertEquals(3, out.remaining());
+    assertEquals((byte)0xFF, out.get());
+    assertEquals((byte)0x80, out.get());
+    assertEquals((byte)0x00, out.get());
+  }
+
+  @Test public void testDitherPreservesAverage () {
+    int[] pixels = new int[16];
+    Arrays.fill(pixels, 0xFF646464); // 100 in each channel
+    ByteBuffer out = ByteBuffer.allocate(32).order(ByteOrder.nativeOrder());
+    JavaGraphics.pack(pixels, 4, 0, 0, 4, 4, Texture.Format.RGBA4444, true, out);
+    float sum = 0;
+    while (out.hasRemaining()) sum += (out.getShort() >> 12) & 0xF;
+    // rounding would yield 6 everywhere; dithering should average close to the exact 5.88
+    assertEquals(100*15/255f, sum/16, 1/16f);
+  }
+
+  @Test public void testDitherKeepsPremultipliedColors () {
+    int[] pixels = new int[16];
+    Arrays.fill(pixels, 0x17171717); // equal alpha and colors, rounded independently
+    ByteBuffer out = ByteBuffer.allocate(32).order(ByteOrder.nativeOrder());
+    JavaGraphics.pack(pixels, 4, 0, 0, 4, 4, Texture.Format.RGBA4444, true, out);
+    while (out.hasRemaining()) {
+      int pixel = out.getShort(), alpha = pixel & 0xF;
+      assertTrue(((pixel >> 12) & 0xF) <= alpha);
+    }
+  }
+
+  @Test public void testPackRegion () {
+    int[] pixels = new int[4*3];
+    for (int ii = 0; ii < pixels.length; ii++) pixels[ii] = 0x01000000 * ii;
+    ByteBuffer out = ByteBuffer.allocate(4);
+    // the 2x2 region at (1, 1) of a 4x3 image
+    JavaGraphics.pack(pixels, 4, 1, 1, 2, 2, Texture.Format.ALPHA8, false, out);
+    assertEquals(4, out.remaining());
+    assertEquals(5, out.get());
+    assertEquals(6, out.get());
+    assertEquals(9, out.get());
+    assertEquals(10, out.get());
+  }
+
+  private static ByteBuffer pack (Texture.Format format, boolean dither, int... pixels) {
+    ByteBuffer out = ByteBuffer.allocate(pixels.length*4).order(ByteOrder.nativeOrder());
+    JavaGraphics.pack(pixels, pixels.length, 0, 0, pixels.length, 1, format, dither, out);
+    return out;
+  }
+}
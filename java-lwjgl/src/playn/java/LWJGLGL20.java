@@ -1127,6 +1127,11 @@ final class LWJGLGL20 extends playn.core.GL20 {
     GL41.glProgramBinary(program, binaryFormat, (ByteBuffer) binary);
   }
 
+  @Override
+  public void glProgramParameteri(int program, int pname, int value) {
+    GL41.glProgramParameteri(program, pname, value);
+  }
+
   @Override
   public void glReadPixels(int x, int y, int width, int height, int format, int type,
                            int pixelsBufferOffset) {
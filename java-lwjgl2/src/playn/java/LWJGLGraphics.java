@@ -14,9 +14,6 @@
 package playn.java;
 
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBuffer;
-import java.awt.image.DataBufferByte;
-import java.awt.image.DataBufferInt;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 
@@ -67,41 +64,23 @@ public class LWJGLGraphics extends JavaGraphics {
   }
 
   @Override protected void upload (BufferedImage img, Texture tex) {
-    // Convert the bitmap into a format for quick uploading (NOOPs if already optimized)
-    BufferedImage bitmap = convertImage(img);
-
-    DataBuffer dbuf = bitmap.getRaster().getDataBuffer();
-    ByteBuffer bbuf;
-    int format, type;
-
-    if (bitmap.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
-      DataBufferInt ibuf = (DataBufferInt)dbuf;
-      int iSize = ibuf.getSize()*4;
-      bbuf = checkGetImageBuffer(iSize);
-      bbuf.asIntBuffer().put(ibuf.getData());
-      bbuf.position(bbuf.position()+iSize);
-      bbuf.flip();
-      format = GL12.GL_BGRA;
-      type = GL12.GL_UNSIGNED_INT_8_8_8_8_REV;
-
-    } else if (bitmap.getType() == BufferedImage.TYPE_4BYTE_ABGR) {
-      DataBufferByte dbbuf = (DataBufferByte)dbuf;
-      bbuf = checkGetImageBuffer(dbbuf.getSize());
-      bbuf.put(dbbuf.getData());
-      bbuf.flip();
-      format = GL11.GL_RGBA;
-      type = GL12.GL_UNSIGNED_INT_8_8_8_8;
-
-    } else {
-      // Something went awry and convertImage thought this image was in a good form already,
-      // except we don't know how to deal with it
-      throw new RuntimeException("Image type wasn't converted to usable: " + bitmap.getType());
+    if (tex.config.format != Texture.Format.RGBA8888) {
+      uploadPacked(img, tex);
+      return;
     }
 
-    gl.glBindTexture(GL11.GL_TEXTURE_2D, tex.id);
-    GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, bitmap.getWidth(), bitmap.getHeight(),
-                      0, format, type, bbuf);
-    gl.checkError("updateTexture");
+    // convert the image straight into a pooled direct buffer, premultiplying as we go
+    int width = img.getWidth(), height = img.getHeight();
+    ByteBuffer bbuf = bufferPool.acquire(width*height*4);
+    try {
+      writePremultiplied(img, bbuf.asIntBuffer());
+      gl.glBindTexture(GL11.GL_TEXTURE_2D, tex.id);
+      GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
+                        GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV, bbuf);
+      gl.checkError("updateTexture");
+    } finally {
+      bufferPool.release(bbuf);
+    }
   }
 
   protected void setDisplayMode(int width, int height, boolean fullscreen) {
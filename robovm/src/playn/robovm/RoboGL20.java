@@ -397,6 +397,9 @@ public class RoboGL20 extends GL20 {
   @Override public void glProgramBinary(int arg0, int arg1, Buffer arg2, int arg3) {
     throw new RuntimeException("Not implemented");
   }
+  @Override public void glProgramParameteri(int program, int pname, int value) {
+    throw new RuntimeException("Not implemented");
+  }
   @Override public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
     OpenGLES.glReadPixels(x, y, width, height, format, type, pixels);
   }
@@ -14,6 +14,7 @@
 package playn.scene;
 
 import pythagoras.f.IDimension;
+import pythagoras.i.IRectangle;
 
 import react.RFuture;
 
@@ -71,6 +72,7 @@ public class CanvasLayer extends ImageLayer {
   public void resize (float width, float height) {
     if (canvas != null) canvas.close();
     canvas = gfx.createCanvas(width, height);
+    checkOrigin();
   }
 
   /** Starts a drawing operation on this layer's backing canvas. Thus must be follwed by a call to
@@ -80,16 +82,25 @@ public class CanvasLayer extends ImageLayer {
   }
 
   /** Informs this layer that a drawing operation has just completed. The backing canvas image data
-    * is uploaded to the GPU. */
+    * is uploaded to the GPU. If the canvas tracks the region which was modified (see {@link
+    * Canvas#dirtyRegion}), only that region is uploaded. */
   public void end () {
     Texture tex = (Texture)tile();
     Image image = canvas.image;
     // if our texture is already the right size, just update it
     if (tex != null && tex.pixelWidth == image.pixelWidth() &&
-        tex.pixelHeight == image.pixelHeight()) tex.update(image);
+        tex.pixelHeight == image.pixelHeight()) {
+      IRectangle dirty = canvas.dirtyRegion();
+      if (dirty == null) tex.update(image);
+      else if (!dirty.isEmpty()) {
+        tex.update(image, dirty.x(), dirty.y(), dirty.width(), dirty.height());
+      }
+      invalidateCache();
+    }
     // otherwise we need to create a new texture (setTexture will unreference the old texture which
     // will cause it to be destroyed)
     else super.setTile(canvas.image.createTexture(Texture.Config.DEFAULT));
+    canvas.clearDirty();
   }
 
   @Override public ImageLayer setTile (Tile tile) {
@@ -20,11 +20,19 @@ import java.util.Iterator;
 import java.util.List;
 
 import pythagoras.f.AffineTransform;
+import pythagoras.f.IRectangle;
 import pythagoras.f.MathUtil;
 import pythagoras.f.Point;
+import pythagoras.f.Rectangle;
 import pythagoras.util.NoninvertibleTransformException;
 
+import playn.core.BakedBatch;
+import playn.core.BakedGeometry;
+import playn.core.Graphics;
+import playn.core.QuadBatch;
 import playn.core.Surface;
+import playn.core.Texture;
+import playn.core.TextureSurface;
 
 /**
  * GroupLayer creates a Layer hierarchy by maintaining an ordered group of child Layers.
@@ -34,6 +42,11 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
   private final List<Layer> children = new ArrayList<>();
   private final AffineTransform paintTx = new AffineTransform();
   private final boolean disableClip;
+  private boolean culling;
+  private int culled, totalCulled;
+  private TextureCache cache; // null unless we're cached as a texture
+  private Bake bake; // null unless we're baked
+
 
   /** Creates an unclipped group layer. Unclipped groups have no defined size. */
   public GroupLayer () {
@@ -47,6 +60,118 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
     disableClip = false;
   }
 
+  /**
+   * Configures this group to skip painting children whose {@link #bounds} lie entirely outside
+   * the render target. Each child's bounds are cached and only recomputed when the child (or one of
+   * its descendants) changes, so culling a large, mostly off-screen scene graph is cheap. Children
+   * whose bounds are not known are always painted. See {@link Layer#computeBounds}.
+   *
+   * @return a reference to this layer for call chaining.
+   */
+  public GroupLayer setCulling (boolean culling) {
+    this.culling = culling;
+    return this;
+  }
+
+  /** Returns whether this group culls off-screen children. See {@link #setCulling}. */
+  public boolean culling () { return culling; }
+
+  /** Returns the number of children (each with their descendants) which were skipped during the
+    * most recent paint of this group because they were off-screen. See {@link #setCulling}. */
+  public int culled () { return culled; }
+
+  /** Returns the number of layers which were skipped during the most recent paint of this group
+    * because they were off-screen, by this group and by all of its descendant groups. */
+  public int totalCulled () { return totalCulled; }
+
+  /** Configures this group to cache its children as a texture at full resolution. See {@link
+    * #cacheAsTexture(Graphics,QuadBatch,float)}. */
+  public GroupLayer cacheAsTexture (Graphics gfx, QuadBatch batch) {
+    return cacheAsTexture(gfx, batch, 1);
+  }
+
+  /**
+   * Configures this group to render its children into a texture and to draw that texture in place
+   * of its children until one of them (or one of their descendants) changes, at which point they
+   * are rendered into the texture again. This is useful for complex groups which rarely change, as
+   * it replaces the many quads needed to draw the children with a single quad. See {@link
+   * Layer#invalidateCache} for what constitutes a change.
+   *
+   * <p>The texture covers this group's {@link Layer#computeBounds}. If those bounds are not known,
+   * the children are painted normally.</p>
+   *
+   * @param batch the batch used to render the children into the texture (usually the game's
+   * default batch).
+   * @param scale the resolution of the texture relative to the resolution at which this group is
+   * drawn: 1 renders the children at full resolution, 0.5 renders them at half resolution, using a
+   * quarter of the memory. The resolution at which the group is drawn accounts for the scale of its
+   * full transform (including those of its ancestors), and the children are rendered again if
+   * that scale changes.
+   * @return a reference to this layer for call chaining.
+   */
+  public GroupLayer cacheAsTexture (Graphics gfx, QuadBatch batch, float scale) {
+    if (scale <= 0) throw new IllegalArgumentException("Cache scale must be positive: " + scale);
+    uncache();
+    unbake();
+    cache = new TextureCache(gfx, batch, scale);
+    inCacheChanged();
+    return this;
+  }
+
+  /** Stops caching this group's children as a texture and frees the texture, if any. */
+  public GroupLayer uncache () {
+    if (cache != null) {
+      cache.close();
+      cache = null;
+      inCacheChanged();
+    }
+    return this;
+  }
+
+  /** Returns whether this group caches its children as a texture. */
+  public boolean cachedAsTexture () { return cache != null; }
+
+  /** Returns the number of bytes of texture memory used by this group's cache. The cache texture
+    * is also included in the totals reported by {@link Graphics#textures}. */
+  public long cacheBytes () {
+    return (cache == null || cache.surf == null) ? 0 : cache.surf.texture.bytes();
+  }
+
+  /**
+   * Configures this group to bake the quads drawn by its children into a static GPU vertex buffer
+   * (see {@link BakedGeometry}), and to draw that buffer in place of its children until one of them
+   * (or one of their descendants) changes, at which point they are baked again. Drawing baked
+   * geometry requires one draw call per texture used by the children and no per-quad work on the
+   * CPU. This group's transform and tint are applied when the baked geometry is drawn.
+   *
+   * <p>Unlike {@link #cacheAsTexture}, baking uses no texture memory, so it is preferable for
+   * groups which cover a large area of the screen. However, children which are clipped or which
+   * use a custom batch are baked as if they were not. See {@link BakedGeometry.Baker}.</p>
+   *
+   * @param batch the batch used to draw the baked geometry.
+   * @return a reference to this layer for call chaining.
+   */
+  public GroupLayer bake (Graphics gfx, BakedBatch batch) {
+    unbake();
+    uncache();
+    bake = new Bake(new BakedGeometry.Baker(gfx, batch));
+    inCacheChanged();
+    return this;
+  }
+
+  /** Stops baking this group's children and frees the baked geometry, if any. */
+  public GroupLayer unbake () {
+    if (bake != null) {
+      bake.close();
+      bake = null;
+      inCacheChanged();
+    }
+    return this;
+  }
+
+  /** Returns whether this group bakes its children. See {@link #bake}. */
+  public boolean baked () { return bake != null; }
+
   /** Returns whether this group has any child layers. */
   public boolean isEmpty () { return children.isEmpty(); }
 
@@ -84,6 +209,7 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
     if (parent != null) parent.remove(child);
     children.add(index, child);
     child.setParent(this);
+    childrenChanged();
     if (state.get() == State.ADDED) child.onAdd();
 
     // if this child is active, we need to become active
@@ -177,6 +303,8 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
   @Override public void close() {
     super.close();
     disposeAll();
+    uncache();
+    unbake();
   }
 
   @Override public Layer hitTestDefault(Point point) {
@@ -216,6 +344,27 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
     }
   }
 
+  @Override protected boolean computeBounds (Rectangle into) {
+    // a clipped group paints only within its clip rectangle
+    if (!disableClip) return super.computeBounds(into);
+
+    // otherwise our bounds are the union of those of our visible children; we compute them all
+    // (even if one is unknown) so that their subsequent changes invalidate our bounds
+    boolean known = true, empty = true;
+    for (int ii = 0, ll = children.size(); ii < ll; ii++) {
+      Layer child = children.get(ii);
+      if (!child.visible()) continue;
+      IRectangle cb = child.bounds();
+      if (cb == null) known = false;
+      else if (empty) {
+        into.setBounds(cb);
+        empty = false;
+      } else into.add(cb);
+    }
+    if (empty) into.setBounds(0, 0, 0, 0);
+    return known;
+  }
+
   @Override protected boolean disableClip () {
     return disableClip;
   }
@@ -226,16 +375,53 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
   }
 
   @Override protected void paintClipped (Surface surf) {
+    // a baked group inside a group that is being baked just contributes its children to the bake
+    if (bake != null && !(surf instanceof BakedGeometry.Baker)) paintBaked(surf);
+    else if (cache == null || !paintCached(surf)) paintChildren(surf);
+  }
+
+  protected void paintChildren (Surface surf) {
     // save our current transform and restore it before painting each child
     paintTx.set(surf.tx());
     // iterate manually to avoid creating an Iterator as garbage, this is inner-loop territory
     List<Layer> children = this.children;
     Layer.paintNestLevel += 1;
+    int culled = 0, totalCulled = 0;
     for (int ii = 0, ll = children.size(); ii < ll; ii++) {
       surf.tx().set(paintTx);
-      children.get(ii).paint(surf);
+      Layer child = children.get(ii);
+      if (culling && child.visible()) {
+        IRectangle cb = child.bounds();
+        if (cb != null && !surf.mayIntersect(cb.x(), cb.y(), cb.width(), cb.height())) {
+          culled++;
+          continue;
+        }
+      }
+      if (child instanceof GroupLayer) {
+        // a child group which doesn't paint its children (e.g. because it is invisible or draws
+        // them from its cache) culls nothing this paint, so we clear its count before painting it
+        GroupLayer group = (GroupLayer)child;
+        group.totalCulled = 0;
+        group.paint(surf);
+        totalCulled += group.totalCulled;
+      } else child.paint(surf);
     }
     Layer.paintNestLevel -= 1;
+    this.culled = culled;
+    this.totalCulled = culled + totalCulled;
+  }
+
+  boolean cachesChildren () {
+    return cache != null || bake != null;
+  }
+
+  @Override void inCacheChanged () {
+    for (int ii = 0, ll = children.size(); ii < ll; ii++) children.get(ii).updateInCache();
+  }
+
+  void childChanged () {
+    if (cache != null) cache.dirty = true;
+    if (bake != null) bake.dirty = true;
   }
 
   int depthChanged(Layer child, float oldDepth) {
@@ -274,10 +460,77 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
   // group layer and it discovers that it has no interactive children, it will deactivate itself
   @Override protected boolean deactivateOnNoListeners () { return false; }
 
+  private void childrenChanged () {
+    childChanged();
+    invalidateBounds();
+  }
+
+  // paints our children via our texture cache, returns false if they could not be cached
+  private boolean paintCached (Surface surf) {
+    TextureCache cache = this.cache;
+    Rectangle r = cache.bounds;
+    // our full transform includes the scale of the render target (pixels per display unit), which
+    // our cache texture also applies, so we factor that out to obtain the scale in display units
+    AffineTransform tx = surf.tx();
+    float scale = cache.scale * Math.max(Math.abs(tx.scaleX()), Math.abs(tx.scaleY())) /
+      cache.gfx.scale().factor;
+    if (scale <= 0) return true; // we're scaled to nothing
+    if (scale != cache.renderScale) cache.dirty = true;
+    if (cache.dirty) {
+      if (!computeBounds(r)) return false;
+      if (r.width <= 0 || r.height <= 0) return true; // nothing to paint
+      // mark ourselves clean before painting, so changes made during painting are not lost
+      cache.dirty = false;
+      cache.renderScale = scale;
+      TextureSurface csurf = cache.prepare(r.width*scale, r.height*scale);
+      surf.suspend();
+      csurf.saveTx();
+      try {
+        csurf.begin().clear();
+        csurf.scale(scale, scale).translate(-r.x, -r.y);
+        paintChildren(csurf);
+      } finally {
+        csurf.end();
+        csurf.restoreTx();
+        surf.resume();
+      }
+    }
+    if (r.width > 0 && r.height > 0) surf.draw(cache.surf.texture, r.x, r.y, r.width, r.height,
+                                               0, 0, r.width*scale, r.height*scale);
+    return true;
+  }
+
+  private void paintBaked (Surface surf) {
+    Bake bake = this.bake;
+    if (bake.dirty) {
+      // mark ourselves clean before painting, so changes made during painting are not lost
+      bake.dirty = false;
+      BakedGeometry.Baker baker = bake.baker;
+      baker.saveTx();
+      try {
+        baker.begin();
+        paintChildren(baker);
+      } finally {
+        baker.end();
+        baker.restoreTx();
+      }
+      // uploading our geometry changes GL buffer bindings, so the surface must be suspended
+      surf.suspend();
+      try {
+        if (bake.geom != null) bake.geom.close();
+        bake.geom = baker.bake();
+      } finally {
+        surf.resume();
+      }
+    }
+    surf.draw(bake.geom);
+  }
+
   private void remove(int index) {
     Layer child = children.remove(index);
     child.onRemove();
     child.setParent(null);
+    childrenChanged();
   }
 
   // uses depth to improve upon a full linear search
@@ -307,6 +560,64 @@ public class GroupLayer extends ClippedLayer implements Iterable<Layer> {
     return -1;
   }
 
+  private static class TextureCache {
+    public final Graphics gfx;
+    public final QuadBatch batch;
+    public final float scale;
+    public final Rectangle bounds = new Rectangle();
+    public float renderScale; // the scale at which our texture was last rendered
+    public TextureSurface surf;
+    public boolean dirty = true;
+
+    public TextureCache (Graphics gfx, QuadBatch batch, float scale) {
+      this.gfx = gfx;
+      this.batch = batch;
+      this.scale = scale;
+    }
+
+    // returns a surface large enough for a texture of the given size; we reuse our existing
+    // texture if it's big enough and not excessively so, to avoid churn when our content's size
+    // fluctuates
+    public TextureSurface prepare (float twidth, float theight) {
+      if (surf != null) {
+        Texture tex = surf.texture;
+        float have = tex.displayWidth*tex.displayHeight, need = twidth*theight;
+        if (tex.displayWidth >= twidth && tex.displayHeight >= theight && have <= 2*need) {
+          return surf;
+        }
+        close();
+      }
+      Texture tex = gfx.createTexture(twidth, theight, Texture.Config.UNMANAGED);
+      surf = new TextureSurface(gfx, batch, tex);
+      return surf;
+    }
+
+    public void close () {
+      if (surf != null) {
+        surf.close();
+        surf.texture.close();
+        surf = null;
+      }
+    }
+  }
+
+  private static class Bake {
+    public final BakedGeometry.Baker baker;
+    public BakedGeometry geom;
+    public boolean dirty = true;
+
+    public Bake (BakedGeometry.Baker baker) {
+      this.baker = baker;
+    }
+
+    public void close () {
+      if (geom != null) {
+        geom.close();
+        geom = null;
+      }
+    }
+  }
+
   // who says you never have to write binary search?
   private int findInsertion(float depth) {
     int low = 0, high = children.size()-1;
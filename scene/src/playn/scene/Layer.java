@@ -17,8 +17,10 @@ package playn.scene;
 
 import pythagoras.f.AffineTransform;
 import pythagoras.f.FloatMath;
+import pythagoras.f.IRectangle;
 import pythagoras.f.MathUtil;
 import pythagoras.f.Point;
+import pythagoras.f.Rectangle;
 import pythagoras.f.Vector;
 import pythagoras.f.XY;
 
@@ -136,6 +138,7 @@ public abstract class Layer implements Closeable {
   /** Creates an unclipped layer. The {@link #paint} method must be overridden by the creator. */
   public Layer() {
     setFlag(Flag.VISIBLE, true);
+    setFlag(Flag.BDIRTY, true);
   }
 
   /** Returns the name of this layer. This defaults to the simple name of the class, but can be set
@@ -226,7 +229,12 @@ public abstract class Layer implements Closeable {
    * @return a reference to this layer for call chaining.
    */
   public Layer setVisible(boolean visible) {
-    setFlag(Flag.VISIBLE, visible);
+    if (visible() != visible) {
+      setFlag(Flag.VISIBLE, visible);
+      invalidateCache();
+      // invisible layers are omitted from their parent's bounds
+      if (parent != null) parent.invalidateBounds();
+    }
     return this;
   }
 
@@ -276,6 +284,9 @@ public abstract class Layer implements Closeable {
    * If you intend to manipulate a layer's transform matrix directly, <em>do not</em> call those
    * other methods. Also do not expect {@link #scaleX}, {@link #scaleY}, or {@link #rotation} to
    * reflect the direct changes you've made to the transform matrix. They will not. </p>
+   *
+   * <p>Also, if you modify this matrix directly, you must call {@link #invalidateBounds} so that
+   * this layer's cached {@link #bounds} are recomputed.</p>
    */
   public AffineTransform transform() {
     if (isSet(Flag.XFDIRTY)) {
@@ -316,6 +327,7 @@ public abstract class Layer implements Closeable {
     this.alpha = alpha;
     int ialpha = (int)(0xFF * MathUtil.clamp(alpha, 0, 1));
     this.tint = (ialpha << 24) | (tint & 0xFFFFFF);
+    invalidateCache();
     return this;
   }
 
@@ -341,6 +353,7 @@ public abstract class Layer implements Closeable {
   public Layer setTint(int tint) {
     this.tint = tint;
     this.alpha = ((tint >> 24) & 0xFF) / 255f;
+    invalidateCache();
     return this;
   }
 
@@ -389,6 +402,7 @@ public abstract class Layer implements Closeable {
     this.originY = y;
     this.origin = Origin.FIXED;
     setFlag(Flag.ODIRTY, false);
+    invalidateBounds();
     return this;
   }
 
@@ -401,6 +415,7 @@ public abstract class Layer implements Closeable {
   public Layer setOrigin (Origin origin) {
     this.origin = origin;
     setFlag(Flag.ODIRTY, true);
+    invalidateBounds();
     return this;
   }
 
@@ -419,6 +434,7 @@ public abstract class Layer implements Closeable {
     if (depth != oldDepth) {
       this.depth = depth;
       if (parent != null) parent.depthChanged(this, oldDepth);
+      invalidateCache();
     }
     return this;
   }
@@ -448,6 +464,7 @@ public abstract class Layer implements Closeable {
    */
   public Layer setTx(float x) {
     transform.setTx(x);
+    invalidateBounds();
     return this;
   }
 
@@ -464,6 +481,7 @@ public abstract class Layer implements Closeable {
    */
   public Layer setTy(float y) {
     transform.setTy(y);
+    invalidateBounds();
     return this;
   }
 
@@ -480,6 +498,7 @@ public abstract class Layer implements Closeable {
    */
   public Layer setTranslation(float x, float y) {
     transform.setTranslation(x, y);
+    invalidateBounds();
     return this;
   }
 
@@ -544,6 +563,7 @@ public abstract class Layer implements Closeable {
     if (scaleX != sx) {
       scaleX = sx;
       setFlag(Flag.XFDIRTY, true);
+      invalidateBounds();
     }
     return this;
   }
@@ -565,6 +585,7 @@ public abstract class Layer implements Closeable {
     if (scaleY != sy) {
       scaleY = sy;
       setFlag(Flag.XFDIRTY, true);
+      invalidateBounds();
     }
     return this;
   }
@@ -589,6 +610,7 @@ public abstract class Layer implements Closeable {
       scaleX = sx;
       scaleY = sy;
       setFlag(Flag.XFDIRTY, true);
+      invalidateBounds();
     }
     return this;
   }
@@ -620,6 +642,7 @@ public abstract class Layer implements Closeable {
     if (rotation != angle) {
       rotation = angle;
       setFlag(Flag.XFDIRTY, true);
+      invalidateBounds();
     }
     return this;
   }
@@ -638,6 +661,51 @@ public abstract class Layer implements Closeable {
     * <em>Note:</em> not all layers know their size. Those that don't return 0. */
   public float scaledHeight () { return scaleX() * height(); }
 
+  /**
+   * Returns the bounds of this layer (including its children) in its parent's coordinate system,
+   * or null if they are not known. See {@link #computeBounds}. The bounds are cached, and are only
+   * recomputed after this layer's transform, origin, size or children change.
+   *
+   * <p>A {@link GroupLayer} configured via {@link GroupLayer#setCulling} uses these bounds to skip
+   * painting children which lie entirely outside the render target.</p>
+   */
+  public IRectangle bounds () {
+    if (isSet(Flag.BDIRTY)) {
+      if (bounds == null) bounds = new Rectangle();
+      boundsKnown = computeBounds(bounds);
+      if (boundsKnown) toParent(bounds);
+      setFlag(Flag.BDIRTY, false);
+    }
+    return boundsKnown ? bounds : null;
+  }
+
+  /**
+   * Notes that this layer's appearance has changed, which requires any of its parents that cache
+   * their children as a texture (see {@link GroupLayer#cacheAsTexture}) to re-render them. This is
+   * called automatically when this layer's transform, tint, visibility, depth, size or children
+   * change. It must be called manually if a layer otherwise changes what it renders, for example
+   * if the texture it displays is updated.
+   */
+  public void invalidateCache () {
+    // only ancestors up to the outermost one which caches or bakes its children need to know
+    for (Layer l = this; l.isSet(Flag.INCACHE); l = l.parent) l.parent.childChanged();
+  }
+
+  /**
+   * Notes that this layer's {@link #bounds} have changed, which also invalidates the bounds of its
+   * parents. This is called automatically when this layer's transform is changed via its setters,
+   * when its origin or size changes and when children are added or removed. It must be called
+   * manually if this layer's {@link #transform} is modified directly. This also calls {@link
+   * #invalidateCache}.
+   */
+  public void invalidateBounds () {
+    invalidateCache();
+    // if a layer's bounds are already invalid, so are those of its parents
+    for (Layer l = this; l != null && !l.isSet(Flag.BDIRTY); l = l.parent) {
+      l.setFlag(Flag.BDIRTY, true);
+    }
+  }
+
   /**
    * Tests whether the supplied (layer relative) point "hits" this layer or any of its children. By
    * default a hit is any point that falls in a layer's bounding box. A group layer checks its
@@ -701,6 +769,7 @@ public abstract class Layer implements Closeable {
    */
   public Layer setBatch (QuadBatch batch) {
     this.batch = batch;
+    invalidateCache();
     return this;
   }
 
@@ -758,6 +827,22 @@ public abstract class Layer implements Closeable {
    */
   protected abstract void paintImpl (Surface surf);
 
+  /**
+   * Computes the bounds of everything painted by this layer (and its children) in its own
+   * coordinate system, i.e. the coordinate system in which {@link #paintImpl} renders. By default
+   * a layer which reports a non-zero {@link #width} and {@link #height} is assumed to paint within
+   * {@code (0, 0, width, height)}, and a layer which does not know its size has unknown bounds.
+   * Layers which paint outside their reported size should override this method.
+   *
+   * @return true if the bounds were written into {@code into}, false if they are not known.
+   */
+  protected boolean computeBounds (Rectangle into) {
+    float width = width(), height = height();
+    if (width <= 0 || height <= 0) return false;
+    into.setBounds(0, 0, width, height);
+    return true;
+  }
+
   protected void visit(Visitor visitor, int depth) {
     visitor.visit(this, depth);
   }
@@ -786,14 +871,31 @@ public abstract class Layer implements Closeable {
   void onRemove() {
     setState(State.REMOVED);
   }
-  void setParent(GroupLayer parent) { this.parent = parent; }
+  void setParent(GroupLayer parent) {
+    this.parent = parent;
+    updateInCache();
+  }
+
+  // notes whether any of our ancestors caches or bakes its children, and thus needs to hear about
+  // our changes; this is called when our parent changes, or when an ancestor starts or stops caching
+  void updateInCache () {
+    boolean inCache = parent != null && (parent.cachesChildren() || parent.isSet(Flag.INCACHE));
+    if (inCache != isSet(Flag.INCACHE)) {
+      setFlag(Flag.INCACHE, inCache);
+      inCacheChanged();
+    }
+  }
+
+  void inCacheChanged () {} // overridden by GroupLayer to update its children
 
   /** Enumerates bit flags tracked by this layer. */
   protected static enum Flag {
     VISIBLE(1 << 0),
     INTERACTIVE(1 << 1),
     XFDIRTY(1 << 2),
-    ODIRTY(1 << 3);
+    ODIRTY(1 << 3),
+    BDIRTY(1 << 4),
+    INCACHE(1 << 5);
 
     public final int bitmask;
 
@@ -818,6 +920,7 @@ public abstract class Layer implements Closeable {
 
   protected void checkOrigin () {
     if (origin != Origin.FIXED) setFlag(Flag.ODIRTY, true); // trigger an origin recompute
+    invalidateBounds(); // this is called when our size changes, which changes our bounds
   }
 
   /** Whether or not to deactivate this layer when its last event listener is removed. */
@@ -830,6 +933,18 @@ public abstract class Layer implements Closeable {
     return buf.append("]").toString();
   }
 
+  // transforms bounds in our coordinate system into the bounding box of those bounds in our
+  // parent's coordinate system
+  private void toParent (Rectangle r) {
+    AffineTransform xf = transform();
+    float x = r.x - originX(), y = r.y - originY(), w = r.width, h = r.height;
+    float x0 = xf.m00*x + xf.m10*y + xf.tx, y0 = xf.m01*x + xf.m11*y + xf.ty;
+    float wx = xf.m00*w, wy = xf.m01*w, hx = xf.m10*h, hy = xf.m11*h;
+    float minX = x0 + Math.min(0, wx) + Math.min(0, hx);
+    float minY = y0 + Math.min(0, wy) + Math.min(0, hy);
+    r.setBounds(minX, minY, Math.abs(wx) + Math.abs(hx), Math.abs(wy) + Math.abs(hy));
+  }
+
   protected void toString (StringBuilder buf) {
     buf.append("tx=").append(transform());
     if (hitTester != null) buf.append(", hitTester=").append(hitTester);
@@ -843,6 +958,8 @@ public abstract class Layer implements Closeable {
   private Signal<Object> events; // created lazily
   private HitTester hitTester;
   private QuadBatch batch;
+  private Rectangle bounds; // created lazily
+  private boolean boundsKnown;
 
   // these values are cached in the layer to make the getters return sane values rather than have
   // to extract the values from the affine transform matrix (which is expensive, doesn't preserve
@@ -62,6 +62,14 @@ public abstract class SceneGame extends Game {
     setClearColor(red, green, blue, alpha);
   }
 
+  /**
+   * Returns the number of layers (each with their descendants) which were skipped by culling group
+   * layers during the most recent paint of the scene graph. See {@link GroupLayer#setCulling}.
+   */
+  public int culledLayers () {
+    return rootLayer.totalCulled();
+  }
+
   /**
    * Renders the main scene graph into the OpenGL frame buffer.
    */
@@ -22,8 +22,12 @@ import java.util.List;
 import java.util.Random;
 
 import org.junit.Test;
+import pythagoras.f.FloatMath;
+import pythagoras.f.IRectangle;
 import static org.junit.Assert.*;
 
+import playn.core.*;
+
 /**
  * Tests parts of {@link GroupLayer}.
  */
@@ -110,6 +114,307 @@ public class GroupLayerTest {
     assertEquals(Layer.State.DISPOSED, leaf1.state.get());
   }
 
+  @Test public void testBounds () {
+    GroupLayer group = new GroupLayer();
+    ImageLayer leaf0 = new ImageLayer().setSize(10, 10);
+    ImageLayer leaf1 = new ImageLayer().setSize(20, 10);
+    group.addAt(leaf0, 5, 5);
+    group.addAt(leaf1, 50, 0);
+    assertBounds(group.bounds(), 5, 0, 65, 15);
+
+    // changes to a child's transform, origin and size invalidate the group's bounds
+    leaf1.setTx(100);
+    assertBounds(group.bounds(), 5, 0, 115, 15);
+    leaf1.setOrigin(Layer.Origin.CENTER);
+    assertBounds(group.bounds(), 5, -5, 105, 20);
+    leaf1.setSize(40, 10);
+    assertBounds(group.bounds(), 5, -5, 115, 20);
+    group.setScale(2);
+    assertBounds(group.bounds(), 10, -10, 230, 40);
+    group.setScale(1);
+
+    // bounds of rotated layers are the bounding box of the rotated rectangle
+    leaf0.setRotation(FloatMath.PI/2);
+    assertBounds(leaf0.bounds(), -5, 5, 10, 10);
+
+    // invisible children are ignored, as are removed children
+    leaf0.setVisible(false);
+    assertBounds(group.bounds(), 80, -5, 40, 10);
+    leaf0.setVisible(true);
+    group.remove(leaf0);
+    assertBounds(group.bounds(), 80, -5, 40, 10);
+
+    // a child with unknown bounds makes the group's bounds unknown
+    ImageLayer leaf2 = new ImageLayer();
+    group.add(leaf2);
+    assertNull(group.bounds());
+    leaf2.setSize(5, 5);
+    assertBounds(group.bounds(), 0, -5, 120, 10);
+
+    // a clipped group's bounds are its clip rectangle regardless of its children
+    GroupLayer clipped = new GroupLayer(30, 30);
+    clipped.add(group);
+    assertBounds(clipped.bounds(), 0, 0, 30, 30);
+  }
+
+  @Test public void testBakeReplays () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    RecordingGL20 gl = gfx.recorder();
+    Texture t1 = texture(gfx, 1), t2 = texture(gfx, 2);
+    GroupLayer group = new GroupLayer();
+    ImageLayer leaf0 = new ImageLayer(t1), leaf1 = new ImageLayer(t2), leaf2 = new ImageLayer(t1);
+    group.addAt(leaf0, 0, 0);
+    group.addAt(leaf1, 20, 0);
+    group.addAt(leaf2, 40, 0);
+    group.bake(gfx, new BakedBatch(gl));
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gl));
+
+    // the first paint bakes the children's quads, grouped by texture
+    gl.reset();
+    paint(group, surf);
+    assertEquals(2, gl.count("glDrawElements"));
+    assertTrue(gl.bufferBytes > 0);
+
+    // subsequent paints replay the baked quads without uploading anything
+    for (int ii = 0; ii < 3; ii++) {
+      gl.reset();
+      paint(group, surf);
+      assertEquals(2, gl.count("glDrawElements"));
+      assertEquals(0, gl.bufferBytes);
+    }
+
+    // the baked geometry holds its own references to the textures
+    leaf0.close();
+    leaf2.close();
+    assertFalse(t1.disposed());
+    gl.reset();
+    paint(group, surf);
+    // until the children change and they are baked anew
+    assertEquals(1, gl.count("glDrawElements"));
+    assertTrue(gl.bufferBytes > 0);
+    assertTrue(t1.disposed());
+    // unbaking releases the geometry's references as well
+    group.unbake();
+    assertFalse(t2.disposed());
+    leaf1.close();
+    assertTrue(t2.disposed());
+  }
+
+  @Test public void testCacheInvalidation () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    RecordingGL20 gl = gfx.recorder();
+    QuadBatch batch = new TriangleBatch(gl);
+    GroupLayer group = new GroupLayer().cacheAsTexture(gfx, batch);
+    ImageLayer leaf0 = new ImageLayer(texture(gfx, 1)), leaf1 = new ImageLayer(texture(gfx, 2));
+    group.addAt(leaf0, 0, 0);
+    group.addAt(leaf1, 20, 0);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, batch);
+
+    // the first paint renders the children into the cache, later paints just draw the cache
+    assertEquals(1, cacheRenders(gl, group, surf));
+    assertEquals(0, cacheRenders(gl, group, surf));
+    assertEquals(1, gl.count("glDrawElements"));
+
+    // changes to children (or their descendants) cause the cache to be rendered again
+    leaf1.setTranslation(30, 0);
+    assertEquals(1, cacheRenders(gl, group, surf));
+    assertEquals(0, cacheRenders(gl, group, surf));
+    leaf0.setVisible(false);
+    assertEquals(1, cacheRenders(gl, group, surf));
+    GroupLayer inner = new GroupLayer();
+    group.add(inner);
+    assertEquals(1, cacheRenders(gl, group, surf));
+    inner.add(new ImageLayer(texture(gfx, 3)));
+    assertEquals(1, cacheRenders(gl, group, surf));
+    assertEquals(0, cacheRenders(gl, group, surf));
+
+    // moving the group itself (or an ancestor) does not change what's in the cache
+    group.setTranslation(100, 100);
+    assertEquals(0, cacheRenders(gl, group, surf));
+
+    group.uncache();
+    assertEquals(0, group.cacheBytes());
+    assertEquals(0, cacheRenders(gl, group, surf));
+  }
+
+  @Test public void testCacheInvalidationAfterReparenting () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    RecordingGL20 gl = gfx.recorder();
+    QuadBatch batch = new TriangleBatch(gl);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, batch);
+    // a group which starts caching after its descendants were added hears of their changes
+    GroupLayer root = new GroupLayer(), inner = new GroupLayer();
+    ImageLayer leaf = new ImageLayer(texture(gfx, 1));
+    inner.add(leaf);
+    root.add(inner);
+    root.add(new ImageLayer(texture(gfx, 2)));
+    root.cacheAsTexture(gfx, batch);
+    assertEquals(1, cacheRenders(gl, root, surf));
+    leaf.setTranslation(5, 5);
+    assertEquals(1, cacheRenders(gl, root, surf));
+    assertEquals(0, cacheRenders(gl, root, surf));
+
+    // as does one to which a subtree is moved
+    GroupLayer other = new GroupLayer().cacheAsTexture(gfx, batch);
+    other.add(inner);
+    assertEquals(1, cacheRenders(gl, other, surf));
+    assertEquals(1, cacheRenders(gl, root, surf));
+    leaf.setTranslation(10, 10);
+    assertEquals(1, cacheRenders(gl, other, surf));
+    assertEquals(0, cacheRenders(gl, root, surf));
+
+    // and a group which stops caching is no longer told of changes
+    other.uncache();
+    leaf.setTranslation(15, 15);
+    other.bake(gfx, new BakedBatch(gl));
+    leaf.setTranslation(20, 20);
+    gl.reset();
+    paint(other, surf);
+    assertTrue(gl.bufferBytes > 0);
+    gl.reset();
+    paint(other, surf);
+    assertEquals(0, gl.bufferBytes);
+    leaf.setTranslation(25, 25);
+    gl.reset();
+    paint(other, surf);
+    assertTrue(gl.bufferBytes > 0);
+  }
+
+  @Test public void testCacheResolution () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    RecordingGL20 gl = gfx.recorder();
+    QuadBatch batch = new TriangleBatch(gl);
+    GroupLayer root = new GroupLayer(), group = new GroupLayer().cacheAsTexture(gfx, batch);
+    group.add(new ImageLayer(texture(gfx, 1))); // 16x16
+    root.add(group);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, batch);
+
+    // the cache is rendered at the resolution at which the group is drawn
+    assertEquals(1, cacheRenders(gl, root, surf));
+    assertEquals(16*16*4, group.cacheBytes());
+
+    // scaling an ancestor up renders the cache again, at the higher resolution
+    root.setScale(2);
+    assertEquals(1, cacheRenders(gl, root, surf));
+    assertEquals(32*32*4, group.cacheBytes());
+    assertEquals(0, cacheRenders(gl, root, surf));
+
+    // as does scaling the group itself, and the cache's scale applies on top of that
+    root.setScale(1);
+    group.setScale(3);
+    group.cacheAsTexture(gfx, batch, 0.5f);
+    assertEquals(1, cacheRenders(gl, root, surf));
+    assertEquals(24*24*4, group.cacheBytes());
+    // the cache texture is counted (once) by the texture manager, along with the image texture
+    assertEquals(16*16*4 + 24*24*4, gfx.textures().bytes());
+  }
+
+  @Test public void testCullsOffscreenChildren () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gfx.recorder()));
+    GroupLayer group = new GroupLayer().setCulling(true);
+    Texture tex = texture(gfx, 1); // 16x16
+    // fully offscreen on each side
+    group.addAt(new ImageLayer(tex), 700, 100);
+    group.addAt(new ImageLayer(tex), -20, 100);
+    group.addAt(new ImageLayer(tex), 100, 500);
+    group.addAt(new ImageLayer(tex), 100, -16);
+    // partly onscreen at opposite corners, and fully onscreen
+    group.addAt(new ImageLayer(tex), 630, 470);
+    group.addAt(new ImageLayer(tex), -8, -8);
+    group.addAt(new ImageLayer(tex), 100, 100);
+    paint(group, surf);
+    assertEquals(4, group.culled());
+
+    // a group does not cull unless asked to
+    group.setCulling(false);
+    paint(group, surf);
+    assertEquals(0, group.culled());
+  }
+
+  @Test public void testCullsTransformedLayers () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gfx.recorder()));
+    GroupLayer group = new GroupLayer().setCulling(true);
+    Texture tex = texture(gfx, 1); // 16x16
+    ImageLayer right = new ImageLayer(tex), far = new ImageLayer(tex);
+    group.addAt(right, 650, 100);
+    group.addAt(far, 1000, 100);
+    paint(group, surf);
+    assertEquals(2, group.culled());
+
+    // rotating a child about its origin swings it back onscreen
+    right.setRotation(FloatMath.PI);
+    paint(group, surf);
+    assertEquals(1, group.culled());
+
+    // scaling the group down brings its far child onscreen
+    group.setScale(0.5f);
+    paint(group, surf);
+    assertEquals(0, group.culled());
+
+    // and translating it (via an ancestor) takes them off again
+    GroupLayer root = new GroupLayer();
+    root.addAt(group, 0, 500);
+    paint(root, surf);
+    assertEquals(2, group.culled());
+  }
+
+  @Test public void testTotalCulled () {
+    RecordingGraphics gfx = new RecordingGraphics(new StubPlatform(), 640, 480);
+    Surface surf = new Surface(gfx, gfx.defaultRenderTarget, new TriangleBatch(gfx.recorder()));
+    Texture tex = texture(gfx, 1); // 16x16
+    GroupLayer root = new GroupLayer().setCulling(true);
+    GroupLayer inner = new GroupLayer().setCulling(true);
+    root.addAt(new ImageLayer(tex), 700, 100);
+    root.add(inner);
+    inner.addAt(new ImageLayer(tex), -20, 100);
+    inner.addAt(new ImageLayer(tex), 100, 500);
+    inner.addAt(new ImageLayer(tex), 100, 100);
+    paint(root, surf);
+    assertEquals(1, root.culled());
+    assertEquals(2, inner.totalCulled());
+    assertEquals(3, root.totalCulled());
+
+    // a group which is not painted culls nothing
+    inner.setVisible(false);
+    paint(root, surf);
+    assertEquals(0, inner.totalCulled());
+    assertEquals(1, root.totalCulled());
+  }
+
+  // paints layer to surf and returns the number of times a cache was rendered
+  protected int cacheRenders (RecordingGL20 gl, Layer layer, Surface surf) {
+    gl.reset();
+    paint(layer, surf);
+    // caches are cleared before they are rendered, and nothing else clears
+    return gl.count("glClear");
+  }
+
+  protected Texture texture (Graphics gfx, int id) {
+    return new Texture(gfx, id, Texture.Config.DEFAULT, 16, 16, Scale.ONE, 16, 16);
+  }
+
+  // paints layer to surf as SceneGame paints the scene graph
+  protected void paint (Layer layer, Surface surf) {
+    surf.saveTx();
+    surf.begin();
+    try {
+      layer.paint(surf);
+    } finally {
+      surf.end();
+      surf.restoreTx();
+    }
+  }
+
+  protected void assertBounds (IRectangle bounds, float x, float y, float width, float height) {
+    assertNotNull(bounds);
+    assertEquals(x, bounds.x(), 1e-3f);
+    assertEquals(y, bounds.y(), 1e-3f);
+    assertEquals(width, bounds.width(), 1e-3f);
+    assertEquals(height, bounds.height(), 1e-3f);
+  }
+
   protected List<Layer> createLayers() {
     int[] zs = { 0, 0, 0, 1, 1, 1, 2, 2, 2, 3, 3, 3, 4 };
     Layer[] layers = new Layer[zs.length];